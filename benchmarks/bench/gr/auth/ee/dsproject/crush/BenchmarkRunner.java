@@ -0,0 +1,48 @@
+package bench.gr.auth.ee.dsproject.crush;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * BenchmarkRunner runs the JMH benchmarks of the project with the GC
+ * profiler attached, so every benchmark reports its allocation rate,
+ * i.e. gc.alloc.rate.norm in bytes per operation, next to its throughput.
+ *
+ * Benchmarks live out of the src folder, since they depend on JMH, which
+ * neither the game platform nor the tests need. In order to build them,
+ * jmh-core and jmh-generator-annprocess, along with their dependencies
+ * jopt-simple and commons-math3, should be on the classpath while
+ * compiling benchmarks/ against the compiled src/ and lib/crush.jar:
+ * "javac -cp bin:lib/crush.jar:JMH_JARS -d bench-bin $(find benchmarks -name '*.java')"
+ * "java -cp bench-bin:bin:lib/crush.jar:JMH_JARS bench.gr.auth.ee.dsproject.crush.BenchmarkRunner"
+ *
+ * Arguments are: [regexp of benchmarks to run] [JSON result file].
+ * By default every benchmark of the project runs and results are only
+ * printed.
+ *
+ * Static public methods defined in BenchmarkRunner:
+ * -public static void main(String[] args) throws RunnerException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : "bench\\.gr\\.auth\\.ee\\.dsproject\\.crush\\..*Benchmark.*";
+
+		ChainedOptionsBuilder options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.jvmArgsAppend("-Djava.awt.headless=true");
+
+		if (args.length > 1) options.resultFormat(ResultFormatType.JSON).result(args[1]);
+
+		new Runner(options.build()).run();
+	}
+}
@@ -0,0 +1,177 @@
+package bench.gr.auth.ee.dsproject.crush;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+
+
+/**
+ * BoardFixtures creates the boards every benchmark runs on.
+ *
+ * Boards are generated from a fixed seed, so every run of a benchmark
+ * measures the exact same work. Boards should have at least 33 rows,
+ * the rows MinMaxPlayer searches on. Three kinds of boards are provided:
+ * -SPARSE: Boards as the ones the game platform creates, i.e. of seven
+ *  colors and without any run of three.
+ * -DENSE_CASCADE: Boards of only four colors, without any run of three,
+ *  where most moves are available and lead to long chains of crushes.
+ * -MANY_UNKNOWN: Boards as SPARSE ones, where the two top playable rows
+ *  and every row above them are of unknown color, as the boards a search
+ *  reaches after a few deep crushes.
+ *
+ * Constants defined in BoardFixtures:
+ * -public static final long SEED = 20161217L
+ *
+ * Static public methods defined in BoardFixtures:
+ * -public static Board create(Kind kind, int rows)
+ * -public static PlayerMove firstMove(Board board)
+ * -public static Board afterFirstSwap(Board board)
+ *
+ * Enums defined in BoardFixtures:
+ * -public static enum Kind
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class BoardFixtures {
+
+//==== Public Constants ====
+
+	/**
+	 * The seed every board is generated with.
+	 */
+	public static final long SEED = 20161217L;
+
+
+//==== Private Constants ====
+
+	private static final int COLS = CrushUtilities.NUMBER_OF_COLUMNS;
+	private static final int P_ROWS = CrushUtilities.NUMBER_OF_PLAYABLE_ROWS;
+	private static final int UNKNOWN = -1;
+
+	/**
+	 * Number of playable rows left unknown at the top of MANY_UNKNOWN boards.
+	 */
+	private static final int UNKNOWN_PLAYABLE_ROWS = 2;
+
+
+//==== Enums ====
+
+	public static enum Kind {
+		SPARSE(7, Integer.MAX_VALUE),
+		DENSE_CASCADE(4, Integer.MAX_VALUE),
+		MANY_UNKNOWN(7, P_ROWS - UNKNOWN_PLAYABLE_ROWS);
+
+		private final int colors;
+
+		/**
+		 * Rows at and above this one are of unknown color.
+		 */
+		private final int knownRows;
+
+		private Kind(int colors, int knownRows) {
+			this.colors = colors;
+			this.knownRows = knownRows;
+		}
+	}
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Creates the board of the given kind.
+	 *
+	 * @param kind The kind of the board.
+	 * @param rows The number of rows of the board, as the numOfRows setting
+	 * 			   of boardConfig.properties.
+	 * @return The same board on every call with the same arguments.
+	 */
+	public static Board create(Kind kind, int rows) {
+		Random random = new Random(SEED + kind.ordinal() * 1000 + rows);
+		int[][] colors = new int[COLS][rows];
+
+		// Tiles are filled bottom up and left to right, so every tile
+		// is checked against already filled ones.
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < COLS; x++) {
+				int color;
+
+				do {
+					color = random.nextInt(kind.colors);
+				} while ((y >= 2 && colors[x][y - 1] == color && colors[x][y - 2] == color) ||
+						 (x >= 2 && colors[x - 1][y] == color && colors[x - 2][y] == color));
+
+				colors[x][y] = color;
+			}
+		}
+
+		Board board = new Board(rows);
+		Method setTile = setTileMethod();
+
+		try {
+			for (int y = 0; y < rows; y++) {
+				for (int x = 0; x < COLS; x++) {
+					int color = y >= kind.knownRows ? UNKNOWN : colors[x][y];
+
+					setTile.invoke(board, y * COLS + x, x, y, color, false);
+				}
+			}
+		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return board;
+	}
+
+	/**
+	 * Returns the first available move of the given board.
+	 *
+	 * @param board A board with at least one available move.
+	 * @return The first available move.
+	 */
+	public static PlayerMove firstMove(Board board) {
+		ArrayList<int[]> available = CrushUtilities.getAvailableMoves(board);
+		int[] cords = CrushUtilities.calculateNextMove(available.get(0));
+
+		return new PlayerMove(board.giveTileAt(cords[0], cords[1]), board.giveTileAt(cords[2], cords[3]));
+	}
+
+	/**
+	 * Creates a copy of the given board, after the tiles of its first
+	 * available move have been swapped, so it contains runs to be crushed.
+	 *
+	 * @param board A board with at least one available move.
+	 * @return The board right before its first crush.
+	 */
+	public static Board afterFirstSwap(Board board) {
+		int[] move = CrushUtilities.getAvailableMoves(board).get(0);
+
+		return CrushUtilities.boardAfterFirstMove(board, move);
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Board.setTile() is the only way of filling a new board, and it is
+	 * package private, so it is called through reflection.
+	 */
+	private static Method setTileMethod() {
+		try {
+			Method setTile = Board.class.getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+
+			return setTile;
+
+		} catch (NoSuchMethodException | SecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
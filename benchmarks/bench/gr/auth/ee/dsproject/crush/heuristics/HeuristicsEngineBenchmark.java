@@ -0,0 +1,80 @@
+package bench.gr.auth.ee.dsproject.crush.heuristics;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.gr.auth.ee.dsproject.crush.BoardFixtures;
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.heuristics.CompiledHeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.SliderMathModel;
+import gr.auth.ee.dsproject.crush.player.CandiesRemovedHeuristic;
+import gr.auth.ee.dsproject.crush.player.DistanceFromTopHeuristic;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+
+
+/**
+ * Evaluates a move with the heuristics and weights Node uses, both through
+ * a HeuristicsEngine built for the move and through a shared
+ * CompiledHeuristicsEngine.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeuristicsEngineBenchmark {
+
+	@Param({ "SPARSE", "DENSE_CASCADE", "MANY_UNKNOWN" })
+	BoardFixtures.Kind kind;
+
+	@Param({ "40", "100", "200" })
+	int numOfRows;
+
+	Board board;
+	PlayerMove move;
+	CascadeResult cascade;
+	CompiledHeuristicsEngine compiled;
+
+	@Setup
+	public void setUp() {
+		board = BoardFixtures.create(kind, numOfRows);
+		move = BoardFixtures.firstMove(board);
+		cascade = new CascadeSimulator(board).simulate(CrushUtilities.getAvailableMoves(board).get(0));
+
+		compiled = new CompiledHeuristicsEngine(new SliderMathModel(1.7));
+		compiled.add(new CandiesRemovedHeuristic(), SliderMathModel.VERY_HIGH);
+		compiled.add(new DistanceFromTopHeuristic(), SliderMathModel.VERY_LOW);
+		compiled.compile();
+	}
+
+	@Benchmark
+	public double evaluate() {
+		HeuristicsEngine engine = new HeuristicsEngine(new SliderMathModel(1.7));
+
+		engine.add(new CandiesRemovedHeuristic(move, board), SliderMathModel.VERY_HIGH);
+		engine.add(new DistanceFromTopHeuristic(move, board), SliderMathModel.VERY_LOW);
+
+		return engine.evaluate();
+	}
+
+	@Benchmark
+	public double evaluateCompiled() {
+		return compiled.evaluate(cascade.getPackedMove(), board, cascade);
+	}
+}
@@ -0,0 +1,70 @@
+package bench.gr.auth.ee.dsproject.crush.player;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.gr.auth.ee.dsproject.crush.BoardFixtures;
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.CandiesRemovedHeuristic;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CandiesRemovedHeuristicBenchmark {
+
+	@Param({ "SPARSE", "DENSE_CASCADE", "MANY_UNKNOWN" })
+	BoardFixtures.Kind kind;
+
+	@Param({ "40", "100", "200" })
+	int numOfRows;
+
+	Board board;
+	PlayerMove move;
+	CascadeResult cascade;
+	CandiesRemovedHeuristic heuristic;
+
+	@Setup
+	public void setUp() {
+		board = BoardFixtures.create(kind, numOfRows);
+		move = BoardFixtures.firstMove(board);
+		cascade = new CascadeSimulator(board).simulate(CrushUtilities.getAvailableMoves(board).get(0));
+		heuristic = new CandiesRemovedHeuristic();
+	}
+
+	/**
+	 * Evaluates the move by crushing a copy of the board, as done when
+	 * the outcome of the move is not known.
+	 */
+	@Benchmark
+	public double evaluate() {
+		return new CandiesRemovedHeuristic(move, board).evaluate();
+	}
+
+	/**
+	 * Evaluates the move out of its already simulated cascade, as done on
+	 * the hot path of the search.
+	 */
+	@Benchmark
+	public double evaluateCascade() {
+		return heuristic.evaluate(cascade.getPackedMove(), board, cascade);
+	}
+}
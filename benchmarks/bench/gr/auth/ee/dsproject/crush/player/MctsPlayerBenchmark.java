@@ -0,0 +1,76 @@
+package bench.gr.auth.ee.dsproject.crush.player;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.gr.auth.ee.dsproject.crush.BoardFixtures;
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.MctsPlayer;
+
+
+/**
+ * Measures a full move decision of MctsPlayer. Every call runs a fixed
+ * number of simulations, instead of whatever fits in the waiting time,
+ * so the throughput of simulations can be compared between threads and
+ * boards.
+ *
+ * The tree is built from scratch on every call, so a single player can
+ * be used for all of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MctsPlayerBenchmark {
+
+	@Param({ "SPARSE", "DENSE_CASCADE", "MANY_UNKNOWN" })
+	BoardFixtures.Kind kind;
+
+	@Param({ "1", "4" })
+	int threads;
+
+	@Param({ "2000" })
+	int simulations;
+
+	Board board;
+	ArrayList<int[]> availableMoves;
+	MctsPlayer player;
+
+	@Setup
+	public void setUp() {
+		board = BoardFixtures.create(kind, 100);
+		availableMoves = CrushUtilities.getAvailableMoves(board);
+
+		player = new MctsPlayer(1);
+		player.setSearchThreads(threads);
+		// Long enough for the simulations to always complete.
+		player.setWaitingTime(3600000L);
+		player.setMaxIterations(simulations);
+	}
+
+	@TearDown
+	public void closePlayer() {
+		player.close();
+	}
+
+	@Benchmark
+	public int[] getNextMove() {
+		return player.getNextMove(availableMoves, board);
+	}
+}
@@ -0,0 +1,91 @@
+package bench.gr.auth.ee.dsproject.crush.player;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bench.gr.auth.ee.dsproject.crush.BoardFixtures;
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.MinMaxPlayer;
+import gr.auth.ee.dsproject.crush.search.AlphaBetaStrategy;
+import gr.auth.ee.dsproject.crush.search.PrincipalVariationStrategy;
+
+
+/**
+ * Measures a full move decision. Iterative deepening is turned off, so
+ * every call searches MINIMAX_DEPTH plies, instead of whatever fits in
+ * the waiting time, and searches run on a single thread.
+ *
+ * Every board is searched by both strategies, so they can be compared
+ * head-to-head on the same positions.
+ *
+ * Players keep their transposition table from move to move, so the search
+ * state of the player is cleared before every call. Otherwise, every call
+ * after the first would mostly look up the states stored by the previous
+ * ones. The table is cleared in place, while the player itself is created
+ * once per trial, so that neither its allocation nor the garbage it would
+ * leave behind is counted into the measured calls.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class MinMaxPlayerBenchmark {
+
+	@Param({ "SPARSE", "DENSE_CASCADE", "MANY_UNKNOWN" })
+	BoardFixtures.Kind kind;
+
+	@Param({ "40", "100", "200" })
+	int numOfRows;
+
+	@Param({ "AlphaBeta", "PVS" })
+	String strategy;
+
+	Board board;
+	ArrayList<int[]> availableMoves;
+	MinMaxPlayer player;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		board = BoardFixtures.create(kind, numOfRows);
+		availableMoves = CrushUtilities.getAvailableMoves(board);
+
+		player = new MinMaxPlayer(1);
+		player.setIterativeDeepening(false);
+		player.setSearchThreads(1);
+		player.setChanceSamples(0);
+		player.setSearchStrategy(strategy.equals("PVS") ? new PrincipalVariationStrategy()
+														: new AlphaBetaStrategy());
+	}
+
+	@Setup(Level.Invocation)
+	public void clearPlayer() {
+		player.clearSearchState();
+	}
+
+	@TearDown(Level.Trial)
+	public void closePlayer() {
+		player.close();
+	}
+
+	@Benchmark
+	public int[] getNextMove() {
+		return player.getNextMove(availableMoves, board);
+	}
+}
@@ -0,0 +1,110 @@
+package bench.gr.auth.ee.dsproject.crush.util;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import bench.gr.auth.ee.dsproject.crush.BoardFixtures;
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.Tile;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.util.BoardUtils;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardUtilsBenchmark {
+
+	@Param({ "SPARSE", "DENSE_CASCADE", "MANY_UNKNOWN" })
+	BoardFixtures.Kind kind;
+
+	@Param({ "40", "100", "200" })
+	int numOfRows;
+
+	Board board;
+	Board swapped;
+	Set<Tile> adjacent;
+
+	@Setup
+	public void setUp() {
+		board = BoardFixtures.create(kind, numOfRows);
+		swapped = BoardFixtures.afterFirstSwap(board);
+
+		// Tiles around the swapped ones, as collected by CandiesRemovedHeuristic.
+		PlayerMove move = BoardFixtures.firstMove(board);
+		Tile[] moved = { swapped.giveTileAt(move.getX1(), move.getY1()),
+						 swapped.giveTileAt(move.getX2(), move.getY2()) };
+
+		adjacent = new HashSet<>();
+
+		for (Tile t : moved) {
+			adjacent.addAll(BoardUtils.findAdjacentSameColorTiles(swapped, t, 2));
+			adjacent.add(t);
+		}
+	}
+
+	/**
+	 * Scans the board right after a swap, the way every crush round does.
+	 */
+	@Benchmark
+	public Object findAllNPles() {
+		return BoardUtils.findAllNPles(swapped);
+	}
+
+	/**
+	 * Finds the tiles that crush out of the ones around a swap, the way
+	 * every move is checked when its outcome is not known.
+	 */
+	@Benchmark
+	public Object findTilesThatCrush() {
+		return BoardUtils.findTilesThatCrush(adjacent);
+	}
+
+	/**
+	 * Searches around every playable tile, the way moves are checked for
+	 * the tiles they crush.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(100)
+	public void findAdjacentSameColorTiles(Blackhole blackhole) {
+		for (int y = 0; y < board.getPRows(); y++) {
+			for (int x = 0; x < board.getCols(); x++) {
+				blackhole.consume(BoardUtils.findAdjacentSameColorTiles(board, board.giveTileAt(x, y), 2));
+			}
+		}
+	}
+	
+	/**
+	 * The same search as findAdjacentSameColorTiles(), into a reused buffer.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(100)
+	public void collectAdjacentSameColorTiles(Blackhole blackhole) {
+		Tile[] buffer = new Tile[8];
+		
+		for (int y = 0; y < board.getPRows(); y++) {
+			for (int x = 0; x < board.getCols(); x++) {
+				blackhole.consume(BoardUtils.collectAdjacentSameColorTiles(
+						board, board.giveTileAt(x, y), 2, buffer, 0));
+			}
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package gr.auth.ee.dsproject.crush.heuristics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+
+
+/**
+ * CompiledHeuristicsEngine composes an overall score out of multiple
+ * MoveHeuristic objects, exactly like HeuristicsEngine does for Heuristic
+ * objects, but it is meant to be created once and used for evaluating
+ * a huge number of moves.
+ *
+ * Heuristics are added along with their weights, as defined by the math
+ * model, and then the engine is compiled. Compiling freezes the set of
+ * heuristics and calculates, once and for all, the coefficient every
+ * heuristic is multiplied by, i.e. the weight of its group divided by
+ * the size of its group. Thus, evaluate() is just a weighted sum over
+ * two arrays, without any boxing or map lookups.
+ *
+ * A common use can be considered the following one:
+ * 	CompiledHeuristicsEngine engine = new CompiledHeuristicsEngine(new MyMathModel());
+ *  engine.add(heur1, MyMathModel.High);
+ *  engine.add(heur2, MyMathModel.Low);
+ *  engine.compile();
+ *  double score = engine.evaluate(move, board, cascade);
+ *
+ * After compiled, an engine can be shared between threads, as long as its
+ * heuristics keep no state, as MoveHeuristic requires.
+ *
+ * Public constructors defined in CompiledHeuristicsEngine:
+ * -public CompiledHeuristicsEngine(HeuristicsMathModel model)
+ *
+ * Public methods defined in CompiledHeuristicsEngine:
+ * -public HeuristicsMathModel getModel()
+ * -public boolean isCompiled()
+ * -public double getCoefficient(int index)
+ * -public void add(MoveHeuristic heur, int weight) throws CompiledEngineRuntimeException
+ * -public void compile() throws CompiledEngineRuntimeException
+ * -public double evaluate(int move, Board board, CascadeResult cascade)
+ * 		throws NonCompiledEngineRuntimeException
+ *
+ * Exceptions defined in CompiledHeuristicsEngine:
+ * -public static class CompiledEngineRuntimeException extends RuntimeException
+ * -public static class NonCompiledEngineRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class CompiledHeuristicsEngine {
+
+    // ==== Instance Variables ====
+
+	// The model to be used for calculating weights.
+	private final HeuristicsMathModel model;
+
+	// Heuristics added before compiling, and the weight scale of each one.
+	private ArrayList<MoveHeuristic> addedHeuristics;
+	private ArrayList<Integer> addedWeights;
+
+	// Frozen heuristics and the coefficient of each one, set upon compiling.
+	private MoveHeuristic[] heuristics;
+	private double[] coefficients;
+
+
+    // ==== Public Constructors ====
+
+	public CompiledHeuristicsEngine(HeuristicsMathModel model) {
+		this.model = model;
+
+		addedHeuristics = new ArrayList<MoveHeuristic>();
+		addedWeights = new ArrayList<Integer>();
+	}
+
+
+	// ==== Getter Methods ====
+
+	public HeuristicsMathModel getModel() { return model; }
+
+	public boolean isCompiled() { return heuristics != null; }
+
+	/**
+	 * Returns the coefficient the heuristic at the given index, in order of
+	 * addition, is multiplied by. Only valid after the engine is compiled.
+	 */
+	public double getCoefficient(int index) { return coefficients[index]; }
+
+
+	// ==== Public Methods ====
+
+	/**
+	 * Adds a new MoveHeuristic to the engine whose importance is defined
+	 * by weight parameter.
+	 *
+	 * Appropriate values for weight are defined by HeuristicMathModel.
+	 *
+	 * If engine has already been compiled, a CompiledEngineRuntimeException
+	 * is thrown.
+	 */
+	public void add(MoveHeuristic heur, int weight) throws CompiledEngineRuntimeException {
+		if (isCompiled()) throw new CompiledEngineRuntimeException();
+
+		addedHeuristics.add(heur);
+		addedWeights.add(weight);
+	}
+
+	/**
+	 * Freezes the added heuristics and calculates the coefficient of every
+	 * one of them.
+	 *
+	 * Heuristics of the same weight form a group, whose average is multiplied
+	 * by the weight the model provides for it, the same way HeuristicsEngine
+	 * does. So the coefficient of every heuristic is its group's weight divided
+	 * by the size of its group.
+	 *
+	 * If engine has already been compiled, a CompiledEngineRuntimeException
+	 * is thrown. Weights not defined by the model cause an
+	 * IllegalWeightRuntimeException to be thrown by the model.
+	 */
+	public void compile() throws CompiledEngineRuntimeException {
+		if (isCompiled()) throw new CompiledEngineRuntimeException();
+
+		// Count the heuristics of every group.
+		HashMap<Integer, Integer> groupSizes = new HashMap<Integer, Integer>();
+
+		for (Integer weight : addedWeights) {
+			Integer size = groupSizes.get(weight);
+			groupSizes.put(weight, size == null ? 1 : size + 1);
+		}
+
+		Map<Integer, Double> weights = model.calculateWeights(groupSizes.keySet());
+
+		int count = addedHeuristics.size();
+
+		coefficients = new double[count];
+
+		for (int i = 0; i < count; i++) {
+			Integer weight = addedWeights.get(i);
+			coefficients[i] = weights.get(weight) / groupSizes.get(weight);
+		}
+
+		heuristics = addedHeuristics.toArray(new MoveHeuristic[count]);
+
+		addedHeuristics = null;
+		addedWeights = null;
+	}
+
+	/**
+	 * Evaluates the given move on the given board with every heuristic of
+	 * the engine and composes the overall score, as HeuristicsEngine.evaluate()
+	 * does.
+	 *
+	 * If engine has not been compiled yet, a NonCompiledEngineRuntimeException
+	 * is thrown.
+	 *
+	 * @param move The move to be evaluated, packed by PackedMove.
+	 * @param board The board on which the move is going to be evaluated.
+	 * @param cascade The outcome of the move on board. It may be null.
+	 * @return The overall score.
+	 * @throws NonCompiledEngineRuntimeException
+	 */
+	public double evaluate(int move, Board board, CascadeResult cascade)
+			throws NonCompiledEngineRuntimeException
+	{
+		if (!isCompiled()) throw new NonCompiledEngineRuntimeException();
+
+		double overall = 0;
+
+		for (int i = 0; i < heuristics.length; i++) {
+			overall += coefficients[i] * heuristics[i].evaluate(move, board, cascade);
+		}
+
+		return overall;
+	}
+
+
+	// ==== Exceptions defined in CompiledHeuristicsEngine ====
+
+	/**
+	 * Exception thrown when an already compiled engine is tried to be
+	 * modified or compiled again.
+	 */
+	public static class CompiledEngineRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Exception thrown when an engine is used for evaluation before being
+	 * compiled.
+	 */
+	public static class NonCompiledEngineRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
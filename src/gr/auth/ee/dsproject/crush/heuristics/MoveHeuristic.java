@@ -0,0 +1,39 @@
+package gr.auth.ee.dsproject.crush.heuristics;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+
+
+/**
+ * MoveHeuristic is a heuristic that evaluates any move on any board it
+ * is given, instead of the single move and board a Heuristic object is
+ * created for.
+ * 
+ * Moves are given packed by PackedMove, the form the search handles them
+ * in, so that evaluating a move of the search allocates nothing.
+ * 
+ * Implementations should keep no state between evaluations, so that a
+ * single object can be used by a CompiledHeuristicsEngine for every
+ * evaluation, even by multiple threads at once.
+ * 
+ * Public methods defined in MoveHeuristic:
+ * -public double evaluate(int move, Board board, CascadeResult cascade)
+ * 
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public interface MoveHeuristic {
+	
+	/**
+	 * Evaluates the given move on the given board.
+	 * 
+	 * @param move The move to be evaluated, packed by PackedMove.
+	 * @param board The board on which the move is going to be evaluated.
+	 * @param cascade The outcome of the move on board, as simulated by a
+	 * 				  CascadeSimulator. It may be null, when the move has
+	 * 				  not been simulated.
+	 * @return A value between 0 and the range of the heuristic, according
+	 * 		   to how well the move scored.
+	 */
+	public double evaluate(int move, Board board, CascadeResult cascade);
+}
@@ -0,0 +1,207 @@
+package gr.auth.ee.dsproject.crush.match;
+
+
+/**
+ * GameResult holds the outcome of a single game played by a GameSimulator.
+ *
+ * The two players of a game are referred to as PLAYER_A and PLAYER_B,
+ * in the order they were given to GameSimulator.play(), no matter which
+ * of them moved first.
+ *
+ * Constants defined in GameResult:
+ * -public static final int PLAYER_A = 0
+ * -public static final int PLAYER_B = 1
+ * -public static final int NO_WINNER = -1
+ * -public static final String CSV_HEADER
+ *
+ * Public constructors defined in GameResult:
+ * -public GameResult(long seed, int startingPlayer)
+ *
+ * Public methods defined in GameResult:
+ * -public long getSeed()
+ * -public int getStartingPlayer()
+ * -public int getWinner()
+ * -public boolean isFinished()
+ * -public int getTurns()
+ * -public int getBoardResets()
+ * -public long getElapsedMillis()
+ * -public int getScore(int player)
+ * -public int getTimeouts(int player)
+ * -public int getInvalidMoves(int player)
+ * -public int getExtraTurns(int player)
+ * -public String toCsvRow()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class GameResult {
+
+//==== Public Constants ====
+
+	public static final int PLAYER_A = 0;
+	public static final int PLAYER_B = 1;
+
+	/**
+	 * Winner of a game that was stopped before any player reached the
+	 * score limit.
+	 */
+	public static final int NO_WINNER = -1;
+
+	/**
+	 * Column names of the rows created by toCsvRow().
+	 */
+	public static final String CSV_HEADER =
+			"seed,starting,winner,turns,resets,millis," +
+			"scoreA,scoreB,timeoutsA,timeoutsB,invalidA,invalidB,extraA,extraB";
+
+
+//==== Instance Variables ====
+
+	private final long seed;
+	private final int startingPlayer;
+
+	private int winner;
+	private int turns;
+	private int boardResets;
+	private long elapsedMillis;
+
+	// Indexed by PLAYER_A and PLAYER_B.
+	private final int[] scores;
+	private final int[] timeouts;
+	private final int[] invalidMoves;
+	private final int[] extraTurns;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new GameResult of a game that has not been played yet.
+	 *
+	 * @param seed The seed the game is played with.
+	 * @param startingPlayer PLAYER_A or PLAYER_B, whichever moves first.
+	 */
+	public GameResult(long seed, int startingPlayer) {
+		this.seed = seed;
+		this.startingPlayer = startingPlayer;
+
+		winner = NO_WINNER;
+
+		scores = new int[2];
+		timeouts = new int[2];
+		invalidMoves = new int[2];
+		extraTurns = new int[2];
+	}
+
+
+//==== Public Getters ====
+
+	public long getSeed() { return seed; }
+
+	public int getStartingPlayer() { return startingPlayer; }
+
+	/**
+	 * Get the player that reached the score limit.
+	 *
+	 * @return PLAYER_A, PLAYER_B or NO_WINNER.
+	 */
+	public int getWinner() { return winner; }
+
+	/**
+	 * Checks whether a player reached the score limit.
+	 *
+	 * @return False if the game was stopped on the turn limit.
+	 */
+	public boolean isFinished() { return winner != NO_WINNER; }
+
+	/**
+	 * Get the number of turns played, including extra turns and turns
+	 * lost on a timeout or an invalid move.
+	 *
+	 * @return The number of turns.
+	 */
+	public int getTurns() { return turns; }
+
+	/**
+	 * Get the number of times the board was replaced by a new one,
+	 * because no move was available on it.
+	 *
+	 * @return The number of board resets.
+	 */
+	public int getBoardResets() { return boardResets; }
+
+	public long getElapsedMillis() { return elapsedMillis; }
+
+	/**
+	 * Get the final score of the given player, without the bonus the game
+	 * platform gives to the winner.
+	 *
+	 * @param player PLAYER_A or PLAYER_B.
+	 * @return The score of the player.
+	 */
+	public int getScore(int player) { return scores[player]; }
+
+	/**
+	 * Get the number of turns the given player failed to return a move in
+	 * time, or failed with an exception.
+	 *
+	 * @param player PLAYER_A or PLAYER_B.
+	 * @return The number of timeouts.
+	 */
+	public int getTimeouts(int player) { return timeouts[player]; }
+
+	/**
+	 * Get the number of moves of the given player that were not among the
+	 * available ones.
+	 *
+	 * @param player PLAYER_A or PLAYER_B.
+	 * @return The number of invalid moves.
+	 */
+	public int getInvalidMoves(int player) { return invalidMoves[player]; }
+
+	/**
+	 * Get the number of extra turns the given player was given.
+	 *
+	 * @param player PLAYER_A or PLAYER_B.
+	 * @return The number of extra turns.
+	 */
+	public int getExtraTurns(int player) { return extraTurns[player]; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Creates a row of comma separated values describing the game, with
+	 * the columns of CSV_HEADER.
+	 *
+	 * @return A CSV row, without a line terminator.
+	 */
+	public String toCsvRow() {
+		return seed + "," + startingPlayer + "," + winner + "," + turns + "," +
+			   boardResets + "," + elapsedMillis + "," +
+			   scores[PLAYER_A] + "," + scores[PLAYER_B] + "," +
+			   timeouts[PLAYER_A] + "," + timeouts[PLAYER_B] + "," +
+			   invalidMoves[PLAYER_A] + "," + invalidMoves[PLAYER_B] + "," +
+			   extraTurns[PLAYER_A] + "," + extraTurns[PLAYER_B];
+	}
+
+
+//==== Package-Private Methods ====
+
+	// Used by GameSimulator while playing the game.
+
+	void setWinner(int winner) { this.winner = winner; }
+
+	void setElapsedMillis(long elapsedMillis) { this.elapsedMillis = elapsedMillis; }
+
+	void addTurn() { turns++; }
+
+	void addBoardReset() { boardResets++; }
+
+	void addScore(int player, int score) { scores[player] += score; }
+
+	void addTimeout(int player) { timeouts[player]++; }
+
+	void addInvalidMove(int player) { invalidMoves[player]++; }
+
+	void addExtraTurn(int player) { extraTurns[player]++; }
+}
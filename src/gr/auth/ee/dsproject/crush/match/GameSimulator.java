@@ -0,0 +1,579 @@
+package gr.auth.ee.dsproject.crush.match;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.primitive.BitBoardMatcher;
+import gr.auth.ee.dsproject.crush.primitive.PrimitiveBoard;
+import gr.auth.ee.dsproject.crush.util.BoardConfig;
+
+
+/**
+ * GameSimulator plays a game between two players without the graphical
+ * interface of the game platform.
+ *
+ * Games follow the rules of the game platform:
+ * -The board is filled with random colors, so that no run of three
+ *  exists at start.
+ * -Players move in turns. A player is given a copy of the board along with
+ *  the available moves, and has waitingTime ms to return its move.
+ * -A player that times out has its turn played by a random available move
+ *  with a chance of 50%, otherwise it loses its turn. A move that is not
+ *  among the available ones loses the turn too.
+ * -Every crushing round of a move scores the number of crushed tiles times
+ *  a multiplier, which starts at 1.0 and grows by 0.5 on every chained
+ *  round. A first round of 5 or more tiles gives the player an extra turn.
+ * -Crushed tiles are replaced by tiles of uniformly random color falling
+ *  from the top of the board.
+ * -When no move is available, the board is replaced by a new one.
+ * -The first player to reach the score limit wins.
+ *
+ * Every random choice of a game is drawn from a generator seeded by the
+ * seed of the game, so a game between deterministic players can be
+ * replayed exactly, as long as no player times out.
+ *
+ * Unlike the game platform, a game is stopped after getMaxTurns() turns,
+ * so that two players unable to score cannot play forever. Such a game
+ * has no winner. The bonus the platform gives to the winner is not added
+ * to its score, and CrushUtilities.getOpponentsScore() is not available
+ * to players, since it reads the players of the platform.
+ *
+ * Players are asked for their moves on threads of their own. A player
+ * that times out is interrupted, but one that ignores interruption, such
+ * as the RandomPlayer of the game platform, keeps running and using a
+ * processor until it returns, exactly as it does on the platform. Unlike
+ * the platform, such a player is never asked for a new move while the
+ * abandoned one is still running, since players are not required to
+ * handle overlapping calls. Its turns are treated as timed out until it
+ * returns, and play() waits for it to return before the game is over,
+ * so players can be reused or closed as soon as play() returns.
+ *
+ * Every call to play() uses its own state, so a GameSimulator can play
+ * many games in parallel.
+ *
+ * Constants defined in GameSimulator:
+ * -public static final int DEFAULT_MAX_TURNS = 1000
+ *
+ * Public constructors defined in GameSimulator:
+ * -public GameSimulator(BoardConfig config) throws InvalidRulesRuntimeException
+ * -public GameSimulator(int rows, int scoreLimit, long waitingTime) throws InvalidRulesRuntimeException
+ *
+ * Public methods defined in GameSimulator:
+ * -public int getRows()
+ * -public int getScoreLimit()
+ * -public long getWaitingTime()
+ * -public int getMaxTurns()
+ * -public void setMaxTurns(int maxTurns) throws InvalidRulesRuntimeException
+ * -public GameResult play(AbstractPlayer playerA, AbstractPlayer playerB, int startingPlayer, long seed)
+ *		throws BoardAccessRuntimeException
+ *
+ * Exceptions defined in GameSimulator:
+ * -public static class InvalidRulesRuntimeException extends RuntimeException
+ * -public static class BoardAccessRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class GameSimulator {
+
+//==== Public Constants ====
+
+	/**
+	 * Default number of turns after which a game is stopped. It is the
+	 * same as the step limit of the game platform.
+	 */
+	public static final int DEFAULT_MAX_TURNS = CrushUtilities.STEP_LIMIT;
+
+
+//==== Private Constants ====
+
+	private static final int COLS = CrushUtilities.NUMBER_OF_COLUMNS;
+	private static final int P_ROWS = CrushUtilities.NUMBER_OF_PLAYABLE_ROWS;
+	private static final int NUMBER_OF_COLORS = BitBoardMatcher.NUMBER_OF_COLORS;
+	private static final int UNKNOWN = PrimitiveBoard.UNKNOWN;
+
+	/**
+	 * Least number of tiles the first round of a move has to crush for
+	 * giving an extra turn.
+	 */
+	private static final int EXTRA_TURN_CRUSH = 5;
+
+	/**
+	 * Growth of the score multiplier on every chained round.
+	 */
+	private static final double MULTIPLIER_STEP = 0.5;
+
+	/**
+	 * Board.setTile() is the only way of filling a new board, and it is
+	 * package private, so it is called through reflection.
+	 */
+	private static final Method SET_TILE = findSetTile();
+
+
+//==== Instance Variables ====
+
+	private final int rows;
+	private final int scoreLimit;
+	private final long waitingTime;
+
+	private int maxTurns;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new GameSimulator that uses the rules defined in the given
+	 * configuration.
+	 *
+	 * @param config The configuration to read numOfRows, scoreLimit and
+	 * 				 waitingTime from.
+	 * @throws InvalidRulesRuntimeException
+	 */
+	public GameSimulator(BoardConfig config) throws InvalidRulesRuntimeException {
+		this(config.getNumOfRows(), config.getScoreLimit(), config.getWaitingTime());
+	}
+
+	/**
+	 * Create a new GameSimulator that uses the given rules.
+	 *
+	 * @param rows The number of rows of the board, including the hidden
+	 * 			   ones. It should be at least the number of playable rows.
+	 * @param scoreLimit The score a player needs to reach in order to win.
+	 * 					 It should be positive.
+	 * @param waitingTime Time in ms a player has for deciding its move.
+	 * 					  A non positive value lets players take as long
+	 * 					  as they need.
+	 * @throws InvalidRulesRuntimeException
+	 */
+	public GameSimulator(int rows, int scoreLimit, long waitingTime)
+			throws InvalidRulesRuntimeException
+	{
+		if (rows < P_ROWS || scoreLimit <= 0) throw new InvalidRulesRuntimeException();
+
+		this.rows = rows;
+		this.scoreLimit = scoreLimit;
+		this.waitingTime = waitingTime;
+
+		maxTurns = DEFAULT_MAX_TURNS;
+	}
+
+
+//==== Public Getters ====
+
+	public int getRows() { return rows; }
+
+	public int getScoreLimit() { return scoreLimit; }
+
+	public long getWaitingTime() { return waitingTime; }
+
+	/**
+	 * Get the number of turns after which a game without a winner is
+	 * stopped.
+	 *
+	 * @return The turn limit.
+	 */
+	public int getMaxTurns() { return maxTurns; }
+
+
+//==== Public Setters ====
+
+	/**
+	 * Set the number of turns after which a game without a winner is
+	 * stopped.
+	 *
+	 * @param maxTurns The turn limit. It should be positive.
+	 * @throws InvalidRulesRuntimeException
+	 */
+	public void setMaxTurns(int maxTurns) throws InvalidRulesRuntimeException {
+		if (maxTurns <= 0) throw new InvalidRulesRuntimeException();
+
+		this.maxTurns = maxTurns;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Plays a game between the given players.
+	 *
+	 * The score of each player is updated through setScore() after every
+	 * move of it, the same way the game platform does.
+	 *
+	 * @param playerA The first player, referred to as PLAYER_A.
+	 * @param playerB The second player, referred to as PLAYER_B.
+	 * @param startingPlayer GameResult.PLAYER_A or GameResult.PLAYER_B,
+	 * 						 whichever should move first.
+	 * @param seed The seed every random choice of the game is drawn with.
+	 * @return The result of the game.
+	 * @throws BoardAccessRuntimeException
+	 */
+	public GameResult play(AbstractPlayer playerA, AbstractPlayer playerB, int startingPlayer, long seed)
+			throws BoardAccessRuntimeException
+	{
+		long start = System.currentTimeMillis();
+
+		AbstractPlayer[] players = { playerA, playerB };
+		GameResult result = new GameResult(seed, startingPlayer);
+		Random random = new Random(seed);
+		PrimitiveBoard board = createBoard(random);
+		long[] mask = new long[COLS];
+
+		// The move each player has been asked for and abandoned on timeout,
+		// as long as it keeps running.
+		Future<?>[] abandoned = new Future<?>[players.length];
+
+		ExecutorService executor = Executors.newCachedThreadPool(new DaemonThreadFactory());
+
+		playerA.setScore(0);
+		playerB.setScore(0);
+
+		try {
+			int turn = startingPlayer;
+
+			while (result.getTurns() < maxTurns) {
+				result.addTurn();
+
+				Board view = toBoard(board);
+				ArrayList<int[]> available = CrushUtilities.getAvailableMoves(view);
+
+				while (available.isEmpty()) {
+					board = createBoard(random);
+					result.addBoardReset();
+
+					view = toBoard(board);
+					available = CrushUtilities.getAvailableMoves(view);
+				}
+
+				// A player still busy with a move it has timed out on is not
+				// asked again, and its turn is treated as timed out.
+				boolean busy = abandoned[turn] != null && !abandoned[turn].isDone();
+
+				int[] move = busy ? null : requestMove(players[turn], available, view, executor,
+													   abandoned, turn);
+
+				if (move == null) {
+					result.addTimeout(turn);
+
+					if (random.nextBoolean()) {
+						move = CrushUtilities.calculateNextMove(available.get(random.nextInt(available.size())));
+					}
+					else {
+						turn = 1 - turn;
+						continue;
+					}
+				}
+				else if (!isAvailable(move, available)) {
+					result.addInvalidMove(turn);
+					turn = 1 - turn;
+					continue;
+				}
+
+				boolean extraTurn = playMove(board, move, random, mask, result, turn);
+
+				players[turn].setScore(result.getScore(turn));
+
+				if (result.getScore(turn) >= scoreLimit) {
+					result.setWinner(turn);
+					break;
+				}
+
+				if (extraTurn) result.addExtraTurn(turn);
+				else turn = 1 - turn;
+			}
+		} finally {
+			awaitAbandoned(abandoned);
+			executor.shutdownNow();
+		}
+
+		result.setElapsedMillis(System.currentTimeMillis() - start);
+
+		return result;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Plays the given move on the given board, along with every crush it
+	 * causes, and adds its score to the given player.
+	 *
+	 * @return True if the move gives an extra turn.
+	 */
+	private boolean playMove(PrimitiveBoard board, int[] move, Random random, long[] mask,
+							 GameResult result, int player)
+	{
+		board.swap(move[0], move[1], move[2], move[3]);
+
+		boolean extraTurn = false;
+		double multiplier = 1.0;
+		int crushed;
+
+		while ((crushed = board.findCrushMask(mask)) != 0) {
+			if (multiplier == 1.0 && crushed >= EXTRA_TURN_CRUSH) extraTurn = true;
+
+			result.addScore(player, (int) Math.round(crushed * multiplier));
+			multiplier += MULTIPLIER_STEP;
+
+			board.crush(mask);
+			refill(board, random);
+		}
+
+		return extraTurn;
+	}
+
+	/**
+	 * Asks the given player for its move, waiting for it at most
+	 * waitingTime ms.
+	 *
+	 * A move the player times out on is interrupted and its future is
+	 * stored into abandoned[turn], so the player is not asked again before
+	 * it returns. The future itself is not cancelled, since a cancelled
+	 * future is done even while the player keeps running.
+	 *
+	 * @return The move of the player, or null if it timed out or failed.
+	 */
+	private int[] requestMove(AbstractPlayer player, ArrayList<int[]> available, Board board,
+							  ExecutorService executor, Future<?>[] abandoned, int turn)
+	{
+		MoveRequest request = new MoveRequest(player, available, board);
+		Future<int[]> future = executor.submit(request);
+
+		try {
+			if (waitingTime > 0) return future.get(waitingTime, TimeUnit.MILLISECONDS);
+			else return future.get();
+
+		} catch (TimeoutException e) {
+			request.interrupt();
+			abandoned[turn] = future;
+			return null;
+
+		} catch (ExecutionException e) {
+			// The game platform treats a failed player as one that timed out.
+			return null;
+
+		} catch (InterruptedException e) {
+			request.interrupt();
+			abandoned[turn] = future;
+			Thread.currentThread().interrupt();
+			return null;
+		}
+	}
+
+	/**
+	 * Waits for the given abandoned moves to return, whatever their outcome.
+	 */
+	private static void awaitAbandoned(Future<?>[] abandoned) {
+		boolean interrupted = false;
+
+		for (Future<?> future : abandoned) {
+			while (future != null && !future.isDone()) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					// Failed moves have already been treated as timed out.
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		// Keep the interruption for the caller to handle.
+		if (interrupted) Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Creates a new board of random colors, containing no run of three.
+	 */
+	private PrimitiveBoard createBoard(Random random) {
+		PrimitiveBoard board = new PrimitiveBoard(COLS, rows, P_ROWS);
+
+		// Tiles are filled bottom up and left to right, so every tile
+		// is checked against already filled ones.
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < COLS; x++) {
+				int color;
+
+				do {
+					color = random.nextInt(NUMBER_OF_COLORS);
+				} while (formsRun(board, x, y, color));
+
+				board.setColor(x, y, color);
+			}
+		}
+
+		return board;
+	}
+
+	/**
+	 * Checks whether a tile of the given color at given cords would form
+	 * a run of three with the two tiles below it, or the two on its left.
+	 */
+	private static boolean formsRun(PrimitiveBoard board, int x, int y, int color) {
+		return (y >= 2 && board.getColor(x, y - 1) == color && board.getColor(x, y - 2) == color) ||
+			   (x >= 2 && board.getColor(x - 1, y) == color && board.getColor(x - 2, y) == color);
+	}
+
+	/**
+	 * Gives a random color to the unknown tiles left at the top of every
+	 * column by a crush.
+	 */
+	private static void refill(PrimitiveBoard board, Random random) {
+		int rows = board.getRows();
+
+		for (int x = 0; x < COLS; x++) {
+			for (int y = rows - 1; y >= 0 && board.getColor(x, y) == UNKNOWN; y--) {
+				board.setColor(x, y, random.nextInt(NUMBER_OF_COLORS));
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the given move, in the [x1, y1, x2, y2] form players
+	 * return, is one of the available moves.
+	 */
+	private static boolean isAvailable(int[] move, ArrayList<int[]> available) {
+		if (move.length < 4) return false;
+
+		for (int[] availableMove : available) {
+			int[] cords = CrushUtilities.calculateNextMove(availableMove);
+
+			if (Arrays.equals(cords, Arrays.copyOf(move, 4))) return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Creates a Board, as the ones given to players, with the tiles of the
+	 * given PrimitiveBoard.
+	 */
+	private static Board toBoard(PrimitiveBoard board) throws BoardAccessRuntimeException {
+		if (SET_TILE == null) throw new BoardAccessRuntimeException(null);
+
+		Board view = new Board(board.getRows());
+
+		try {
+			for (int y = 0; y < board.getRows(); y++) {
+				for (int x = 0; x < COLS; x++) {
+					SET_TILE.invoke(view, y * COLS + x, x, y, board.getColor(x, y), false);
+				}
+			}
+		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+			throw new BoardAccessRuntimeException(e);
+		}
+
+		return view;
+	}
+
+	private static Method findSetTile() {
+		try {
+			Method setTile = Board.class.getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+
+			return setTile;
+
+		} catch (NoSuchMethodException | SecurityException e) {
+			return null;
+		}
+	}
+
+
+//==== Private Classes ====
+
+	/**
+	 * Asks a player for its move. It can be interrupted only while the
+	 * player is deciding, so the interruption never leaks to the next task
+	 * of the thread it runs on, and it returns null at once if interrupted
+	 * before it has started.
+	 */
+	private static class MoveRequest implements Callable<int[]> {
+		private final AbstractPlayer player;
+		private final ArrayList<int[]> available;
+		private final Board board;
+
+		private Thread runner;
+		private boolean interrupted;
+
+		public MoveRequest(AbstractPlayer player, ArrayList<int[]> available, Board board) {
+			this.player = player;
+			this.available = available;
+			this.board = board;
+		}
+
+		@Override
+		public int[] call() {
+			synchronized (this) {
+				if (interrupted) return null;
+				runner = Thread.currentThread();
+			}
+
+			try {
+				return player.getNextMove(available, board);
+			} finally {
+				synchronized (this) {
+					runner = null;
+				}
+				// Clear an interruption the player has not consumed.
+				Thread.interrupted();
+			}
+		}
+
+		public synchronized void interrupt() {
+			interrupted = true;
+			if (runner != null) runner.interrupt();
+		}
+	}
+
+	/**
+	 * Creates the threads players are asked for their moves on. They are
+	 * daemon threads, so a player that never returns does not keep the
+	 * JVM alive.
+	 */
+	private static class DaemonThreadFactory implements ThreadFactory {
+		@Override
+		public Thread newThread(Runnable task) {
+			Thread thread = new Thread(task, "game-player");
+			thread.setDaemon(true);
+
+			return thread;
+		}
+	}
+
+
+//==== Exceptions defined in GameSimulator ====
+
+	/**
+	 * Exception thrown when a simulator is requested to use rules that
+	 * do not allow a game to be played.
+	 */
+	public static class InvalidRulesRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Exception thrown when the boards given to players cannot be created,
+	 * i.e. when Board.setTile() cannot be accessed.
+	 */
+	public static class BoardAccessRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public BoardAccessRuntimeException(Throwable cause) {
+			super(cause);
+		}
+	}
+}
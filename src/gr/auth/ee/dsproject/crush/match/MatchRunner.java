@@ -0,0 +1,348 @@
+package gr.auth.ee.dsproject.crush.match;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.util.BoardConfig;
+
+
+/**
+ * MatchRunner plays a match of many games between two players, spreading
+ * games across a number of threads, and summarizes their results.
+ *
+ * Game i of a match is played with seed + i, so a match can be repeated
+ * with the same boards and refills. Players take turns on moving first,
+ * with PLAYER_A moving first in even games, so neither of them gains
+ * from starting.
+ *
+ * New players are created for every game, PLAYER_A with id 1 and
+ * PLAYER_B with id 2. Players that search in parallel compete with the
+ * games played at the same time, so the available processors are split
+ * between games: players having a public setSearchThreads(int) method,
+ * such as MinMaxPlayer and MctsPlayer, are given getSearchThreads()
+ * threads, whatever their searchThreads setting is. Players implementing
+ * AutoCloseable are closed as soon as their game is over.
+ *
+ * It can be used from the command line, using the rules defined in
+ * boardConfig.properties:
+ * "MatchRunner playerClassA playerClassB games [seed] [threads] [outputFile]"
+ *
+ * Public constructors defined in MatchRunner:
+ * -public MatchRunner(GameSimulator simulator) throws InvalidThreadsRuntimeException
+ * -public MatchRunner(GameSimulator simulator, int threads) throws InvalidThreadsRuntimeException
+ *
+ * Static public methods defined in MatchRunner:
+ * -public static PlayerFactory factoryFor(String className) throws PlayerCreationRuntimeException
+ * -public static void main(String[] args) throws IOException
+ *
+ * Public methods defined in MatchRunner:
+ * -public GameSimulator getSimulator()
+ * -public int getThreads()
+ * -public int getSearchThreads()
+ * -public MatchSummary run(PlayerFactory factoryA, PlayerFactory factoryB, int games, long seed)
+ * 		throws GameFailureRuntimeException
+ *
+ * Exceptions defined in MatchRunner:
+ * -public static class InvalidThreadsRuntimeException extends RuntimeException
+ * -public static class PlayerCreationRuntimeException extends RuntimeException
+ * -public static class GameFailureRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class MatchRunner {
+
+//==== Instance Variables ====
+
+	private final GameSimulator simulator;
+
+	/**
+	 * Number of games played at the same time.
+	 */
+	private final int threads;
+
+	/**
+	 * Number of threads every player is allowed to search with.
+	 */
+	private final int searchThreads;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new MatchRunner that plays as many games at the same time
+	 * as the available processors.
+	 *
+	 * @param simulator The simulator games are played by.
+	 * @throws InvalidThreadsRuntimeException
+	 */
+	public MatchRunner(GameSimulator simulator) throws InvalidThreadsRuntimeException {
+		this(simulator, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Create a new MatchRunner.
+	 *
+	 * @param simulator The simulator games are played by.
+	 * @param threads The number of games played at the same time. It
+	 * 				  should be at least 1.
+	 * @throws InvalidThreadsRuntimeException
+	 */
+	public MatchRunner(GameSimulator simulator, int threads) throws InvalidThreadsRuntimeException {
+		if (threads < 1) throw new InvalidThreadsRuntimeException();
+
+		this.simulator = simulator;
+		this.threads = threads;
+
+		searchThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / threads);
+	}
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Creates a factory for the given player class. Players are created
+	 * the same way the game platform creates them, i.e. through a public
+	 * constructor taking their Integer id.
+	 *
+	 * @param className The fully qualified name of a class implementing
+	 * 					AbstractPlayer.
+	 * @return A factory creating players of the given class.
+	 * @throws PlayerCreationRuntimeException
+	 */
+	public static PlayerFactory factoryFor(String className) throws PlayerCreationRuntimeException {
+		Constructor<? extends AbstractPlayer> constructor;
+
+		try {
+			constructor = Class.forName(className).asSubclass(AbstractPlayer.class)
+							   .getConstructor(Integer.class);
+		} catch (ClassNotFoundException | ClassCastException | NoSuchMethodException e) {
+			throw new PlayerCreationRuntimeException(e);
+		}
+
+		return new ClassPlayerFactory(constructor);
+	}
+
+	/**
+	 * Plays a match between two player classes and prints its summary.
+	 *
+	 * Arguments are: playerClassA playerClassB games [seed] [threads]
+	 * [outputFile]. When an output file is given, the results of every
+	 * game are written to it along with the summary.
+	 *
+	 * @param args Command line arguments.
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 3) {
+			System.err.println("Usage: MatchRunner playerClassA playerClassB games " +
+							   "[seed] [threads] [outputFile]");
+			System.exit(1);
+		}
+
+		int games = Integer.parseInt(args[2]);
+		long seed = args.length > 3 ? Long.parseLong(args[3]) : System.currentTimeMillis();
+		int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+		MatchRunner runner = new MatchRunner(new GameSimulator(BoardConfig.load()), threads);
+		MatchSummary summary = runner.run(factoryFor(args[0]), factoryFor(args[1]), games, seed);
+
+		System.out.println("seed=" + seed);
+		System.out.print(summary);
+
+		if (args.length > 5) summary.write(args[5]);
+	}
+
+
+//==== Public Getters ====
+
+	public GameSimulator getSimulator() { return simulator; }
+
+	public int getThreads() { return threads; }
+
+	/**
+	 * Get the number of threads players are allowed to search with, i.e.
+	 * their share of the available processors.
+	 *
+	 * @return The number of search threads of every player.
+	 */
+	public int getSearchThreads() { return searchThreads; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Plays a match between the players created by the given factories.
+	 *
+	 * If any game fails, the match is stopped and a GameFailureRuntimeException
+	 * is thrown, carrying the cause of the failure. Players are named in
+	 * the summary by the toString() of their factories.
+	 *
+	 * @param factoryA The factory PLAYER_A is created by on every game.
+	 * @param factoryB The factory PLAYER_B is created by on every game.
+	 * @param games The number of games to be played.
+	 * @param seed The seed of the first game.
+	 * @return The summary of the match, with the results of the games in
+	 * 		   the order of their seeds.
+	 * @throws GameFailureRuntimeException
+	 */
+	public MatchSummary run(final PlayerFactory factoryA, final PlayerFactory factoryB, int games, long seed)
+			throws GameFailureRuntimeException
+	{
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		List<Future<GameResult>> futures = new ArrayList<Future<GameResult>>();
+
+		try {
+			for (int i = 0; i < games; i++) {
+				final long gameSeed = seed + i;
+				final int startingPlayer = i % 2 == 0 ? GameResult.PLAYER_A : GameResult.PLAYER_B;
+
+				futures.add(executor.submit(new Callable<GameResult>() {
+					@Override
+					public GameResult call() {
+						AbstractPlayer playerA = createPlayer(factoryA, 1);
+						AbstractPlayer playerB = createPlayer(factoryB, 2);
+
+						try {
+							return simulator.play(playerA, playerB, startingPlayer, gameSeed);
+						} finally {
+							close(playerA);
+							close(playerB);
+						}
+					}
+				}));
+			}
+
+			List<GameResult> results = new ArrayList<GameResult>();
+
+			for (Future<GameResult> future : futures) results.add(future.get());
+
+			return new MatchSummary(factoryA.toString(), factoryB.toString(), results);
+
+		} catch (ExecutionException e) {
+			throw new GameFailureRuntimeException(e.getCause());
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new GameFailureRuntimeException(e);
+
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Creates a player through the given factory, restricting it to
+	 * searchThreads search threads if it can be restricted.
+	 *
+	 * @throws PlayerCreationRuntimeException
+	 */
+	private AbstractPlayer createPlayer(PlayerFactory factory, int id)
+			throws PlayerCreationRuntimeException
+	{
+		AbstractPlayer player = factory.create(id);
+
+		try {
+			player.getClass().getMethod("setSearchThreads", int.class).invoke(player, searchThreads);
+		} catch (NoSuchMethodException e) {
+			// Player does not search in parallel.
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new PlayerCreationRuntimeException(e);
+		}
+
+		return player;
+	}
+
+	/**
+	 * Closes the given player, if it holds resources that need closing.
+	 *
+	 * @throws GameFailureRuntimeException
+	 */
+	private static void close(AbstractPlayer player) throws GameFailureRuntimeException {
+		if (!(player instanceof AutoCloseable)) return;
+
+		try {
+			((AutoCloseable) player).close();
+		} catch (Exception e) {
+			throw new GameFailureRuntimeException(e);
+		}
+	}
+
+
+//==== Private Classes ====
+
+	/**
+	 * PlayerFactory of the players of a class, created through their
+	 * constructor taking an Integer id.
+	 */
+	private static class ClassPlayerFactory implements PlayerFactory {
+		private final Constructor<? extends AbstractPlayer> constructor;
+
+		public ClassPlayerFactory(Constructor<? extends AbstractPlayer> constructor) {
+			this.constructor = constructor;
+		}
+
+		@Override
+		public AbstractPlayer create(int id) {
+			try {
+				return constructor.newInstance(Integer.valueOf(id));
+			} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+				throw new PlayerCreationRuntimeException(e);
+			}
+		}
+
+		/**
+		 * Returns the name of the player class, which names the player in
+		 * the summary of a match.
+		 */
+		@Override
+		public String toString() {
+			return constructor.getDeclaringClass().getName();
+		}
+	}
+
+
+//==== Exceptions defined in MatchRunner ====
+
+	/**
+	 * Exception thrown when a runner is requested to play less than one
+	 * game at a time.
+	 */
+	public static class InvalidThreadsRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Exception thrown when a player class cannot be loaded or instantiated.
+	 */
+	public static class PlayerCreationRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public PlayerCreationRuntimeException(Throwable cause) {
+			super(cause);
+		}
+	}
+
+	/**
+	 * Exception thrown when a game of a match fails.
+	 */
+	public static class GameFailureRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+
+		public GameFailureRuntimeException(Throwable cause) {
+			super(cause);
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package gr.auth.ee.dsproject.crush.match;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+
+/**
+ * MatchSummary aggregates the results of the games of a match between
+ * two players.
+ *
+ * Players are referred to as GameResult.PLAYER_A and GameResult.PLAYER_B,
+ * the same way the results of single games refer to them.
+ *
+ * A written summary consists of a line per aggregate value, in the form
+ * "key=value", followed by an empty line and the results of every game
+ * as comma separated values, headed by GameResult.CSV_HEADER.
+ *
+ * Public constructors defined in MatchSummary:
+ * -public MatchSummary(String nameA, String nameB, List<GameResult> results)
+ *
+ * Public methods defined in MatchSummary:
+ * -public String getName(int player)
+ * -public List<GameResult> getResults()
+ * -public int getGames()
+ * -public int getWins(int player)
+ * -public int getUnfinished()
+ * -public double getWinRate(int player)
+ * -public double getAverageScore(int player)
+ * -public double getAverageTurns()
+ * -public int getTimeouts(int player)
+ * -public int getInvalidMoves(int player)
+ * -public void write(Writer writer)
+ * -public void write(String filename) throws IOException
+ * -public String toString()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class MatchSummary {
+
+//==== Instance Variables ====
+
+	private final String[] names;
+	private final List<GameResult> results;
+
+	// Aggregates, indexed by GameResult.PLAYER_A and GameResult.PLAYER_B.
+	private final int[] wins;
+	private final long[] totalScores;
+	private final int[] timeouts;
+	private final int[] invalidMoves;
+
+	private int unfinished;
+	private long totalTurns;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new MatchSummary out of the given results.
+	 *
+	 * @param nameA A name describing PLAYER_A, such as its class name.
+	 * @param nameB A name describing PLAYER_B.
+	 * @param results The results of the games of the match.
+	 */
+	public MatchSummary(String nameA, String nameB, List<GameResult> results) {
+		this.names = new String[] { nameA, nameB };
+		this.results = Collections.unmodifiableList(new ArrayList<GameResult>(results));
+
+		wins = new int[2];
+		totalScores = new long[2];
+		timeouts = new int[2];
+		invalidMoves = new int[2];
+
+		for (GameResult result : results) {
+			if (result.isFinished()) wins[result.getWinner()]++;
+			else unfinished++;
+
+			for (int player = GameResult.PLAYER_A; player <= GameResult.PLAYER_B; player++) {
+				totalScores[player] += result.getScore(player);
+				timeouts[player] += result.getTimeouts(player);
+				invalidMoves[player] += result.getInvalidMoves(player);
+			}
+
+			totalTurns += result.getTurns();
+		}
+	}
+
+
+//==== Public Getters ====
+
+	public String getName(int player) { return names[player]; }
+
+	/**
+	 * Get the results of every game, in the order games were created.
+	 *
+	 * @return An unmodifiable list of results.
+	 */
+	public List<GameResult> getResults() { return results; }
+
+	public int getGames() { return results.size(); }
+
+	public int getWins(int player) { return wins[player]; }
+
+	/**
+	 * Get the number of games stopped on the turn limit.
+	 *
+	 * @return The number of games without a winner.
+	 */
+	public int getUnfinished() { return unfinished; }
+
+	/**
+	 * Get the fraction of games the given player won.
+	 *
+	 * @param player GameResult.PLAYER_A or GameResult.PLAYER_B.
+	 * @return A value between 0.0 and 1.0, or 0.0 if no game was played.
+	 */
+	public double getWinRate(int player) { return average(wins[player]); }
+
+	public double getAverageScore(int player) { return average(totalScores[player]); }
+
+	public double getAverageTurns() { return average(totalTurns); }
+
+	public int getTimeouts(int player) { return timeouts[player]; }
+
+	public int getInvalidMoves(int player) { return invalidMoves[player]; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Writes the summary, followed by the results of every game, to the
+	 * given writer. The writer is flushed but not closed.
+	 *
+	 * @param writer The writer to write the summary to.
+	 */
+	public void write(Writer writer) {
+		PrintWriter out = new PrintWriter(writer);
+
+		out.print(toString());
+		out.println();
+		out.println(GameResult.CSV_HEADER);
+
+		for (GameResult result : results) out.println(result.toCsvRow());
+
+		out.flush();
+	}
+
+	/**
+	 * Writes the summary, followed by the results of every game, to the
+	 * given file. The file is overwritten if it exists.
+	 *
+	 * @param filename The path of the file.
+	 * @throws IOException
+	 */
+	public void write(String filename) throws IOException {
+		try (Writer writer = new FileWriter(filename)) {
+			write(writer);
+		}
+	}
+
+	/**
+	 * Creates the aggregate values of the match, one "key=value" line
+	 * for each of them.
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+
+		builder.append("games=").append(getGames()).append('\n');
+		builder.append("unfinished=").append(unfinished).append('\n');
+		builder.append("averageTurns=").append(format(getAverageTurns())).append('\n');
+
+		char[] suffixes = { 'A', 'B' };
+
+		for (int player = GameResult.PLAYER_A; player <= GameResult.PLAYER_B; player++) {
+			char suffix = suffixes[player];
+
+			builder.append("player").append(suffix).append('=').append(names[player]).append('\n');
+			builder.append("wins").append(suffix).append('=').append(wins[player]).append('\n');
+			builder.append("winRate").append(suffix).append('=')
+				   .append(format(getWinRate(player))).append('\n');
+			builder.append("averageScore").append(suffix).append('=')
+				   .append(format(getAverageScore(player))).append('\n');
+			builder.append("timeouts").append(suffix).append('=').append(timeouts[player]).append('\n');
+			builder.append("invalidMoves").append(suffix).append('=').append(invalidMoves[player]).append('\n');
+		}
+
+		return builder.toString();
+	}
+
+
+//==== Private Methods ====
+
+	private double average(long total) {
+		return results.isEmpty() ? 0.0 : (double) total / results.size();
+	}
+
+	private static String format(double value) {
+		return String.format(Locale.ROOT, "%.3f", value);
+	}
+}
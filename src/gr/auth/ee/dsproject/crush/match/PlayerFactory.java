@@ -0,0 +1,28 @@
+package gr.auth.ee.dsproject.crush.match;
+
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+
+
+/**
+ * Interface to be implemented by every class that creates the players
+ * of the games played by a MatchRunner.
+ *
+ * A new player is created for every game, since players are allowed to
+ * keep state between their moves.
+ *
+ * Public methods defined in PlayerFactory:
+ * -public AbstractPlayer create(int id)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public interface PlayerFactory {
+
+	/**
+	 * Creates a new player.
+	 *
+	 * @param id The id the player is going to play with, 1 or 2.
+	 * @return A new player.
+	 */
+	public AbstractPlayer create(int id);
+}
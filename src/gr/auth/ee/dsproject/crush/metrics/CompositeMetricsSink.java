@@ -0,0 +1,53 @@
+package gr.auth.ee.dsproject.crush.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * CompositeMetricsSink passes the statistics of every move to a list of
+ * other sinks, in the order they were given.
+ *
+ * Public constructors defined in CompositeMetricsSink:
+ * -public CompositeMetricsSink(MetricsSink... sinks)
+ * -public CompositeMetricsSink(List<MetricsSink> sinks)
+ *
+ * Public methods defined in CompositeMetricsSink:
+ * -public List<MetricsSink> getSinks()
+ * -public void record(MoveMetrics metrics)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class CompositeMetricsSink implements MetricsSink {
+
+//==== Instance Variables ====
+
+	private final List<MetricsSink> sinks;
+
+
+//==== Public Constructors ====
+
+	public CompositeMetricsSink(MetricsSink... sinks) {
+		this(Arrays.asList(sinks));
+	}
+
+	public CompositeMetricsSink(List<MetricsSink> sinks) {
+		this.sinks = Collections.unmodifiableList(new ArrayList<MetricsSink>(sinks));
+	}
+
+
+//==== Public Getters ====
+
+	public List<MetricsSink> getSinks() { return sinks; }
+
+
+//==== Public Methods ====
+
+	@Override
+	public void record(MoveMetrics metrics) {
+		for (MetricsSink sink : sinks) sink.record(metrics);
+	}
+}
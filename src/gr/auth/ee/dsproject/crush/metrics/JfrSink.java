@@ -0,0 +1,172 @@
+package gr.auth.ee.dsproject.crush.metrics;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * JfrSink commits the statistics of every move as a custom Java Flight
+ * Recorder event, so they show up on the same timeline as GC pauses and
+ * thread activity of a recording.
+ *
+ * The player is built for Java 7, while the JFR API (jdk.jfr) exists
+ * only on Java 11 and newer. So the event type is defined at runtime
+ * through jdk.jfr.EventFactory, which is looked up through reflection.
+ * On JVMs without the API the sink is not available and silently drops
+ * whatever it receives. Events are committed only while a recording
+ * that enables them is running, e.g. one started with
+ * -XX:StartFlightRecording.
+ *
+ * Every event is named EVENT_NAME and holds the fields listed in FIELDS,
+ * in that order.
+ *
+ * Constants defined in JfrSink:
+ * -public static final String EVENT_NAME
+ * -public static final String[] FIELDS
+ *
+ * Public constructors defined in JfrSink:
+ * -public JfrSink()
+ *
+ * Public methods defined in JfrSink:
+ * -public boolean isAvailable()
+ * -public void record(MoveMetrics metrics)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class JfrSink implements MetricsSink {
+
+//==== Public Constants ====
+
+	public static final String EVENT_NAME = "gr.auth.ee.dsproject.crush.SearchMove";
+
+	public static final String[] FIELDS = {
+		"playerId", "moveNumber", "wallMillis", "gcMillis", "completedDepth", "aborted",
+		"nodesEvaluated", "nodesExpanded", "nodesPerSecond", "branchingFactor", "cutoffs",
+		"extensions", "quiescenceNodes", "researches", "aspirationFailHighs",
+		"aspirationFailLows", "maxPly", "maxCascadeRounds", "ttProbes", "ttHitRate"
+	};
+
+
+//==== Private Constants ====
+
+	private static final Class<?>[] FIELD_TYPES = {
+		int.class, int.class, long.class, long.class, int.class, boolean.class,
+		long.class, long.class, double.class, double.class, long.class,
+		long.class, long.class, long.class, long.class,
+		long.class, int.class, int.class, long.class, double.class
+	};
+
+
+//==== Instance Variables ====
+
+	// Reflective handles to the JFR API, all null if it is not available.
+	private final Object factory;
+	private final Method newEvent;
+	private final Method shouldCommit;
+	private final Method set;
+	private final Method commit;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new JfrSink, defining its event type if the JFR API is
+	 * available on the running JVM.
+	 */
+	public JfrSink() {
+		Object factory = null;
+		Method newEvent = null, shouldCommit = null, set = null, commit = null;
+
+		try {
+			factory = createEventFactory();
+
+			Class<?> eventClass = Class.forName("jdk.jfr.Event");
+			newEvent = factory.getClass().getMethod("newEvent");
+			shouldCommit = eventClass.getMethod("shouldCommit");
+			set = eventClass.getMethod("set", int.class, Object.class);
+			commit = eventClass.getMethod("commit");
+
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			factory = null;
+		}
+
+		this.factory = factory;
+		this.newEvent = newEvent;
+		this.shouldCommit = shouldCommit;
+		this.set = set;
+		this.commit = commit;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Checks whether the JFR API is available, i.e. whether events can
+	 * be committed at all.
+	 *
+	 * @return True if events are committed, false if they are dropped.
+	 */
+	public boolean isAvailable() { return factory != null; }
+
+	@Override
+	public void record(MoveMetrics metrics) {
+		if (factory == null) return;
+
+		Object[] values = {
+			metrics.getPlayerId(), metrics.getMoveNumber(), metrics.getWallMillis(),
+			metrics.getGcMillis(), metrics.getCompletedDepth(), metrics.isAborted(),
+			metrics.getNodesEvaluated(), metrics.getNodesExpanded(), metrics.getNodesPerSecond(),
+			metrics.getBranchingFactor(), metrics.getCutoffs(), metrics.getExtensions(),
+			metrics.getQuiescenceNodes(), metrics.getResearches(), metrics.getAspirationFailHighs(),
+			metrics.getAspirationFailLows(), metrics.getMaxPly(), metrics.getMaxCascadeRounds(),
+			metrics.getTtProbes(), metrics.getTtHitRate()
+		};
+
+		try {
+			Object event = newEvent.invoke(factory);
+			if (!(Boolean) shouldCommit.invoke(event)) return;
+
+			for (int i = 0; i < values.length; i++) set.invoke(event, i, values[i]);
+
+			commit.invoke(event);
+
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			// A failed event is dropped, as events outside a recording are.
+		}
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Calls EventFactory.create(annotations, fields), where annotations
+	 * give the event its name, label and category.
+	 */
+	private static Object createEventFactory() throws ReflectiveOperationException {
+		Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+		Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+		Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+
+		Constructor<?> newAnnotation = annotationElement.getConstructor(Class.class, Object.class);
+		Constructor<?> newField = valueDescriptor.getConstructor(Class.class, String.class);
+
+		List<Object> annotations = new ArrayList<>();
+		annotations.add(newAnnotation.newInstance(Class.forName("jdk.jfr.Name"), EVENT_NAME));
+		annotations.add(newAnnotation.newInstance(Class.forName("jdk.jfr.Label"), "Search Move"));
+		annotations.add(newAnnotation.newInstance(
+				Class.forName("jdk.jfr.Category"), new String[] { "Crush", "Search" }
+		));
+
+		List<Object> fields = new ArrayList<>();
+		for (int i = 0; i < FIELDS.length; i++) {
+			fields.add(newField.newInstance(FIELD_TYPES[i], FIELDS[i]));
+		}
+
+		return eventFactory.getMethod("create", List.class, List.class)
+						   .invoke(null, annotations, fields);
+	}
+}
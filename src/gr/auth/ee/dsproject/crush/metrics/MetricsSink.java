@@ -0,0 +1,25 @@
+package gr.auth.ee.dsproject.crush.metrics;
+
+
+/**
+ * Interface to be implemented by every class that receives the search
+ * statistics of the moves of a player.
+ *
+ * Sinks are called on the thread that asked for the move, right before
+ * the move is returned, so they should be quick and should never throw.
+ *
+ * Public methods defined in MetricsSink:
+ * -public void record(MoveMetrics metrics)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public interface MetricsSink {
+
+	/**
+	 * Receives the statistics of the search of a move.
+	 *
+	 * @param metrics The statistics of the search.
+	 */
+	public void record(MoveMetrics metrics);
+}
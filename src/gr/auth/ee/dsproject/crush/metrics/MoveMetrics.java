@@ -0,0 +1,246 @@
+package gr.auth.ee.dsproject.crush.metrics;
+
+import java.util.Locale;
+
+
+/**
+ * MoveMetrics holds the statistics of the search a single move was
+ * decided with, as reported to a MetricsSink.
+ *
+ * It is an immutable snapshot, so sinks are free to keep it or hand it
+ * to other threads.
+ *
+ * Public constructors defined in MoveMetrics:
+ * -public MoveMetrics(int playerId, int moveNumber, long timestamp, long wallMillis,
+ * 		long gcMillis, int completedDepth, boolean aborted, SearchStatistics statistics)
+ *
+ * Public methods defined in MoveMetrics:
+ * -public int getPlayerId()
+ * -public int getMoveNumber()
+ * -public long getTimestamp()
+ * -public long getWallMillis()
+ * -public long getGcMillis()
+ * -public int getCompletedDepth()
+ * -public boolean isAborted()
+ * -public long getNodesEvaluated()
+ * -public long getNodesExpanded()
+ * -public long getCutoffs()
+ * -public long getCutoffs(int ply)
+ * -public int getCutoffPlies()
+ * -public long getExtensions()
+ * -public long getQuiescenceNodes()
+ * -public long getResearches()
+ * -public long getAspirationFailHighs()
+ * -public long getAspirationFailLows()
+ * -public int getMaxPly()
+ * -public int getMaxCascadeRounds()
+ * -public long getTtProbes()
+ * -public long getTtHits()
+ * -public double getTtHitRate()
+ * -public double getBranchingFactor()
+ * -public double getNodesPerSecond()
+ * -public String toLogLine()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class MoveMetrics {
+
+//==== Instance Variables ====
+
+	private final int playerId;
+	private final int moveNumber;
+	private final long timestamp;
+	private final long wallMillis;
+	private final long gcMillis;
+	private final int completedDepth;
+	private final boolean aborted;
+
+	private final long nodesEvaluated;
+	private final long nodesExpanded;
+	private final long extensions;
+	private final long quiescenceNodes;
+	private final long researches;
+	private final long aspirationFailHighs;
+	private final long aspirationFailLows;
+	private final int maxPly;
+	private final int maxCascadeRounds;
+	private final long ttProbes;
+	private final long ttHits;
+	private final double branchingFactor;
+
+	/**
+	 * Cutoffs of every ply, up to the last ply with a cutoff.
+	 */
+	private final long[] cutoffs;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new MoveMetrics out of the given statistics.
+	 *
+	 * @param playerId The id of the player that searched the move.
+	 * @param moveNumber The number of moves the player has been asked for
+	 * 					 so far, including this one.
+	 * @param timestamp The System.currentTimeMillis() the search ended at.
+	 * @param wallMillis The time in ms the search took.
+	 * @param gcMillis The time in ms garbage collectors ran during the search.
+	 * @param completedDepth The depth of the last fully completed search.
+	 * @param aborted True if a search was aborted on the deadline.
+	 * @param statistics The statistics of every thread of the search, summed
+	 * 					 up. They are copied, so they can be reused.
+	 */
+	public MoveMetrics(int playerId, int moveNumber, long timestamp, long wallMillis,
+					   long gcMillis, int completedDepth, boolean aborted,
+					   SearchStatistics statistics)
+	{
+		this.playerId = playerId;
+		this.moveNumber = moveNumber;
+		this.timestamp = timestamp;
+		this.wallMillis = wallMillis;
+		this.gcMillis = gcMillis;
+		this.completedDepth = completedDepth;
+		this.aborted = aborted;
+
+		nodesEvaluated = statistics.getNodesEvaluated();
+		nodesExpanded = statistics.getNodesExpanded();
+		extensions = statistics.getExtensions();
+		quiescenceNodes = statistics.getQuiescenceNodes();
+		researches = statistics.getResearches();
+		aspirationFailHighs = statistics.getAspirationFailHighs();
+		aspirationFailLows = statistics.getAspirationFailLows();
+		maxPly = statistics.getMaxPly();
+		maxCascadeRounds = statistics.getMaxCascadeRounds();
+		ttProbes = statistics.getTtProbes();
+		ttHits = statistics.getTtHits();
+		branchingFactor = statistics.getBranchingFactor();
+
+		int plies = SearchStatistics.MAX_PLY;
+		while (plies > 0 && statistics.getCutoffs(plies - 1) == 0) plies--;
+
+		cutoffs = new long[plies];
+		for (int ply = 0; ply < plies; ply++) cutoffs[ply] = statistics.getCutoffs(ply);
+	}
+
+
+//==== Public Getters ====
+
+	public int getPlayerId() { return playerId; }
+
+	public int getMoveNumber() { return moveNumber; }
+
+	public long getTimestamp() { return timestamp; }
+
+	public long getWallMillis() { return wallMillis; }
+
+	/**
+	 * Get the time garbage collectors of the JVM ran while the move was
+	 * searched. Collections caused by other threads are included.
+	 *
+	 * @return The GC time in ms.
+	 */
+	public long getGcMillis() { return gcMillis; }
+
+	public int getCompletedDepth() { return completedDepth; }
+
+	/**
+	 * Checks whether a search was aborted because the time budget of the
+	 * move ran out.
+	 *
+	 * @return True if the last started iteration did not complete.
+	 */
+	public boolean isAborted() { return aborted; }
+
+	public long getNodesEvaluated() { return nodesEvaluated; }
+
+	public long getNodesExpanded() { return nodesExpanded; }
+
+	public long getCutoffs() {
+		long total = 0;
+		for (long plyCutoffs : cutoffs) total += plyCutoffs;
+
+		return total;
+	}
+
+	/**
+	 * Get the number of beta cutoffs on states of the given ply.
+	 *
+	 * @param ply The distance of the states from the root of the search.
+	 * @return The number of cutoffs, 0 for plies after getCutoffPlies().
+	 */
+	public long getCutoffs(int ply) { return ply < cutoffs.length ? cutoffs[ply] : 0; }
+
+	/**
+	 * Get the number of plies cutoffs are kept for, i.e. the last ply with
+	 * a cutoff plus one.
+	 *
+	 * @return The number of plies.
+	 */
+	public int getCutoffPlies() { return cutoffs.length; }
+
+	public long getExtensions() { return extensions; }
+
+	public long getQuiescenceNodes() { return quiescenceNodes; }
+
+	public long getResearches() { return researches; }
+
+	public long getAspirationFailHighs() { return aspirationFailHighs; }
+
+	public long getAspirationFailLows() { return aspirationFailLows; }
+
+	public int getMaxPly() { return maxPly; }
+
+	public int getMaxCascadeRounds() { return maxCascadeRounds; }
+
+	public long getTtProbes() { return ttProbes; }
+
+	public long getTtHits() { return ttHits; }
+
+	public double getTtHitRate() {
+		return ttProbes == 0 ? 0.0 : (double) ttHits / ttProbes;
+	}
+
+	public double getBranchingFactor() { return branchingFactor; }
+
+	/**
+	 * Get the number of evaluated nodes per second of wall time.
+	 *
+	 * @return The search speed, or 0.0 if the search took no measurable time.
+	 */
+	public double getNodesPerSecond() {
+		return wallMillis == 0 ? 0.0 : nodesEvaluated * 1000.0 / wallMillis;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Creates a single line describing the search, as a list of space
+	 * separated "key=value" pairs. Cutoffs per ply are joined by '/'.
+	 *
+	 * @return A log line, without a line terminator.
+	 */
+	public String toLogLine() {
+		StringBuilder plyCutoffs = new StringBuilder();
+
+		for (int ply = 0; ply < cutoffs.length; ply++) {
+			if (ply > 0) plyCutoffs.append('/');
+			plyCutoffs.append(cutoffs[ply]);
+		}
+
+		return String.format(Locale.ROOT,
+				"time=%d player=%d move=%d wallMs=%d gcMs=%d depth=%d aborted=%b " +
+				"nodes=%d expanded=%d nps=%.0f branching=%.2f cutoffs=%s " +
+				"extensions=%d qnodes=%d researches=%d aspFailHigh=%d aspFailLow=%d " +
+				"maxPly=%d maxCascade=%d ttProbes=%d ttHitRate=%.3f",
+				timestamp, playerId, moveNumber, wallMillis, gcMillis, completedDepth, aborted,
+				nodesEvaluated, nodesExpanded, getNodesPerSecond(), branchingFactor,
+				plyCutoffs.length() == 0 ? "0" : plyCutoffs.toString(),
+				extensions, quiescenceNodes, researches, aspirationFailHighs, aspirationFailLows,
+				maxPly, maxCascadeRounds, ttProbes, getTtHitRate());
+	}
+
+	@Override
+	public String toString() { return toLogLine(); }
+}
@@ -0,0 +1,266 @@
+package gr.auth.ee.dsproject.crush.metrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * RollingLogSink appends the statistics of every move, as a single line,
+ * to a log file.
+ *
+ * Once the log grows past a size limit it is rolled: "log" is renamed to
+ * "log.1", "log.1" to "log.2" and so on, while the oldest one is deleted,
+ * so at most maxFiles files are kept, including the current one.
+ *
+ * A sink should never throw, so a failed write does not reach the player.
+ * The log is reopened on the next move and the failure is kept, to be
+ * retrieved through getLastError().
+ *
+ * Instances are thread-safe, so a single log can be shared by players
+ * searching on different threads. Separate instances writing to the same
+ * file would roll it independently of each other, sending the lines of
+ * the rest to the rolled file, so players should get their sink through
+ * acquire(), which returns a single instance for every file, and give it
+ * back through release() once done with it. The last release closes it.
+ *
+ * Constants defined in RollingLogSink:
+ * -public static final long DEFAULT_MAX_BYTES = 1 MiB
+ * -public static final int DEFAULT_MAX_FILES = 5
+ *
+ * Public constructors defined in RollingLogSink:
+ * -public RollingLogSink(String filename)
+ * -public RollingLogSink(String filename, long maxBytes, int maxFiles)
+ * 		throws InvalidLimitRuntimeException
+ *
+ * Static public methods defined in RollingLogSink:
+ * -public static RollingLogSink acquire(String filename)
+ * -public static void release(RollingLogSink sink)
+ *
+ * Public methods defined in RollingLogSink:
+ * -public String getFilename()
+ * -public IOException getLastError()
+ * -public synchronized void record(MoveMetrics metrics)
+ * -public synchronized void close()
+ *
+ * Exceptions defined in RollingLogSink:
+ * -public static class InvalidLimitRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class RollingLogSink implements MetricsSink {
+
+//==== Public Constants ====
+
+	public static final long DEFAULT_MAX_BYTES = 1024 * 1024;
+	public static final int DEFAULT_MAX_FILES = 5;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Sinks given by acquire(), by the canonical path of their log.
+	 */
+	private static final Map<String, RollingLogSink> SHARED = new HashMap<String, RollingLogSink>();
+
+
+//==== Instance Variables ====
+
+	private final String filename;
+	private final long maxBytes;
+	private final int maxFiles;
+
+	private Writer writer;
+
+	/**
+	 * Size of the current log file, as known to the sink.
+	 */
+	private long size;
+
+	private volatile IOException lastError;
+
+	/**
+	 * Number of acquire() calls not released yet. Guarded by SHARED.
+	 */
+	private int users;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new RollingLogSink that rolls its log every DEFAULT_MAX_BYTES
+	 * and keeps up to DEFAULT_MAX_FILES files.
+	 *
+	 * @param filename The path of the log file.
+	 */
+	public RollingLogSink(String filename) {
+		this(filename, DEFAULT_MAX_BYTES, DEFAULT_MAX_FILES);
+	}
+
+	/**
+	 * Create a new RollingLogSink.
+	 *
+	 * @param filename The path of the log file.
+	 * @param maxBytes The size in bytes after which the log is rolled.
+	 * @param maxFiles The number of files kept, including the current log.
+	 * @throws InvalidLimitRuntimeException
+	 */
+	public RollingLogSink(String filename, long maxBytes, int maxFiles)
+			throws InvalidLimitRuntimeException
+	{
+		if (maxBytes < 1 || maxFiles < 1) throw new InvalidLimitRuntimeException();
+
+		this.filename = filename;
+		this.maxBytes = maxBytes;
+		this.maxFiles = maxFiles;
+	}
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Get the sink shared by everyone writing to the given log, creating
+	 * it with the default limits if not acquired yet. Every call should be
+	 * followed by a call to release() once the sink is no longer used.
+	 *
+	 * @param filename The path of the log file. Paths leading to the same
+	 * 				   file give the same sink.
+	 * @return The shared sink of the log.
+	 */
+	public static RollingLogSink acquire(String filename) {
+		String path = canonicalPath(filename);
+
+		synchronized (SHARED) {
+			RollingLogSink sink = SHARED.get(path);
+
+			if (sink == null) {
+				sink = new RollingLogSink(path);
+				SHARED.put(path, sink);
+			}
+
+			sink.users++;
+
+			return sink;
+		}
+	}
+
+	/**
+	 * Gives back a sink got through acquire(). Once every user of it has
+	 * released it, it is closed, and the next acquire() of its log creates
+	 * a new one. Sinks not got through acquire() are left as they are.
+	 *
+	 * @param sink The sink to be released.
+	 */
+	public static void release(RollingLogSink sink) {
+		synchronized (SHARED) {
+			if (SHARED.get(sink.filename) != sink || --sink.users > 0) return;
+
+			SHARED.remove(sink.filename);
+		}
+
+		sink.close();
+	}
+
+
+//==== Public Getters ====
+
+	public String getFilename() { return filename; }
+
+	/**
+	 * Get the error of the last write that failed.
+	 *
+	 * @return The error, or null if no write has failed.
+	 */
+	public IOException getLastError() { return lastError; }
+
+
+//==== Public Methods ====
+
+	@Override
+	public synchronized void record(MoveMetrics metrics) {
+		String line = metrics.toLogLine() + System.lineSeparator();
+
+		try {
+			if (writer == null) open();
+
+			writer.write(line);
+			writer.flush();
+			size += line.length();
+
+			if (size >= maxBytes) roll();
+
+		} catch (IOException e) {
+			lastError = e;
+			close();
+		}
+	}
+
+	/**
+	 * Closes the current log file. It is reopened on the next record.
+	 */
+	public synchronized void close() {
+		if (writer == null) return;
+
+		try {
+			writer.close();
+		} catch (IOException e) {
+			lastError = e;
+		}
+
+		writer = null;
+	}
+
+
+//==== Private Methods ====
+
+	private static String canonicalPath(String filename) {
+		File file = new File(filename);
+
+		try {
+			return file.getCanonicalPath();
+		} catch (IOException e) {
+			return file.getAbsolutePath();
+		}
+	}
+
+	private void open() throws IOException {
+		File file = new File(filename);
+
+		writer = new FileWriter(file, true);
+		size = file.length();
+	}
+
+	/**
+	 * Shifts every kept log by one, dropping the oldest one.
+	 */
+	private void roll() throws IOException {
+		close();
+
+		if (maxFiles == 1) {
+			if (!new File(filename).delete()) throw new IOException("Cannot delete " + filename);
+			return;
+		}
+
+		new File(filename + "." + (maxFiles - 1)).delete();
+
+		for (int i = maxFiles - 2; i >= 1; i--) {
+			File older = new File(filename + "." + i);
+			if (older.exists()) older.renameTo(new File(filename + "." + (i + 1)));
+		}
+
+		if (!new File(filename).renameTo(new File(filename + ".1"))) {
+			throw new IOException("Cannot roll " + filename);
+		}
+	}
+
+
+//==== Exceptions ====
+
+	public static class InvalidLimitRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,308 @@
+package gr.auth.ee.dsproject.crush.metrics;
+
+import java.util.Arrays;
+
+
+/**
+ * SearchStatistics counts the work a single search thread does.
+ *
+ * Every search thread updates only its own SearchStatistics, through
+ * the SearchContext it searches with, so counters are plain fields that
+ * need neither locking nor atomic operations and cost next to nothing.
+ * Statistics of multiple threads are summed up through add() once their
+ * searches are over.
+ *
+ * Counted are:
+ * -evaluated nodes, i.e. every state the search reaches,
+ * -expanded nodes, i.e. states whose children have been created, along
+ *  with the number of children created,
+ * -beta cutoffs, per ply,
+ * -extra turn extensions, i.e. states searched one ply deeper because
+ *  they have been reached through an extra turn,
+ * -quiescence nodes, i.e. states reached by extending the tactical moves
+ *  of leaves, which are counted as evaluated nodes too,
+ * -re-searches, i.e. children searched again because a null window
+ *  search proved them better than expected,
+ * -aspiration re-searches, i.e. iterations searched again because their
+ *  root value fell outside of the aspiration window, separately for
+ *  values above (fail high) and below (fail low) the window,
+ * -the greatest ply reached and the longest cascade of crushes met,
+ * -transposition table probes and hits.
+ *
+ * Plies deeper than MAX_PLY - 1 are counted as MAX_PLY - 1.
+ *
+ * Constants defined in SearchStatistics:
+ * -public static final int MAX_PLY = 64
+ *
+ * Public constructors defined in SearchStatistics:
+ * -public SearchStatistics()
+ *
+ * Public methods defined in SearchStatistics:
+ * -public long getNodesEvaluated()
+ * -public long getNodesExpanded()
+ * -public long getChildrenCreated()
+ * -public long getCutoffs()
+ * -public long getCutoffs(int ply)
+ * -public long getExtensions()
+ * -public long getQuiescenceNodes()
+ * -public long getResearches()
+ * -public long getAspirationFailHighs()
+ * -public long getAspirationFailLows()
+ * -public int getMaxPly()
+ * -public int getMaxCascadeRounds()
+ * -public long getTtProbes()
+ * -public long getTtHits()
+ * -public double getTtHitRate()
+ * -public double getBranchingFactor()
+ * -public void nodeEvaluated(int ply, int cascadeRounds)
+ * -public void nodeExpanded(int children)
+ * -public void cutoff(int ply)
+ * -public void extension()
+ * -public void quiescenceNode()
+ * -public void research()
+ * -public void aspirationFailed(boolean high)
+ * -public void ttProbe(boolean hit)
+ * -public void clear()
+ * -public void add(SearchStatistics other)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class SearchStatistics {
+
+//==== Public Constants ====
+
+	/**
+	 * Number of plies cutoffs are counted separately for.
+	 */
+	public static final int MAX_PLY = 64;
+
+
+//==== Instance Variables ====
+
+	private long nodesEvaluated;
+	private long nodesExpanded;
+	private long childrenCreated;
+	private long extensions;
+	private long quiescenceNodes;
+	private long researches;
+	private long aspirationFailHighs;
+	private long aspirationFailLows;
+	private long ttProbes;
+	private long ttHits;
+
+	private int maxPly;
+	private int maxCascadeRounds;
+
+	private final long[] cutoffs;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new SearchStatistics with every counter at 0.
+	 */
+	public SearchStatistics() {
+		cutoffs = new long[MAX_PLY];
+	}
+
+
+//==== Public Getters ====
+
+	public long getNodesEvaluated() { return nodesEvaluated; }
+
+	public long getNodesExpanded() { return nodesExpanded; }
+
+	public long getChildrenCreated() { return childrenCreated; }
+
+	/**
+	 * Get the number of beta cutoffs of every ply.
+	 *
+	 * @return The total number of cutoffs.
+	 */
+	public long getCutoffs() {
+		long total = 0;
+		for (long plyCutoffs : cutoffs) total += plyCutoffs;
+
+		return total;
+	}
+
+	/**
+	 * Get the number of beta cutoffs that happened on states of the
+	 * given ply.
+	 *
+	 * @param ply The distance of the states from the root of the search.
+	 * @return The number of cutoffs of the ply.
+	 */
+	public long getCutoffs(int ply) { return cutoffs[plyIndex(ply)]; }
+
+	public long getExtensions() { return extensions; }
+
+	public long getQuiescenceNodes() { return quiescenceNodes; }
+
+	public long getResearches() { return researches; }
+
+	public long getAspirationFailHighs() { return aspirationFailHighs; }
+
+	public long getAspirationFailLows() { return aspirationFailLows; }
+
+	/**
+	 * Get the greatest distance from the root of the search that a state
+	 * has been evaluated at, including plies added by extra turns.
+	 *
+	 * @return The greatest ply reached.
+	 */
+	public int getMaxPly() { return maxPly; }
+
+	/**
+	 * Get the greatest number of crushing rounds a single move of the
+	 * search caused.
+	 *
+	 * @return The length of the longest cascade.
+	 */
+	public int getMaxCascadeRounds() { return maxCascadeRounds; }
+
+	public long getTtProbes() { return ttProbes; }
+
+	public long getTtHits() { return ttHits; }
+
+	/**
+	 * Get the fraction of transposition table probes that found the
+	 * probed state.
+	 *
+	 * @return A value between 0.0 and 1.0, or 0.0 if nothing was probed.
+	 */
+	public double getTtHitRate() {
+		return ttProbes == 0 ? 0.0 : (double) ttHits / ttProbes;
+	}
+
+	/**
+	 * Get the average number of children of an expanded state.
+	 *
+	 * @return The average branching factor, or 0.0 if no state was expanded.
+	 */
+	public double getBranchingFactor() {
+		return nodesExpanded == 0 ? 0.0 : (double) childrenCreated / nodesExpanded;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Records that a state has been reached by the search.
+	 *
+	 * @param ply The distance of the state from the root of the search.
+	 * @param cascadeRounds The number of crushing rounds of the move that
+	 * 						led to the state, or 0 if not known.
+	 */
+	public void nodeEvaluated(int ply, int cascadeRounds) {
+		nodesEvaluated++;
+
+		if (ply > maxPly) maxPly = ply;
+		if (cascadeRounds > maxCascadeRounds) maxCascadeRounds = cascadeRounds;
+	}
+
+	/**
+	 * Records that the children of a state have been created.
+	 *
+	 * @param children The number of children created.
+	 */
+	public void nodeExpanded(int children) {
+		nodesExpanded++;
+		childrenCreated += children;
+	}
+
+	/**
+	 * Records a beta cutoff on a state of the given ply.
+	 *
+	 * @param ply The distance of the state from the root of the search.
+	 */
+	public void cutoff(int ply) { cutoffs[plyIndex(ply)]++; }
+
+	/**
+	 * Records that a state is searched one ply deeper due to an extra turn.
+	 */
+	public void extension() { extensions++; }
+
+	/**
+	 * Records that a state has been reached by a quiescence search. The
+	 * state should be recorded through nodeEvaluated() too.
+	 */
+	public void quiescenceNode() { quiescenceNodes++; }
+
+	/**
+	 * Records that a state is searched again with a wider window.
+	 */
+	public void research() { researches++; }
+
+	/**
+	 * Records that an iteration is searched again, because its root value
+	 * fell outside of the aspiration window it was searched with.
+	 *
+	 * @param high True if value was above the window, false if below it.
+	 */
+	public void aspirationFailed(boolean high) {
+		if (high) aspirationFailHighs++;
+		else aspirationFailLows++;
+	}
+
+	/**
+	 * Records a probe of the transposition table.
+	 *
+	 * @param hit True if the probed state was found.
+	 */
+	public void ttProbe(boolean hit) {
+		ttProbes++;
+		if (hit) ttHits++;
+	}
+
+	/**
+	 * Resets every counter to 0.
+	 */
+	public void clear() {
+		nodesEvaluated = 0;
+		nodesExpanded = 0;
+		childrenCreated = 0;
+		extensions = 0;
+		quiescenceNodes = 0;
+		researches = 0;
+		aspirationFailHighs = 0;
+		aspirationFailLows = 0;
+		ttProbes = 0;
+		ttHits = 0;
+		maxPly = 0;
+		maxCascadeRounds = 0;
+
+		Arrays.fill(cutoffs, 0);
+	}
+
+	/**
+	 * Adds the counters of the given statistics to the ones of these
+	 * statistics. Greatest values are kept for the greatest ply and cascade.
+	 *
+	 * @param other The statistics to be added.
+	 */
+	public void add(SearchStatistics other) {
+		nodesEvaluated += other.nodesEvaluated;
+		nodesExpanded += other.nodesExpanded;
+		childrenCreated += other.childrenCreated;
+		extensions += other.extensions;
+		quiescenceNodes += other.quiescenceNodes;
+		researches += other.researches;
+		aspirationFailHighs += other.aspirationFailHighs;
+		aspirationFailLows += other.aspirationFailLows;
+		ttProbes += other.ttProbes;
+		ttHits += other.ttHits;
+		maxPly = Math.max(maxPly, other.maxPly);
+		maxCascadeRounds = Math.max(maxCascadeRounds, other.maxCascadeRounds);
+
+		for (int i = 0; i < MAX_PLY; i++) cutoffs[i] += other.cutoffs[i];
+	}
+
+
+//==== Private Methods ====
+
+	private static int plyIndex(int ply) {
+		return Math.min(ply, MAX_PLY - 1);
+	}
+}
@@ -3,12 +3,15 @@ package gr.auth.ee.dsproject.crush.node;
 import java.util.ArrayList;
 
 import gr.auth.ee.dsproject.crush.board.Board;
-import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.heuristics.CompiledHeuristicsEngine;
 import gr.auth.ee.dsproject.crush.heuristics.HeuristicsEngine;
 import gr.auth.ee.dsproject.crush.heuristics.SliderMathModel;
 import gr.auth.ee.dsproject.crush.player.CandiesRemovedHeuristic;
 import gr.auth.ee.dsproject.crush.player.DistanceFromTopHeuristic;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
 
 
 /**
@@ -16,43 +19,62 @@ import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
  * needed in an a tree representing the state of 
  * a ThmmyCrush Board.
  * 
+ * The move of a node is kept packed by PackedMove, the form the search
+ * handles moves in. Children are created with packed moves only, while
+ * the PlayerMove of a node is only created when asked for.
  * 
  * Public constructors defined in Node:
  * -public Node()
  * -public Node(Node parent)
  * -public Node(Node parent, Board board)
  * -public Node(Node parent, Board board, PlayerMove move)
+ * -public Node(Node parent, Board board, PlayerMove move, CascadeResult cascade)
+ * -public Node(Node parent, Board board, int move, CascadeResult cascade)
  * 
  * Public methods defined in Node:
  * -public Node getParent()
  * -public ArrayList<Node> getChildren()
  * -public Board getNodeBoard()
  * -public int getNodeDepth()
+ * -public int getPackedMove()
  * -public PlayerMove getNodeMove()
  * -public double getNodeEvaluation()
+ * -public CascadeResult getCascadeResult()
  * -public void setParent(Node parent)
  * -public void setChildren(ArrayList<Node> children)
  * -public void setNodeBoard(Board nodeBoard)
  * -public void setNodeDepth(int nodeDepth)
  * -public void setNodeMove(PlayerMove nodeMove)
  * -public void setNodeEvaluation(double nodeEvaluation)
+ * -public void setCascadeResult(CascadeResult cascade)
  * -public void addChild(Node child) throws NullNodeRuntimeException
  * -public void createChildren()
  * -public double evaluate(boolean negative)
  * -public boolean leadsToExtraTurn() throws NonEvaluatedNodeException
  * 
  * Private methods defined in Node:
- * -private double doHeuristicEvaluation(Board board, PlayerMove move)
+ * -private double doHeuristicEvaluation(Board board)
+ * -private static CompiledHeuristicsEngine createEngine()
  * 
  * Exceptions defined in Node:
  * -public static class NullNodeRuntimeException extends RuntimeException
  * -public static class NonEvaluatedNodeException extends RuntimeException
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.4
+ * @version 0.6
  */
 public class Node {
 	
+//==== Private Constants ====
+	
+	/**
+	 * The engine moves with a known outcome are evaluated by. It is
+	 * compiled once and shared by every node, even across threads,
+	 * since its heuristics keep no state.
+	 */
+	private static final CompiledHeuristicsEngine ENGINE = createEngine();
+	
+	
 //==== Private instance variables ====
 	
 	/**
@@ -72,7 +94,13 @@ public class Node {
 	private int nodeDepth;
 	
 	/**
-	 * The PlayerMove object associated with this node.
+	 * The move associated with this node, packed by PackedMove.
+	 */
+	private int packedMove;
+	
+	/**
+	 * The PlayerMove object associated with this node. For nodes
+	 * created by a packed move, it is null until asked for.
 	 */
 	private PlayerMove nodeMove;
 	
@@ -98,6 +126,12 @@ public class Node {
 	 */
 	private boolean hasEvaluated;
 	
+	/**
+	 * The outcome of the move that lead to this node, as simulated
+	 * when this node was created. 
+	 */
+	private CascadeResult cascade;
+	
 	
 //==== Public Constructors ====
 	
@@ -106,6 +140,7 @@ public class Node {
 	 */
 	public Node() {
 		children = new ArrayList<>();
+		packedMove = PackedMove.NO_MOVE;
 		extraTurn = false;
 		hasEvaluated = false;
 	}
@@ -151,7 +186,47 @@ public class Node {
 		this();
 		this.parent = parent;
 		this.nodeBoard = board;
-		this.nodeMove = move;
+		setNodeMove(move);
+	}
+	
+	/**
+	 * Create a new node by providing the parent node, the board
+	 * representing the current state, the move that lead to this
+	 * state and the outcome of this move on the parent's board.
+	 * 
+	 * The outcome is reused upon evaluation of the node, so the
+	 * move doesn't need to be simulated again.
+	 *  
+	 * @param parent A Node object representing the previous state.
+	 * @param board A Board object representing the current state of
+	 * 				the game.
+	 * @param move A PlayerMove object representing the move which lead
+	 * 			   to current state.
+	 * @param cascade The outcome of move, as simulated on the parent's
+	 * 				  board. It may be null.
+	 */
+	public Node(Node parent, Board board, PlayerMove move, CascadeResult cascade) {
+		this(parent, board, move);
+		this.cascade = cascade;
+	}
+	
+	/**
+	 * Create a new node by providing the parent node, the board
+	 * representing the current state, the packed move that lead to
+	 * this state and the outcome of this move on the parent's board.
+	 * 
+	 * @param parent A Node object representing the previous state.
+	 * @param board A Board object representing the current state of
+	 * 				the game.
+	 * @param move The move which lead to current state, packed by
+	 * 			   PackedMove.
+	 * @param cascade The outcome of move, as simulated on the parent's
+	 * 				  board. It may be null.
+	 */
+	public Node(Node parent, Board board, int move, CascadeResult cascade) {
+		this(parent, board);
+		this.packedMove = move;
+		this.cascade = cascade;
 	}
 	
 	
@@ -188,12 +263,39 @@ public class Node {
 	 */
 	public int getNodeDepth() { return this.nodeDepth; }
 	
+	/**
+	 * Get the move associated with this node, packed by PackedMove.
+	 * 
+	 * When the node was given a PlayerMove, it is packed on the first call.
+	 * 
+	 * @return The packed move, or PackedMove.NO_MOVE if there is none.
+	 */
+	public int getPackedMove() {
+		if (packedMove == PackedMove.NO_MOVE && nodeMove != null) {
+			packedMove = PackedMove.pack(nodeMove);
+		}
+		
+		return this.packedMove;
+	}
+	
 	/**
 	 * Get the move associated with this node.
 	 * 
+	 * When the node was created by a packed move, the PlayerMove is created
+	 * out of the parent's board on the first call. Thus, it is null if the
+	 * board of the parent is not available any more.
+	 * 
 	 * @return The PlayerMove object associated with this node.
 	 */
-	public PlayerMove getNodeMove() { return this.nodeMove; }
+	public PlayerMove getNodeMove() {
+		if (nodeMove == null && packedMove != PackedMove.NO_MOVE &&
+			parent != null && parent.getNodeBoard() != null)
+		{
+			nodeMove = PackedMove.toPlayerMove(packedMove, parent.getNodeBoard());
+		}
+		
+		return this.nodeMove;
+	}
 	
 	/**
 	 * Get the evaluation of this node.
@@ -203,6 +305,14 @@ public class Node {
 	 */
 	public double getNodeEvaluation() { return this.nodeEvaluation; }
 	
+	/**
+	 * Get the outcome of the move that lead to this node.
+	 * 
+	 * @return The CascadeResult of the node's move, or null if
+	 * 		   it is not known.
+	 */
+	public CascadeResult getCascadeResult() { return this.cascade; }
+	
 	
 //==== Public Setters ====
 	
@@ -243,7 +353,10 @@ public class Node {
 	 * 
 	 * @param nodeMove A PlayerMove object to be set as the node's move.
 	 */
-	public void setNodeMove(PlayerMove nodeMove) { this.nodeMove = nodeMove; }
+	public void setNodeMove(PlayerMove nodeMove) {
+		this.nodeMove = nodeMove;
+		this.packedMove = PackedMove.NO_MOVE;
+	}
 	
 	/**
 	 * Sets the evaluation score of this node.
@@ -253,6 +366,13 @@ public class Node {
 	 */
 	public void setNodeEvaluation(double nodeEvaluation) { this.nodeEvaluation = nodeEvaluation; }
 	
+	/**
+	 * Sets the outcome of the move that lead to this node.
+	 * 
+	 * @param cascade A CascadeResult of the node's move.
+	 */
+	public void setCascadeResult(CascadeResult cascade) { this.cascade = cascade; }
+	
 
 //==== Public Methods ====
 	
@@ -285,21 +405,27 @@ public class Node {
      * with its move set to the move lead there, its board set to
      * the board this move caused to be created and parent set to
      * given node.
+     * 
+     * Every move is simulated once by a CascadeSimulator and its outcome
+     * is kept in the child, to be reused when the child is evaluated.
+     * 
+     * Available moves are the ones CrushUtilities.getAvailableMoves() would
+     * return. When the board of the node is the one its move led to, they
+     * are derived from the moves of the parent's board, by checking again
+     * only the moves near the tiles the move changed.
+     * 
+     * Children are given their packed moves only, so no PlayerMove or
+     * move array is allocated per child.
      */
     public void createChildren() {
     	
-    	for (int[] dirMove : CrushUtilities.getAvailableMoves(nodeBoard)) {
-    		
-    		// Convert old style move of [x, y, direction] to PlayerMove object.
-    		int[] cordsMove = CrushUtilities.calculateNextMove(dirMove);
-    		PlayerMove move = new PlayerMove(
-    				nodeBoard.giveTileAt(cordsMove[0], cordsMove[1]),
-    				nodeBoard.giveTileAt(cordsMove[2], cordsMove[3])
-    		);
+    	CascadeSimulator simulator = new CascadeSimulator(nodeBoard, cascade);
+    	
+    	for (int move : simulator.getAvailableMoves().toPackedArray()) {
     		
-    		Board afterMoveBoard = CrushUtilities.boardAfterFullMove(nodeBoard, dirMove);
+    		CascadeResult result = simulator.simulate(move);
     		
-    		addChild(new Node(this, afterMoveBoard, move));
+    		addChild(new Node(this, result.getBoard(), move, result));
     	}
     }
 	
@@ -327,12 +453,12 @@ public class Node {
     	
     	} else if (negative) {
     		setNodeEvaluation(
-    				-doHeuristicEvaluation(parent.getNodeBoard(), nodeMove)
+    				-doHeuristicEvaluation(parent.getNodeBoard())
     		);
     	
     	} else {
     		setNodeEvaluation(
-    				doHeuristicEvaluation(parent.getNodeBoard(), nodeMove)
+    				doHeuristicEvaluation(parent.getNodeBoard())
     		);
     	}
 		
@@ -364,22 +490,32 @@ public class Node {
 //==== Private methods ====
 	
 	/**
-     * Does a heuristic evaluation of the given move, based on the
-     * given board.
+     * Does a heuristic evaluation of the move of this node, based on
+     * the given board.
      * 
      * Evaluation is done using the following heuristics:
      *   -CandiesRemovedHeuristic
      *   -DistanceFromTopHeuristic
      * 
+     * When the outcome of the move is known, the shared compiled engine
+     * is used and nothing is allocated.
+     * 
      * @param board A board on which the move will be evaluated.
-     * @param move The move to be evaluated.
      * @return A double representing how good the move is.
      */
-    private double doHeuristicEvaluation(Board board, PlayerMove move) {
+    private double doHeuristicEvaluation(Board board) {
+    	
+    	if (cascade != null) {
+    		extraTurn = cascade.leadsToExtraTurn();
+    		
+    		return ENGINE.evaluate(getPackedMove(), board, cascade);
+    	}
+    	
+    	PlayerMove move = getNodeMove();
     	
     	HeuristicsEngine engine = new HeuristicsEngine(new SliderMathModel(1.7));
     	
-    	CandiesRemovedHeuristic candyHeur = new CandiesRemovedHeuristic(move, board);
+    	CandiesRemovedHeuristic candyHeur = new CandiesRemovedHeuristic(move, board, cascade);
     	
     	engine.add(candyHeur, SliderMathModel.VERY_HIGH);
     	engine.add(new DistanceFromTopHeuristic(move, board), SliderMathModel.VERY_LOW);
@@ -394,6 +530,22 @@ public class Node {
     	return score;
     }
     
+    /**
+     * Creates the compiled engine moves with a known outcome are evaluated
+     * by. It uses the same heuristics and weights as doHeuristicEvaluation().
+     * 
+     * @return A compiled engine.
+     */
+    private static CompiledHeuristicsEngine createEngine() {
+    	CompiledHeuristicsEngine engine = new CompiledHeuristicsEngine(new SliderMathModel(1.7));
+    	
+    	engine.add(new CandiesRemovedHeuristic(), SliderMathModel.VERY_HIGH);
+    	engine.add(new DistanceFromTopHeuristic(), SliderMathModel.VERY_LOW);
+    	engine.compile();
+    	
+    	return engine;
+    }
+    
 	
 //==== Exceptions defined in Node ====
 	
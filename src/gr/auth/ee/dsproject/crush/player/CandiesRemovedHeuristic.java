@@ -4,10 +4,15 @@ import java.util.HashSet;
 import java.util.Set;
 
 import gr.auth.ee.dsproject.crush.heuristics.Heuristic;
+import gr.auth.ee.dsproject.crush.heuristics.MoveHeuristic;
 import gr.auth.ee.dsproject.crush.board.Board;
 import gr.auth.ee.dsproject.crush.board.CrushUtilities;
 import gr.auth.ee.dsproject.crush.board.Tile;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.BitBoardMatcher;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+import gr.auth.ee.dsproject.crush.primitive.PrimitiveBoard;
 import gr.auth.ee.dsproject.crush.util.BoardUtils;
 
 
@@ -19,6 +24,11 @@ import gr.auth.ee.dsproject.crush.util.BoardUtils;
  * A common way to create an instance of it is the following:
  * "CandiesRemovedHeuristic heur = new CandiesRemovedHeuristic(aMove, aBoard)"
  * 
+ * When the move has already been simulated by a CascadeSimulator, its
+ * CascadeResult can be given too, so evaluation is based on it instead
+ * of simulating the move again:
+ * "new CandiesRemovedHeuristic(aMove, aBoard, aCascadeResult)"
+ * 
  * It can be either passed to a HeuristicsEngine object or used
  * independently like following:
  * "double score = heur.evaluate();"
@@ -34,20 +44,26 @@ import gr.auth.ee.dsproject.crush.util.BoardUtils;
  * Public constructors defined in CandiesRemovedHeuristic:
  * -public CandiesRemovedHeuristic()
  * -public CandiesRemovedHeuristic(PlayerMove move, Board board)
+ * -public CandiesRemovedHeuristic(PlayerMove move, Board board, CascadeResult cascade)
  * 
  * Public methods defined in CandiesRemovedHeuristic:
  * -public void setBoard(Board board)
  * -public void setPlayerMove(PlayerMove move)
+ * -public void setCascadeResult(CascadeResult cascade)
  * -public Board getBoard()
  * -public PlayerMove getPlayerMove()
+ * -public CascadeResult getCascadeResult()
  * -public double evaluate()
+ * -public double evaluate(int move, Board board, CascadeResult cascade)
  * -public Set<Tile> initialCandiesRemoved()
- * -public double countChainedCandiesRemoved(Board currentBoard)																			   
+ * -public double countChainedCandiesRemoved(Board currentBoard)
+ * -public double calculateChainedMovesScore(Board board, double base)
+ * -public double calculateChainedMovesScore(PrimitiveBoard board, double base)																			   
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.4
+ * @version 0.6
  */
-public class CandiesRemovedHeuristic extends Heuristic {
+public class CandiesRemovedHeuristic extends Heuristic implements MoveHeuristic {
 
 // ==== Public Constants ====
 	/**
@@ -68,6 +84,11 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 */
 	private Board board;
 	
+	/**
+	 * The outcome of the move, if it has already been simulated.
+	 */
+	private CascadeResult cascade;
+	
 	/**
 	 * An indicator that indicates whether the move the player did,
 	 * initiates an extra turn for him or not.
@@ -105,6 +126,22 @@ public class CandiesRemovedHeuristic extends Heuristic {
 		this.board = board;
 	}
 	
+	/**
+	 * Create a new CandiesRemovedHeuristic with a player's move, the
+	 * board this move is going to have an effect and the outcome of
+	 * the move on this board.
+	 * 
+	 * @param move The move the heuristic will evaluate. 
+	 * @param board The board on which this move is going to be
+	 * 				evaluated.
+	 * @param cascade The outcome of the move, as simulated by a
+	 * 				  CascadeSimulator. It may be null.
+	 */
+	public CandiesRemovedHeuristic(PlayerMove move, Board board, CascadeResult cascade) {
+		this(move, board);
+		this.cascade = cascade;
+	}
+	
 	
 // ==== Public Setters ====
 	
@@ -122,6 +159,15 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 * @param move The move to be evaluated.
 	 */
 	public void setPlayerMove(PlayerMove move) { this.move = move; }
+	
+	/**
+	 * Set the outcome of the move to be evaluated. If set to null, the
+	 * move is simulated again upon evaluation.
+	 * 
+	 * @param cascade The outcome of the move, as simulated by a
+	 * 				  CascadeSimulator.
+	 */
+	public void setCascadeResult(CascadeResult cascade) { this.cascade = cascade; }
 		
 	
 // ==== Public Getters ====
@@ -141,6 +187,14 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 * @return PlayerMove associated with this object.
 	 */
 	public PlayerMove getPlayerMove() { return move; }
+	
+	/**
+	 * Get the outcome of the move currently associated with this
+	 * CandiesRemovedHeuristic object.
+	 * 
+	 * @return CascadeResult associated with this object, or null.
+	 */
+	public CascadeResult getCascadeResult() { return cascade; }
 		
 	
 // ==== Public Methods ====
@@ -166,6 +220,14 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	public double evaluate() {
 		double score = 0;
 		
+		// When the move has already been simulated, just score its rounds.
+		if (cascade != null) {
+			extraTurn = cascade.leadsToExtraTurn();
+			hasEvaluated = true;
+			
+			return scoreRounds(cascade);
+		}
+		
 		// Calculate the tiles removed directly by player's move.
 		score += initialCandiesRemoved().size();
 		
@@ -178,6 +240,27 @@ public class CandiesRemovedHeuristic extends Heuristic {
 		
 		return score;
 	}
+	
+	/**
+	 * Calculates the score of the given move on the given board, the same
+	 * way evaluate() does. Moves and boards associated with this heuristic
+	 * are not used, nor is the extra turn indicator set.
+	 * 
+	 * When the outcome of the move is given, the score is calculated out of
+	 * it without any other allocation. Otherwise, the move is simulated by
+	 * a new CandiesRemovedHeuristic.
+	 * 
+	 * @param move The move to be evaluated, packed by PackedMove.
+	 * @param board The board where the move should take effect.
+	 * @param cascade The outcome of the move on board. It may be null.
+	 * @return A score based on the removed tiles.
+	 */
+	@Override
+	public double evaluate(int move, Board board, CascadeResult cascade) {
+		if (cascade != null) return scoreRounds(cascade);
+		
+		return new CandiesRemovedHeuristic(PackedMove.toPlayerMove(move, board), board).evaluate();
+	}
 		
 	/**
 	 * Returns a set of candies to be removed upon playing the move
@@ -212,11 +295,16 @@ public class CandiesRemovedHeuristic extends Heuristic {
 				boardJustBeforeCrush.giveTileAt(move.getX2(), move.getY2())
 		};
 		
+		// Room for at most 2 same color tiles in each of the four directions.
+		Tile[] adjacentTiles = new Tile[8];
+		
 		for (Tile t : afterMoveTiles) {
 			// Find all the same color tiles around the current one.
-			Set<Tile> curTiles = BoardUtils.findAdjacentSameColorTiles(boardJustBeforeCrush, t, 2);
+			int found = BoardUtils.collectAdjacentSameColorTiles(
+					boardJustBeforeCrush, t, 2, adjacentTiles, 0
+			);
 			
-			tilesForRemoval.addAll(curTiles);
+			for (int i = 0; i < found; i++) tilesForRemoval.add(adjacentTiles[i]);
 			tilesForRemoval.add(t);  // The beginning tile is also an one possible for removal.
 		}
 		
@@ -304,24 +392,67 @@ public class CandiesRemovedHeuristic extends Heuristic {
 	 */
 	public double calculateChainedMovesScore(Board board, double base) 
 	{
-		// Find the tiles that can be removed from the board, i.e. they crush. 
-	    Set<Tile> tilesForRemoval = BoardUtils.findAllNPles(board);
-		 
-		board = CrushUtilities.boardAfterDeletingNples(board, board.getPRows());
+		return calculateChainedMovesScore(PrimitiveBoard.fromBoard(board), base);
+	}
+	
+	/**
+	 * Calculates score of candies removed by chained moves on the given
+	 * PrimitiveBoard, the same way calculateChainedMovesScore(Board, double)
+	 * does.
+	 * 
+	 * Crushes of every round are found on per color bitboards and the
+	 * resulting crush mask is applied in place, so the given board is left
+	 * in the state it has after all chained moves. 
+	 * 
+	 * @param board A board representing the state just after the actual
+	 * 				player's move has been done.
+	 * @param base The base multiplier which is going to be incremented by
+	 *             CHAINED_INCREMENT value and multiplied by the number of
+	 *             removed candies to form the final score.
+	 * @return The overall score of candies removed by chained moves.
+	 */
+	public double calculateChainedMovesScore(PrimitiveBoard board, double base) 
+	{
+		BitBoardMatcher matcher = new BitBoardMatcher(board.getCols(), board.getPRows());
+		long[] mask = new long[board.getCols()];
+		
+		double score = 0;
 		
-		// If at least a 3-in-a-row existed, there is a possibility that new
-		// chained moves have become available. Upon no removal, no chained
-		// moves are possible since board hasn't changed at all.
-		if (tilesForRemoval.size() > 2) {
-			double multiplier = base + CHAINED_INCREMENT;
-			return tilesForRemoval.size() * multiplier + 
-				   calculateChainedMovesScore(board, multiplier);
-		} else {
-			return 0;
+		while (true) {
+			// Find the tiles that can be removed from the board, i.e. they crush.
+			matcher.load(board);
+			int removed = matcher.findCrushMask(mask);
+			
+			// Upon no removal, no chained moves are possible since board
+			// hasn't changed at all.
+			if (removed < 3) return score;
+			
+			board.crush(mask);
+			
+			base += CHAINED_INCREMENT;
+			score += removed * base;
 		}
 	}
 
 	
+// ==== Private Methods ====
+	
+	/**
+	 * Scores the tiles removed on every round of the given cascade. Tiles
+	 * of round 0 score 1.0 each, while tiles of every next round score
+	 * CHAINED_INCREMENT more than the ones of the previous round.
+	 */
+	private static double scoreRounds(CascadeResult cascade) {
+		double score = 0;
+		
+		for (int round = 0; round < cascade.getRounds(); round++) {
+			score += cascade.getRemoved(round) * (1.0 + round * CHAINED_INCREMENT);
+		}
+		
+		return score;
+	}
+	
+	
 // ==== Exceptions defined in CandiesRemovedHeuristic ====
 	
 	/**
@@ -1,8 +1,11 @@
 package gr.auth.ee.dsproject.crush.player;
 
 import gr.auth.ee.dsproject.crush.heuristics.Heuristic;
+import gr.auth.ee.dsproject.crush.heuristics.MoveHeuristic;
 import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
 import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
 
 
 /**
@@ -26,11 +29,12 @@ import gr.auth.ee.dsproject.crush.board.Board;
  * -public PlayerMove getMove()
  * -public Board getBoard()
  * -public double evaluate()
+ * -public double evaluate(int move, Board board, CascadeResult cascade)
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.3
+ * @version 0.4
  */
-public class DistanceFromTopHeuristic extends Heuristic {
+public class DistanceFromTopHeuristic extends Heuristic implements MoveHeuristic {
 	PlayerMove move;
 	Board board;	
 	
@@ -105,12 +109,32 @@ public class DistanceFromTopHeuristic extends Heuristic {
 	 */
 	@Override
 	public double evaluate() {
-		int greaterY;
-		
-		// Use the greater y out of two tiles to calculate the score.
-		if (move.getY1() > move.getY2()) greaterY = move.getY1(); 
-		else greaterY = move.getY2();
-				
+		return score(Math.max(move.getY1(), move.getY2()), board);
+	}
+	
+	/**
+	 * Evaluate the given move based on the given board, the same way
+	 * evaluate() does. Moves and boards associated with this heuristic
+	 * are not used.
+	 * 
+	 * @param move The move to be evaluated, packed by PackedMove.
+	 * @param board The board on which the move is going to be evaluated.
+	 * @param cascade Not used by this heuristic.
+	 * @return A score between 0.0 and less than 100.0.
+	 */
+	@Override
+	public double evaluate(int move, Board board, CascadeResult cascade) {
+		return score(Math.max(PackedMove.getY(move), PackedMove.getTargetY(move)), board);
+	}
+	
+	
+// ==== Private Methods ====
+	
+	/**
+	 * Calculates the score of a move, given the greater y out of its
+	 * two tiles.
+	 */
+	private double score(int greaterY, Board board) {
 		return (100.0 / (double) board.getPRows()) * 
 			   (board.getPRows() - (double) greaterY - 1.0);
 	}
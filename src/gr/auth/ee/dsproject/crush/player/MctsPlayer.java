@@ -0,0 +1,631 @@
+package gr.auth.ee.dsproject.crush.player;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+import gr.auth.ee.dsproject.crush.primitive.PrimitiveBoard;
+import gr.auth.ee.dsproject.crush.search.MctsNode;
+import gr.auth.ee.dsproject.crush.util.BoardConfig;
+
+
+/**
+ * A player that uses Monte Carlo Tree Search, i.e. UCT with progressive
+ * widening, as defined by MctsNode.
+ *
+ * Every simulation starts from the root of the tree, selects children
+ * until it reaches a node visited for the first time, and then plays
+ * ROLLOUT_DEPTH more moves by a greedy policy, the same way
+ * HeuristicPlayer.moveEvaluation() prefers moves: the move crushing the
+ * most tiles, with ties broken in favor of moves further from the top,
+ * though a random move is played instead with a chance of
+ * ROLLOUT_EPSILON. The points both players score along the simulation,
+ * as scored by the game platform, are turned into a value between -1.0
+ * and 1.0 and added to every node of its path.
+ *
+ * Moves are played on a PrimitiveBoard of the first BOARD_ROWS rows of
+ * the board, and taken back at the end of every simulation, so a
+ * simulation allocates no boards at all. Tiles falling from beyond these
+ * rows are unknown and never crush. Moves of every node are ordered by
+ * the greedy policy too, so progressive widening adds the most promising
+ * ones first.
+ *
+ * Search runs until the time budget of the turn, as defined by
+ * waitingTime setting of boardConfig.properties, is about to run out, or
+ * until getMaxIterations() simulations have been run, if set. When more
+ * than one search thread is available, as defined by searchThreads
+ * setting, all threads of a ForkJoinPool search the same tree, each one
+ * on a board of its own, and virtual losses keep them apart. The move
+ * returned is the most visited child of the root. The threads of the pool
+ * are only released by close(), so a player should be closed once it has
+ * played its last move.
+ *
+ * Constants defined in MctsPlayer:
+ * -public static final double EXPLORATION = 1.0
+ * -public static final int ROLLOUT_DEPTH = 6
+ * -public static final double ROLLOUT_EPSILON = 0.1
+ * -public static final double REWARD_SCALE = 20.0
+ * -public static final int BOARD_ROWS = 33
+ * -public static final long TIME_SAFETY_MARGIN = 500
+ *
+ * Public constructors defined in MctsPlayer:
+ * -public MctsPlayer(Integer pid)
+ *
+ * Public methods defined in MctsPlayer:
+ * -public String getName()
+ * -public int getId()
+ * -public int getScore()
+ * -public long getWaitingTime()
+ * -public int getSearchThreads()
+ * -public long getMaxIterations()
+ * -public long getLastIterations()
+ * -public void setScore(int score)
+ * -public void setId(int id)
+ * -public void setName(String name)
+ * -public void setWaitingTime(long waitingTime)
+ * -public void setSearchThreads(int searchThreads)
+ * -public void setMaxIterations(long maxIterations)
+ * -public int[] getNextMove(ArrayList<int[]> availableMoves, Board board)
+ * -public void close()
+ *
+ * Classes defined in MctsPlayer:
+ * -private class Simulator extends RecursiveAction
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.3
+ */
+public class MctsPlayer implements AbstractPlayer, AutoCloseable {
+
+//==== Public Constants ====
+
+	/**
+	 * Defines the weight of the exploration term of UCT.
+	 */
+	public static final double EXPLORATION = 1.0;
+
+	/**
+	 * Defines the number of moves played by the greedy policy after the
+	 * tree is left.
+	 */
+	public static final int ROLLOUT_DEPTH = 6;
+
+	/**
+	 * Defines the chance of a random move being played by the greedy
+	 * policy instead of the best one.
+	 */
+	public static final double ROLLOUT_EPSILON = 0.1;
+
+	/**
+	 * Defines the points a simulation should lead by, for its value to be
+	 * about 0.76, i.e. tanh(1.0).
+	 */
+	public static final double REWARD_SCALE = 20.0;
+
+	/**
+	 * Defines the number of rows of the board simulations are played on.
+	 */
+	public static final int BOARD_ROWS = 33;
+
+	/**
+	 * Defines the time in ms that is left unused out of waitingTime, so
+	 * the move is always returned before the platform stops waiting.
+	 */
+	public static final long TIME_SAFETY_MARGIN = 500;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Least number of tiles crushed by the first round of a move, for the
+	 * move to grant an extra turn.
+	 */
+	private static final int EXTRA_TURN_CRUSH = 5;
+
+	/**
+	 * Growth of the score multiplier on every chained round of crushes.
+	 */
+	private static final double MULTIPLIER_STEP = 0.5;
+
+	/**
+	 * Greatest bonus of a move for being far from the top of the board.
+	 * It is lower than a single crushed tile, so it only breaks ties.
+	 */
+	private static final double DISTANCE_BONUS = 0.5;
+
+
+//==== Instance Variables ====
+
+	int score;
+	int id;
+	String name;
+
+	/**
+	 * The time in ms the platform waits for a move.
+	 */
+	private long waitingTime;
+
+	/**
+	 * Number of threads searching the tree.
+	 */
+	private int searchThreads;
+
+	/**
+	 * Pool of the search threads. It is created lazily, only when more
+	 * than one thread is used.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Number of simulations after which search stops, or 0 if search is
+	 * bounded by time only.
+	 */
+	private long maxIterations;
+
+	/**
+	 * Number of simulations run for the last returned move.
+	 */
+	private long lastIterations;
+
+	/**
+	 * Number of moves returned so far.
+	 */
+	private int moveNumber;
+
+
+//==== Public Constructors ====
+
+	public MctsPlayer(Integer pid) {
+		name = "dkgr_ser_8420_polizois_8535";
+		id = pid;
+		score = 0;
+
+		BoardConfig config = BoardConfig.load();
+
+		waitingTime = config.getWaitingTime();
+		searchThreads = config.getSearchThreads();
+	}
+
+
+//==== Public Getters ====
+
+	public String getName() { return name; }
+
+	public int getId() { return id; }
+
+	public int getScore() { return score; }
+
+	/**
+	 * Get the time in ms player considers it has for every move.
+	 *
+	 * @return The time budget of a turn in ms.
+	 */
+	public long getWaitingTime() { return waitingTime; }
+
+	/**
+	 * Get the number of threads searching the tree.
+	 *
+	 * @return The number of search threads.
+	 */
+	public int getSearchThreads() { return searchThreads; }
+
+	/**
+	 * Get the number of simulations after which search stops.
+	 *
+	 * @return The number of simulations, or 0 if search is bounded by
+	 * 		   time only.
+	 */
+	public long getMaxIterations() { return maxIterations; }
+
+	/**
+	 * Get the number of simulations run for the last returned move.
+	 *
+	 * @return The number of simulations, or 0 if no move has been searched.
+	 */
+	public long getLastIterations() { return lastIterations; }
+
+
+//==== Public Setters ====
+
+	public void setScore(int score) { this.score = score; }
+
+	public void setId(int id) { this.id = id; }
+
+	public void setName(String name) { this.name = name; }
+
+	/**
+	 * Sets the time in ms player considers it has for every move. By
+	 * default it is the waitingTime setting of boardConfig.properties.
+	 *
+	 * @param waitingTime The time budget of a turn in ms.
+	 */
+	public void setWaitingTime(long waitingTime) { this.waitingTime = waitingTime; }
+
+	/**
+	 * Sets the number of threads searching the tree. By default it is the
+	 * searchThreads setting of boardConfig.properties.
+	 *
+	 * @param searchThreads The number of search threads. Values lower than 1
+	 * 						are treated as 1.
+	 */
+	public void setSearchThreads(int searchThreads) {
+		this.searchThreads = Math.max(1, searchThreads);
+
+		// Pool will be recreated with the new number of threads on next search.
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+	/**
+	 * Sets the number of simulations after which search stops, even if
+	 * there is time left. A single thread running a fixed number of
+	 * simulations always returns the same move on the same board.
+	 *
+	 * @param maxIterations The number of simulations. Values lower than 1
+	 * 						bound search by time only.
+	 */
+	public void setMaxIterations(long maxIterations) {
+		this.maxIterations = Math.max(0, maxIterations);
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Finds and returns the most visited move out of provided available
+	 * moves, after running as many simulations as the time budget of the
+	 * turn allows.
+	 *
+	 * @param availableMoves The currently available moves for the
+	 * 						 player to play on the given board, in
+	 * 						 the form of [x, y, direction] int array.
+	 * @param board The board on which the move is going to be played.
+	 * @return The move that player should play, if the form of
+	 * 		   [x1, y1, x2, y2] int array.
+	 */
+	public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+		long start = System.nanoTime();
+		long budget = Math.max(waitingTime - TIME_SAFETY_MARGIN, waitingTime / 2) * 1000000L;
+
+		moveNumber++;
+		lastIterations = 0;
+
+		if (availableMoves.size() == 1) return CrushUtilities.calculateNextMove(availableMoves.get(0));
+
+		PrimitiveBoard primitive = PrimitiveBoard.fromBoard(board, Math.min(board.getRows(), BOARD_ROWS));
+		AtomicLong iterations = new AtomicLong();
+
+		final Simulator[] simulators = new Simulator[searchThreads];
+		for (int i = 0; i < searchThreads; i++) {
+			simulators[i] = new Simulator(primitive, start + budget, iterations,
+										  new Random(((long) moveNumber << 8) + i));
+		}
+
+		MctsNode root = new MctsNode();
+		root.expand(simulators[0].orderRootMoves(availableMoves));
+
+		for (Simulator simulator : simulators) simulator.root = root;
+
+		if (searchThreads == 1) {
+			simulators[0].invoke();
+
+		} else {
+			if (pool == null) pool = new ForkJoinPool(searchThreads);
+
+			pool.invoke(new RecursiveAction() {
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected void compute() { invokeAll(simulators); }
+			});
+		}
+
+		lastIterations = maxIterations > 0 ? Math.min(iterations.get(), maxIterations)
+										   : iterations.get();
+
+		MctsNode best = root.getMostVisitedChild();
+
+		// Should only happen when not even a single simulation was run.
+		if (best == null) return CrushUtilities.calculateNextMove(availableMoves.get(0));
+
+		return PackedMove.toCordsArray(best.getMove());
+	}
+
+	/**
+	 * Shuts down the pool of search threads. A closed player can still be
+	 * asked for moves, in which case a new pool is created, but it is meant
+	 * to be closed after its last one.
+	 */
+	@Override
+	public void close() {
+		if (pool != null) {
+			pool.shutdown();
+			pool = null;
+		}
+	}
+
+
+//==== Classes defined in MctsPlayer ====
+
+	/**
+	 * A task that runs simulations on the shared tree, using a board of
+	 * its own, until search should stop.
+	 */
+	private class Simulator extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		final PrimitiveBoard board;
+		final long deadline;
+		final AtomicLong iterations;
+		final Random random;
+
+		MctsNode root;
+
+		final long[] mask;
+
+		/**
+		 * Moves of the current state, along with their greedy scores.
+		 */
+		final int[] moves;
+		final double[] priors;
+
+		/**
+		 * True if the last played move granted an extra turn.
+		 */
+		boolean extraTurn;
+
+		Simulator(PrimitiveBoard board, long deadline, AtomicLong iterations, Random random) {
+			this.board = new PrimitiveBoard(board);
+			this.deadline = deadline;
+			this.iterations = iterations;
+			this.random = random;
+
+			mask = new long[board.getCols()];
+
+			// Every swap is found at most once, so this is the most moves
+			// a board can have.
+			moves = new int[board.getCols() * board.getPRows() * 2];
+			priors = new double[moves.length];
+		}
+
+		@Override
+		protected void compute() {
+			while (System.nanoTime() < deadline) {
+				long claimed = iterations.incrementAndGet();
+				if (maxIterations > 0 && claimed > maxIterations) break;
+
+				simulate();
+			}
+		}
+
+		/**
+		 * Runs a single simulation from the root, adds its value to every
+		 * node of its path and takes back every move it played.
+		 */
+		void simulate() {
+			MctsNode node = root;
+			boolean maximizing = true;
+			double points = 0.0;
+
+			while (true) {
+				if (!node.isExpanded()) node.expand(orderMoves());
+				if (node.getMovesCount() == 0) break;
+
+				MctsNode child = node.select(EXPLORATION, maximizing);
+
+				double scored = play(child.getMove());
+				points += maximizing ? scored : -scored;
+				if (!extraTurn) maximizing = !maximizing;
+
+				node = child;
+
+				// Simulation leaves the tree at the first node never visited.
+				if (child.getVisits() == 0) break;
+			}
+
+			points += rollout(maximizing);
+
+			double value = Math.tanh(points / REWARD_SCALE);
+			for (MctsNode n = node; n != null; n = n.getParent()) n.update(value);
+
+			while (board.getUndoDepth() > 0) board.unmakeMove();
+		}
+
+		/**
+		 * Plays ROLLOUT_DEPTH moves by the greedy policy, or until no move is
+		 * available.
+		 *
+		 * @param maximizing True if the maximizing player is to move.
+		 * @return The points scored by the maximizing player, minus the ones
+		 * 		   scored by its opponent.
+		 */
+		double rollout(boolean maximizing) {
+			double points = 0.0;
+
+			for (int i = 0; i < ROLLOUT_DEPTH; i++) {
+				int count = findMoves();
+				if (count == 0) break;
+
+				int chosen = 0;
+
+				if (random.nextDouble() < ROLLOUT_EPSILON) {
+					chosen = random.nextInt(count);
+				} else {
+					for (int m = 1; m < count; m++) {
+						if (priors[m] > priors[chosen]) chosen = m;
+					}
+				}
+
+				double scored = play(moves[chosen]);
+				points += maximizing ? scored : -scored;
+				if (!extraTurn) maximizing = !maximizing;
+			}
+
+			return points;
+		}
+
+		/**
+		 * Finds the moves of the current state, ordered by their greedy
+		 * scores, the best one first.
+		 *
+		 * @return The packed moves.
+		 */
+		int[] orderMoves() {
+			return sortByPriors(findMoves());
+		}
+
+		/**
+		 * Orders the given available moves by their greedy scores, the best
+		 * one first. Moves swapping the same tiles are kept only once.
+		 *
+		 * @param availableMoves Moves in the form of [x, y, direction] arrays.
+		 * @return The packed moves.
+		 */
+		int[] orderRootMoves(ArrayList<int[]> availableMoves) {
+			int count = 0;
+
+			for (int[] move : availableMoves) {
+				int packed = PackedMove.pack(move);
+
+				boolean duplicate = false;
+				for (int m = 0; m < count && !duplicate; m++) {
+					duplicate = sameSwap(moves[m], packed);
+				}
+				if (duplicate) continue;
+
+				moves[count] = packed;
+				priors[count] = evaluate(packed);
+				count++;
+			}
+
+			return sortByPriors(count);
+		}
+
+		/**
+		 * Finds the moves of the current state, along with their greedy
+		 * scores. Every swap is found once, as a move to the right or up.
+		 *
+		 * @return The number of moves found.
+		 */
+		int findMoves() {
+			int cols = board.getCols();
+			int pRows = board.getPRows();
+			int count = 0;
+
+			for (int x = 0; x < cols; x++) {
+				for (int y = 0; y < pRows; y++) {
+					if (x + 1 < cols && (board.isAvailableMove(x, y, CrushUtilities.RIGHT) ||
+										 board.isAvailableMove(x + 1, y, CrushUtilities.LEFT)))
+					{
+						moves[count++] = PackedMove.pack(x, y, CrushUtilities.RIGHT);
+					}
+					if (y + 1 < pRows && (board.isAvailableMove(x, y, CrushUtilities.UP) ||
+										  board.isAvailableMove(x, y + 1, CrushUtilities.DOWN)))
+					{
+						moves[count++] = PackedMove.pack(x, y, CrushUtilities.UP);
+					}
+				}
+			}
+
+			for (int m = 0; m < count; m++) priors[m] = evaluate(moves[m]);
+
+			return count;
+		}
+
+		/**
+		 * Scores the given move the way the greedy policy does, i.e. by the
+		 * tiles its first round crushes, plus a bonus of up to DISTANCE_BONUS
+		 * for being far from the top of the board. Unlike
+		 * CandiesRemovedHeuristic, chained rounds are left out, so a move is
+		 * scored by a single scan of the board.
+		 */
+		double evaluate(int move) {
+			int pRows = board.getPRows();
+			int y = PackedMove.getY(move);
+
+			board.beginMove();
+			board.swap(PackedMove.getX(move), y, PackedMove.getTargetX(move), PackedMove.getTargetY(move));
+			int crushed = board.findCrushMask(mask);
+			board.unmakeMove();
+
+			return crushed + DISTANCE_BONUS * (pRows - 1 - y) / pRows;
+		}
+
+		/**
+		 * Sorts the first count moves by their greedy scores, the best one
+		 * first, and returns a copy of them.
+		 */
+		int[] sortByPriors(int count) {
+			// Insertion sort, since a board has a few tens of moves.
+			for (int i = 1; i < count; i++) {
+				int move = moves[i];
+				double prior = priors[i];
+				int j = i - 1;
+
+				while (j >= 0 && priors[j] < prior) {
+					moves[j + 1] = moves[j];
+					priors[j + 1] = priors[j];
+					j--;
+				}
+
+				moves[j + 1] = move;
+				priors[j + 1] = prior;
+			}
+
+			int[] sorted = new int[count];
+			System.arraycopy(moves, 0, sorted, 0, count);
+
+			return sorted;
+		}
+
+		/**
+		 * Plays the given move along with every crush it causes, keeping it
+		 * on the undo stack of the board, and sets extraTurn.
+		 *
+		 * @param move The packed move.
+		 * @return The points scored by the move, as scored by the platform.
+		 */
+		double play(int move) {
+			board.beginMove();
+			board.swap(PackedMove.getX(move), PackedMove.getY(move),
+					   PackedMove.getTargetX(move), PackedMove.getTargetY(move));
+
+			extraTurn = false;
+			double multiplier = 1.0;
+			double points = 0.0;
+			int crushed;
+
+			while ((crushed = board.findCrushMask(mask)) != 0) {
+				if (multiplier == 1.0 && crushed >= EXTRA_TURN_CRUSH) extraTurn = true;
+
+				points += Math.round(crushed * multiplier);
+				multiplier += MULTIPLIER_STEP;
+
+				board.crush(mask);
+			}
+
+			return points;
+		}
+
+		/**
+		 * Checks whether the given packed moves swap the same two tiles.
+		 */
+		boolean sameSwap(int a, int b) {
+			int ax = PackedMove.getX(a), ay = PackedMove.getY(a);
+			int bx = PackedMove.getX(b), by = PackedMove.getY(b);
+
+			int ax2 = PackedMove.getTargetX(a), ay2 = PackedMove.getTargetY(a);
+			int bx2 = PackedMove.getTargetX(b), by2 = PackedMove.getTargetY(b);
+
+			return (ax == bx && ay == by && ax2 == bx2 && ay2 == by2) ||
+				   (ax == bx2 && ay == by2 && ax2 == bx && ay2 == by);
+		}
+	}
+}
@@ -1,23 +1,171 @@
 package gr.auth.ee.dsproject.crush.player;
 
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import gr.auth.ee.dsproject.crush.board.Board;
 import gr.auth.ee.dsproject.crush.board.CrushUtilities;
 import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.metrics.CompositeMetricsSink;
+import gr.auth.ee.dsproject.crush.metrics.JfrSink;
+import gr.auth.ee.dsproject.crush.metrics.MetricsSink;
+import gr.auth.ee.dsproject.crush.metrics.MoveMetrics;
+import gr.auth.ee.dsproject.crush.metrics.RollingLogSink;
 import gr.auth.ee.dsproject.crush.node.Node;
-import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+import gr.auth.ee.dsproject.crush.search.AlphaBetaStrategy;
+import gr.auth.ee.dsproject.crush.search.MoveOrdering;
+import gr.auth.ee.dsproject.crush.search.RefillSampler;
+import gr.auth.ee.dsproject.crush.search.SearchContext;
+import gr.auth.ee.dsproject.crush.search.SearchStrategy;
+import gr.auth.ee.dsproject.crush.search.SharedBound;
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+import gr.auth.ee.dsproject.crush.search.ZobristHasher;
+import gr.auth.ee.dsproject.crush.util.BoardConfig;
 
 
 /**
  * A player that uses minimax algorithm with AB pruning on
  * a heuristics based evaluate function.
  * 
- * Depth of minimax algorithm is defined in MINIMAX_DEPTH
- * constant of this class.
+ * By default, minimax runs in iterative deepening mode. The tree is
+ * searched to depth 1, then 2, and so on, until the time budget of the
+ * turn, as defined by waitingTime setting of boardConfig.properties,
+ * is about to run out. The move returned is the best move of the last
+ * fully completed iteration. Every iteration searches first the
+ * principal variation found by the previous one.
+ *
+ * Every iteration after the first starts with an aspiration window, i.e.
+ * a narrow window around the root value found by the previous iteration,
+ * whose half width is defined by aspirationWindow setting of
+ * boardConfig.properties. When the root value falls outside of it, the
+ * iteration is searched again, with the failing side of the window
+ * widened ASPIRATION_GROWTH times more on every failure, and unbounded
+ * after ASPIRATION_WIDENINGS failures. Failures are counted into the
+ * statistics of the move.
+ *
+ * When iterative deepening is disabled, minimax searches to the fixed
+ * depth defined in MINIMAX_DEPTH constant of this class.
+ *
+ * Interrupting the thread asking for a move stops the search, on every
+ * search thread, the same way the deadline does. The best move found so
+ * far is returned then, or the first available one if no depth has been
+ * completed, and no pondering follows. Interruption status is kept for the
+ * caller to handle.
+ *
+ * Moves granting an extra turn are searched one ply deeper, up to
+ * MAX_EXTRA_TURN_EXTENSIONS times along a single line. Leaves whose move
+ * is tactical, i.e. grants an extra turn, by forming a line of five or
+ * an L, or causes a cascade of at least QUIESCENCE_CASCADE_ROUNDS rounds
+ * of crushes, are not evaluated blindly. A quiescence search follows
+ * only their tactical moves, up to QUIESCENCE_DEPTH plies and
+ * QUIESCENCE_NODE_BUDGET created nodes per leaf, while the side to move
+ * can always stand pat, i.e. decline them.
+ *
+ * When more than one search thread is available, as defined by
+ * searchThreads setting of boardConfig.properties, the children of the
+ * root are split between the threads of a ForkJoinPool. The first child
+ * is searched alone, so the rest of them can be searched with the bound
+ * it provides (Young Brothers Wait). Every thread raises the shared
+ * bound as soon as it finds a better move.
+ * 
+ * Alternatively, when lazySmp setting of boardConfig.properties is true,
+ * threads search in Lazy SMP mode: the calling thread searches the tree
+ * as a single thread would, while searchThreads - 1 helper threads run
+ * their own iterative deepening on the same board, and the only thing
+ * shared between them is the transposition table. Helpers are staggered,
+ * i.e. every second one starts one depth deeper, and the quiet moves of
+ * every helper are perturbed by a different seed, so they diverge from
+ * each other and fill the table with states the calling thread is about
+ * to need. The move returned is always the one found by the calling
+ * thread. Helpers are stopped as soon as it completes.
+ * 
+ * Already searched states are cached into a TranspositionTable, keyed
+ * by the Zobrist hash of the visible tiles, the side to move and the
+ * remaining depth, so states reached through different move orders
+ * are searched only once.
+ *
+ * The table is kept from move to move, since the states searched for
+ * a move usually include the ones reached after the opponent replies.
+ * Entries of previous moves can still be probed, though they are
+ * replaced first. The principal variation a move was decided by is
+ * played out and the state after every move of it is remembered. When
+ * the next board turns out to be one of these states, the rest of the
+ * line is searched first, as a principal variation of a previous
+ * iteration would be. The number of such boards is reported by
+ * getPredictionHits().
+ * 
+ * When pondering is enabled, as defined by ponderTime setting of
+ * boardConfig.properties, player keeps searching on the opponent's time.
+ * After a move is returned, a background thread plays it out and
+ * searches the boards the most likely replies of the opponent lead to,
+ * i.e. the reply of the principal variation first and then the best
+ * ordered ones, up to PONDER_REPLIES of them, one depth at a time for
+ * all of them. States found are stored into the same transposition
+ * table. When the next board turns out to be one of the pondered ones,
+ * the search resumes from the deepest iteration pondering completed on
+ * it. Otherwise, it still benefits from the warmed table. Pondering is
+ * cancelled as soon as the next move is asked for, or stopPondering() is
+ * called, and it is bounded by ponderTime ms and ponderNodes evaluated
+ * nodes, the latter bounding the states it allocates and stores. It uses
+ * a single thread and a search context of its own, so the statistics of
+ * the last move are not affected. The number of boards resumed from a
+ * pondering is reported by getPonderHits().
+ * 
+ * Children of every state are sorted by a MoveOrdering before being
+ * searched: principal variation and transposition table moves first,
+ * then big captures, killer moves and finally the rest of the moves by
+ * their history scores. The fraction of cutoffs caused by the first
+ * searched move in the last search is reported by
+ * getFirstMoveCutoffRate().
+ * 
+ * Once sorted, children are searched by a SearchStrategy: plain A-B
+ * pruning by default (AlphaBetaStrategy), or Principal Variation Search
+ * (PrincipalVariationStrategy), which searches every child but the first
+ * with a null window. Both can be compared on the same positions by
+ * setting the strategy through setSearchStrategy().
+ * 
+ * Tiles that fall from beyond the known rows of the board are of unknown
+ * color, so states where such tiles have reached the playable rows are
+ * not really known. When chance samples are enabled, as defined by
+ * chanceSamples setting of boardConfig.properties, such states are
+ * searched as chance nodes: their value is the average value of a fixed
+ * number of sampled outcomes of the unknown tiles, pruned with Star1.
+ * Otherwise, they are searched as they are, with the unknown tiles never
+ * forming any crush.
+ * 
+ * Every search thread counts the work it does into the SearchStatistics
+ * of its own SearchContext, so counting needs no synchronization. After
+ * every move, the counters of all threads are summed up into a
+ * MoveMetrics, available through getLastMoveMetrics() and passed to the
+ * MetricsSink of the player, if any. By default, the sink writes to the
+ * log defined by metricsLog setting of boardConfig.properties and/or to
+ * JFR events when metricsJfr setting is true. Every log is written through
+ * a single sink shared by all the players writing to it.
+ * 
+ * The threads of the search pool and of pondering, as well as the log of
+ * metricsLog setting, are only released by close(), so a player should be
+ * closed once it has played its last move.
  * 
  * Constants defined in MinMaxPlayer:
- * -public static final int MINIMAX_DEPTH = 4
+ * -public static final int MINIMAX_DEPTH = 3
+ * -public static final int MAX_ITERATIVE_DEPTH = 12
+ * -public static final long TIME_SAFETY_MARGIN = 500
+ * -public static final int TRANSPOSITION_TABLE_BITS = 18
+ * -public static final double CHANCE_VALUE_BOUND = 100.0
+ * -public static final double ASPIRATION_GROWTH = 4.0
+ * -public static final int ASPIRATION_WIDENINGS = 3
+ * -public static final int MAX_EXTRA_TURN_EXTENSIONS = 2
+ * -public static final int QUIESCENCE_DEPTH = 2
+ * -public static final int QUIESCENCE_NODE_BUDGET = 64
+ * -public static final int QUIESCENCE_CASCADE_ROUNDS = 3
+ * -public static final int PONDER_REPLIES = 3
  * 
  * Public constructors defined in MinMaxPlayer:
  * -public MinMaxPlayer(Integer pid)
@@ -26,15 +174,57 @@ import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
  * -public String getName()
  * -public int getId()
  * -public int getScore()
+ * -public boolean isIterativeDeepening()
+ * -public boolean isQuiescence()
+ * -public long getWaitingTime()
+ * -public int getLastCompletedDepth()
+ * -public int getSearchThreads()
+ * -public double getFirstMoveCutoffRate()
+ * -public int getChanceSamples()
+ * -public double getAspirationWindow()
+ * -public MetricsSink getMetricsSink()
+ * -public MoveMetrics getLastMoveMetrics()
+ * -public int[] getPrincipalVariation()
+ * -public int getPredictionHits()
+ * -public long getPonderTime()
+ * -public long getPonderNodes()
+ * -public int getPonderHits()
+ * -public boolean isPondering()
+ * -public boolean isLazySmp()
+ * -public SearchStrategy getSearchStrategy()
  * -public void setScore(int score)
  * -public void setId(int id)
  * -public void setName(String name)
+ * -public void setIterativeDeepening(boolean iterativeDeepening)
+ * -public void setQuiescence(boolean quiescence)
+ * -public void setWaitingTime(long waitingTime)
+ * -public void setSearchThreads(int searchThreads)
+ * -public void setChanceSamples(int chanceSamples)
+ * -public void setAspirationWindow(double aspirationWindow)
+ * -public void setMetricsSink(MetricsSink metricsSink)
+ * -public void setSearchStrategy(SearchStrategy searchStrategy)
+ * -public void setPonderTime(long ponderTime)
+ * -public void setPonderNodes(long ponderNodes)
+ * -public void setLazySmp(boolean lazySmp)
  * -public int[] getNextMove(ArrayList<int[]> availableMoves, Board board)
+ * -public void stopPondering()
+ * -public void clearSearchState()
+ * -public void close()
  * 
+ * Classes defined in MinMaxPlayer:
+ * -private class RootChildTask extends RecursiveAction
+ * -private class HelperTask extends RecursiveAction
+ * -private class TreeSearcher implements SearchStrategy.ChildSearcher
+ * -private class PonderTask implements Runnable
+ * -private static class PonderResult
+ *
+ * Exceptions defined in MinMaxPlayer:
+ * -private static class SearchTimeoutRuntimeException extends RuntimeException
+ *
  * @author Dimitrios Karageorgiou
- * @version 0.3
+ * @version 0.9
  */
-public class MinMaxPlayer implements AbstractPlayer {
+public class MinMaxPlayer implements AbstractPlayer, AutoCloseable {
 
 //==== Public Constants ====
 	
@@ -43,211 +233,1838 @@ public class MinMaxPlayer implements AbstractPlayer {
 	 */
 	public static final int MINIMAX_DEPTH = 3;
 	
-	
+	/**
+	 * Defines the greatest depth iterative deepening will search to.
+	 */
+	public static final int MAX_ITERATIVE_DEPTH = 12;
+
+	/**
+	 * Defines the time in ms that is left unused out of waitingTime, so
+	 * the move is always returned before the platform stops waiting.
+	 */
+	public static final long TIME_SAFETY_MARGIN = 500;
+
+	/**
+	 * Defines the number of buckets of the transposition table as
+	 * a power of 2.
+	 */
+	public static final int TRANSPOSITION_TABLE_BITS = 18;
+
+	/**
+	 * Defines the greatest absolute value a single remaining ply is assumed
+	 * to add to the value of a sampled outcome of a chance node.
+	 */
+	public static final double CHANCE_VALUE_BOUND = 100.0;
+
+	/**
+	 * Defines how many times wider the failing side of an aspiration
+	 * window gets on every failure.
+	 */
+	public static final double ASPIRATION_GROWTH = 4.0;
+
+	/**
+	 * Defines the number of failures after which the failing side of an
+	 * aspiration window is left unbounded.
+	 */
+	public static final int ASPIRATION_WIDENINGS = 3;
+
+	/**
+	 * Defines the greatest number of extra turns a single line of moves
+	 * is searched deeper for.
+	 */
+	public static final int MAX_EXTRA_TURN_EXTENSIONS = 2;
+
+	/**
+	 * Defines the greatest number of plies a quiescence search follows
+	 * tactical moves for.
+	 */
+	public static final int QUIESCENCE_DEPTH = 2;
+
+	/**
+	 * Defines the number of created nodes after which the quiescence
+	 * search of a single leaf expands no more states.
+	 */
+	public static final int QUIESCENCE_NODE_BUDGET = 64;
+
+	/**
+	 * Defines the number of rounds of crushes a move should cause in order
+	 * to be considered tactical.
+	 */
+	public static final int QUIESCENCE_CASCADE_ROUNDS = 3;
+
+	/**
+	 * Defines the greatest number of opponent replies pondered after
+	 * every move.
+	 */
+	public static final int PONDER_REPLIES = 3;
+
+
 //==== Instance Variables ====
 	
     int score;
     int id;
     String name;
+    
+    /**
+     * Cache of already searched states.
+     */
+    private TranspositionTable transpositionTable;
+    
+    /**
+     * Hasher of the states stored into transpositionTable. It is
+     * created lazily, when the dimensions of the board are known.
+     */
+    private ZobristHasher hasher;
+    
+    /**
+     * Search state of the thread getNextMove() is called from.
+     */
+    private SearchContext context;
+
+    /**
+     * True for searching in iterative deepening mode, false for searching
+     * to MINIMAX_DEPTH.
+     */
+    private boolean iterativeDeepening;
+
+    /**
+     * True for searching the tactical moves of leaves, false for
+     * evaluating leaves as they are.
+     */
+    private boolean quiescence;
+
+    /**
+     * The time in ms the platform waits for a move.
+     */
+    private long waitingTime;
+
+    /**
+     * The System.nanoTime() value after which a running search is aborted.
+     */
+    private long deadline;
+
+    /**
+     * The thread asking for the move currently searched, if any. Its
+     * interruption stops the search.
+     */
+    private volatile Thread searchThread;
+
+    /**
+     * Set once a search thread finds the thread asking for the move
+     * interrupted, so that tasks still running stop even after the move
+     * has been returned. Cleared when the next move is asked.
+     */
+    private volatile boolean searchInterrupted;
+
+    /**
+     * The depth of the last fully completed search.
+     */
+    private int lastCompletedDepth;
+
+    /**
+     * Principal variation found by the last completed iteration.
+     */
+    private int[] previousPv;
+
+    /**
+     * The length of previousPv.
+     */
+    private int previousPvLength;
+
+    /**
+     * Principal variation the last returned move was decided by.
+     */
+    private int[] predictedLine;
+
+    /**
+     * Keys of the boards predictedLine leads to. predictedKeys[i] is the
+     * key of the board after the first i + 1 moves of the line.
+     */
+    private long[] predictedKeys;
+
+    /**
+     * The length of predictedLine.
+     */
+    private int predictedLength;
+
+    /**
+     * Number of boards that had been predicted by the line of the
+     * previous move.
+     */
+    private int predictionHits;
+
+    /**
+     * The time in ms a single pondering may last. 0 when player does not
+     * ponder.
+     */
+    private long ponderTime;
+
+    /**
+     * Number of evaluated nodes after which a single pondering stops.
+     */
+    private long ponderNodes;
+
+    /**
+     * The thread pondering on the opponent's time. Null when no pondering
+     * has been started since the last move.
+     */
+    private Thread ponderThread;
+
+    /**
+     * Set when running pondering should stop as soon as possible.
+     */
+    private volatile boolean ponderCancelled;
+
+    /**
+     * True while the running search is a pondering one. It is only
+     * accessed by the thread running the search.
+     */
+    private boolean pondering;
+
+    /**
+     * Search state of the pondering thread.
+     */
+    private final SearchContext ponderContext;
+
+    /**
+     * The board the last returned move leads to, i.e. the one the opponent
+     * replies on. Null when it is not known or when the move grants an
+     * extra turn.
+     */
+    private Board ponderBoard;
+
+    /**
+     * The boards searched by the last pondering, along with what was found
+     * on them. Only accessed after the pondering thread has stopped.
+     */
+    private final ArrayList<PonderResult> ponderResults;
+
+    /**
+     * Number of boards player has been asked to move on, that had been
+     * searched by pondering.
+     */
+    private int ponderHits;
+
+    /**
+     * Number of threads the children of the root are split between.
+     */
+    private int searchThreads;
+
+    /**
+     * Pool of the search threads. It is created lazily, only when more
+     * than one thread is used.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * True for searching with helper threads sharing the transposition
+     * table, false for splitting the children of the root between threads.
+     */
+    private boolean lazySmp;
+
+    /**
+     * Best evaluation of a root child found so far by any thread, while
+     * the root is searched in parallel. Null otherwise.
+     */
+    private volatile SharedBound rootAlpha;
+
+    /**
+     * Sampler of the outcomes of chance nodes. Null when chance nodes are
+     * disabled.
+     */
+    private RefillSampler refillSampler;
+
+    /**
+     * Half width of the window iterations are started with, around the
+     * root value of the previous iteration. 0.0 when iterations are
+     * searched with an unbounded window.
+     */
+    private double aspirationWindow;
+
+    /**
+     * Receiver of the statistics of every move. Null when statistics are
+     * not reported.
+     */
+    private MetricsSink metricsSink;
+
+    /**
+     * The log of metricsLog setting, shared with every other player
+     * writing to it, until released by close(). Null if not enabled.
+     */
+    private RollingLogSink metricsLog;
+
+    /**
+     * Statistics of the search of the last returned move.
+     */
+    private MoveMetrics lastMoveMetrics;
+
+    /**
+     * Number of moves returned so far.
+     */
+    private int moveNumber;
+
+    /**
+     * True if an iteration of the current search has been aborted on
+     * the deadline or by interruption.
+     */
+    private boolean searchAborted;
+
+    /**
+     * The algorithm the children of decision nodes are searched with.
+     */
+    private SearchStrategy searchStrategy;
+
+    /**
+     * The searcher strategies recurse into the minimax tree through.
+     */
+    private final TreeSearcher treeSearcher;
 
     
 //==== Public Constructors ====
     
     public MinMaxPlayer(Integer pid) {
     	
-    	name = "dkgr_ser_8420_polizois_8535";
-    	id = pid;
-        score = 0;
+    	name = "dkgr_ser_8420_polizois_8535";
+    	id = pid;
+        score = 0;
+        
+        transpositionTable = new TranspositionTable(TRANSPOSITION_TABLE_BITS);
+        context = new SearchContext();
+        ponderContext = new SearchContext();
+        ponderResults = new ArrayList<PonderResult>();
+
+        BoardConfig config = BoardConfig.load();
+
+        iterativeDeepening = true;
+        quiescence = true;
+        waitingTime = config.getWaitingTime();
+        searchThreads = config.getSearchThreads();
+        lazySmp = config.isLazySmp();
+        setChanceSamples(config.getChanceSamples());
+        setAspirationWindow(config.getAspirationWindow());
+        setPonderTime(config.getPonderTime());
+        setPonderNodes(config.getPonderNodes());
+        metricsLog = config.getMetricsLog() != null ? RollingLogSink.acquire(config.getMetricsLog())
+        											: null;
+        metricsSink = createMetricsSink(config, metricsLog);
+
+        searchStrategy = new AlphaBetaStrategy();
+        treeSearcher = new TreeSearcher();
+
+        previousPv = new int[SearchContext.MAX_PLY];
+        predictedLine = new int[SearchContext.MAX_PLY];
+        predictedKeys = new long[SearchContext.MAX_PLY];
+    }
+
+    
+//==== Public Getters ====    
+    
+    public String getName() { return name; }
+
+    public int getId() { return id; }
+
+    public int getScore() { return score; }
+    
+    /**
+     * Checks whether player searches in iterative deepening mode.
+     *
+     * @return True if iterative deepening is used, false if minimax
+     * 		   searches to MINIMAX_DEPTH.
+     */
+    public boolean isIterativeDeepening() { return iterativeDeepening; }
+
+    /**
+     * Checks whether the tactical moves of leaves are searched by a
+     * quiescence search.
+     *
+     * @return True if quiescence search is used, false if leaves are
+     * 		   evaluated as they are.
+     */
+    public boolean isQuiescence() { return quiescence; }
+
+    /**
+     * Get the time in ms player considers it has for every move.
+     *
+     * @return The time budget of a turn in ms.
+     */
+    public long getWaitingTime() { return waitingTime; }
+
+    /**
+     * Get the depth of the last fully completed search, i.e. the depth
+     * the last returned move was decided at.
+     *
+     * @return The depth of the last completed search, or 0 if no search
+     * 		   has been completed yet.
+     */
+    public int getLastCompletedDepth() { return lastCompletedDepth; }
+
+    /**
+     * Get the number of threads the search is split between.
+     *
+     * @return The number of search threads.
+     */
+    public int getSearchThreads() { return searchThreads; }
+
+    /**
+     * Get the fraction of cutoffs caused by the first searched move of a
+     * state, out of all cutoffs of the last search. The closer to 1.0, the
+     * better the moves are ordered.
+     *
+     * @return A value between 0.0 and 1.0.
+     */
+    public double getFirstMoveCutoffRate() {
+    	return context.getMoveOrdering().getFirstMoveCutoffRate();
+    }
+
+    /**
+     * Get the number of outcomes every chance node is sampled with.
+     *
+     * @return The number of samples, or 0 if chance nodes are disabled.
+     */
+    public int getChanceSamples() {
+    	return refillSampler == null ? 0 : refillSampler.getSamples();
+    }
+
+    /**
+     * Get the half width of the aspiration window every iteration after
+     * the first is started with.
+     *
+     * @return The half width, or 0.0 if aspiration windows are disabled.
+     */
+    public double getAspirationWindow() { return aspirationWindow; }
+
+    /**
+     * Get the sink the statistics of every move are passed to.
+     *
+     * @return The MetricsSink of the player, or null if statistics are
+     * 		   not reported.
+     */
+    public MetricsSink getMetricsSink() { return metricsSink; }
+
+    /**
+     * Get the statistics of the search of the last returned move.
+     *
+     * @return The MoveMetrics of the last move, or null if no move has
+     * 		   been returned yet.
+     */
+    public MoveMetrics getLastMoveMetrics() { return lastMoveMetrics; }
+
+    /**
+     * Get the principal variation the last returned move was decided by,
+     * i.e. the line of moves the player expects to be played, starting
+     * with the returned move.
+     *
+     * @return The moves of the line, packed by PackedMove. It
+     * 		   is empty if no move has been decided by a search yet.
+     */
+    public int[] getPrincipalVariation() { return Arrays.copyOf(predictedLine, predictedLength); }
+
+    /**
+     * Get the number of boards player has been asked to move on, that had
+     * been predicted by the principal variation of its previous move.
+     *
+     * @return The number of predicted boards.
+     */
+    public int getPredictionHits() { return predictionHits; }
+
+    /**
+     * Get the time in ms a single pondering may last.
+     *
+     * @return The time budget of pondering, or 0 if player does not ponder.
+     */
+    public long getPonderTime() { return ponderTime; }
+
+    /**
+     * Get the number of evaluated nodes after which a single pondering
+     * stops.
+     *
+     * @return The node budget of pondering.
+     */
+    public long getPonderNodes() { return ponderNodes; }
+
+    /**
+     * Get the number of boards player has been asked to move on, that had
+     * been searched by pondering on the opponent's time.
+     *
+     * @return The number of pondered boards.
+     */
+    public int getPonderHits() { return ponderHits; }
+
+    /**
+     * Checks whether player is currently pondering.
+     *
+     * @return True if the pondering thread is still running.
+     */
+    public boolean isPondering() {
+    	Thread thread = ponderThread;
+
+    	return thread != null && thread.isAlive();
+    }
+
+    /**
+     * Checks whether multiple search threads search in Lazy SMP mode.
+     *
+     * @return True if helper threads search the whole tree, false if the
+     * 		   children of the root are split between threads.
+     */
+    public boolean isLazySmp() { return lazySmp; }
+
+    /**
+     * Get the algorithm the children of decision nodes are searched with.
+     *
+     * @return The SearchStrategy of the player.
+     */
+    public SearchStrategy getSearchStrategy() { return searchStrategy; }
+
+    
+//==== Public Setters ====
+    
+    public void setScore(int score) { this.score = score; }
+    
+    public void setId(int id) { this.id = id; }
+
+    public void setName(String name) { this.name = name; }
+
+    /**
+     * Sets the search mode of the player.
+     *
+     * @param iterativeDeepening True for iterative deepening mode, false
+     * 							 for searching to MINIMAX_DEPTH.
+     */
+    public void setIterativeDeepening(boolean iterativeDeepening) {
+    	this.iterativeDeepening = iterativeDeepening;
+    }
+
+    /**
+     * Sets whether the tactical moves of leaves are searched by a
+     * quiescence search. It is enabled by default.
+     *
+     * @param quiescence True for searching tactical moves of leaves, false
+     * 					 for evaluating leaves as they are.
+     */
+    public void setQuiescence(boolean quiescence) { this.quiescence = quiescence; }
+
+    /**
+     * Sets the time in ms player considers it has for every move. By
+     * default it is the waitingTime setting of boardConfig.properties.
+     *
+     * @param waitingTime The time budget of a turn in ms.
+     */
+    public void setWaitingTime(long waitingTime) { this.waitingTime = waitingTime; }
+
+    /**
+     * Sets the number of threads the search is split between. By default
+     * it is the searchThreads setting of boardConfig.properties.
+     *
+     * @param searchThreads The number of search threads. Values lower than 1
+     * 						are treated as 1.
+     */
+    public void setSearchThreads(int searchThreads) {
+    	this.searchThreads = Math.max(1, searchThreads);
+
+    	// Pool will be recreated with the new number of threads on next search.
+    	if (pool != null) {
+    		pool.shutdown();
+    		pool = null;
+    	}
+    }
+
+    /**
+     * Sets the number of outcomes every chance node is sampled with. By
+     * default it is the chanceSamples setting of boardConfig.properties.
+     *
+     * @param chanceSamples The number of samples. Values lower than 1
+     * 						disable chance nodes.
+     */
+    public void setChanceSamples(int chanceSamples) {
+    	refillSampler = chanceSamples > 0 ? new RefillSampler(chanceSamples) : null;
+    }
+
+    /**
+     * Sets the half width of the aspiration window every iteration after
+     * the first is started with. By default it is the aspirationWindow
+     * setting of boardConfig.properties.
+     *
+     * @param aspirationWindow The half width of the window. Values that are
+     * 						   not positive disable aspiration windows.
+     */
+    public void setAspirationWindow(double aspirationWindow) {
+    	this.aspirationWindow = aspirationWindow > 0.0 ? aspirationWindow : 0.0;
+    }
+
+    /**
+     * Sets the sink the statistics of every move are passed to. By default
+     * it is defined by metricsLog and metricsJfr settings of
+     * boardConfig.properties.
+     *
+     * @param metricsSink The sink, or null for not reporting statistics.
+     */
+    public void setMetricsSink(MetricsSink metricsSink) { this.metricsSink = metricsSink; }
+
+    /**
+     * Sets the algorithm the children of decision nodes are searched with.
+     * By default it is an AlphaBetaStrategy.
+     *
+     * @param searchStrategy The strategy to search with.
+     */
+    public void setSearchStrategy(SearchStrategy searchStrategy) {
+    	this.searchStrategy = searchStrategy;
+    }
+
+    /**
+     * Sets the time in ms a single pondering may last. By default it is the
+     * ponderTime setting of boardConfig.properties. It takes effect from
+     * the next returned move.
+     *
+     * @param ponderTime The time budget of pondering. Values that are not
+     * 					 positive disable pondering.
+     */
+    public void setPonderTime(long ponderTime) { this.ponderTime = Math.max(0, ponderTime); }
+
+    /**
+     * Sets the number of evaluated nodes after which a single pondering
+     * stops. By default it is the ponderNodes setting of
+     * boardConfig.properties.
+     *
+     * @param ponderNodes The node budget of pondering. Values lower than 1
+     * 					  are treated as 1.
+     */
+    public void setPonderNodes(long ponderNodes) { this.ponderNodes = Math.max(1, ponderNodes); }
+
+    /**
+     * Sets how multiple search threads search. By default it is the lazySmp
+     * setting of boardConfig.properties. It has no effect on a single
+     * search thread.
+     *
+     * @param lazySmp True for helper threads searching the whole tree, false
+     * 				  for splitting the children of the root between threads.
+     */
+    public void setLazySmp(boolean lazySmp) { this.lazySmp = lazySmp; }
+
+    
+//==== Public Methods ====
+    
+    /**
+     * Finds and returns the best move out of provided available
+     * moves that is going to be played on the given board, using
+     * a minimax algorithm based on a heuristic evaluation function.
+     * 
+     * In iterative deepening mode, minimax searches as deep as the
+     * time budget of the turn allows. Otherwise, depth of minimax
+     * algoritmh is defined by MINIMAX_DEPTH constant in MinMaxPlayer class.
+     * 
+     * @param availableMoves The currently available moves for the
+     * 						 player to play on the given board, in
+     * 						 the form of [x, y, direction] int array.
+     * 						 All these moves are packed into an
+     * 						 ArrayList object. direction value as defined
+     * 						 in board.CrushUtilities
+     * @param board The board on which the move is going to be played.
+     * @return The move that player should play, if the form of
+     * 		   [x1, y1, x2, y2] int array.
+     */
+    public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+    	long start = System.nanoTime();
+    	long gcStart = getCollectionTime();
+
+    	// Opponent has already moved, so there is nothing left to ponder.
+    	stopPondering();
+
+    	context.getStatistics().clear();
+    	searchAborted = false;
+    	searchInterrupted = false;
+
+    	int[] move;
+    	searchThread = Thread.currentThread();
+    	try {
+    		move = searchMove(availableMoves, board);
+    	} finally {
+    		searchThread = null;
+    	}
+
+    	recordMetrics(start, gcStart);
+
+    	startPondering();
+
+    	return move;
+    }
+
+    /**
+     * Stops the running pondering, if any, and waits for its thread to
+     * terminate. Boards pondered so far remain available to the next move.
+     */
+    public void stopPondering() {
+    	Thread thread = ponderThread;
+    	if (thread == null) return;
+
+    	ponderCancelled = true;
+
+    	boolean interrupted = false;
+    	while (thread.isAlive()) {
+    		try {
+    			thread.join();
+    		} catch (InterruptedException e) {
+    			interrupted = true;
+    		}
+    	}
+    	// Keep the interruption for the caller to handle.
+    	if (interrupted) Thread.currentThread().interrupt();
+
+    	ponderThread = null;
+    }
+
+    /**
+     * Forgets everything learned by the searches of previous moves, i.e.
+     * the states stored into the transposition table, the predicted line
+     * and the pondered boards, so that the next move is searched from
+     * scratch. Pondering, if running, is stopped first.
+     *
+     * The transposition table is cleared in place, so nothing is allocated.
+     */
+    public void clearSearchState() {
+    	stopPondering();
+
+    	transpositionTable.clear();
+    	predictedLength = 0;
+    	previousPvLength = 0;
+    	ponderResults.clear();
+    }
+
+    /**
+     * Stops pondering, if running, shuts down the pool of search threads
+     * and releases the log of metricsLog setting. A closed player can
+     * still be asked for moves, in which case a new pool is created, but
+     * it is meant to be closed after its last one.
+     */
+    @Override
+    public void close() {
+    	stopPondering();
+
+    	if (pool != null) {
+    		pool.shutdown();
+    		pool = null;
+    	}
+
+    	if (metricsLog != null) {
+    		RollingLogSink.release(metricsLog);
+    		metricsLog = null;
+    	}
+    }
+
+
+//==== Private Methods ====
+
+    /**
+     * Searches the given board, either with iterative deepening or to
+     * MINIMAX_DEPTH, and returns the best move found.
+     *
+     * @param availableMoves The currently available moves, in the form
+     * 						 of [x, y, direction] int arrays.
+     * @param board The board on which the move is going to be played.
+     * @return The move that player should play, if the form of
+     * 		   [x1, y1, x2, y2] int array.
+     */
+    private int[] searchMove(ArrayList<int[]> availableMoves, Board board) {
+    	
+    	// States of previous moves remain valid, since the value of a state
+    	// depends only on the state itself.
+    	prepareTranspositionTable(board);
+
+    	// Killer moves and history scores are only meaningful on the same board.
+    	context.getMoveOrdering().clear();
+
+    	// Start from the line predicted by the previous move, if any, or
+    	// even better, from the one pondering found on this board.
+    	resumePrediction(board);
+    	PonderResult pondered = resumePondering(board);
+
+    	if (searchThreads > 1 && pool == null) pool = new ForkJoinPool(searchThreads);
+
+    	// Moves are handled packed throughout the search, and only converted
+    	// to the form the game expects here.
+    	int bestMove;
+
+    	if (iterativeDeepening) {
+    		bestMove = iterativeDeepeningSearch(board, pondered);
+    	} else {
+    		// Create the root node representing current state of board.
+    		// This is the initial state for minimax.
+    		Node root = new Node(null, CrushUtilities.cloneBoard(board, 33), null);
+    		
+    		// Create the minimax tree to the depth defined by MINIMAX_DEPTH constant.
+    		deadline = Long.MAX_VALUE;
+    		lastCompletedDepth = 0;
+    		try {
+    			searchToDepth(root, MINIMAX_DEPTH, -Double.MAX_VALUE, Double.MAX_VALUE, context);
+    			previousPvLength = context.copyPrincipalVariation(previousPv);
+    			lastCompletedDepth = MINIMAX_DEPTH;
+    			
+    			// The highest scoring move out of minimax tree.
+    			bestMove = findBestMove(root);
+    		} catch (SearchTimeoutRuntimeException e) {
+    			// Interrupted, since there is no deadline.
+    			searchAborted = true;
+    			bestMove = PackedMove.NO_MOVE;
+    		}
+    	}
+
+    	predictLine(board, bestMove);
+
+    	// Should only happen when even the first iteration failed to complete.
+    	if (bestMove == PackedMove.NO_MOVE) return CrushUtilities.calculateNextMove(availableMoves.get(0));
+
+    	return PackedMove.toCordsArray(bestMove);
+    }   
+
+    /**
+     * Searches the given board with iterative deepening, until either
+     * MAX_ITERATIVE_DEPTH is reached or the time budget of the turn
+     * is about to run out, and returns the best move found by the
+     * last fully completed iteration.
+     *
+     * A new iteration is not started when more than half of the budget
+     * has been used, since it would most probably not complete anyway.
+     * Iterations that do not complete in time are discarded.
+     *
+     * Every iteration after the first is searched with an aspiration
+     * window around the root value of the previous one.
+     *
+     * When the board has been pondered, iterations pondering completed are
+     * not searched again, so their best move is returned even if no
+     * further iteration completes.
+     *
+     * In Lazy SMP mode, helper threads search the board for as long as the
+     * iterations of the calling thread run.
+     *
+     * @param board The board on which the move is going to be played.
+     * @param pondered What pondering found on the board, or null if it
+     * 				   has not been pondered.
+     * @return The move that player should play, packed by PackedMove, or
+     * 		   PackedMove.NO_MOVE if no iteration completed.
+     */
+    private int iterativeDeepeningSearch(Board board, PonderResult pondered) {
+    	long start = System.nanoTime();
+    	long budget = Math.max(waitingTime - TIME_SAFETY_MARGIN, waitingTime / 2) * 1000000L;
+
+    	deadline = start + budget;
+    	lastCompletedDepth = 0;
+
+    	int bestMove = PackedMove.NO_MOVE;
+    	double previousValue = 0.0;
+
+    	if (pondered != null) {
+    		lastCompletedDepth = pondered.depth;
+    		bestMove = pondered.bestMove;
+    		previousValue = pondered.value;
+    	}
+
+    	ArrayList<HelperTask> helpers = startHelpers(board);
+
+    	try {
+    		for (int depth = lastCompletedDepth + 1; depth <= MAX_ITERATIVE_DEPTH; depth++) {
+    			Node root;
+
+    			try {
+    				root = searchWithAspiration(board, depth, previousValue, context);
+    			} catch (SearchTimeoutRuntimeException e) {
+    				searchAborted = true;
+    				break;
+    			}
+
+    			// Root has no moves to choose from, so searching deeper is useless.
+    			if (root.getChildren().size() == 0) break;
+
+    			bestMove = findBestMove(root);
+    			previousValue = root.getNodeEvaluation();
+    			lastCompletedDepth = depth;
+
+    			// Next iteration should search first the line found best by this one.
+    			previousPvLength = context.copyPrincipalVariation(previousPv);
+
+    			// A single move needs no deeper search in order to be chosen.
+    			if (root.getChildren().size() == 1) break;
+
+    			if ((System.nanoTime() - start) * 2 > budget) break;
+    		}
+    	} finally {
+    		stopHelpers(helpers);
+    	}
+
+    	return bestMove;
+    }
+
+    /**
+     * Searches the given board to the given depth, starting with an
+     * aspiration window around the given value, and returns the root of
+     * the minimax tree created by the first search whose root value falls
+     * inside of the window.
+     *
+     * On every failure, the failing side of the window is set around the
+     * value just found, ASPIRATION_GROWTH times further than the last time,
+     * or it is left unbounded after ASPIRATION_WIDENINGS failures. The other
+     * side of the window is kept, since the value is already known to lie
+     * on this side of it.
+     *
+     * The first iteration, as well as every iteration when aspiration
+     * windows are disabled, is searched once with an unbounded window.
+     *
+     * @param board The board on which the move is going to be played.
+     * @param depth The depth to which the tree will be created.
+     * @param guess The root value expected, i.e. the one of the previous
+     * 				iteration.
+     * @param ctx The search context of the calling thread.
+     * @return The root of the created tree.
+     * @throws SearchTimeoutRuntimeException
+     */
+    private Node searchWithAspiration(Board board, int depth, double guess, SearchContext ctx)
+    	throws SearchTimeoutRuntimeException
+    {
+    	// Every iteration but the first is preceded by a completed one.
+    	boolean aspiring = aspirationWindow > 0.0 && depth > 1;
+
+    	double min = aspiring ? guess - aspirationWindow : -Double.MAX_VALUE;
+    	double max = aspiring ? guess + aspirationWindow : Double.MAX_VALUE;
+    	int failHighs = 0;
+    	int failLows = 0;
+
+    	while (true) {
+    		Node root = new Node(null, CrushUtilities.cloneBoard(board, 33), null);
+    		int bound = searchToDepth(root, depth, min, max, ctx);
+    		double value = root.getNodeEvaluation();
+
+    		if (bound == TranspositionTable.LOWER_BOUND && max < Double.MAX_VALUE) {
+    			ctx.getStatistics().aspirationFailed(true);
+    			failHighs++;
+    			max = failHighs < ASPIRATION_WIDENINGS ?
+    				  value + aspirationWindow * Math.pow(ASPIRATION_GROWTH, failHighs) :
+    				  Double.MAX_VALUE;
+
+    		} else if (bound == TranspositionTable.UPPER_BOUND && min > -Double.MAX_VALUE) {
+    			ctx.getStatistics().aspirationFailed(false);
+    			failLows++;
+    			min = failLows < ASPIRATION_WIDENINGS ?
+    				  value - aspirationWindow * Math.pow(ASPIRATION_GROWTH, failLows) :
+    				  -Double.MAX_VALUE;
+
+    		} else {
+    			return root;
+    		}
+    	}
+    }
+
+    /**
+     * Creates the minimax tree under the given root node to the given depth,
+     * within the given window, recording its principal variation into the
+     * given search context.
+     *
+     * The depth should be considered completed only when the returned bound
+     * is exact, i.e. when the root value falls inside of the window.
+     *
+     * If deadline is exceeded, search is aborted by throwing a
+     * SearchTimeoutRuntimeException. States fully searched up to that point
+     * remain in the transposition table.
+     *
+     * @param root The root node for the tree to be created.
+     * @param depth The depth to which the tree will be created.
+     * @param min The minimum root value that is considered valid.
+     * @param max The maximum root value that is considered valid.
+     * @param ctx The search context of the calling thread.
+     * @return The bound of the root value, as defined in TranspositionTable.
+     * @throws SearchTimeoutRuntimeException
+     */
+    private int searchToDepth(Node root, int depth, double min, double max, SearchContext ctx)
+    	throws SearchTimeoutRuntimeException
+    {
+    	rootAlpha = null;
+    	ctx.setRootDepth(depth);
+    	ctx.setRootBound(TranspositionTable.EXACT);
+    	ctx.setFollowingPv(previousPvLength > 0);
+
+    	createMinimaxTree(root, depth, 0, min, max, true, ctx);
+
+    	return ctx.getRootBound();
+    }
+        
+    /**
+     * Creates a memory optimized A-B pruned minimax tree under 
+     * the root node, which should only be used for accessing root
+     * node's evaluation, its children evaluations and its children moves.
+     * It returns the evaluation of the current state for specified 
+     * player, maximizing or minimizing
+     * 
+     * The evaluations are as expected formed by searching until the given
+     * depth. Though all nodes after first level are discarded. Thus,
+     * memory consumption scales linear with depth instead of
+     * exponentially.
+     * 
+     * Root node should contain at least the board of the initial state.
+     * 
+     * It should normally be called with min and max arguments of
+     * -Double.MAX_VALUE and Double.MAX_VALUE accordingly. Though
+     * they can be set to any best matching value and are the 
+     * initial values used for A-B pruning.
+     * 
+     * Maximizing defines if the current state should be checked from
+     * player's perspective, i.e. maximizing, or enemy's perspective,
+     * i.e. minimizing. Maximizing player considers greater values better,
+     * when minimizing player considers lower values better.
+     * 
+     * The best line of moves found under n is recorded into the given
+     * search context at the given ply. While the search follows the
+     * principal variation of the previous iteration, the move of that
+     * line is searched first.
+     *
+     * The root is searched in parallel when a pool of search threads
+     * is available, unless threads search in Lazy SMP mode. Every thread
+     * uses its own search context.
+     *
+     * Search is aborted when deadline is exceeded or the search context
+     * is aborted.
+     *
+     * @param n The root node for the tree to be created.
+     * @param depth The depth to which the tree will be created.
+     * @param ply The distance of n from the root of the search.
+     * @param min The minimum evaluation value that is considered valid.
+     * @param max The maximum evaluation value that is considered valid.
+     * @param maximizing True for getting evaluation for player's perspective,
+     * 					 false for getting evaluation for enemy's perspective.	
+     * @param ctx The search context of the calling thread.
+     * @return The evaluation of the current state for given player.
+     * @throws SearchTimeoutRuntimeException
+     */
+    private double createMinimaxTree(Node n, int depth, int ply, double min,
+    								 double max, boolean maximizing, SearchContext ctx) 
+    	throws SearchTimeoutRuntimeException
+    {    	    	
+    	if (isSearchOver(ctx)) throw new SearchTimeoutRuntimeException();
+
+    	ctx.clearPrincipalVariation(ply);
+
+
+    	// Find the evaluation of current state. Since this method is going
+    	// to run one more time than depth, the evaluation here is the
+    	// opposite than maximizing. This happens because the first call
+    	// is the root node, and for every move it's effect is calculated
+    	// on the next run. 
+    	n.evaluate(maximizing);
+    	
+    	CascadeResult cascade = n.getCascadeResult();
+    	ctx.getStatistics().nodeEvaluated(ply, cascade == null ? 0 : cascade.getRounds());
+    	
+    	// It counts total depth, considering every extra turn. If it
+    	// exceeds MINIMAX_DEPTH + 2, it just cuts off further searching
+    	// no matter what.
+//    	Node parent = n.getParent();
+//    	if (parent != null) {
+//	    	int totalDepth = parent.getNodeDepth() + 1;
+//    		n.setNodeDepth(totalDepth);
+//	    	if (totalDepth > MINIMAX_DEPTH + 1) {
+//	    		depth = 0; // Cut Off
+//	    	}	
+//    	}
+	    
+    	// Checks whether the move associated to current node leads to an
+		// extra turn for current player. On extra turn, add 1 more level
+		// to minimax, unless the line has already been extended enough,
+		// i.e. reached a ply deeper than its remaining depth accounts for.
+		boolean extraTurn = n.leadsToExtraTurn();
+		if (extraTurn && ply + depth - ctx.getRootDepth() < MAX_EXTRA_TURN_EXTENSIONS) {
+			depth++;
+			ctx.getStatistics().extension();
+		}
+    	
+    	// If current node is not a leaf, then evaluate its children,
+    	// and form the overall evaluation by using the ones from deeper
+    	// levels.
+    	if (depth != 0) {
+    		// The value of the state, i.e. the evaluation of the best line
+    		// of moves after current one, depends only on the board, the
+    		// remaining depth and the side to move. So if it has already
+    		// been searched, reuse it.
+    		long key = hasher.hash(n.getNodeBoard(), depth, maximizing, extraTurn);
+    		int ttMove = TranspositionTable.NO_MOVE;
+    		
+    		TranspositionTable.Entry ttEntry = ctx.getEntry();
+    		
+    		boolean found = transpositionTable.probe(key, ttEntry);
+    		ctx.getStatistics().ttProbe(found);
+    		
+    		if (found) {
+    			ttMove = ttEntry.getMove();
+    			
+    			// Root node should always be expanded, since its children
+    			// are needed for selecting the best move.
+    			if (n.getParent() != null && 
+    				isUsableEntry(ttEntry, n.getNodeEvaluation(), min, max)) 
+    			{
+    				n.setNodeEvaluation(n.getNodeEvaluation() + ttEntry.getValue());
+    				n.setNodeBoard(null);
+    				return n.getNodeEvaluation();
+    			}
+    		}
+    		
+    		double value;
+    		
+    		if (isChanceNode(n, ply)) {
+    			value = searchChanceNode(n, key, depth, ply, min, max, maximizing, extraTurn, ctx);
+    		} else {
+    			value = searchDecisionNode(n, key, ttMove, depth, ply, min, max,
+    									   maximizing, extraTurn, ctx);
+    		}
+    		
+    		n.setNodeEvaluation(n.getNodeEvaluation() + value);
+    	
+    	} else if (quiescence) {
+    		ctx.setQuiescenceBudget(QUIESCENCE_NODE_BUDGET);
+    		
+    		double value = searchQuiescence(n, QUIESCENCE_DEPTH, ply, min, max,
+    										maximizing, extraTurn, ctx);
+    		
+    		n.setNodeEvaluation(n.getNodeEvaluation() + value);
+    	}
+    	
+    	// Release from memory all the node that will never used again.
+    	// It essentially leaves the tree only with root node and its
+    	// children, and they also got their board states removed, but
+    	// it makes ram consumption to scale linear with depth instead
+    	// of exponentially.
+    	n.setNodeBoard(null);
+    	if (depth < ctx.getRootDepth() - 1) n.setChildren(null);
+    	
+    	return n.getNodeEvaluation();
+    }
+    
+    /**
+     * Searches the children of the given node, i.e. the moves available on
+     * its board, and returns the value of the best one for the side to move.
+     * Once ordered, children are searched by searchStrategy, except for the
+     * ones of a root searched in parallel.
+     *
+     * The result is stored into the transposition table under the given key.
+     * When no known move is available, a fixed evaluation is returned.
+     *
+     * @param n The node whose children are going to be searched.
+     * @param key The hash of the state of n.
+     * @param ttMove The packed move found best for the state by the
+     * 				 transposition table, or TranspositionTable.NO_MOVE.
+     * @param depth The remaining depth of the state.
+     * @param ply The distance of n from the root of the search.
+     * @param min The minimum evaluation value that is considered valid.
+     * @param max The maximum evaluation value that is considered valid.
+     * @param maximizing True if player is the side to move.
+     * @param extraTurn True if n has been reached through an extra turn.
+     * @param ctx The search context of the calling thread.
+     * @return The value of the best child, excluding the evaluation of n.
+     * @throws SearchTimeoutRuntimeException
+     */
+    private double searchDecisionNode(Node n, long key, int ttMove, int depth, int ply,
+    								  double min, double max, boolean maximizing,
+    								  boolean extraTurn, SearchContext ctx)
+    	throws SearchTimeoutRuntimeException
+    {
+    	n.createChildren();
+    	    		
+    	if (n.getChildren().size() == 0 ) {
+    		// If known available moves on the board have been 
+    		// depleted and no further search can be done, then
+    		// do a fixed evaluation for the future moves that
+    		// may exist on the actual board.
+    		double fixed = maximizing ? doFixedEvaluation(depth) : -doFixedEvaluation(depth);
+    		
+    		transpositionTable.store(key, depth, fixed, TranspositionTable.EXACT, 
+    								 TranspositionTable.NO_MOVE);
+    		
+    		return fixed;
+    	}
+    	
+    	ctx.getStatistics().nodeExpanded(n.getChildren().size());
+    	
+    	// Search first the moves most likely to cause a cutoff. The
+    	// principal variation of the previous iteration takes precedence
+    	// over the best move found the last time this state was searched.
+    	int pvMove = TranspositionTable.NO_MOVE;
+    	if (ctx.isFollowingPv() && ply < previousPvLength) pvMove = previousPv[ply];
+    	
+    	MoveOrdering ordering = ctx.getMoveOrdering();
+    	ordering.order(n.getChildren(), ply, ttMove, pvMove);
+    	
+    	if (ctx.isFollowingPv()) {
+    		ctx.setFollowingPv(pvMove != TranspositionTable.NO_MOVE &&
+    						   n.getChildren().get(0).getPackedMove() == pvMove);
+    	}
+
+    	int bound;
+    	int bestMove;
+    	double value;
+    	
+    	// Pondering is bounded to a single thread, while Lazy SMP threads
+    	// search the whole tree on their own.
+    	if (ply == 0 && pool != null && !pondering && !lazySmp && n.getChildren().size() > 1) {
+    		// Root is always a maximizing node.
+    		value = searchRootInParallel(n, depth, min, max, extraTurn, ctx);
+    		bestMove = ctx.getPrincipalVariationMove(0, 0);
+    		
+    		if ((n.getNodeEvaluation() + value) >= max) bound = TranspositionTable.LOWER_BOUND;
+    		else if (value <= childLowerBound(n, min)) bound = TranspositionTable.UPPER_BOUND;
+    		else bound = TranspositionTable.EXACT;
+    	} else {
+    		value = searchStrategy.searchChildren(n, depth, ply, min, max, maximizing, extraTurn,
+    											  ctx, treeSearcher);
+    		bound = ctx.getResultBound();
+    		bestMove = ply < SearchContext.MAX_PLY ? ctx.getPrincipalVariationMove(ply, 0)
+    											   : TranspositionTable.NO_MOVE;
+    	}
+    	
+    	transpositionTable.store(key, depth, value, bound, bestMove);
+    	
+    	if (ply == 0) ctx.setRootBound(bound);
+    	
+    	return value;
+    }
+    
+    /**
+     * Searches a state whose board contains tiles of unknown color in its
+     * playable rows, as the average value of the outcomes sampled by
+     * refillSampler. Every outcome is searched to the same depth as n.
+     * 
+     * In order to keep the cost of the search bounded, only chance nodes
+     * not lying under another chance node are sampled with every outcome
+     * of refillSampler. The rest are searched on a single outcome, so the
+     * number of searched outcomes grows linearly with the number of
+     * samples, instead of exponentially with the chance nodes of a line.
+     * 
+     * Outcomes are pruned with Star1: every sample is assumed to be worth
+     * from -CHANCE_VALUE_BOUND to CHANCE_VALUE_BOUND per remaining ply, so
+     * the search stops as soon as the average cannot fall into the window
+     * of n anymore, and every outcome is searched with the narrowest window
+     * that can still change the average. Values beyond the assumed range
+     * are clamped, so the value of a chance node is always the same no
+     * matter how much it is pruned.
+     * 
+     * Fully sampled results are stored into the transposition table under
+     * the given key. Principal variation ends at the chance node.
+     * 
+     * @param n The chance node.
+     * @param key The hash of the state of n.
+     * @param depth The remaining depth of the state.
+     * @param ply The distance of n from the root of the search.
+     * @param min The minimum evaluation value that is considered valid.
+     * @param max The maximum evaluation value that is considered valid.
+     * @param maximizing True if player is the side to move.
+     * @param extraTurn True if n has been reached through an extra turn.
+     * @param ctx The search context of the calling thread.
+     * @return The average value of the outcomes, excluding the evaluation of n.
+     * @throws SearchTimeoutRuntimeException
+     */
+    private double searchChanceNode(Node n, long key, int depth, int ply, double min,
+    								double max, boolean maximizing, boolean extraTurn,
+    								SearchContext ctx)
+    	throws SearchTimeoutRuntimeException
+    {
+    	// Root moves already found by other threads bound this state from below.
+    	SharedBound alpha = rootAlpha;
+    	if (ply == 1 && alpha != null) min = Math.max(min, alpha.get());
+    	
+    	Board board = n.getNodeBoard();
+    	int samples = ctx.getChanceLevel() == 0 ? refillSampler.getSamples() : 1;
+    	double offset = n.getNodeEvaluation();
+    	double lower = -CHANCE_VALUE_BOUND * depth;
+    	double upper = CHANCE_VALUE_BOUND * depth;
+    	
+    	TranspositionTable.Entry ttEntry = ctx.getEntry();
+    	
+    	int bound = TranspositionTable.EXACT;
+    	double sum = 0.0;
+    	double value = 0.0;
+    	
+    	ctx.enterChanceNode();
+    	
+    	try {
+    		for (int i = 0; i < samples; i++) {
+    			int left = samples - i - 1;
+    			
+    			// The window this outcome should fall in, for the average to
+    			// fall into the window of n.
+    			double sampleMin = samples * (min - offset) - sum - left * upper;
+    			double sampleMax = samples * (max - offset) - sum - left * lower;
+    			
+    			if (sampleMin >= upper) {
+    				value = (sum + (left + 1) * upper) / samples;
+    				bound = TranspositionTable.UPPER_BOUND;
+    				break;
+    			}
+    			if (sampleMax <= lower) {
+    				value = (sum + (left + 1) * lower) / samples;
+    				bound = TranspositionTable.LOWER_BOUND;
+    				break;
+    			}
+    			
+    			Board sampled = refillSampler.sample(board, key, i);
+    			long sampleKey = hasher.hash(sampled, depth, maximizing, extraTurn);
+    			double sampleLow = offset + Math.max(sampleMin, lower);
+    			double sampleHigh = offset + Math.min(sampleMax, upper);
+    			double eval;
+    			
+    			boolean found = transpositionTable.probe(sampleKey, ttEntry);
+    			ctx.getStatistics().ttProbe(found);
+    			
+    			if (found && isUsableEntry(ttEntry, offset, sampleLow, sampleHigh)) {
+    				eval = ttEntry.getValue();
+    			} else {
+    				// Every outcome has its own children.
+    				n.setNodeBoard(sampled);
+    				n.setChildren(null);
+    				eval = searchDecisionNode(n, sampleKey,
+    										  found ? ttEntry.getMove() : TranspositionTable.NO_MOVE,
+    										  depth, ply, sampleLow, sampleHigh, maximizing, extraTurn,
+    										  ctx);
+    			}
+    			
+    			eval = Math.max(lower, Math.min(upper, eval));
+    			sum += eval;
+    			
+    			if (eval <= sampleMin) {
+    				value = (sum + left * upper) / samples;
+    				bound = TranspositionTable.UPPER_BOUND;
+    				break;
+    			}
+    			if (eval >= sampleMax) {
+    				value = (sum + left * lower) / samples;
+    				bound = TranspositionTable.LOWER_BOUND;
+    				break;
+    			}
+    		}
+    	} finally {
+    		ctx.leaveChanceNode();
+    	}
+    	
+    	if (bound == TranspositionTable.EXACT) value = sum / samples;
+    	
+    	n.setNodeBoard(board);
+    	ctx.clearPrincipalVariation(ply);
+    	
+    	// Values of single outcomes should not be taken for fully sampled ones.
+    	if (samples == refillSampler.getSamples()) {
+    		transpositionTable.store(key, depth, value, bound, TranspositionTable.NO_MOVE);
+    	}
+    	
+    	return value;
+    }
+    
+    /**
+     * Checks whether the given node should be searched as a chance node,
+     * i.e. chance nodes are enabled and its board contains tiles of
+     * unknown color in its playable rows. Root is never a chance node.
+     * 
+     * @param n The node to be checked.
+     * @param ply The distance of n from the root of the search.
+     * @return True if n is a chance node.
+     */
+    private boolean isChanceNode(Node n, int ply) {
+    	return refillSampler != null && ply > 0 && RefillSampler.hasUnknownTiles(n.getNodeBoard());
+    }
+    
+    /**
+     * Searches the tactical moves available after the move of the given
+     * leaf and returns the value of the best one for the side to move.
+     *
+     * Only leaves whose own move is tactical, as defined by isTactical(),
+     * are searched, since the board they lead to is the most likely to
+     * offer more tactical moves. Then, only the tactical moves are followed,
+     * for up to the given number of plies, as long as the budget of
+     * created nodes in ctx lasts. The side to move can always decline the
+     * tactical moves, so the value of a state is never worse for it than
+     * the stand-pat value of 0.0, i.e. than the state evaluated as it is.
+     *
+     * Nodes are neither probed into nor stored into the transposition
+     * table, and children are released once searched.
+     *
+     * @param n The leaf, evaluated and with its board.
+     * @param qDepth The remaining plies tactical moves are followed for.
+     * @param ply The distance of n from the root of the search.
+     * @param min The minimum evaluation value that is considered valid.
+     * @param max The maximum evaluation value that is considered valid.
+     * @param maximizing True if player is the side to move.
+     * @param extraTurn True if n has been reached through an extra turn.
+     * @param ctx The search context of the calling thread.
+     * @return The value of the best tactical move or the stand-pat value,
+     * 		   excluding the evaluation of n.
+     * @throws SearchTimeoutRuntimeException
+     */
+    private double searchQuiescence(Node n, int qDepth, int ply, double min, double max,
+    								boolean maximizing, boolean extraTurn, SearchContext ctx)
+    	throws SearchTimeoutRuntimeException
+    {
+    	double offset = n.getNodeEvaluation();
+    	double best = 0.0;
+    	
+    	if (qDepth == 0 || ctx.getQuiescenceBudget() <= 0 || !isTactical(n)) return best;
+    	
+    	// Standing pat is already good enough for a cutoff.
+    	if (maximizing ? offset + best >= max : offset + best <= min) return best;
+    	
+    	n.createChildren();
+    	
+    	ArrayList<Node> children = n.getChildren();
+    	ctx.setQuiescenceBudget(ctx.getQuiescenceBudget() - children.size());
+    	ctx.getStatistics().nodeExpanded(children.size());
+    	
+    	// Side to move at children, the same way strategies define it.
+    	boolean childMaximizing = maximizing ? extraTurn : !extraTurn;
+    	
+    	for (Node child : children) {
+    		if (!isTactical(child)) continue;
+    		
+    		if (isSearchOver(ctx)) throw new SearchTimeoutRuntimeException();
+    		
+    		child.evaluate(childMaximizing);
+    		ctx.getStatistics().nodeEvaluated(ply + 1, child.getCascadeResult().getRounds());
+    		ctx.getStatistics().quiescenceNode();
+    		
+    		// Windows of children refer to their own values, while best
+    		// excludes the evaluation of n.
+    		double eval = child.getNodeEvaluation() + searchQuiescence(
+    				child, qDepth - 1, ply + 1,
+    				maximizing ? best : min - offset, maximizing ? max - offset : best,
+    				childMaximizing, child.leadsToExtraTurn(), ctx
+    		);
+    		
+    		child.setNodeBoard(null);
+    		
+    		if (maximizing ? eval > best : eval < best) best = eval;
+    		
+    		if (maximizing ? offset + best >= max : offset + best <= min) break;
+    	}
+    	
+    	n.setChildren(null);
+    	
+    	return best;
+    }
+    
+    /**
+     * Checks whether the move that led to the given node is tactical, i.e.
+     * it grants an extra turn, by forming a line of five or an L, or it
+     * causes at least QUIESCENCE_CASCADE_ROUNDS rounds of crushes.
+     *
+     * @param n The node to be checked.
+     * @return True if its move is tactical, false if it is quiet or unknown.
+     */
+    private boolean isTactical(Node n) {
+    	CascadeResult cascade = n.getCascadeResult();
+    	
+    	return cascade != null && (cascade.leadsToExtraTurn() ||
+    							   cascade.getRounds() >= QUIESCENCE_CASCADE_ROUNDS);
+    }
+    
+    /**
+     * Checks whether the value of a transposition table entry can be
+     * used in place of searching the state again, given the window
+     * the state is currently searched with.
+     * 
+     * Exact values can always be used. Lower bounds can only be used when
+     * they would cause a cutoff on a maximizing node and upper bounds when
+     * they would cause a cutoff on a minimizing node.
+     * 
+     * @param entry The entry found for the state.
+     * @param nodeEvaluation The evaluation of the move lead to the state.
+     * @param min The minimum evaluation value that is considered valid.
+     * @param max The maximum evaluation value that is considered valid.
+     * @return True if entry's value can be used.
+     */
+    private boolean isUsableEntry(TranspositionTable.Entry entry, double nodeEvaluation,
+    							  double min, double max) 
+    {
+    	switch (entry.getBound()) {
+    	case TranspositionTable.EXACT:
+    		return true;
+    		
+    	case TranspositionTable.LOWER_BOUND:
+    		return nodeEvaluation + entry.getValue() >= max;
+    		
+    	case TranspositionTable.UPPER_BOUND:
+    		return nodeEvaluation + entry.getValue() <= min;
+    		
+    	default:
+    		return false;
+    	}
+    }
+    
+    /**
+     * Prepares the transposition table for a search on the given board.
+     * 
+     * A new hasher is created when the dimensions of the board differ from
+     * the ones of the current hasher, in which case previously stored
+     * states, predictions and pondered boards are discarded. Otherwise, a
+     * new generation of
+     * the table is started, so states stored by previous moves are kept,
+     * but replaced first.
+     * 
+     * @param board The board the search is going to take place on.
+     */
+    private void prepareTranspositionTable(Board board) {
+    	if (hasher == null || 
+    		hasher.getCols() != board.getCols() || 
+    		hasher.getRows() != board.getPRows()) 
+    	{
+    		hasher = new ZobristHasher(board.getCols(), board.getPRows());
+    		transpositionTable.clear();
+    		predictedLength = 0;
+    		ponderResults.clear();
+    		
+    	} else {
+    		transpositionTable.newSearch();
+    	}
+    }
+    
+    /**
+     * Checks whether the given board is one of the boards the principal
+     * variation of the previous move leads to. If so, the rest of the line
+     * is set as the principal variation the search should follow first.
+     * Otherwise, the search follows no line.
+     * 
+     * Boards are matched by the visible tiles only, the same way states
+     * are matched into the transposition table.
+     * 
+     * @param board The board the search is going to take place on.
+     */
+    private void resumePrediction(Board board) {
+    	previousPvLength = 0;
+    	
+    	long key = hasher.hashBoard(board);
+    	
+    	for (int i = 0; i < predictedLength; i++) {
+    		if (predictedKeys[i] == key) {
+    			previousPvLength = predictedLength - i - 1;
+    			System.arraycopy(predictedLine, i + 1, previousPv, 0, previousPvLength);
+    			predictionHits++;
+    			break;
+    		}
+    	}
+    }
+    
+    /**
+     * Plays out the principal variation of the search just completed on
+     * the given board, remembering the board after every move of it, so
+     * the next move can be matched against them by resumePrediction().
+     * 
+     * Nothing is predicted when the line does not start with the returned
+     * move, e.g. when no search completed.
+     * 
+     * The board the returned move leads to is kept for pondering, unless
+     * the move grants an extra turn.
+     * 
+     * @param board The board the search took place on.
+     * @param bestMove The move that is going to be returned, packed by
+     * 				   PackedMove.
+     */
+    private void predictLine(Board board, int bestMove) {
+    	predictedLength = 0;
+    	ponderBoard = null;
+    	
+    	if (bestMove == PackedMove.NO_MOVE || previousPvLength == 0 ||
+    		previousPv[0] != bestMove) 
+    	{
+    		return;
+    	}
+    	
+    	// Moves are played out on the same board the search started from.
+    	Board state = CrushUtilities.cloneBoard(board, 33);
+    	
+    	for (int i = 0; i < previousPvLength; i++) {
+    		CascadeSimulator simulator = new CascadeSimulator(state);
+    		CascadeResult result = simulator.simulate(previousPv[i]);
+    		state = result.getBoard();
+    		
+    		if (i == 0 && !result.leadsToExtraTurn()) ponderBoard = state;
+    		
+    		predictedLine[i] = previousPv[i];
+    		predictedKeys[i] = hasher.hashBoard(state);
+    	}
+    	
+    	predictedLength = previousPvLength;
+    }
+    
+    /**
+     * Checks whether the given board is one of the boards searched by the
+     * last pondering. If so, the principal variation pondering found on
+     * it is set as the one the search should follow first.
+     * 
+     * @param board The board the search is going to take place on.
+     * @return What pondering found on the board, or null if it has not
+     * 		   been pondered, or not even to depth 1.
+     */
+    private PonderResult resumePondering(Board board) {
+    	long key = hasher.hashBoard(board);
+    	PonderResult found = null;
+    	
+    	for (PonderResult result : ponderResults) {
+    		if (result.key == key && result.depth > 0) {
+    			found = result;
+    			break;
+    		}
+    	}
+    	
+    	// Pondered boards are only valid for the move right after them.
+    	ponderResults.clear();
+    	
+    	if (found == null) return null;
+    	
+    	previousPvLength = found.pvLength;
+    	System.arraycopy(found.pv, 0, previousPv, 0, found.pvLength);
+    	ponderHits++;
+    	
+    	return found;
     }
-
-    
-//==== Public Getters ====    
-    
-    public String getName() { return name; }
-
-    public int getId() { return id; }
-
-    public int getScore() { return score; }
-    
-    
-//==== Public Setters ====
-    
-    public void setScore(int score) { this.score = score; }
-    
-    public void setId(int id) { this.id = id; }
-
-    public void setName(String name) { this.name = name; }
-
     
-//==== Public Methods ====
+    /**
+     * Starts pondering on the board the last returned move leads to, if
+     * pondering is enabled, that board is known and the search of the move
+     * has not been interrupted.
+     */
+    private void startPondering() {
+    	if (ponderTime <= 0 || ponderBoard == null || searchInterrupted) return;
+    	
+    	int reply = predictedLength > 1 ? predictedLine[1] : TranspositionTable.NO_MOVE;
+    	
+    	ponderCancelled = false;
+    	ponderThread = new Thread(new PonderTask(ponderBoard, reply), "MinMaxPlayer-ponder");
+    	ponderThread.setDaemon(true);
+    	ponderThread.start();
+    }
     
     /**
-     * Finds and returns the best move out of provided available
-     * moves that is going to be played on the given board, using
-     * a minimax algorithm based on a heuristic evaluation function.
+     * Searches the boards the most likely replies of the opponent on the
+     * given board lead to, deeper and deeper, until either all of them
+     * reach MAX_ITERATIVE_DEPTH or pondering is over.
      * 
-     * Depth of minimax algoritmh is defined by MINIMAX_DEPTH
-     * constant in MinMaxPlayer class.
+     * Replies are ordered the same way the children of a searched state
+     * are, with the given reply first. Replies granting an extra turn are
+     * skipped, since the opponent would be asked to move again.
      * 
-     * @param availableMoves The currently available moves for the
-     * 						 player to play on the given board, in
-     * 						 the form of [x, y, direction] int array.
-     * 						 All these moves are packed into an
-     * 						 ArrayList object. direction value as defined
-     * 						 in board.CrushUtilities
-     * @param board The board on which the move is going to be played.
-     * @return The move that player should play, if the form of
-     * 		   [x1, y1, x2, y2] int array.
+     * @param board The board the opponent replies on.
+     * @param reply The packed reply expected by the principal variation, or
+     * 				TranspositionTable.NO_MOVE.
+     * @throws SearchTimeoutRuntimeException
      */
-    public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+    private void ponder(Board board, int reply) throws SearchTimeoutRuntimeException {
+    	deadline = System.nanoTime() + ponderTime * 1000000L;
     	
-    	// Create the root node representing current state of board.
-    	// This is the initial state for minimax.
-    	Node root = new Node(null, CrushUtilities.cloneBoard(board, 33), null);
+    	transpositionTable.newSearch();
+    	ponderContext.getStatistics().clear();
+    	ponderContext.getMoveOrdering().clear();
+    	ponderResults.clear();
     	
-    	// Create the minimax tree to the depth defined by MINIMAX_DEPTH constant.
-    	createMinimaxTree(root, MINIMAX_DEPTH, -Double.MAX_VALUE, Double.MAX_VALUE, true);
+    	Node opponentRoot = new Node(null, board, null);
+    	opponentRoot.createChildren();
+    	ponderContext.getMoveOrdering().order(opponentRoot.getChildren(), 0,
+    										  TranspositionTable.NO_MOVE, reply);
     	
-    	// Return the highest scoring move out of minimax tree.
-    	return findBestMove(root).toCordsArray();
-    }   
-
-   
-//==== Private Methods ====
-        
+    	for (Node child : opponentRoot.getChildren()) {
+    		if (ponderResults.size() == PONDER_REPLIES) break;
+    		
+    		CascadeResult cascade = child.getCascadeResult();
+    		if (cascade.leadsToExtraTurn()) continue;
+    		
+    		ponderResults.add(new PonderResult(cascade.getBoard(), 
+    										   hasher.hashBoard(cascade.getBoard())));
+    	}
+    	
+    	for (int depth = 1; depth <= MAX_ITERATIVE_DEPTH; depth++) {
+    		for (PonderResult result : ponderResults) {
+    			// Every board follows its own line, as a move would.
+    			previousPvLength = result.pvLength;
+    			System.arraycopy(result.pv, 0, previousPv, 0, result.pvLength);
+    			
+    			Node root = searchWithAspiration(result.board, depth, result.value, ponderContext);
+    			
+    			// Nothing to choose from, so the board is left unpondered.
+    			if (root.getChildren().size() == 0) continue;
+    			
+    			result.bestMove = findBestMove(root);
+    			result.value = root.getNodeEvaluation();
+    			result.depth = depth;
+    			result.pvLength = ponderContext.copyPrincipalVariation(result.pv);
+    		}
+    	}
+    }
+    
     /**
-     * Creates a memory optimized A-B pruned minimax tree under 
-     * the root node, which should only be used for accessing root
-     * node's evaluation, its children evaluations and its children moves.
-     * It returns the evaluation of the current state for specified 
-     * player, maximizing or minimizing
-     * 
-     * The evaluations are as expected formed by searching until the given
-     * depth. Though all nodes after first level are discarded. Thus,
-     * memory consumption scales linear with depth instead of
-     * exponentially.
-     * 
-     * Root node should contain at least the board of the initial state.
+     * Checks whether the search running through the given context should
+     * stop, either because deadline has been exceeded, the context has been
+     * aborted, the thread asking for the move has been interrupted or the
+     * running pondering is over.
      * 
-     * It should normally be called with min and max arguments of
-     * -Double.MAX_VALUE and Double.MAX_VALUE accordingly. Though
-     * they can be set to any best matching value and are the 
-     * initial values used for A-B pruning.
+     * Helper and root tasks run on the threads of the pool, which are not
+     * interrupted along with the thread asking for the move, so its status
+     * is checked instead of the status of the calling thread.
      * 
-     * Maximizing defines if the current state should be checked from
-     * player's perspective, i.e. maximizing, or enemy's perspective,
-     * i.e. minimizing. Maximizing player considers greater values better,
-     * when minimizing player considers lower values better.
+     * @param ctx The search context of the calling thread.
+     * @return True if search should stop.
+     */
+    private boolean isSearchOver(SearchContext ctx) {
+    	if (System.nanoTime() > deadline || ctx.isAborted() || searchInterrupted) return true;
+
+    	Thread thread = searchThread;
+    	if (thread != null && thread.isInterrupted()) {
+    		searchInterrupted = true;
+    		return true;
+    	}
+
+    	return pondering && isPonderingOver(ctx);
+    }
+    
+    /**
+     * Checks whether the running pondering should stop, either because it
+     * has been cancelled or because it has used up its node budget.
      * 
-     * @param n The root node for the tree to be created.
-     * @param depth The depth to which the tree will be created.
-     * @param min The minimum evaluation value that is considered valid.
+     * @param ctx The search context of the pondering thread.
+     * @return True if pondering should stop.
+     */
+    private boolean isPonderingOver(SearchContext ctx) {
+    	return ponderCancelled || ctx.getStatistics().getNodesEvaluated() >= ponderNodes;
+    }
+    
+    /**
+     * Searches the children of the given root node in parallel, using the
+     * threads of the pool, and returns the best evaluation found among them.
+     *
+     * The first child is searched alone by the calling thread, in order to
+     * get a bound the rest of the children can be searched with. Then the
+     * rest of the children are searched concurrently, each one by a
+     * separate task. Whenever a task finds a better evaluation, it raises
+     * rootAlpha, so tasks still running can use it for further cutoffs.
+     *
+     * The principal variation of the best child is recorded into the given
+     * search context.
+     *
+     * @param root The root node, with its children already created.
+     * @param depth The depth root is searched to.
+     * @param min The minimum root value that is considered valid. Children
+     * 			  are searched with the bound it sets on their evaluations,
+     * 			  so that the value returned stays at or below that bound
+     * 			  when root fails low.
      * @param max The maximum evaluation value that is considered valid.
-     * @param maximizing True for getting evaluation for player's perspective,
-     * 					 false for getting evaluation for enemy's perspective.	
-     * @return The evaluation of the current state for given player.
+     * @param extraTurn True if root has been reached through an extra turn.
+     * @param ctx The search context of the calling thread.
+     * @return The evaluation of the best child of root.
+     * @throws SearchTimeoutRuntimeException
      */
-    private double createMinimaxTree(Node n, int depth, double min, 
-    								 double max, boolean maximizing) 
-    {    	    	
-    	// Find the evaluation of current state. Since this method is going
-    	// to run one more time than depth, the evaluation here is the
-    	// opposite than maximizing. This happens because the first call
-    	// is the root node, and for every move it's effect is calculated
-    	// on the next run. 
-    	n.evaluate(maximizing);
+    private double searchRootInParallel(Node root, int depth, double min, double max,
+    									boolean extraTurn, SearchContext ctx)
+    	throws SearchTimeoutRuntimeException
+    {
+    	ArrayList<Node> children = root.getChildren();
+    	double lower = childLowerBound(root, min);
     	
-    	// It counts total depth, considering every extra turn. If it
-    	// exceeds MINIMAX_DEPTH + 2, it just cuts off further searching
-    	// no matter what.
-//    	Node parent = n.getParent();
-//    	if (parent != null) {
-//	    	int totalDepth = parent.getNodeDepth() + 1;
-//    		n.setNodeDepth(totalDepth);
-//	    	if (totalDepth > MINIMAX_DEPTH + 1) {
-//	    		depth = 0; // Cut Off
-//	    	}	
-//    	}
-	    
-    	// Checks whether the move associated to current node leads to an
-		// extra turn for current player.
-		boolean extraTurn = n.leadsToExtraTurn();
-		if (extraTurn) depth++; // On extra turn, add 1 more level to minimax.
+    	Node eldest = children.get(0);
+    	double cMax = createMinimaxTree(eldest, depth - 1, 1, lower, max, extraTurn, ctx);
     	
-    	// If current node is not a leaf, then evaluate its children,
-    	// and form the overall evaluation by using the ones from deeper
-    	// levels.
-    	if (depth != 0) {
-    		n.createChildren();
-    		    		
-    		if (n.getChildren().size() == 0 ) {
-    			// If known available moves on the board have been 
-    			// depleted and no further search can be done, then
-    			// do a fixed evaluation for the future moves that
-    			// may exist on the actual board.
-
-    			if (maximizing)	n.setNodeEvaluation(n.getNodeEvaluation() + doFixedEvaluation(depth));
-        		else n.setNodeEvaluation(n.getNodeEvaluation() - doFixedEvaluation(depth));
-    			
-    			return n.getNodeEvaluation();
-    		}
+    	ctx.setFollowingPv(false);
+    	ctx.updatePrincipalVariation(0, eldest.getPackedMove());
+    	
+    	if ((root.getNodeEvaluation() + cMax) >= max) return cMax;
+    	
+    	SharedBound alpha = new SharedBound(Math.max(lower, cMax));
+    	rootAlpha = alpha;
+    	
+    	final ArrayList<RootChildTask> tasks = new ArrayList<RootChildTask>();
+    	for (int i = 1; i < children.size(); i++) {
+    		RootChildTask task = new RootChildTask(children.get(i), depth - 1, max, extraTurn, alpha);
     		
-    		if (maximizing) {
-    			double cMax = -Double.MAX_VALUE;
-    			
-    			for (Node child : n.getChildren()) {    				    				
-    				double eval = createMinimaxTree(child, depth - 1, cMax, max, extraTurn);
-    				
-    				cMax = Math.max(cMax, eval);
-    				
-    				if ((n.getNodeEvaluation() + eval) >= max) {
-    					cMax = eval;
-    					break;
-    				}
-        		}
-    			
-    			n.setNodeEvaluation(n.getNodeEvaluation() + cMax);
-    			
-    		} else {
-    			double cMin = Double.MAX_VALUE;
-
-    			for (Node child : n.getChildren()) {    				
-    				double eval = createMinimaxTree(child, depth - 1, min, cMin, !extraTurn);
-    				
-    				cMin = Math.min(cMin, eval);
-    				
-    				if ((n.getNodeEvaluation() + eval) <= min) {
-    					cMin = eval;
-    					break;
-    				}	
-        		}
+    		// Every task starts with what the calling thread has learned so far.
+    		task.ctx.getMoveOrdering().copyTables(ctx.getMoveOrdering());
+    		task.ctx.setRootDepth(ctx.getRootDepth());
+    		tasks.add(task);
+    	}
+    	
+    	try {
+    		pool.invoke(new RecursiveAction() {
+    			private static final long serialVersionUID = 1L;
     			
-    			n.setNodeEvaluation(n.getNodeEvaluation() + cMin);    			
-    		}
+    			@Override
+    			protected void compute() { invokeAll(tasks); }
+    		});
+    	} finally {
+    		rootAlpha = null;
+    		
+    		// Work of aborted searches is counted too.
+    		for (RootChildTask task : tasks) ctx.getStatistics().add(task.ctx.getStatistics());
     	}
     	
-    	// Release from memory all the node that will never used again.
-    	// It essentially leaves the tree only with root node and its
-    	// children, and they also got their board states removed, but
-    	// it makes ram consumption to scale linear with depth instead
-    	// of exponentially.
-    	n.setNodeBoard(null);
-    	if (depth < MINIMAX_DEPTH - 1) n.setChildren(null);
+    	// Children are checked in their original order, so ties are
+    	// resolved the same way as in a sequential search.
+    	for (RootChildTask task : tasks) {
+    		if (task.eval > cMax) {
+    			cMax = task.eval;
+    			ctx.updatePrincipalVariation(0, task.child.getPackedMove(), task.ctx);
+    		}
+    		
+    		ctx.getMoveOrdering().addStatistics(task.ctx.getMoveOrdering());
+    	}
     	
-    	return n.getNodeEvaluation();
+    	return cMax;
+    }
+    
+    /**
+     * Translates the given minimum root value into the bound it sets on
+     * the evaluations of the children of the given root.
+     */
+    private static double childLowerBound(Node root, double min) {
+    	return min > -Double.MAX_VALUE ? min - root.getNodeEvaluation() : -Double.MAX_VALUE;
     }
        
+    /**
+     * Starts the helper threads of Lazy SMP mode on the given board, if it
+     * is enabled and more than one search thread is available. Helper i,
+     * for i from 1 to searchThreads - 1, starts from depth 1 + i % 2 and
+     * perturbs its move ordering with seed i.
+     *
+     * @param board The board on which the move is going to be played.
+     * @return The started helpers. Empty if none has been started.
+     */
+    private ArrayList<HelperTask> startHelpers(Board board) {
+    	ArrayList<HelperTask> helpers = new ArrayList<HelperTask>();
+    	
+    	if (!lazySmp || pool == null || pondering) return helpers;
+    	
+    	for (int i = 1; i < searchThreads; i++) {
+    		HelperTask helper = new HelperTask(board, i);
+    		
+    		helpers.add(helper);
+    		pool.execute(helper);
+    	}
+    	
+    	return helpers;
+    }
+    
+    /**
+     * Aborts the given helpers and waits for them to terminate. Their work
+     * is counted into the statistics of the calling thread.
+     *
+     * @param helpers The helpers returned by startHelpers().
+     */
+    private void stopHelpers(ArrayList<HelperTask> helpers) {
+    	for (HelperTask helper : helpers) helper.ctx.abort();
+    	
+    	for (HelperTask helper : helpers) {
+    		helper.join();
+    		
+    		context.getStatistics().add(helper.ctx.getStatistics());
+    		context.getMoveOrdering().addStatistics(helper.ctx.getMoveOrdering());
+    	}
+    }
+    
     /**
      * Find the move that lead to the highest evaluated branch
      * on a minimax tree.
      * 
      * @param root The root node of the minimax tree.
      * @return The move lead to highest scoring branch of
-     * 		   the tree.
+     * 		   the tree, packed by PackedMove.
      */
-    private PlayerMove findBestMove(Node root) {
+    private int findBestMove(Node root) {
     	
-    	PlayerMove bestMove = null;
+    	int bestMove = PackedMove.NO_MOVE;
     	double max = -Double.MAX_VALUE;
     	    	
     	for (Node child : root.getChildren()) {
@@ -255,7 +2072,7 @@ public class MinMaxPlayer implements AbstractPlayer {
     		
     		if (max < curEval) {
     			max = curEval;
-    			bestMove = child.getNodeMove();
+    			bestMove = child.getPackedMove();
     		}
     	}
     	
@@ -278,4 +2095,240 @@ public class MinMaxPlayer implements AbstractPlayer {
     	if (remainingDepth <= 1) return 8.0;
     	else return 4.0;
     }    
-}
\ No newline at end of file
+
+    /**
+     * Creates the statistics of the move just searched and passes them
+     * to metricsSink, if any.
+     *
+     * @param start The System.nanoTime() the search started at.
+     * @param gcStart The value of getCollectionTime() when search started.
+     */
+    private void recordMetrics(long start, long gcStart) {
+    	moveNumber++;
+
+    	long wallMillis = (System.nanoTime() - start) / 1000000L;
+
+    	lastMoveMetrics = new MoveMetrics(id, moveNumber, System.currentTimeMillis(), wallMillis,
+    									  getCollectionTime() - gcStart, lastCompletedDepth,
+    									  searchAborted, context.getStatistics());
+
+    	if (metricsSink != null) metricsSink.record(lastMoveMetrics);
+    }
+
+    /**
+     * Get the total time every garbage collector of the JVM has spent
+     * collecting so far.
+     *
+     * @return The collection time in ms.
+     */
+    private static long getCollectionTime() {
+    	long total = 0;
+
+    	for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+    		// Collectors not reporting their time return -1.
+    		total += Math.max(0, gc.getCollectionTime());
+    	}
+
+    	return total;
+    }
+
+    /**
+     * Creates the sink defined by metricsLog and metricsJfr settings.
+     *
+     * @param config The settings of the game.
+     * @param log The sink of metricsLog setting, or null if not enabled.
+     * @return The sink, or null if no sink is enabled.
+     */
+    private static MetricsSink createMetricsSink(BoardConfig config, RollingLogSink log) {
+    	ArrayList<MetricsSink> sinks = new ArrayList<MetricsSink>();
+
+    	if (log != null) sinks.add(log);
+    	if (config.isMetricsJfr()) sinks.add(new JfrSink());
+
+    	if (sinks.isEmpty()) return null;
+
+    	return sinks.size() == 1 ? sinks.get(0) : new CompositeMetricsSink(sinks);
+    }
+
+
+//==== Classes defined in MinMaxPlayer ====
+
+    /**
+     * A task that searches a single child of the root, using its own
+     * search context, as part of a parallel root search.
+     */
+    private class RootChildTask extends RecursiveAction {
+    	private static final long serialVersionUID = 1L;
+
+    	final Node child;
+    	final int depth;
+    	final double max;
+    	final boolean extraTurn;
+    	final SharedBound alpha;
+    	final SearchContext ctx;
+
+    	/**
+    	 * The evaluation of the child, available after the task completes.
+    	 */
+    	double eval;
+
+    	RootChildTask(Node child, int depth, double max, boolean extraTurn, SharedBound alpha) {
+    		this.child = child;
+    		this.depth = depth;
+    		this.max = max;
+    		this.extraTurn = extraTurn;
+    		this.alpha = alpha;
+    		this.ctx = new SearchContext();
+    	}
+
+    	@Override
+    	protected void compute() {
+    		eval = createMinimaxTree(child, depth, 1, alpha.get(), max, extraTurn, ctx);
+
+    		alpha.raise(eval);
+    	}
+    }
+
+
+    /**
+     * A helper thread of Lazy SMP mode. It runs its own iterative deepening
+     * on the board, with unbounded windows and without following any
+     * principal variation, until it is aborted or MAX_ITERATIVE_DEPTH is
+     * completed. Only the states it stores into the transposition table
+     * are of any use.
+     */
+    private class HelperTask extends RecursiveAction {
+    	private static final long serialVersionUID = 1L;
+
+    	final Board board;
+    	final int index;
+    	final SearchContext ctx;
+
+    	HelperTask(Board board, int index) {
+    		this.board = board;
+    		this.index = index;
+    		this.ctx = new SearchContext();
+
+    		ctx.getMoveOrdering().setPerturbation(index);
+    	}
+
+    	@Override
+    	protected void compute() {
+    		try {
+    			for (int depth = 1 + index % 2; depth <= MAX_ITERATIVE_DEPTH; depth++) {
+    				Node root = new Node(null, CrushUtilities.cloneBoard(board, 33), null);
+
+    				ctx.setRootDepth(depth);
+    				ctx.setFollowingPv(false);
+    				createMinimaxTree(root, depth, 0, -Double.MAX_VALUE, Double.MAX_VALUE, true, ctx);
+
+    				if (root.getChildren().size() <= 1) break;
+    			}
+    		} catch (SearchTimeoutRuntimeException e) {
+    			// Aborted along with the search of the calling thread.
+    		}
+    	}
+    }
+
+
+    /**
+     * The searcher strategies search the children of a node through, i.e.
+     * a bridge back to createMinimaxTree().
+     */
+    private class TreeSearcher implements SearchStrategy.ChildSearcher {
+
+    	@Override
+    	public double search(Node child, int depth, int ply, double min, double max,
+    						 boolean maximizing, SearchContext ctx)
+    	{
+    		// A search releases the board of the child, so when strategies
+    		// search it again, e.g. with a wider window, the board is taken
+    		// back from the outcome of its move and its children are recreated.
+    		CascadeResult cascade = child.getCascadeResult();
+    		
+    		if (child.getNodeBoard() == null && cascade != null) {
+    			child.setNodeBoard(cascade.getBoard());
+    			child.setChildren(null);
+    		}
+    		
+    		return createMinimaxTree(child, depth, ply, min, max, maximizing, ctx);
+    	}
+
+    	@Override
+    	public double getRootBound(int ply, SearchContext ctx) {
+    		// Sampled outcomes must stick to the window of their chance node.
+    		SharedBound alpha = rootAlpha;
+    		if (ply == 1 && alpha != null && ctx.getChanceLevel() == 0) return alpha.get();
+
+    		return -Double.MAX_VALUE;
+    	}
+    }
+
+
+    /**
+     * The task of the pondering thread.
+     */
+    private class PonderTask implements Runnable {
+
+    	final Board board;
+    	final int reply;
+
+    	PonderTask(Board board, int reply) {
+    		this.board = board;
+    		this.reply = reply;
+    	}
+
+    	@Override
+    	public void run() {
+    		pondering = true;
+
+    		try {
+    			ponder(board, reply);
+    		} catch (SearchTimeoutRuntimeException e) {
+    			// Cancelled or out of budget. Boards pondered so far are kept.
+    		} finally {
+    			pondering = false;
+    		}
+    	}
+    }
+
+
+    /**
+     * A board pondering takes place on, along with the result of the
+     * deepest iteration completed on it.
+     */
+    private static class PonderResult {
+
+    	final Board board;
+    	final long key;
+
+    	/**
+    	 * Principal variation of the deepest completed iteration.
+    	 */
+    	final int[] pv = new int[SearchContext.MAX_PLY];
+    	int pvLength;
+
+    	/**
+    	 * The deepest completed iteration, or 0 if none completed.
+    	 */
+    	int depth;
+    	int bestMove = PackedMove.NO_MOVE;
+    	double value;
+
+    	PonderResult(Board board, long key) {
+    		this.board = board;
+    		this.key = key;
+    	}
+    }
+
+
+//==== Exceptions defined in MinMaxPlayer ====
+
+    /**
+     * An exception thrown in order to abort a search that exceeded its
+     * deadline.
+     */
+    private static class SearchTimeoutRuntimeException extends RuntimeException {
+    	private static final long serialVersionUID = 1L;
+    }
+}
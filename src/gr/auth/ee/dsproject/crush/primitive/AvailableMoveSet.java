@@ -0,0 +1,290 @@
+package gr.auth.ee.dsproject.crush.primitive;
+
+import java.util.ArrayList;
+
+
+/**
+ * AvailableMoveSet is the set of available moves of a board, kept as
+ * a bitset indexed by the [x, y, direction] of every move.
+ *
+ * Moves are found by the same rules CrushUtilities.getAvailableMoves()
+ * uses, i.e. the moved tile has to form a run of 3 at its new position,
+ * where tiles of UNKNOWN color count as a color of their own. Thus,
+ * toList() returns exactly the moves getAvailableMoves() would return,
+ * in the same order.
+ *
+ * Whether a move is available depends only on the tiles up to two tiles
+ * away from the cell the tile is moved to, i.e. up to three tiles away
+ * from the moved tile. So, the set of a board reached by a move can be
+ * derived from the set of the board the move was played on, by checking
+ * again only the cells that close to the tiles the move changed, instead
+ * of the whole board.
+ *
+ * Bit y of masks[direction * cols + x] is set when moving tile (x, y)
+ * towards direction is available.
+ *
+ * Public constructors defined in AvailableMoveSet:
+ * -public AvailableMoveSet(PrimitiveBoard board)
+ * -public AvailableMoveSet(AvailableMoveSet previous, PrimitiveBoard board, long[] changed)
+ *
+ * Public methods defined in AvailableMoveSet:
+ * -public int getCols()
+ * -public int getPRows()
+ * -public int size()
+ * -public boolean contains(int x, int y, int direction)
+ * -public ArrayList<int[]> toList()
+ * -public int[] toPackedArray()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class AvailableMoveSet {
+
+//==== Private Constants ====
+
+	/**
+	 * Cords offsets of every direction, indexed by the direction
+	 * constants of PrimitiveBoard.
+	 */
+	private static final int[] DX = { -1, 0, 1, 0 };
+	private static final int[] DY = { 0, -1, 0, 1 };
+
+	/**
+	 * The order getAvailableMoves() lists the moves of a single tile in.
+	 */
+	private static final int[] LIST_ORDER = {
+			PrimitiveBoard.UP, PrimitiveBoard.DOWN, PrimitiveBoard.LEFT, PrimitiveBoard.RIGHT
+	};
+
+	/**
+	 * Greatest distance between a moved tile and a tile its availability
+	 * depends on.
+	 */
+	private static final int REACH = 3;
+
+
+//==== Instance Variables ====
+
+	private final int cols;
+	private final int pRows;
+
+	private final long[] masks;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Creates the set of available moves of the given board, by checking
+	 * every move of it.
+	 *
+	 * @param board The board whose moves are wanted.
+	 */
+	public AvailableMoveSet(PrimitiveBoard board) {
+		cols = board.getCols();
+		pRows = board.getPRows();
+		masks = new long[4 * cols];
+
+		long all = visibleBits();
+
+		for (int x = 0; x < cols; x++) recompute(board, x, all);
+	}
+
+	/**
+	 * Creates the set of available moves of the given board, out of the set
+	 * of the board it was before some of its tiles changed. Only moves of
+	 * tiles up to three tiles away from a changed one are checked again.
+	 *
+	 * @param previous The set of the board before the change.
+	 * @param board The board after the change.
+	 * @param changed A mask of the changed tiles, one long per column,
+	 * 				  where bit y of changed[x] is set when tile (x, y)
+	 * 				  may have changed, as given by
+	 * 				  CascadeResult.getChangedMask().
+	 */
+	public AvailableMoveSet(AvailableMoveSet previous, PrimitiveBoard board, long[] changed) {
+		cols = previous.cols;
+		pRows = previous.pRows;
+		masks = previous.masks.clone();
+
+		long visible = visibleBits();
+
+		for (int x = 0; x < cols; x++) {
+			long rows = 0;
+
+			// Changed tiles of nearby columns, spread over nearby rows.
+			for (int cx = Math.max(0, x - REACH); cx <= Math.min(cols - 1, x + REACH); cx++) {
+				long column = changed[cx];
+
+				for (int d = 1; d <= REACH; d++) column |= (changed[cx] << d) | (changed[cx] >>> d);
+
+				rows |= column;
+			}
+
+			rows &= visible;
+
+			if (rows != 0) recompute(board, x, rows);
+		}
+	}
+
+
+//==== Public Getters ====
+
+	public int getCols() { return cols; }
+
+	public int getPRows() { return pRows; }
+
+	/**
+	 * Get the number of available moves.
+	 *
+	 * @return The number of moves in the set.
+	 */
+	public int size() {
+		int count = 0;
+
+		for (long mask : masks) count += Long.bitCount(mask);
+
+		return count;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Checks whether moving the tile at given cords towards the given
+	 * direction is available.
+	 *
+	 * @param x The x cord of the moved tile.
+	 * @param y The y cord of the moved tile.
+	 * @param direction One of PrimitiveBoard.LEFT, DOWN, RIGHT, UP.
+	 * @return True if the move is in the set.
+	 */
+	public boolean contains(int x, int y, int direction) {
+		return (masks[direction * cols + x] & (1L << y)) != 0;
+	}
+
+	/**
+	 * Lists the moves of the set, in the form and the order of the ones
+	 * returned by CrushUtilities.getAvailableMoves().
+	 *
+	 * @return A new list of [x, y, direction] moves.
+	 */
+	public ArrayList<int[]> toList() {
+		ArrayList<int[]> moves = new ArrayList<int[]>();
+
+		for (int x = 0; x < cols; x++) {
+			long any = 0;
+			for (int direction = 0; direction < 4; direction++) any |= masks[direction * cols + x];
+
+			while (any != 0) {
+				int y = Long.numberOfTrailingZeros(any);
+				any &= any - 1;
+
+				for (int direction : LIST_ORDER) {
+					if (contains(x, y, direction)) moves.add(new int[] { x, y, direction });
+				}
+			}
+		}
+
+		return moves;
+	}
+
+	/**
+	 * Lists the moves of the set packed by PackedMove, in the order of the
+	 * ones returned by CrushUtilities.getAvailableMoves().
+	 *
+	 * @return A new array of packed moves.
+	 */
+	public int[] toPackedArray() {
+		int[] moves = new int[size()];
+		int count = 0;
+
+		for (int x = 0; x < cols; x++) {
+			long any = 0;
+			for (int direction = 0; direction < 4; direction++) any |= masks[direction * cols + x];
+
+			while (any != 0) {
+				int y = Long.numberOfTrailingZeros(any);
+				any &= any - 1;
+
+				for (int direction : LIST_ORDER) {
+					if (contains(x, y, direction)) moves[count++] = PackedMove.pack(x, y, direction);
+				}
+			}
+		}
+
+		return moves;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Checks again the moves of the tiles of the given rows of column x.
+	 */
+	private void recompute(PrimitiveBoard board, int x, long rows) {
+		for (int direction = 0; direction < 4; direction++) {
+			long mask = masks[direction * cols + x] & ~rows;
+			long left = rows;
+
+			while (left != 0) {
+				int y = Long.numberOfTrailingZeros(left);
+				left &= left - 1;
+
+				if (isAvailable(board, x, y, direction)) mask |= 1L << y;
+			}
+
+			masks[direction * cols + x] = mask;
+		}
+	}
+
+	/**
+	 * Checks whether the tile at given cords forms a run of 3 once moved
+	 * towards the given direction, either along the direction or across it.
+	 */
+	private boolean isAvailable(PrimitiveBoard board, int x, int y, int direction) {
+		int tx = x + DX[direction];
+		int ty = y + DY[direction];
+
+		if (!isVisible(tx, ty)) return false;
+
+		int color = board.getColor(x, y);
+
+		// Along the direction, beyond the tile it is swapped with.
+		int ax = DX[direction];
+		int ay = DY[direction];
+
+		if (sameColor(board, color, tx + ax, ty + ay) && sameColor(board, color, tx + 2 * ax, ty + 2 * ay)) {
+			return true;
+		}
+
+		// Across the direction, on either or both sides.
+		int px = ay;
+		int py = ax;
+
+		boolean before = sameColor(board, color, tx - px, ty - py);
+		boolean after = sameColor(board, color, tx + px, ty + py);
+
+		return (before && after) ||
+			   (before && sameColor(board, color, tx - 2 * px, ty - 2 * py)) ||
+			   (after && sameColor(board, color, tx + 2 * px, ty + 2 * py));
+	}
+
+	/**
+	 * Checks whether the tile at given cords is visible and has the given
+	 * color, UNKNOWN included.
+	 */
+	private boolean sameColor(PrimitiveBoard board, int color, int x, int y) {
+		return isVisible(x, y) && board.getColor(x, y) == color;
+	}
+
+	private boolean isVisible(int x, int y) {
+		return x >= 0 && x < cols && y >= 0 && y < pRows;
+	}
+
+	/**
+	 * Returns a mask of the visible rows of a column.
+	 */
+	private long visibleBits() {
+		return pRows == 64 ? -1L : (1L << pRows) - 1;
+	}
+}
@@ -0,0 +1,239 @@
+package gr.auth.ee.dsproject.crush.primitive;
+
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+
+
+/**
+ * BitBoardMatcher finds the tiles of a board that form horizontal or
+ * vertical runs of 3 or more tiles of the same color, using one
+ * bitboard per color.
+ *
+ * The visible area of a board is loaded into NUMBER_OF_COLORS bitboards.
+ * Each bitboard consists of one long per column, where bit y of the
+ * column is set when tile (x, y) has the color of the bitboard. Then:
+ * -a vertical run of 3 starts at every bit set in c & c >>> 1 & c >>> 2,
+ *  where c is a column of a bitboard.
+ * -a horizontal run of 3 covers every bit set in c[x] & c[x+1] & c[x+2].
+ * Longer runs are just overlapping runs of 3, so every tile that crushes
+ * is found with a few shifts and ANDs per column, without visiting
+ * tiles one by one.
+ *
+ * The result is a crush mask of the same layout, i.e. bit y of mask[x]
+ * is set when tile (x, y) should be crushed, which can be passed
+ * directly to PrimitiveBoard.crush().
+ *
+ * Tiles of unknown color, as well as tiles of any color outside
+ * [0, NUMBER_OF_COLORS), never crush.
+ *
+ * A BitBoardMatcher object can be reused for any number of boards of
+ * the same dimensions, without allocating any memory.
+ *
+ * Constants defined in BitBoardMatcher:
+ * -public static final int NUMBER_OF_COLORS = CrushUtilities.CYAN + 1
+ *
+ * Public constructors defined in BitBoardMatcher:
+ * -public BitBoardMatcher(int cols, int pRows) throws InvalidDimensionsRuntimeException
+ *
+ * Public methods defined in BitBoardMatcher:
+ * -public int getCols()
+ * -public int getPRows()
+ * -public long getColorMask(int color, int x)
+ * -public void load(Board board) throws InvalidDimensionsRuntimeException
+ * -public void load(PrimitiveBoard board) throws InvalidDimensionsRuntimeException
+ * -public int findCrushMask(long[] mask)
+ *
+ * Exceptions defined in BitBoardMatcher:
+ * -public static class InvalidDimensionsRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class BitBoardMatcher {
+
+//==== Public Constants ====
+
+	/**
+	 * Number of colors a bitboard is kept for. Colors range from
+	 * CrushUtilities.RED to CrushUtilities.CYAN.
+	 */
+	public static final int NUMBER_OF_COLORS = CrushUtilities.CYAN + 1;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Max number of visible rows, so a column fits into a long.
+	 */
+	private static final int MAX_VISIBLE = 64;
+
+
+//==== Instance Variables ====
+
+	private final int cols;
+	private final int pRows;
+
+	/**
+	 * One bitboard per color, each one consisting of one long per column.
+	 */
+	private final long[][] colorMasks;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new BitBoardMatcher for boards of the given dimensions.
+	 *
+	 * If cols is not positive or pRows is not in [1, 64], an
+	 * InvalidDimensionsRuntimeException is thrown.
+	 *
+	 * @param cols The number of columns of the boards.
+	 * @param pRows The number of visible rows of the boards.
+	 * @throws InvalidDimensionsRuntimeException
+	 */
+	public BitBoardMatcher(int cols, int pRows) throws InvalidDimensionsRuntimeException {
+		if (cols < 1 || pRows < 1 || pRows > MAX_VISIBLE) {
+			throw new InvalidDimensionsRuntimeException();
+		}
+
+		this.cols = cols;
+		this.pRows = pRows;
+
+		colorMasks = new long[NUMBER_OF_COLORS][cols];
+	}
+
+
+//==== Public Getters ====
+
+	public int getCols() { return cols; }
+
+	public int getPRows() { return pRows; }
+
+	/**
+	 * Get a column of the bitboard of the given color.
+	 *
+	 * @param color A color in [0, NUMBER_OF_COLORS).
+	 * @param x The x cord of the column.
+	 * @return A mask where bit y is set when tile (x, y) has the given color.
+	 */
+	public long getColorMask(int color, int x) { return colorMasks[color][x]; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Loads the visible area of the given board into the bitboards.
+	 *
+	 * If the dimensions of the board don't match the ones of the matcher,
+	 * an InvalidDimensionsRuntimeException is thrown.
+	 *
+	 * @param board The board to be loaded.
+	 * @throws InvalidDimensionsRuntimeException
+	 */
+	public void load(Board board) throws InvalidDimensionsRuntimeException {
+		if (board.getCols() != cols || board.getPRows() != pRows) {
+			throw new InvalidDimensionsRuntimeException();
+		}
+
+		clear();
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = 0; y < pRows; y++) {
+				setBit(board.giveTileAt(x, y).getColor(), x, y);
+			}
+		}
+	}
+
+	/**
+	 * Loads the visible area of the given board into the bitboards.
+	 *
+	 * If the dimensions of the board don't match the ones of the matcher,
+	 * an InvalidDimensionsRuntimeException is thrown.
+	 *
+	 * @param board The board to be loaded.
+	 * @throws InvalidDimensionsRuntimeException
+	 */
+	public void load(PrimitiveBoard board) throws InvalidDimensionsRuntimeException {
+		if (board.getCols() != cols || board.getPRows() != pRows) {
+			throw new InvalidDimensionsRuntimeException();
+		}
+
+		clear();
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = 0; y < pRows; y++) {
+				setBit(board.getColor(x, y), x, y);
+			}
+		}
+	}
+
+	/**
+	 * Finds every tile of the loaded board that belongs to a horizontal
+	 * or vertical run of 3 or more tiles of the same color.
+	 *
+	 * Found tiles are written into the given mask, one long per column,
+	 * where bit y of mask[x] is set when tile (x, y) should be crushed.
+	 *
+	 * @param mask An array of at least getCols() elements, where the
+	 * 			   crush mask will be written to.
+	 * @return The number of tiles to be crushed.
+	 */
+	public int findCrushMask(long[] mask) {
+		Arrays.fill(mask, 0, cols, 0L);
+
+		for (long[] colorMask : colorMasks) {
+			// Vertical runs, found by shifting every column onto itself.
+			for (int x = 0; x < cols; x++) {
+				long c = colorMask[x];
+				long starts = c & (c >>> 1) & (c >>> 2);
+
+				mask[x] |= starts | (starts << 1) | (starts << 2);
+			}
+
+			// Horizontal runs, found by ANDing every three adjacent columns.
+			for (int x = 0; x + 2 < cols; x++) {
+				long triple = colorMask[x] & colorMask[x + 1] & colorMask[x + 2];
+
+				mask[x] |= triple;
+				mask[x + 1] |= triple;
+				mask[x + 2] |= triple;
+			}
+		}
+
+		int count = 0;
+		for (int x = 0; x < cols; x++) count += Long.bitCount(mask[x]);
+
+		return count;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Empties all bitboards.
+	 */
+	private void clear() {
+		for (long[] colorMask : colorMasks) Arrays.fill(colorMask, 0L);
+	}
+
+	/**
+	 * Marks tile (x, y) on the bitboard of the given color. Unknown colors
+	 * are not marked on any bitboard.
+	 */
+	private void setBit(int color, int x, int y) {
+		if (color >= 0 && color < NUMBER_OF_COLORS) colorMasks[color][x] |= 1L << y;
+	}
+
+
+//==== Exceptions defined in BitBoardMatcher ====
+
+	/**
+	 * Exception thrown when a matcher is requested for invalid dimensions,
+	 * or a board of other dimensions than the matcher's is loaded.
+	 */
+	public static class InvalidDimensionsRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,218 @@
+package gr.auth.ee.dsproject.crush.primitive;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+
+
+/**
+ * CascadeResult holds everything a single simulation of a move by
+ * a CascadeSimulator found out:
+ * -the board the move leads to, after every crush has taken place.
+ * -the tiles removed on every round of crushes. Round 0 contains the
+ *  tiles removed directly by the move, while every next round contains
+ *  the tiles removed by chained moves.
+ * -whether the move grants an extra turn to the player who did it, along
+ *  with the pattern of tiles that granted it.
+ * -the tiles the move may have changed, along with the available moves of
+ *  the board it was played on, if known, so that the available moves of
+ *  the board it leads to can be derived from them.
+ *
+ * The board the move leads to is also kept as a PrimitiveBoard, sharing its
+ * hidden rows with the one the move was simulated on, for the simulator of
+ * that board to start from.
+ *
+ * Tiles removed on a round are given as a crush mask, where bit y of
+ * mask[x] is set when tile (x, y) was removed. Cords refer to the board
+ * as it was at the beginning of that round.
+ *
+ * Public methods defined in CascadeResult:
+ * -public int getPackedMove()
+ * -public int[] getMove()
+ * -public Board getBoard()
+ * -public int getRounds()
+ * -public int getRemoved(int round)
+ * -public long[] getRemovedMask(int round)
+ * -public int getTotalRemoved()
+ * -public boolean leadsToExtraTurn()
+ * -public int getExtraTurnPattern()
+ * -public long[] getChangedMask()
+ * -public AvailableMoveSet getMovesBefore()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.5
+ */
+public class CascadeResult {
+
+//==== Instance Variables ====
+
+	/**
+	 * The simulated move, packed by PackedMove.
+	 */
+	private final int packedMove;
+
+	/**
+	 * The simulated move in the form of [x, y, direction], if it was
+	 * given in that form, else null.
+	 */
+	private final int[] move;
+
+	/**
+	 * The board after the move and every crush it caused.
+	 */
+	private final Board board;
+
+	/**
+	 * The board after the move, as a PrimitiveBoard. It is never modified.
+	 */
+	private final PrimitiveBoard primitive;
+
+	/**
+	 * Crush masks of every round.
+	 */
+	private final long[][] removedMasks;
+
+	/**
+	 * Number of tiles removed on every round.
+	 */
+	private final int[] removed;
+
+	/**
+	 * The pattern that granted an extra turn, as found by PatternDetector,
+	 * or PatternDetector.NO_MATCH.
+	 */
+	private final int extraTurnPattern;
+
+	/**
+	 * Mask of the tiles that may have changed, in the same form as
+	 * removedMasks.
+	 */
+	private final long[] changedMask;
+
+	/**
+	 * Available moves of the board the move was played on, or null.
+	 */
+	private final AvailableMoveSet movesBefore;
+
+
+//==== Constructors ====
+
+	/**
+	 * Creates a new CascadeResult. Results are only created by
+	 * CascadeSimulator, which hands over the given arrays.
+	 */
+	CascadeResult(int packedMove, int[] move, Board board, PrimitiveBoard primitive,
+				  long[][] removedMasks, int[] removed, int extraTurnPattern, long[] changedMask, AvailableMoveSet movesBefore)
+	{
+		this.packedMove = packedMove;
+		this.move = move;
+		this.board = board;
+		this.primitive = primitive;
+		this.removedMasks = removedMasks;
+		this.removed = removed;
+		this.extraTurnPattern = extraTurnPattern;
+		this.changedMask = changedMask;
+		this.movesBefore = movesBefore;
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the simulated move.
+	 *
+	 * @return The move, packed by PackedMove.
+	 */
+	public int getPackedMove() { return packedMove; }
+
+	/**
+	 * Get the simulated move in the form of [x, y, direction].
+	 *
+	 * @return The array the move was given to the simulator as, or a new
+	 * 		   array if it was given packed.
+	 */
+	public int[] getMove() { return move != null ? move : PackedMove.toDirArray(packedMove); }
+
+	/**
+	 * Get the board the move leads to.
+	 *
+	 * @return The board after the move and all the crushes it caused.
+	 */
+	public Board getBoard() { return board; }
+
+	/**
+	 * Get the board the move leads to as a PrimitiveBoard, to be copied by
+	 * a CascadeSimulator of that board. It should not be modified.
+	 */
+	PrimitiveBoard getPrimitiveBoard() { return primitive; }
+
+	/**
+	 * Get the number of rounds of crushes the move caused.
+	 *
+	 * @return The number of rounds, including the one caused directly
+	 * 		   by the move.
+	 */
+	public int getRounds() { return removed.length; }
+
+	/**
+	 * Get the number of tiles removed on the given round.
+	 *
+	 * @param round A round in [0, getRounds()).
+	 * @return The number of removed tiles.
+	 */
+	public int getRemoved(int round) { return removed[round]; }
+
+	/**
+	 * Get the tiles removed on the given round. Returned mask should not
+	 * be modified.
+	 *
+	 * @param round A round in [0, getRounds()).
+	 * @return The crush mask of the round.
+	 */
+	public long[] getRemovedMask(int round) { return removedMasks[round]; }
+
+	/**
+	 * Get the number of tiles removed on all rounds.
+	 *
+	 * @return The total number of removed tiles.
+	 */
+	public int getTotalRemoved() {
+		int total = 0;
+		for (int r : removed) total += r;
+
+		return total;
+	}
+
+	/**
+	 * Checks whether the move grants an extra turn to the player who
+	 * did it.
+	 *
+	 * @return True if an extra turn is granted, else false.
+	 */
+	public boolean leadsToExtraTurn() { return extraTurnPattern != PatternDetector.NO_MATCH; }
+
+	/**
+	 * Get the pattern of tiles, crushed by the move, that granted an extra
+	 * turn.
+	 *
+	 * @return A match to be read by PatternDetector.getPattern(), getX()
+	 * 		   and getY(), or PatternDetector.NO_MATCH if no extra turn is
+	 * 		   granted.
+	 */
+	public int getExtraTurnPattern() { return extraTurnPattern; }
+
+	/**
+	 * Get the tiles of the visible area the move may have changed, i.e. the
+	 * two swapped tiles and every tile from the lowest removed one of a
+	 * column upwards. Returned mask should not be modified.
+	 *
+	 * @return A mask in the same form as the crush masks of the rounds.
+	 */
+	public long[] getChangedMask() { return changedMask; }
+
+	/**
+	 * Get the available moves of the board the move was played on.
+	 *
+	 * @return The AvailableMoveSet of that board, or null if they had not
+	 * 		   been found when the move was simulated.
+	 */
+	public AvailableMoveSet getMovesBefore() { return movesBefore; }
+}
@@ -0,0 +1,308 @@
+package gr.auth.ee.dsproject.crush.primitive;
+
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+
+
+/**
+ * CascadeSimulator plays moves on a board and simulates the whole
+ * cascade of crushes every move causes, in a single pass.
+ *
+ * The outcome of every simulated move is returned as a CascadeResult,
+ * containing the board the move leads to, the tiles removed on every
+ * round of crushes and whether the move grants an extra turn. Thus,
+ * both expansion of a search tree and evaluation of its moves can be
+ * based on the same simulation.
+ *
+ * Moves are played in place on a PrimitiveBoard copy of the given board
+ * and taken back after every simulation, so a single simulator can be
+ * used for all the available moves of a board. Crushes are found by a
+ * BitBoardMatcher. Tiles that fall from beyond the given board are of
+ * unknown color, as in boards created by CrushUtilities.
+ *
+ * Every result keeps a copy of the PrimitiveBoard the move led to, which
+ * shares its hidden rows with the one of the simulator. A simulator created
+ * for the board of a result starts from that copy, instead of converting
+ * the whole board again, and the board of every result is updated only
+ * where the move changed it. So, apart from cloning the board of the
+ * result, the cost of a simulation depends on the visible area and not on
+ * the number of hidden rows.
+ *
+ * The available moves of the board are found once, on request, as an
+ * AvailableMoveSet. When the simulator is created for a board reached by
+ * a simulated move, and the available moves of the board that move was
+ * played on were known, only the moves near the tiles that move changed
+ * are checked again.
+ *
+ * A move grants an extra turn when the tiles that crush along the two
+ * swapped tiles form a line of five or an L, as checked by
+ * BoardUtils.containsAFiveLineOrAnL(). Only up to two tiles away from
+ * every swapped tile are considered, as done by CandiesRemovedHeuristic.
+ * These tiles are placed on a crush mask, which is searched by a
+ * PatternDetector, and the pattern found is kept in the result.
+ *
+ * Public constructors defined in CascadeSimulator:
+ * -public CascadeSimulator(Board board)
+ * -public CascadeSimulator(Board board, CascadeResult cause)
+ *
+ * Public methods defined in CascadeSimulator:
+ * -public Board getBoard()
+ * -public AvailableMoveSet getAvailableMoves()
+ * -public CascadeResult simulate(int move)
+ * -public CascadeResult simulate(int[] move)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.5
+ */
+public class CascadeSimulator {
+
+//==== Private Constants ====
+
+	/**
+	 * Max number of tiles away from a swapped tile, that are checked for
+	 * an extra turn.
+	 */
+	private static final int EXTRA_TURN_REACH = 2;
+
+
+//==== Instance Variables ====
+
+	/**
+	 * The board moves are simulated on.
+	 */
+	private final Board board;
+
+	/**
+	 * A copy of board, where moves are actually played.
+	 */
+	private final PrimitiveBoard primitive;
+
+	private final BitBoardMatcher matcher;
+
+	/**
+	 * Crush mask of the current round.
+	 */
+	private final long[] mask;
+
+	/**
+	 * Mask of the tiles checked for an extra turn.
+	 */
+	private final long[] extraTurnMask;
+
+	/**
+	 * The move that led to board, or null if not known.
+	 */
+	private final CascadeResult cause;
+
+	/**
+	 * Available moves of board. Null until they are requested.
+	 */
+	private AvailableMoveSet availableMoves;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new CascadeSimulator for the given board.
+	 *
+	 * @param board The board moves will be simulated on. It is never
+	 * 				modified.
+	 */
+	public CascadeSimulator(Board board) {
+		this(board, null);
+	}
+
+	/**
+	 * Create a new CascadeSimulator for the given board, which has been
+	 * reached by the given simulated move.
+	 *
+	 * @param board The board moves will be simulated on. It is never
+	 * 				modified.
+	 * @param cause The outcome of the move that led to board, or null if
+	 * 				not known. It is ignored when it leads to another board.
+	 */
+	public CascadeSimulator(Board board, CascadeResult cause) {
+		this.board = board;
+		this.cause = cause != null && cause.getBoard() == board ? cause : null;
+
+		primitive = this.cause != null ? new PrimitiveBoard(this.cause.getPrimitiveBoard())
+									   : PrimitiveBoard.fromBoard(board);
+		matcher = new BitBoardMatcher(board.getCols(), board.getPRows());
+		mask = new long[board.getCols()];
+		extraTurnMask = new long[board.getCols()];
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the board moves are simulated on.
+	 *
+	 * @return The board given on creation.
+	 */
+	public Board getBoard() { return board; }
+
+	/**
+	 * Get the available moves of the board. They are found on the first
+	 * call, incrementally when possible, and are attached to every result
+	 * simulated after that.
+	 *
+	 * @return The AvailableMoveSet of the board.
+	 */
+	public AvailableMoveSet getAvailableMoves() {
+		if (availableMoves == null) {
+			if (cause != null && cause.getMovesBefore() != null) {
+				availableMoves = new AvailableMoveSet(cause.getMovesBefore(), primitive,
+													  cause.getChangedMask());
+			} else {
+				availableMoves = new AvailableMoveSet(primitive);
+			}
+		}
+
+		return availableMoves;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Plays the given move and all the crushes it causes.
+	 *
+	 * @param move A move packed by PackedMove.
+	 * @return The outcome of the move.
+	 */
+	public CascadeResult simulate(int move) {
+		return simulate(move, null);
+	}
+
+	/**
+	 * Plays the given move and all the crushes it causes.
+	 *
+	 * @param move A move in the form of [x, y, direction], as the ones
+	 * 			   returned by CrushUtilities.getAvailableMoves().
+	 * @return The outcome of the move.
+	 */
+	public CascadeResult simulate(int[] move) {
+		return simulate(PackedMove.pack(move), move);
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Plays the given packed move, which may also be given as an array
+	 * to be kept in the result.
+	 */
+	private CascadeResult simulate(int move, int[] dirMove) {
+		int x1 = PackedMove.getX(move);
+		int y1 = PackedMove.getY(move);
+		int x2 = PackedMove.getTargetX(move);
+		int y2 = PackedMove.getTargetY(move);
+
+		primitive.beginMove();
+		primitive.swap(x1, y1, x2, y2);
+
+		int extraTurnPattern = findExtraTurnPattern(x1, y1, x2, y2);
+
+		long[] changed = new long[primitive.getCols()];
+		long visible = primitive.getPRows() == 64 ? -1L : (1L << primitive.getPRows()) - 1;
+		changed[x1] |= 1L << y1;
+		changed[x2] |= 1L << y2;
+
+		long[][] removedMasks = new long[4][];
+		int[] removed = new int[4];
+		int rounds = 0;
+
+		while (true) {
+			matcher.load(primitive);
+
+			int crushed = matcher.findCrushMask(mask);
+
+			if (crushed == 0) break;
+
+			if (rounds == removed.length) {
+				removedMasks = Arrays.copyOf(removedMasks, rounds * 2);
+				removed = Arrays.copyOf(removed, rounds * 2);
+			}
+			removedMasks[rounds] = mask.clone();
+			removed[rounds] = crushed;
+			rounds++;
+
+			// Every tile above a removed one falls.
+			for (int x = 0; x < mask.length; x++) {
+				if (mask[x] != 0) changed[x] |= -Long.lowestOneBit(mask[x]) & visible;
+			}
+
+			primitive.crush(mask);
+		}
+
+		Board result = CrushUtilities.cloneBoard(board);
+		primitive.copyTo(result, changed);
+
+		PrimitiveBoard resultPrimitive = new PrimitiveBoard(primitive);
+
+		primitive.unmakeMove();
+
+		return new CascadeResult(move, dirMove, result, resultPrimitive, Arrays.copyOf(removedMasks, rounds),
+								 Arrays.copyOf(removed, rounds), extraTurnPattern, changed, availableMoves);
+	}
+
+	/**
+	 * Searches the tiles that crush along the two just swapped tiles for a
+	 * line of five or an L.
+	 *
+	 * @return The match found by PatternDetector, or
+	 * 		   PatternDetector.NO_MATCH.
+	 */
+	private int findExtraTurnPattern(int x1, int y1, int x2, int y2) {
+		Arrays.fill(extraTurnMask, 0);
+
+		addRun(x1, y1, 1, 0);
+		addRun(x1, y1, 0, 1);
+		addRun(x2, y2, 1, 0);
+		addRun(x2, y2, 0, 1);
+
+		return PatternDetector.find(extraTurnMask, PatternDetector.EXTRA_TURN_PATTERNS);
+	}
+
+	/**
+	 * Adds to extraTurnMask the tiles of the run of the tile at given cords,
+	 * along the given axis, if the run is long enough to crush.
+	 */
+	private void addRun(int x, int y, int dx, int dy) {
+		int color = primitive.getColor(x, y);
+
+		if (color == PrimitiveBoard.UNKNOWN) return;
+
+		int back = countSameColor(color, x, y, -dx, -dy);
+		int forward = countSameColor(color, x, y, dx, dy);
+
+		if (back + forward + 1 < 3) return;
+
+		for (int i = -back; i <= forward; i++) {
+			extraTurnMask[x + i * dx] |= 1L << (y + i * dy);
+		}
+	}
+
+	/**
+	 * Counts the tiles of the given color next to the given cords, towards
+	 * the given direction.
+	 */
+	private int countSameColor(int color, int x, int y, int dx, int dy) {
+		int count = 0;
+
+		for (int i = 1; i <= EXTRA_TURN_REACH; i++) {
+			int nx = x + i * dx;
+			int ny = y + i * dy;
+
+			if (nx < 0 || nx >= primitive.getCols() || ny < 0 || ny >= primitive.getPRows()) break;
+			if (primitive.getColor(nx, ny) != color) break;
+
+			count++;
+		}
+
+		return count;
+	}
+}
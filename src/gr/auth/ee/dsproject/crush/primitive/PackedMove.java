@@ -0,0 +1,173 @@
+package gr.auth.ee.dsproject.crush.primitive;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+
+
+/**
+ * PackedMove contains utilities for moves packed into a single int, the
+ * form moves are handled in by the search, i.e. by search trees, move
+ * ordering, principal variations and transposition tables.
+ *
+ * A packed move contains the [x, y, direction] of the move, as the ones
+ * returned by CrushUtilities.getAvailableMoves(), in the following bit
+ * fields:
+ * -bits 16 and above: x cord of the moved tile.
+ * -bits 8 to 15: y cord of the moved tile.
+ * -bits 0 to 7: direction, one of the direction constants of
+ *  CrushUtilities.
+ * A valid move is never negative, so NO_MOVE can be told apart from any
+ * move.
+ *
+ * Moves are packed and unpacked without any allocation, except for the
+ * conversions to int[] and PlayerMove, which are meant to be used only
+ * when a move leaves the search.
+ *
+ * Constants defined in PackedMove:
+ * -public static final int NO_MOVE = -1
+ *
+ * Static public methods defined in PackedMove:
+ * -public static int pack(int x, int y, int direction)
+ * -public static int pack(int[] dirMove)
+ * -public static int pack(PlayerMove move)
+ * -public static int getX(int move)
+ * -public static int getY(int move)
+ * -public static int getDirection(int move)
+ * -public static int getTargetX(int move)
+ * -public static int getTargetY(int move)
+ * -public static int[] toDirArray(int move)
+ * -public static int[] toCordsArray(int move)
+ * -public static PlayerMove toPlayerMove(int move, Board board)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class PackedMove {
+
+//==== Public Constants ====
+
+	/**
+	 * A value no packed move can take, used where there is no move.
+	 */
+	public static final int NO_MOVE = -1;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Cords offsets of every direction, indexed by the direction
+	 * constants of CrushUtilities.
+	 */
+	private static final int[] DX = { -1, 0, 1, 0 };
+	private static final int[] DY = { 0, -1, 0, 1 };
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Packs the given move into a single int.
+	 *
+	 * @param x The x cord of the moved tile.
+	 * @param y The y cord of the moved tile.
+	 * @param direction One of CrushUtilities.LEFT, DOWN, RIGHT, UP.
+	 * @return The packed move.
+	 */
+	public static int pack(int x, int y, int direction) {
+		return (x << 16) | (y << 8) | direction;
+	}
+
+	/**
+	 * Packs the given move into a single int.
+	 *
+	 * @param dirMove A move in the form of [x, y, direction], as the ones
+	 * 				  returned by CrushUtilities.getAvailableMoves().
+	 * @return The packed move.
+	 */
+	public static int pack(int[] dirMove) {
+		return pack(dirMove[0], dirMove[1], dirMove[2]);
+	}
+
+	/**
+	 * Packs the given move into a single int.
+	 *
+	 * @param move The move to be packed.
+	 * @return The packed move.
+	 */
+	public static int pack(PlayerMove move) {
+		return pack(move.toDirArray());
+	}
+
+	/**
+	 * Get the x cord of the tile the given move moves.
+	 *
+	 * @param move A packed move.
+	 * @return The x cord of the moved tile.
+	 */
+	public static int getX(int move) { return move >>> 16; }
+
+	/**
+	 * Get the y cord of the tile the given move moves.
+	 *
+	 * @param move A packed move.
+	 * @return The y cord of the moved tile.
+	 */
+	public static int getY(int move) { return (move >>> 8) & 0xFF; }
+
+	/**
+	 * Get the direction the given move moves its tile towards.
+	 *
+	 * @param move A packed move.
+	 * @return One of CrushUtilities.LEFT, DOWN, RIGHT, UP.
+	 */
+	public static int getDirection(int move) { return move & 0xFF; }
+
+	/**
+	 * Get the x cord of the tile the moved tile is swapped with.
+	 *
+	 * @param move A packed move.
+	 * @return The x cord of the other swapped tile.
+	 */
+	public static int getTargetX(int move) { return getX(move) + DX[getDirection(move)]; }
+
+	/**
+	 * Get the y cord of the tile the moved tile is swapped with.
+	 *
+	 * @param move A packed move.
+	 * @return The y cord of the other swapped tile.
+	 */
+	public static int getTargetY(int move) { return getY(move) + DY[getDirection(move)]; }
+
+	/**
+	 * Unpacks the given move.
+	 *
+	 * @param move A packed move.
+	 * @return A new array of [x, y, direction], as the ones returned by
+	 * 		   CrushUtilities.getAvailableMoves().
+	 */
+	public static int[] toDirArray(int move) {
+		return new int[] { getX(move), getY(move), getDirection(move) };
+	}
+
+	/**
+	 * Unpacks the given move into the cords of the two swapped tiles.
+	 *
+	 * @param move A packed move.
+	 * @return A new array of [x1, y1, x2, y2], as the ones returned by
+	 * 		   CrushUtilities.calculateNextMove().
+	 */
+	public static int[] toCordsArray(int move) {
+		return new int[] { getX(move), getY(move), getTargetX(move), getTargetY(move) };
+	}
+
+	/**
+	 * Unpacks the given move into a PlayerMove of the tiles of given board.
+	 *
+	 * @param move A packed move.
+	 * @param board The board the move is played on.
+	 * @return A new PlayerMove swapping the two tiles of the move.
+	 */
+	public static PlayerMove toPlayerMove(int move, Board board) {
+		return new PlayerMove(board.giveTileAt(getX(move), getY(move)),
+							  board.giveTileAt(getTargetX(move), getTargetY(move)));
+	}
+}
@@ -0,0 +1,217 @@
+package gr.auth.ee.dsproject.crush.primitive;
+
+
+/**
+ * PatternDetector finds the patterns of five or more tiles, that crushing
+ * tiles can form, on a crush mask. Such patterns are:
+ * -FIVE_LINE: a horizontal or vertical line of five tiles.
+ * -L_SHAPE: two lines of three tiles, meeting at an end of both, in any
+ *  of the four orientations.
+ * -T_SHAPE: a line of three tiles, with a line of two more tiles starting
+ *  next to its middle one, in any of the four orientations.
+ * Lines or shapes of more tiles contain at least one of the above.
+ *
+ * Masks are in the form used by BitBoardMatcher and CascadeResult, i.e.
+ * bit y of mask[x] is set when tile (x, y) is contained.
+ *
+ * Every orientation of every pattern is a template of five cells, kept as
+ * the column offset and the row shift of every cell, relative to an anchor
+ * tile. Shifting a whole column by the row shift of a cell and ANDing the
+ * shifted columns of all cells together, leaves set the bits of the rows
+ * where the template is contained, anchored at that column. So a template
+ * is checked for all the rows of a column with five shifts and ANDs, without
+ * visiting tiles one by one and without allocating any memory.
+ *
+ * A found pattern is returned as a single int, containing the template that
+ * matched and the cords of its anchor tile. The anchor is the corner of an
+ * L_SHAPE, the middle tile of the line of three of a T_SHAPE and the
+ * leftmost or lowest tile of a FIVE_LINE. If no pattern is found, NO_MATCH
+ * is returned.
+ *
+ * Constants defined in PatternDetector:
+ * -public static final int NO_MATCH = -1
+ * -public static final int FIVE_LINE = 1
+ * -public static final int L_SHAPE = 2
+ * -public static final int T_SHAPE = 4
+ * -public static final int ALL_PATTERNS = FIVE_LINE | L_SHAPE | T_SHAPE
+ * -public static final int EXTRA_TURN_PATTERNS = FIVE_LINE | L_SHAPE
+ *
+ * Static public methods defined in PatternDetector:
+ * -public static int find(long[] mask, int patterns)
+ * -public static int getPattern(int match)
+ * -public static int getX(int match)
+ * -public static int getY(int match)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class PatternDetector {
+
+//==== Public Constants ====
+
+	/**
+	 * The value returned when no pattern is found.
+	 */
+	public static final int NO_MATCH = -1;
+
+	/**
+	 * Patterns that can be searched for, to be ORed together.
+	 */
+	public static final int FIVE_LINE = 1;
+	public static final int L_SHAPE = 2;
+	public static final int T_SHAPE = 4;
+	public static final int ALL_PATTERNS = FIVE_LINE | L_SHAPE | T_SHAPE;
+
+	/**
+	 * Patterns that grant an extra turn to the player who crushed them, as
+	 * checked by BoardUtils.containsAFiveLineOrAnL().
+	 */
+	public static final int EXTRA_TURN_PATTERNS = FIVE_LINE | L_SHAPE;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Number of tiles every template consists of.
+	 */
+	private static final int PATTERN_SIZE = 5;
+
+	/**
+	 * Pattern of every template. Templates are kept in the order they are
+	 * searched for, so the largest patterns are reported first.
+	 */
+	private static final int[] PATTERNS = {
+			FIVE_LINE, FIVE_LINE,
+			L_SHAPE, L_SHAPE, L_SHAPE, L_SHAPE,
+			T_SHAPE, T_SHAPE, T_SHAPE, T_SHAPE
+	};
+
+	/**
+	 * Column offsets of the cells of every template, from its anchor.
+	 */
+	private static final int[][] CELL_X = {
+			{ 0, 1, 2, 3, 4 },		// Horizontal line.
+			{ 0, 0, 0, 0, 0 },		// Vertical line.
+			{ 0, 1, 2, 0, 0 },		// L, arms towards right and up.
+			{ 0, -1, -2, 0, 0 },	// L, arms towards left and up.
+			{ 0, 1, 2, 0, 0 },		// L, arms towards right and down.
+			{ 0, -1, -2, 0, 0 },	// L, arms towards left and down.
+			{ -1, 0, 1, 0, 0 },		// T, stem up.
+			{ -1, 0, 1, 0, 0 },		// T, stem down.
+			{ 0, 0, 0, 1, 2 },		// T, stem right.
+			{ 0, 0, 0, -1, -2 }		// T, stem left.
+	};
+
+	/**
+	 * Row shifts of the cells of every template, from its anchor.
+	 */
+	private static final int[][] CELL_Y = {
+			{ 0, 0, 0, 0, 0 },
+			{ 0, 1, 2, 3, 4 },
+			{ 0, 0, 0, 1, 2 },
+			{ 0, 0, 0, 1, 2 },
+			{ 0, 0, 0, -1, -2 },
+			{ 0, 0, 0, -1, -2 },
+			{ 0, 0, 0, 1, 2 },
+			{ 0, 0, 0, -1, -2 },
+			{ -1, 0, 1, 0, 0 },
+			{ -1, 0, 1, 0, 0 }
+	};
+
+	/**
+	 * Min and max column offsets of every template, so that only anchor
+	 * columns where the whole template fits are checked.
+	 */
+	private static final int[] MIN_X = new int[PATTERNS.length];
+	private static final int[] MAX_X = new int[PATTERNS.length];
+
+	static {
+		for (int t = 0; t < PATTERNS.length; t++) {
+			for (int dx : CELL_X[t]) {
+				MIN_X[t] = Math.min(MIN_X[t], dx);
+				MAX_X[t] = Math.max(MAX_X[t], dx);
+			}
+		}
+	}
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Searches the given mask for any of the given patterns.
+	 *
+	 * Templates are checked in the order FIVE_LINE, L_SHAPE, T_SHAPE, and
+	 * for every template, anchors are checked by column and then by row.
+	 * The first template contained is returned.
+	 *
+	 * @param mask A mask of up to 64 rows, where bit y of mask[x] is set
+	 * 			   when tile (x, y) is contained.
+	 * @param patterns The patterns to be searched for, ORed together.
+	 * @return The match found, to be read by getPattern(), getX() and getY(),
+	 * 		   or NO_MATCH if the mask contains none of the patterns.
+	 */
+	public static int find(long[] mask, int patterns) {
+		int tiles = 0;
+		for (long column : mask) tiles += Long.bitCount(column);
+
+		if (tiles < PATTERN_SIZE) return NO_MATCH;
+
+		for (int t = 0; t < PATTERNS.length; t++) {
+			if ((PATTERNS[t] & patterns) == 0) continue;
+
+			int[] cellX = CELL_X[t];
+			int[] cellY = CELL_Y[t];
+
+			for (int x = -MIN_X[t]; x < mask.length - MAX_X[t]; x++) {
+				long hits = -1L;
+
+				for (int c = 0; c < PATTERN_SIZE && hits != 0; c++) {
+					long column = mask[x + cellX[c]];
+					int dy = cellY[c];
+
+					// Bit y of the shifted column tells whether tile
+					// (x + dx, y + dy) is contained.
+					hits &= dy >= 0 ? column >>> dy : column << -dy;
+				}
+
+				if (hits != 0) return pack(t, x, Long.numberOfTrailingZeros(hits));
+			}
+		}
+
+		return NO_MATCH;
+	}
+
+	/**
+	 * Get the pattern of the given match.
+	 *
+	 * @param match A match returned by find().
+	 * @return One of FIVE_LINE, L_SHAPE, T_SHAPE.
+	 */
+	public static int getPattern(int match) { return PATTERNS[match >>> 16]; }
+
+	/**
+	 * Get the x cord of the anchor tile of the given match.
+	 *
+	 * @param match A match returned by find().
+	 * @return The column of the anchor tile in the mask searched.
+	 */
+	public static int getX(int match) { return (match >>> 8) & 0xFF; }
+
+	/**
+	 * Get the y cord of the anchor tile of the given match.
+	 *
+	 * @param match A match returned by find().
+	 * @return The row of the anchor tile in the mask searched.
+	 */
+	public static int getY(int match) { return match & 0xFF; }
+
+
+//==== Private Methods ====
+
+	/**
+	 * Packs a match of the given template at the given anchor cords.
+	 */
+	private static int pack(int template, int x, int y) {
+		return (template << 16) | (x << 8) | y;
+	}
+}
@@ -0,0 +1,747 @@
+package gr.auth.ee.dsproject.crush.primitive;
+
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+
+
+/**
+ * PrimitiveBoard is a compact, mutable representation of a ThmmyCrush
+ * board, meant to be used by searches that need to play and take back
+ * a huge number of moves.
+ *
+ * The first pRows rows of every column are the visible ones, where
+ * crushes take place, while the rest of them are the hidden rows new
+ * tiles fall from.
+ *
+ * Colors of visible tiles are kept in a single byte array, column after
+ * column, so a column is a contiguous block of the array with its bottom
+ * tile first. Hidden rows never change during a game, apart from falling
+ * down, so they are kept as an immutable stack per column, shared by all
+ * the copies of a board, along with a per column offset of the tiles of
+ * the stack that have already fallen into the visible area. Tiles beyond
+ * the top of a stack are UNKNOWN. Thus, refilling a column after a crush
+ * just advances its offset, while copying a board and taking back a move
+ * cost as much as the visible area does, no matter how many hidden rows
+ * there are.
+ *
+ * Every change to the board is applied in place. A move is started
+ * either by makeMove(), which plays a move along with all the crushes
+ * it causes, or by beginMove(), after which the move can be played
+ * step by step through swap() and crush(). Changes of a move are
+ * recorded into an undo stack, so unmakeMove() can restore the board
+ * to the exact state it had before the move, without allocating any
+ * memory. Each change records only the part of the columns it modified,
+ * along with their offsets into the hidden stacks.
+ * Changes made while no move is started are not recorded.
+ *
+ * Rules are the ones of the game platform:
+ * -Every horizontal or vertical run of 3 or more tiles of the same color
+ *  in the visible area is crushed at once.
+ * -Tiles above crushed ones fall down to fill the gaps, and the emptied
+ *  top of every column is filled with UNKNOWN tiles, since what is
+ *  beyond the known rows cannot be predicted.
+ * -Crushes are repeated until no run remains.
+ * UNKNOWN tiles never form runs, nor do they count for available moves.
+ *
+ * Constants defined in PrimitiveBoard:
+ * -public static final byte UNKNOWN = -1
+ * -public static final int LEFT = 0
+ * -public static final int DOWN = 1
+ * -public static final int RIGHT = 2
+ * -public static final int UP = 3
+ *
+ * Public constructors defined in PrimitiveBoard:
+ * -public PrimitiveBoard(int cols, int rows, int pRows) throws InvalidDimensionsRuntimeException
+ * -public PrimitiveBoard(PrimitiveBoard other)
+ *
+ * Static public methods defined in PrimitiveBoard:
+ * -public static PrimitiveBoard fromBoard(Board board)
+ * -public static PrimitiveBoard fromBoard(Board board, int rowsToKeep)
+ *
+ * Public methods defined in PrimitiveBoard:
+ * -public int getCols()
+ * -public int getRows()
+ * -public int getPRows()
+ * -public int getColor(int x, int y)
+ * -public int getUndoDepth()
+ * -public void setColor(int x, int y, int color)
+ * -public void swap(int x1, int y1, int x2, int y2)
+ * -public void beginMove()
+ * -public int findCrushMask(long[] mask)
+ * -public void crush(long[] mask)
+ * -public int makeMove(int x, int y, int direction)
+ * -public void unmakeMove() throws EmptyUndoStackRuntimeException
+ * -public boolean isAvailableMove(int x, int y, int direction)
+ * -public void copyTo(Board board)
+ * -public void copyTo(Board board, long[] changed)
+ * -public boolean sameTiles(PrimitiveBoard other)
+ *
+ * Exceptions defined in PrimitiveBoard:
+ * -public static class InvalidDimensionsRuntimeException extends RuntimeException
+ * -public static class EmptyUndoStackRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class PrimitiveBoard {
+
+//==== Public Constants ====
+
+	/**
+	 * Color of a tile whose actual color is not known.
+	 */
+	public static final byte UNKNOWN = -1;
+
+	/**
+	 * Directions of moves, same as the ones of board.CrushUtilities.
+	 */
+	public static final int LEFT = 0;
+	public static final int DOWN = 1;
+	public static final int RIGHT = 2;
+	public static final int UP = 3;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Greatest number of columns or visible rows supported, so that a
+	 * visible column fits into a long mask.
+	 */
+	private static final int MAX_VISIBLE = 64;
+
+	/**
+	 * Number of ints every record of the undo stack consists of.
+	 */
+	private static final int RECORD_SIZE = 4;
+
+	/**
+	 * Initial number of records of the undo stack.
+	 */
+	private static final int INITIAL_RECORDS = 64;
+
+
+//==== Instance Variables ====
+
+	private final int cols;
+	private final int rows;
+	private final int pRows;
+
+	/**
+	 * Colors of visible tiles. Tile (x, y) is at index x * pRows + y.
+	 */
+	private final byte[] tiles;
+
+	/**
+	 * Stacks of hidden tiles, stackRows per column, bottom tile first.
+	 * The stack of column x starts at index x * stackRows.
+	 */
+	private byte[] hidden;
+	private int stackRows;
+
+	/**
+	 * True when hidden may be shared with another board, so it should be
+	 * copied before it is written.
+	 */
+	private boolean hiddenShared;
+
+	/**
+	 * Number of tiles of the stack of every column, that have fallen into
+	 * the visible area. Hidden row pRows of column x is the tile at
+	 * consumed[x] of its stack.
+	 */
+	private final int[] consumed;
+
+	/**
+	 * Saved tile colors of undo stack.
+	 */
+	private byte[] undoData;
+	private int undoDataTop;
+
+	/**
+	 * Records of undo stack, each one consisting of the start index of
+	 * a saved block into tiles, its length, its offset into undoData and
+	 * the offset into the hidden stack its column had. Undo stack is
+	 * allocated when the first move is started.
+	 */
+	private int[] undoRecords;
+	private int undoRecordsTop;
+
+	/**
+	 * Index into undoRecords every made move starts from.
+	 */
+	private int[] undoFrames;
+	private int undoFramesTop;
+
+	/**
+	 * Crush mask used by makeMove().
+	 */
+	private final long[] scratchMask;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Creates a new PrimitiveBoard of the given dimensions, with all its
+	 * tiles UNKNOWN. Hidden stacks are empty until a hidden tile is set.
+	 *
+	 * If any dimension is not positive, pRows is greater than rows, or cols
+	 * or pRows is greater than 64, an InvalidDimensionsRuntimeException
+	 * is thrown.
+	 *
+	 * @param cols Number of columns.
+	 * @param rows Total number of rows, including hidden ones.
+	 * @param pRows Number of visible rows.
+	 * @throws InvalidDimensionsRuntimeException
+	 */
+	public PrimitiveBoard(int cols, int rows, int pRows) throws InvalidDimensionsRuntimeException {
+		if (cols < 1 || pRows < 1 || rows < pRows || cols > MAX_VISIBLE || pRows > MAX_VISIBLE) {
+			throw new InvalidDimensionsRuntimeException();
+		}
+
+		this.cols = cols;
+		this.rows = rows;
+		this.pRows = pRows;
+
+		tiles = new byte[cols * pRows];
+		Arrays.fill(tiles, UNKNOWN);
+
+		hidden = new byte[0];
+		stackRows = 0;
+		consumed = new int[cols];
+
+		scratchMask = new long[cols];
+	}
+
+	/**
+	 * Creates a new PrimitiveBoard with the same tiles as the given one.
+	 * Only the visible tiles are copied, while the hidden stacks are shared
+	 * between the two boards. The undo stack is not copied.
+	 *
+	 * @param other The board to be copied.
+	 */
+	public PrimitiveBoard(PrimitiveBoard other) {
+		cols = other.cols;
+		rows = other.rows;
+		pRows = other.pRows;
+
+		tiles = other.tiles.clone();
+
+		hidden = other.hidden;
+		stackRows = other.stackRows;
+		hiddenShared = true;
+		other.hiddenShared = true;
+		consumed = other.consumed.clone();
+
+		scratchMask = new long[cols];
+	}
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Creates a PrimitiveBoard out of all the rows of given board.
+	 *
+	 * @param board The board to be converted.
+	 * @return A PrimitiveBoard with the same tiles as board.
+	 */
+	public static PrimitiveBoard fromBoard(Board board) {
+		return fromBoard(board, board.getRows());
+	}
+
+	/**
+	 * Creates a PrimitiveBoard out of the given number of bottom rows of
+	 * the given board.
+	 *
+	 * @param board The board to be converted.
+	 * @param rowsToKeep Number of rows to be copied. It should be between
+	 * 					 board.getPRows() and board.getRows().
+	 * @return A PrimitiveBoard with the same tiles as the bottom rows of board.
+	 */
+	public static PrimitiveBoard fromBoard(Board board, int rowsToKeep) {
+		int pRows = board.getPRows();
+		int stackRows = rowsToKeep - pRows;
+
+		PrimitiveBoard primitive = new PrimitiveBoard(board.getCols(), rowsToKeep, pRows);
+		primitive.hidden = new byte[primitive.cols * stackRows];
+		primitive.stackRows = stackRows;
+
+		for (int x = 0; x < primitive.cols; x++) {
+			for (int y = 0; y < pRows; y++) {
+				primitive.tiles[x * pRows + y] = (byte) board.giveTileAt(x, y).getColor();
+			}
+			for (int i = 0; i < stackRows; i++) {
+				primitive.hidden[x * stackRows + i] = (byte) board.giveTileAt(x, pRows + i).getColor();
+			}
+		}
+
+		return primitive;
+	}
+
+
+//==== Public Getters ====
+
+	public int getCols() { return cols; }
+
+	public int getRows() { return rows; }
+
+	public int getPRows() { return pRows; }
+
+	/**
+	 * Get the color of the tile at the given cords.
+	 *
+	 * @param x The x cord of the tile.
+	 * @param y The y cord of the tile.
+	 * @return The color of the tile, or UNKNOWN.
+	 */
+	public int getColor(int x, int y) {
+		if (y < pRows) return tiles[x * pRows + y];
+
+		int i = consumed[x] + y - pRows;
+
+		return i < stackRows ? hidden[x * stackRows + i] : UNKNOWN;
+	}
+
+	/**
+	 * Get the number of made moves that can be taken back.
+	 *
+	 * @return The number of moves in the undo stack.
+	 */
+	public int getUndoDepth() { return undoFramesTop; }
+
+
+//==== Public Setters ====
+
+	/**
+	 * Sets the color of the tile at the given cords. The change is not
+	 * recorded into the undo stack, so it should only be used for setting
+	 * up a board, while no move is started.
+	 *
+	 * Setting a hidden tile copies the hidden stacks, if they are shared
+	 * with another board, and moves the stack of the column down to its
+	 * first not fallen tile, if the tile is beyond its top.
+	 *
+	 * @param x The x cord of the tile.
+	 * @param y The y cord of the tile.
+	 * @param color The new color of the tile.
+	 */
+	public void setColor(int x, int y, int color) {
+		if (y < pRows) {
+			tiles[x * pRows + y] = (byte) color;
+			return;
+		}
+
+		if (hiddenShared || stackRows < rows - pRows) ownHiddenStacks();
+		if (consumed[x] + y - pRows >= stackRows) rebaseHiddenStack(x);
+
+		hidden[x * stackRows + consumed[x] + y - pRows] = (byte) color;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Swaps the tiles at the given cords. Both tiles should be in the
+	 * visible area.
+	 *
+	 * @param x1 The x cord of the first tile.
+	 * @param y1 The y cord of the first tile.
+	 * @param x2 The x cord of the second tile.
+	 * @param y2 The y cord of the second tile.
+	 */
+	public void swap(int x1, int y1, int x2, int y2) {
+		int a = x1 * pRows + y1;
+		int b = x2 * pRows + y2;
+
+		saveBlock(x1, a, 1);
+		saveBlock(x2, b, 1);
+
+		byte color = tiles[a];
+		tiles[a] = tiles[b];
+		tiles[b] = color;
+	}
+
+	/**
+	 * Starts a new move. Every change made by swap() and crush() until
+	 * the next call of unmakeMove() is taken back by it.
+	 */
+	public void beginMove() {
+		if (undoFrames == null) {
+			undoData = new byte[cols * pRows];
+			undoRecords = new int[RECORD_SIZE * INITIAL_RECORDS];
+			undoFrames = new int[16];
+		}
+
+		if (undoFramesTop == undoFrames.length) {
+			undoFrames = Arrays.copyOf(undoFrames, undoFrames.length * 2);
+		}
+
+		undoFrames[undoFramesTop++] = undoRecordsTop;
+	}
+
+	/**
+	 * Finds every tile of the visible area that belongs to a horizontal or
+	 * vertical run of 3 or more tiles of the same known color.
+	 *
+	 * Found tiles are written into the given mask, one long per column,
+	 * where bit y of mask[x] is set when tile (x, y) should be crushed.
+	 *
+	 * @param mask An array of at least getCols() elements, where the
+	 * 			   crush mask will be written to.
+	 * @return The number of tiles to be crushed.
+	 */
+	public int findCrushMask(long[] mask) {
+		Arrays.fill(mask, 0, cols, 0L);
+
+		// Vertical runs.
+		for (int x = 0; x < cols; x++) {
+			int offset = x * pRows;
+			int start = 0;
+
+			for (int y = 1; y <= pRows; y++) {
+				if (y == pRows || tiles[offset + y] != tiles[offset + start]) {
+					if (y - start >= 3 && tiles[offset + start] != UNKNOWN) {
+						mask[x] |= runBits(start, y - start);
+					}
+					start = y;
+				}
+			}
+		}
+
+		// Horizontal runs.
+		for (int y = 0; y < pRows; y++) {
+			int start = 0;
+
+			for (int x = 1; x <= cols; x++) {
+				if (x == cols || tiles[x * pRows + y] != tiles[start * pRows + y]) {
+					if (x - start >= 3 && tiles[start * pRows + y] != UNKNOWN) {
+						for (int i = start; i < x; i++) mask[i] |= 1L << y;
+					}
+					start = x;
+				}
+			}
+		}
+
+		int count = 0;
+		for (int x = 0; x < cols; x++) count += Long.bitCount(mask[x]);
+
+		return count;
+	}
+
+	/**
+	 * Removes the tiles of the given crush mask. Tiles above the removed
+	 * ones fall down and the top of the visible area of every affected
+	 * column is filled from its hidden stack, by advancing its offset.
+	 * Once a stack runs out, UNKNOWN tiles fall.
+	 *
+	 * @param mask A crush mask, as the one written by findCrushMask().
+	 */
+	public void crush(long[] mask) {
+		for (int x = 0; x < cols; x++) {
+			long columnMask = mask[x] & visibleBits();
+
+			if (columnMask == 0) continue;
+
+			int offset = x * pRows;
+			int lowest = Long.numberOfTrailingZeros(columnMask);
+
+			saveBlock(x, offset + lowest, pRows - lowest);
+
+			int write = offset + lowest;
+
+			for (int y = lowest; y < pRows; y++) {
+				if ((columnMask & (1L << y)) != 0) continue;
+
+				tiles[write++] = tiles[offset + y];
+			}
+
+			// Removed tiles are replaced by the bottom ones of the stack.
+			for (int i = 0; write < offset + pRows; i++) {
+				tiles[write++] = (byte) getColor(x, pRows + i);
+			}
+
+			consumed[x] = Math.min(stackRows, consumed[x] + Long.bitCount(columnMask));
+		}
+	}
+
+	/**
+	 * Plays the given move and every crush that follows it, until
+	 * the board becomes stable. The move can be taken back by
+	 * unmakeMove().
+	 *
+	 * @param x The x cord of the moved tile.
+	 * @param y The y cord of the moved tile.
+	 * @param direction One of LEFT, DOWN, RIGHT, UP.
+	 * @return The total number of crushed tiles.
+	 */
+	public int makeMove(int x, int y, int direction) {
+		beginMove();
+
+		swap(x, y, x + dx(direction), y + dy(direction));
+
+		int total = 0;
+		int crushed;
+
+		while ((crushed = findCrushMask(scratchMask)) != 0) {
+			crush(scratchMask);
+			total += crushed;
+		}
+
+		return total;
+	}
+
+	/**
+	 * Takes back the last move started by makeMove() or beginMove(),
+	 * restoring the board to the exact state it had before that move.
+	 *
+	 * If no move has been made, an EmptyUndoStackRuntimeException is thrown.
+	 *
+	 * @throws EmptyUndoStackRuntimeException
+	 */
+	public void unmakeMove() throws EmptyUndoStackRuntimeException {
+		if (undoFramesTop == 0) throw new EmptyUndoStackRuntimeException();
+
+		int frameStart = undoFrames[--undoFramesTop];
+
+		// Restore in reverse order, so overlapping blocks end up with
+		// their oldest content.
+		while (undoRecordsTop > frameStart) {
+			undoRecordsTop -= RECORD_SIZE;
+
+			int start = undoRecords[undoRecordsTop];
+			int length = undoRecords[undoRecordsTop + 1];
+			int dataOffset = undoRecords[undoRecordsTop + 2];
+
+			System.arraycopy(undoData, dataOffset, tiles, start, length);
+			consumed[start / pRows] = undoRecords[undoRecordsTop + 3];
+			undoDataTop = dataOffset;
+		}
+	}
+
+	/**
+	 * Checks whether moving the tile at given cords towards the given
+	 * direction is an available move, using the same rules as the game
+	 * platform does. That is, the moved tile has to form a run of 3
+	 * at its new position.
+	 *
+	 * @param x The x cord of the moved tile.
+	 * @param y The y cord of the moved tile.
+	 * @param direction One of LEFT, DOWN, RIGHT, UP.
+	 * @return True if move is available.
+	 */
+	public boolean isAvailableMove(int x, int y, int direction) {
+		int color = getColor(x, y);
+		int maxX = cols - 1;
+		int maxY = pRows - 1;
+
+		switch (direction) {
+		case UP:
+			return (y <= maxY - 3 && sameColor(color, x, y + 2) && sameColor(color, x, y + 3)) ||
+				   (x >= 2 && y <= maxY - 1 && sameColor(color, x - 2, y + 1) && sameColor(color, x - 1, y + 1)) ||
+				   (x >= 1 && y <= maxY - 1 && x <= maxX - 1 && sameColor(color, x - 1, y + 1) && sameColor(color, x + 1, y + 1)) ||
+				   (x <= maxX - 2 && y <= maxY - 1 && sameColor(color, x + 1, y + 1) && sameColor(color, x + 2, y + 1));
+		case DOWN:
+			return (y >= 3 && sameColor(color, x, y - 2) && sameColor(color, x, y - 3)) ||
+				   (x >= 2 && y >= 1 && sameColor(color, x - 2, y - 1) && sameColor(color, x - 1, y - 1)) ||
+				   (x >= 1 && x <= maxX - 1 && y >= 1 && sameColor(color, x - 1, y - 1) && sameColor(color, x + 1, y - 1)) ||
+				   (x <= maxX - 2 && y >= 1 && sameColor(color, x + 1, y - 1) && sameColor(color, x + 2, y - 1));
+		case LEFT:
+			return (x >= 3 && sameColor(color, x - 2, y) && sameColor(color, x - 3, y)) ||
+				   (x >= 1 && y >= 2 && sameColor(color, x - 1, y - 2) && sameColor(color, x - 1, y - 1)) ||
+				   (y >= 1 && y <= maxY - 1 && x >= 1 && sameColor(color, x - 1, y - 1) && sameColor(color, x - 1, y + 1)) ||
+				   (y <= maxY - 2 && x >= 1 && sameColor(color, x - 1, y + 1) && sameColor(color, x - 1, y + 2));
+		case RIGHT:
+			return (x <= maxX - 3 && sameColor(color, x + 2, y) && sameColor(color, x + 3, y)) ||
+				   (x <= maxX - 1 && y >= 2 && sameColor(color, x + 1, y - 2) && sameColor(color, x + 1, y - 1)) ||
+				   (y >= 1 && y <= maxY - 1 && x <= maxX - 1 && sameColor(color, x + 1, y - 1) && sameColor(color, x + 1, y + 1)) ||
+				   (y <= maxY - 2 && x <= maxX - 1 && sameColor(color, x + 1, y + 1) && sameColor(color, x + 1, y + 2));
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * Copies the colors of the tiles of this board into the given board.
+	 * Only the rows both boards have are copied.
+	 *
+	 * @param board A board with the same number of columns.
+	 */
+	public void copyTo(Board board) {
+		int commonRows = Math.min(rows, board.getRows());
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = 0; y < commonRows; y++) {
+				board.giveTileAt(x, y).setColor(getColor(x, y));
+			}
+		}
+	}
+
+	/**
+	 * Copies into the given board only the tiles marked in the given mask,
+	 * along with the hidden rows of every column whose top visible tile is
+	 * marked, since tiles can only have fallen from hidden rows into such
+	 * columns. It is meant for boards that had the tiles of this one before
+	 * the marked tiles changed, so that copy cost depends on the changed
+	 * area.
+	 *
+	 * @param board A board with the same number of columns.
+	 * @param changed A mask of the visible area, where bit y of changed[x]
+	 * 				  is set when tile (x, y) may have changed, as the ones
+	 * 				  of CascadeResult.getChangedMask().
+	 */
+	public void copyTo(Board board, long[] changed) {
+		int commonRows = Math.min(rows, board.getRows());
+		long top = 1L << (pRows - 1);
+
+		for (int x = 0; x < cols; x++) {
+			long columnMask = changed[x];
+
+			while (columnMask != 0) {
+				int y = Long.numberOfTrailingZeros(columnMask);
+				columnMask &= columnMask - 1;
+
+				board.giveTileAt(x, y).setColor(tiles[x * pRows + y]);
+			}
+
+			if ((changed[x] & top) == 0) continue;
+
+			for (int y = pRows; y < commonRows; y++) {
+				board.giveTileAt(x, y).setColor(getColor(x, y));
+			}
+		}
+	}
+
+	/**
+	 * Checks whether this board has the same dimensions and tiles as the
+	 * given one. Undo stacks are not compared.
+	 *
+	 * @param other The board to compare with.
+	 * @return True if boards have the same tiles.
+	 */
+	public boolean sameTiles(PrimitiveBoard other) {
+		if (cols != other.cols || rows != other.rows || pRows != other.pRows ||
+			!Arrays.equals(tiles, other.tiles)) return false;
+
+		// Boards sharing their stacks are equal if their offsets are.
+		if (hidden == other.hidden && Arrays.equals(consumed, other.consumed)) return true;
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = pRows; y < rows; y++) {
+				if (getColor(x, y) != other.getColor(x, y)) return false;
+			}
+		}
+
+		return true;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Saves the given block of visible tiles of column x, along with its
+	 * offset into the hidden stack, into the undo stack. Blocks are only
+	 * saved while a move is started.
+	 */
+	private void saveBlock(int x, int start, int length) {
+		if (undoFramesTop == 0) return;
+
+		if (undoRecordsTop + RECORD_SIZE > undoRecords.length) {
+			undoRecords = Arrays.copyOf(undoRecords, undoRecords.length * 2);
+		}
+		if (undoDataTop + length > undoData.length) {
+			undoData = Arrays.copyOf(undoData, Math.max(undoData.length * 2, undoDataTop + length));
+		}
+
+		undoRecords[undoRecordsTop] = start;
+		undoRecords[undoRecordsTop + 1] = length;
+		undoRecords[undoRecordsTop + 2] = undoDataTop;
+		undoRecords[undoRecordsTop + 3] = consumed[x];
+		undoRecordsTop += RECORD_SIZE;
+
+		System.arraycopy(tiles, start, undoData, undoDataTop, length);
+		undoDataTop += length;
+	}
+
+	/**
+	 * Replaces the hidden stacks with a copy of full height, owned only by
+	 * this board, where no tile has fallen yet.
+	 */
+	private void ownHiddenStacks() {
+		int fullRows = rows - pRows;
+		byte[] own = new byte[cols * fullRows];
+		Arrays.fill(own, UNKNOWN);
+
+		for (int x = 0; x < cols; x++) {
+			System.arraycopy(hidden, x * stackRows + consumed[x], own, x * fullRows,
+							 stackRows - consumed[x]);
+			consumed[x] = 0;
+		}
+
+		hidden = own;
+		stackRows = fullRows;
+		hiddenShared = false;
+	}
+
+	/**
+	 * Moves the tiles of the stack of column x, that have not fallen yet,
+	 * to its bottom. The stack should be owned by this board.
+	 */
+	private void rebaseHiddenStack(int x) {
+		int start = x * stackRows;
+		int left = stackRows - consumed[x];
+
+		System.arraycopy(hidden, start + consumed[x], hidden, start, left);
+		Arrays.fill(hidden, start + left, start + stackRows, UNKNOWN);
+		consumed[x] = 0;
+	}
+
+	/**
+	 * Returns a mask of the visible rows of a column.
+	 */
+	private long visibleBits() {
+		return pRows == 64 ? -1L : (1L << pRows) - 1;
+	}
+
+	/**
+	 * Returns a mask of length bits set, starting from bit start.
+	 */
+	private static long runBits(int start, int length) {
+		long bits = length == 64 ? -1L : (1L << length) - 1;
+
+		return bits << start;
+	}
+
+	/**
+	 * Checks whether the tile at given cords has the given known color.
+	 */
+	private boolean sameColor(int color, int x, int y) {
+		return color != UNKNOWN && tiles[x * pRows + y] == color;
+	}
+
+	private static int dx(int direction) {
+		return direction == LEFT ? -1 : (direction == RIGHT ? 1 : 0);
+	}
+
+	private static int dy(int direction) {
+		return direction == DOWN ? -1 : (direction == UP ? 1 : 0);
+	}
+
+
+//==== Exceptions defined in PrimitiveBoard ====
+
+	/**
+	 * An exception to be thrown when a board of unsupported dimensions
+	 * is requested.
+	 */
+	public static class InvalidDimensionsRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * An exception to be thrown when a move is taken back while no move
+	 * has been made.
+	 */
+	public static class EmptyUndoStackRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,126 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import gr.auth.ee.dsproject.crush.node.Node;
+
+
+/**
+ * AlphaBetaStrategy searches the children of a node with plain A-B
+ * pruning, as MinMaxPlayer always did.
+ *
+ * Every child is searched with a full window. A maximizing node searches
+ * its children with the best value found so far, or its own minimum if
+ * higher, as their minimum and its own maximum, while a minimizing node
+ * searches them with its own minimum and the best value found so far as
+ * their maximum. Minimums are shifted by the evaluation of the node on
+ * their way down, since the minimum of a child refers to the whole value
+ * of the child. A node stops as soon as its value rises above its maximum
+ * or falls below its minimum, depending on the side to move. A maximizing
+ * node whose best value does not rise above its minimum reports that value
+ * as an upper bound, so aspiration windows can fail low.
+ *
+ * Public constructors defined in AlphaBetaStrategy:
+ * -public AlphaBetaStrategy()
+ *
+ * Public methods defined in AlphaBetaStrategy:
+ * -public double searchChildren(Node n, int depth, int ply, double min, double max,
+ * 		boolean maximizing, boolean extraTurn, SearchContext ctx, ChildSearcher searcher)
+ * -public String toString()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.3
+ */
+public class AlphaBetaStrategy implements SearchStrategy {
+
+//==== Public Methods ====
+
+	@Override
+	public double searchChildren(Node n, int depth, int ply, double min, double max,
+								 boolean maximizing, boolean extraTurn, SearchContext ctx,
+								 ChildSearcher searcher)
+	{
+		MoveOrdering ordering = ctx.getMoveOrdering();
+
+		int bound = TranspositionTable.EXACT;
+		int bestMove = TranspositionTable.NO_MOVE;
+		double value;
+
+		// Minimum of the node, in terms of the values of its children.
+		double alpha = min - n.getNodeEvaluation();
+
+		if (maximizing) {
+			double cMax = -Double.MAX_VALUE;
+			int index = 0;
+
+			for (Node child : n.getChildren()) {
+				double eval = searcher.search(child, depth - 1, ply + 1, Math.max(alpha, cMax), max,
+											  extraTurn, ctx);
+
+				// Only the first child can be part of the previous line.
+				ctx.setFollowingPv(false);
+
+				if (eval > cMax || bestMove == TranspositionTable.NO_MOVE) {
+					bestMove = child.getPackedMove();
+					ctx.updatePrincipalVariation(ply, bestMove);
+				}
+
+				cMax = Math.max(cMax, eval);
+
+				if ((n.getNodeEvaluation() + eval) >= max) {
+					cMax = eval;
+					bound = TranspositionTable.LOWER_BOUND;
+					ordering.recordCutoff(child, ply, depth, index);
+					ctx.getStatistics().cutoff(ply);
+					break;
+				}
+
+				index++;
+			}
+
+			if (bound == TranspositionTable.EXACT && cMax <= alpha) bound = TranspositionTable.UPPER_BOUND;
+
+			value = cMax;
+
+		} else {
+			double cMin = Double.MAX_VALUE;
+			int index = 0;
+
+			for (Node child : n.getChildren()) {
+				// While root is searched in parallel, other threads may
+				// have already found better root moves, which makes
+				// further cutoffs possible.
+				min = Math.max(min, searcher.getRootBound(ply, ctx));
+				alpha = min - n.getNodeEvaluation();
+
+				double eval = searcher.search(child, depth - 1, ply + 1, alpha, cMin, !extraTurn, ctx);
+
+				ctx.setFollowingPv(false);
+
+				if (eval < cMin || bestMove == TranspositionTable.NO_MOVE) {
+					bestMove = child.getPackedMove();
+					ctx.updatePrincipalVariation(ply, bestMove);
+				}
+
+				cMin = Math.min(cMin, eval);
+
+				if ((n.getNodeEvaluation() + eval) <= min) {
+					cMin = eval;
+					bound = TranspositionTable.UPPER_BOUND;
+					ordering.recordCutoff(child, ply, depth, index);
+					ctx.getStatistics().cutoff(ply);
+					break;
+				}
+
+				index++;
+			}
+
+			value = cMin;
+		}
+
+		ctx.setResultBound(bound);
+
+		return value;
+	}
+
+	@Override
+	public String toString() { return "AlphaBeta"; }
+}
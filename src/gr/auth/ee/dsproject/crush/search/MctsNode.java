@@ -0,0 +1,295 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.util.ArrayList;
+
+
+/**
+ * MctsNode is a node of a Monte Carlo search tree, shared between all the
+ * threads searching the tree at the same time.
+ *
+ * Every node but the root stands for a packed move, i.e. a single int
+ * containing the [x, y, direction] of the move, as created by
+ * PackedMove, and knows whether the move is played by the
+ * searching player, i.e. the maximizing one, or its opponent. Nodes keep
+ * no board, so the state of a node is reached by playing the moves of
+ * its path from the root.
+ *
+ * Values are kept from the perspective of the maximizing player, between
+ * -1.0 and 1.0. A child is selected by UCT, i.e. by the sum of its mean
+ * value, from the perspective of the player choosing it, and an
+ * exploration term that grows for children visited less than their
+ * siblings.
+ *
+ * Children are added by progressive widening. The moves of a node are
+ * given once, ordered from the most to the least promising one, and only
+ * the first WIDENING_COEFFICIENT * visits^WIDENING_EXPONENT of them, and
+ * at least one, are considered on every selection, so nodes with many
+ * moves are searched deep before they are searched wide.
+ *
+ * Every selected child is given a virtual loss, i.e. it counts as visited
+ * and lost for the player choosing it, until the result of the
+ * simulation passing through it is added by update(). Thus, threads
+ * selecting at the same time are led to different children. Every node
+ * is locked only while it is being expanded, selected from or updated.
+ *
+ * Constants defined in MctsNode:
+ * -public static final double WIDENING_COEFFICIENT = 2.0
+ * -public static final double WIDENING_EXPONENT = 0.5
+ *
+ * Public constructors defined in MctsNode:
+ * -public MctsNode()
+ * -public MctsNode(MctsNode parent, int move, boolean maximizing)
+ *
+ * Public methods defined in MctsNode:
+ * -public MctsNode getParent()
+ * -public int getMove()
+ * -public boolean isMaximizing()
+ * -public int getVisits()
+ * -public int getVirtualLoss()
+ * -public double getValue()
+ * -public boolean isExpanded()
+ * -public int getMovesCount()
+ * -public ArrayList<MctsNode> getChildren()
+ * -public MctsNode getMostVisitedChild()
+ * -public void expand(int[] moves)
+ * -public MctsNode select(double exploration, boolean maximizing)
+ * 		throws NotExpandedRuntimeException
+ * -public void update(double value)
+ *
+ * Exceptions defined in MctsNode:
+ * -public static class NotExpandedRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class MctsNode {
+
+//==== Public Constants ====
+
+	/**
+	 * Number of children considered by a node visited once.
+	 */
+	public static final double WIDENING_COEFFICIENT = 2.0;
+
+	/**
+	 * Exponent of the visits of a node the number of its considered
+	 * children grows with.
+	 */
+	public static final double WIDENING_EXPONENT = 0.5;
+
+
+//==== Instance Variables ====
+
+	private final MctsNode parent;
+	private final int move;
+
+	/**
+	 * True if the move of the node is played by the maximizing player.
+	 */
+	private final boolean maximizing;
+
+	/**
+	 * Moves of the state of the node, in the order they are added as
+	 * children. Null until the node is expanded.
+	 */
+	private volatile int[] moves;
+
+	private final ArrayList<MctsNode> children;
+
+	// Written only while holding the lock of the node, though read by
+	// the selections of its parent without it.
+	private volatile int visits;
+	private volatile int virtualLoss;
+	private volatile double totalValue;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new root node. It stands for no move.
+	 */
+	public MctsNode() {
+		this(null, TranspositionTable.NO_MOVE, false);
+	}
+
+	/**
+	 * Create a new node for the given move.
+	 *
+	 * @param parent The node the move is played on.
+	 * @param move The packed move of the node.
+	 * @param maximizing True if the move is played by the maximizing player.
+	 */
+	public MctsNode(MctsNode parent, int move, boolean maximizing) {
+		this.parent = parent;
+		this.move = move;
+		this.maximizing = maximizing;
+
+		children = new ArrayList<MctsNode>();
+	}
+
+
+//==== Public Getters ====
+
+	public MctsNode getParent() { return parent; }
+
+	public int getMove() { return move; }
+
+	public boolean isMaximizing() { return maximizing; }
+
+	/**
+	 * Get the number of simulations that passed through the node.
+	 *
+	 * @return The number of visits, excluding virtual ones.
+	 */
+	public int getVisits() { return visits; }
+
+	/**
+	 * Get the number of simulations that have selected the node but have
+	 * not updated it yet.
+	 *
+	 * @return The number of virtual losses of the node.
+	 */
+	public int getVirtualLoss() { return virtualLoss; }
+
+	/**
+	 * Get the mean value of the simulations that passed through the node.
+	 *
+	 * @return The mean value, from the perspective of the maximizing player,
+	 * 		   or 0.0 if node has not been visited.
+	 */
+	public synchronized double getValue() { return visits == 0 ? 0.0 : totalValue / visits; }
+
+	/**
+	 * Checks whether the moves of the node have been given.
+	 *
+	 * @return True if node has been expanded.
+	 */
+	public boolean isExpanded() { return moves != null; }
+
+	/**
+	 * Get the number of moves of the node, including the ones not added
+	 * as children yet.
+	 *
+	 * @return The number of moves, or 0 if node has not been expanded.
+	 */
+	public int getMovesCount() {
+		int[] current = moves;
+
+		return current == null ? 0 : current.length;
+	}
+
+	/**
+	 * Get the children added to the node so far.
+	 *
+	 * @return A copy of the list of children.
+	 */
+	public synchronized ArrayList<MctsNode> getChildren() {
+		return new ArrayList<MctsNode>(children);
+	}
+
+	/**
+	 * Get the child visited by the most simulations, i.e. the most robust
+	 * choice out of the node.
+	 *
+	 * @return The most visited child, or null if node has no children.
+	 */
+	public synchronized MctsNode getMostVisitedChild() {
+		MctsNode best = null;
+
+		for (MctsNode child : children) {
+			if (best == null || child.visits > best.visits) best = child;
+		}
+
+		return best;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Gives the moves of the state of the node. Only the first call has any
+	 * effect, so threads reaching the node at the same time may all try.
+	 *
+	 * @param moves The packed moves of the state, ordered from the most to
+	 * 				the least promising one. Empty for terminal states.
+	 */
+	public synchronized void expand(int[] moves) {
+		if (this.moves == null) this.moves = moves;
+	}
+
+	/**
+	 * Selects the child the next simulation should pass through and gives
+	 * it a virtual loss. When progressive widening allows one more child,
+	 * the next move in order is added and selected. Otherwise, the child
+	 * with the greatest UCT score is selected.
+	 *
+	 * @param exploration The weight of the exploration term of UCT.
+	 * @param maximizing True if the maximizing player is to move at the
+	 * 					 state of the node.
+	 * @return The selected child.
+	 * @throws NotExpandedRuntimeException If the node has not been expanded
+	 * 		   or it has no moves.
+	 */
+	public synchronized MctsNode select(double exploration, boolean maximizing)
+		throws NotExpandedRuntimeException
+	{
+		int[] current = moves;
+		if (current == null || current.length == 0) throw new NotExpandedRuntimeException();
+
+		int allowed = (int) Math.ceil(WIDENING_COEFFICIENT * Math.pow(visits, WIDENING_EXPONENT));
+		allowed = Math.min(current.length, Math.max(1, allowed));
+
+		MctsNode best = null;
+
+		if (children.size() < allowed) {
+			best = new MctsNode(this, current[children.size()], maximizing);
+			children.add(best);
+
+		} else {
+			double bestScore = -Double.MAX_VALUE;
+			double logVisits = Math.log(visits + virtualLoss + 1);
+
+			for (MctsNode child : children) {
+				int loss = child.virtualLoss;
+				int n = child.visits + loss;
+
+				// Virtual losses count as lost for the player choosing.
+				double mean = n == 0 ? 0.0 : (child.totalValue + (maximizing ? -loss : loss)) / n;
+				double score = (maximizing ? mean : -mean) +
+							   (n == 0 ? Double.MAX_VALUE : exploration * Math.sqrt(logVisits / n));
+
+				if (score > bestScore) {
+					best = child;
+					bestScore = score;
+				}
+			}
+		}
+
+		synchronized (best) {
+			best.virtualLoss++;
+		}
+
+		return best;
+	}
+
+	/**
+	 * Adds the result of a simulation that passed through the node,
+	 * taking back the virtual loss given by its selection, if any.
+	 *
+	 * @param value The value of the simulation, from the perspective of
+	 * 				the maximizing player.
+	 */
+	public synchronized void update(double value) {
+		if (virtualLoss > 0) virtualLoss--;
+
+		totalValue += value;
+		visits++;
+	}
+
+
+//==== Exceptions defined in MctsNode ====
+
+	public static class NotExpandedRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
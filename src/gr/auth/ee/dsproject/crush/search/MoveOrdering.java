@@ -0,0 +1,410 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.node.Node;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+
+
+/**
+ * MoveOrdering sorts the children of a state, so that the moves most
+ * likely to cause a cutoff are searched first, and keeps the tables
+ * and statistics that are needed for that.
+ *
+ * Moves are searched in the following order:
+ * 1. The move of the principal variation of the previous iteration.
+ * 2. The best move found the last time the state was searched, as kept
+ *    in the transposition table.
+ * 3. Captures, i.e. moves that crush at least CAPTURE_THRESHOLD tiles,
+ *    either directly or by the chained crushes that follow, with the
+ *    greatest crushes first. The number of crushed tiles is taken from
+ *    the cascade every child has already been simulated with, so it
+ *    costs nothing.
+ * 4. Killer moves, i.e. the last KILLERS_PER_PLY moves that caused a
+ *    cutoff on any state of the same ply.
+ * 5. Every other move, according to its history score. The history score
+ *    of a move, indexed by its [x, y, direction], is increased by the
+ *    square of the remaining depth every time the move causes a cutoff.
+ * Moves of equal priority keep their original order.
+ *
+ * An ordering may be given a perturbation seed, which adds a small
+ * pseudo-random noise, fixed for every move and seed, to the scores of
+ * quiet moves. Threads searching the same tree with different seeds thus
+ * visit quiet moves in different orders and diverge, which is what Lazy
+ * SMP helper threads rely on. A seed of 0 disables the perturbation.
+ *
+ * Every cutoff is counted, along with the ones caused by the first move
+ * searched, so that the quality of the ordering can be measured. In a
+ * well ordered tree, almost every cutoff is caused by the first move.
+ *
+ * Moves are handled in packed form, i.e. a single int containing the
+ * [x, y, direction] of the move, as created by PackedMove.pack(). The
+ * move of every child is taken from the child as such, so ordering
+ * allocates nothing per child.
+ *
+ * Constants defined in MoveOrdering:
+ * -public static final int KILLERS_PER_PLY = 2
+ * -public static final int CAPTURE_THRESHOLD = 4
+ *
+ * Public constructors defined in MoveOrdering:
+ * -public MoveOrdering()
+ *
+ * Public methods defined in MoveOrdering:
+ * -public int getKiller(int ply, int slot)
+ * -public int getHistory(int move)
+ * -public int getPerturbation()
+ * -public long getCutoffs()
+ * -public long getFirstMoveCutoffs()
+ * -public double getFirstMoveCutoffRate()
+ * -public void setPerturbation(int perturbation)
+ * -public void clear()
+ * -public void clearStatistics()
+ * -public void copyTables(MoveOrdering other)
+ * -public void addStatistics(MoveOrdering other)
+ * -public void order(ArrayList<Node> children, int ply, int ttMove, int pvMove)
+ * -public void recordCutoff(Node child, int ply, int depth, int index)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.3
+ */
+public class MoveOrdering {
+
+//==== Public Constants ====
+
+	/**
+	 * Number of killer moves kept for every ply.
+	 */
+	public static final int KILLERS_PER_PLY = 2;
+
+	/**
+	 * Least number of crushed tiles for a move to be considered a capture.
+	 * Every available move crushes at least 3.
+	 */
+	public static final int CAPTURE_THRESHOLD = 4;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Value of empty killer slots. No packed move has this value.
+	 */
+	private static final int NO_MOVE = PackedMove.NO_MOVE;
+
+	/**
+	 * Size of the history table, i.e. 64 x cords, 64 y cords and 4
+	 * directions.
+	 */
+	private static final int HISTORY_SIZE = 64 * 64 * 4;
+
+	/**
+	 * History scores are halved when any of them exceeds this value.
+	 */
+	private static final int MAX_HISTORY = 1 << 24;
+
+	/**
+	 * Priority tiers, from least to most important. The tier of a move
+	 * is kept in the upper bits of its ordering score.
+	 */
+	private static final long QUIET_TIER = 1L << 40;
+	private static final long KILLER_TIER = 2L << 40;
+	private static final long CAPTURE_TIER = 3L << 40;
+	private static final long TT_TIER = 4L << 40;
+	private static final long PV_TIER = 5L << 40;
+
+	/**
+	 * Mask of the noise perturbed quiet moves are given. It is kept
+	 * small, so that it mostly reorders moves of close history scores.
+	 */
+	private static final int PERTURBATION_MASK = 0x3FF;
+
+
+//==== Instance Variables ====
+
+	/**
+	 * Killer moves of every ply, most recent first.
+	 */
+	private final int[][] killers;
+
+	private final int[] history;
+
+	/**
+	 * Ordering scores of the children being sorted.
+	 */
+	private long[] scores;
+
+	/**
+	 * Seed of the noise added to quiet moves, 0 for none.
+	 */
+	private int perturbation;
+
+	private long cutoffs;
+	private long firstMoveCutoffs;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new MoveOrdering with empty tables.
+	 */
+	public MoveOrdering() {
+		killers = new int[SearchContext.MAX_PLY][KILLERS_PER_PLY];
+		history = new int[HISTORY_SIZE];
+		scores = new long[64];
+
+		clear();
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get a killer move of the given ply.
+	 *
+	 * @param ply The ply of the killer move.
+	 * @param slot 0 for the most recent killer move, up to KILLERS_PER_PLY - 1.
+	 * @return The packed killer move, or TranspositionTable.NO_MOVE.
+	 */
+	public int getKiller(int ply, int slot) {
+		return ply < SearchContext.MAX_PLY ? killers[ply][slot] : NO_MOVE;
+	}
+
+	/**
+	 * Get the history score of the given move.
+	 *
+	 * @param move A packed move.
+	 * @return The history score of the move.
+	 */
+	public int getHistory(int move) { return history[historyIndex(move)]; }
+
+	/**
+	 * Get the perturbation seed of the ordering.
+	 *
+	 * @return The seed, or 0 if quiet moves are not perturbed.
+	 */
+	public int getPerturbation() { return perturbation; }
+
+	/**
+	 * Get the number of cutoffs recorded since statistics were last cleared.
+	 *
+	 * @return The number of cutoffs.
+	 */
+	public long getCutoffs() { return cutoffs; }
+
+	/**
+	 * Get the number of cutoffs caused by the first searched move, since
+	 * statistics were last cleared.
+	 *
+	 * @return The number of first move cutoffs.
+	 */
+	public long getFirstMoveCutoffs() { return firstMoveCutoffs; }
+
+	/**
+	 * Get the fraction of cutoffs caused by the first searched move.
+	 *
+	 * @return A value between 0.0 and 1.0. When no cutoff has been
+	 * 		   recorded, 0.0 is returned.
+	 */
+	public double getFirstMoveCutoffRate() {
+		return cutoffs == 0 ? 0.0 : (double) firstMoveCutoffs / cutoffs;
+	}
+
+
+//==== Public Setters ====
+
+	/**
+	 * Sets the perturbation seed of the ordering. It is kept by clear().
+	 *
+	 * @param perturbation The seed, or 0 for ordering quiet moves by their
+	 * 					   history scores only.
+	 */
+	public void setPerturbation(int perturbation) { this.perturbation = perturbation; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Empties killer moves and history scores, and clears statistics.
+	 * Should be called when a search on a new board starts.
+	 */
+	public void clear() {
+		for (int[] plyKillers : killers) Arrays.fill(plyKillers, NO_MOVE);
+		Arrays.fill(history, 0);
+
+		clearStatistics();
+	}
+
+	/**
+	 * Resets the counts of cutoffs.
+	 */
+	public void clearStatistics() {
+		cutoffs = 0;
+		firstMoveCutoffs = 0;
+	}
+
+	/**
+	 * Copies the killer moves and history scores of the given ordering
+	 * into this one. Used for letting new search threads start with what
+	 * has been learned so far.
+	 *
+	 * @param other The ordering to copy tables from.
+	 */
+	public void copyTables(MoveOrdering other) {
+		for (int i = 0; i < killers.length; i++) {
+			System.arraycopy(other.killers[i], 0, killers[i], 0, KILLERS_PER_PLY);
+		}
+		System.arraycopy(other.history, 0, history, 0, HISTORY_SIZE);
+	}
+
+	/**
+	 * Adds the counts of cutoffs of the given ordering to the ones of
+	 * this ordering. Used for gathering statistics of multiple threads.
+	 *
+	 * @param other The ordering to add statistics from.
+	 */
+	public void addStatistics(MoveOrdering other) {
+		cutoffs += other.cutoffs;
+		firstMoveCutoffs += other.firstMoveCutoffs;
+	}
+
+	/**
+	 * Sorts the given children in the order they should be searched.
+	 *
+	 * @param children The children of a state.
+	 * @param ply The distance of the state from the root of the search.
+	 * @param ttMove The packed move found best for the state by the
+	 * 				 transposition table, or TranspositionTable.NO_MOVE.
+	 * @param pvMove The packed move of the principal variation at the
+	 * 				 given ply, or TranspositionTable.NO_MOVE.
+	 */
+	public void order(ArrayList<Node> children, int ply, int ttMove, int pvMove) {
+		int count = children.size();
+
+		if (scores.length < count) scores = new long[Math.max(count, scores.length * 2)];
+
+		for (int i = 0; i < count; i++) {
+			scores[i] = score(children.get(i), ply, ttMove, pvMove);
+		}
+
+		// Insertion sort keeps moves of equal score in their original order,
+		// and lists of children are short.
+		for (int i = 1; i < count; i++) {
+			long score = scores[i];
+			Node child = children.get(i);
+			int j = i - 1;
+
+			while (j >= 0 && scores[j] < score) {
+				scores[j + 1] = scores[j];
+				children.set(j + 1, children.get(j));
+				j--;
+			}
+
+			scores[j + 1] = score;
+			children.set(j + 1, child);
+		}
+	}
+
+	/**
+	 * Records that the move of the given child caused a cutoff.
+	 *
+	 * Moves that are not captures become killer moves of the given ply.
+	 * Every move gets its history score increased by depth * depth.
+	 *
+	 * @param child The child whose move caused the cutoff.
+	 * @param ply The ply the move was played at.
+	 * @param depth The remaining depth of the state the move was played on.
+	 * @param index The index of the child in the order it was searched.
+	 */
+	public void recordCutoff(Node child, int ply, int depth, int index) {
+		cutoffs++;
+		if (index == 0) firstMoveCutoffs++;
+
+		int move = child.getPackedMove();
+
+		if (ply < SearchContext.MAX_PLY && !isCapture(child) && killers[ply][0] != move) {
+			int[] plyKillers = killers[ply];
+
+			System.arraycopy(plyKillers, 0, plyKillers, 1, KILLERS_PER_PLY - 1);
+			plyKillers[0] = move;
+		}
+
+		int entry = historyIndex(move);
+
+		history[entry] += depth * depth;
+
+		if (history[entry] > MAX_HISTORY) {
+			for (int i = 0; i < HISTORY_SIZE; i++) history[i] >>= 1;
+		}
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Calculates the ordering score of the given child. Greater scores
+	 * are searched first.
+	 */
+	private long score(Node child, int ply, int ttMove, int pvMove) {
+		int move = child.getPackedMove();
+
+		if (move == pvMove) return PV_TIER;
+		if (move == ttMove) return TT_TIER;
+		if (isCapture(child)) return CAPTURE_TIER + crushes(child);
+
+		for (int slot = 0; slot < KILLERS_PER_PLY; slot++) {
+			if (move == getKiller(ply, slot)) return KILLER_TIER + KILLERS_PER_PLY - slot;
+		}
+
+		long score = QUIET_TIER + history[historyIndex(move)];
+
+		if (perturbation != 0) score += noise(move);
+
+		return score;
+	}
+
+	/**
+	 * Returns the noise the given move is perturbed by under the current
+	 * seed. It mixes the bits of the move and the seed, as done by the
+	 * finalizer of MurmurHash3.
+	 */
+	private int noise(int move) {
+		int h = move * 0x9E3779B9 ^ perturbation * 0x85EBCA6B;
+
+		h ^= h >>> 16;
+		h *= 0x85EBCA6B;
+		h ^= h >>> 13;
+		h *= 0xC2B2AE35;
+		h ^= h >>> 16;
+
+		return h & PERTURBATION_MASK;
+	}
+
+	/**
+	 * Checks whether the move of the given child is a capture.
+	 */
+	private static boolean isCapture(Node child) {
+		return crushes(child) >= CAPTURE_THRESHOLD;
+	}
+
+	/**
+	 * Returns the number of tiles the move of the given child crushes,
+	 * including chained crushes, or 0 if it is not known.
+	 */
+	private static int crushes(Node child) {
+		CascadeResult cascade = child.getCascadeResult();
+
+		return cascade != null ? cascade.getTotalRemoved() : 0;
+	}
+
+	/**
+	 * Returns the index of the given packed move in the history table.
+	 */
+	private static int historyIndex(int move) {
+		int x = (move >>> 16) & 0x3F;
+		int y = (move >>> 8) & 0x3F;
+		int direction = move & 0x3;
+
+		return (x << 8) | (y << 2) | direction;
+	}
+}
@@ -0,0 +1,183 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import gr.auth.ee.dsproject.crush.node.Node;
+
+
+/**
+ * PrincipalVariationStrategy searches the children of a node with
+ * Principal Variation Search (NegaScout).
+ *
+ * The first child, i.e. the one the ordering considers best, is searched
+ * with the full window of the node. Every other child is first searched
+ * with a null window around the best value found so far, which only tells
+ * whether the child is better or not, but costs much less than a full
+ * search. Only a child proven better is searched again, with a window
+ * from the value the null window search returned up to the bound of the
+ * node. With a good ordering, re-searches are rare. Every re-search is
+ * counted by the SearchStatistics of the context.
+ *
+ * Contrary to AlphaBetaStrategy, which passes down only the minimum of a
+ * node, both bounds of the window are passed down to every child, shifted
+ * by the evaluation of the node, since the window of a child refers to the
+ * whole value of the child. So cutoffs can also happen because of maximums
+ * set by states further up the tree. Values are
+ * fail-soft: a value out of the window of the node is a bound on its real
+ * value, stored into the transposition table as such.
+ *
+ * Null windows are NULL_WINDOW wide instead of a single double wide, since
+ * windows are shifted by the evaluation of every node on their way down
+ * the tree, and rounding would otherwise close them. A closed window
+ * cannot tell whether a value equal to its bounds failed high or low.
+ *
+ * Constants defined in PrincipalVariationStrategy:
+ * -public static final double NULL_WINDOW = 1e-6
+ *
+ * Public constructors defined in PrincipalVariationStrategy:
+ * -public PrincipalVariationStrategy()
+ *
+ * Public methods defined in PrincipalVariationStrategy:
+ * -public double searchChildren(Node n, int depth, int ply, double min, double max,
+ * 		boolean maximizing, boolean extraTurn, SearchContext ctx, ChildSearcher searcher)
+ * -public String toString()
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class PrincipalVariationStrategy implements SearchStrategy {
+
+//==== Public Constants ====
+
+	/**
+	 * Width of the windows children after the first are searched with.
+	 * Values closer than that are considered equal.
+	 */
+	public static final double NULL_WINDOW = 1e-6;
+
+
+//==== Public Methods ====
+
+	@Override
+	public double searchChildren(Node n, int depth, int ply, double min, double max,
+								 boolean maximizing, boolean extraTurn, SearchContext ctx,
+								 ChildSearcher searcher)
+	{
+		// Window of the node, in terms of the values of its children.
+		double offset = n.getNodeEvaluation();
+		double alpha = min - offset;
+		double beta = max - offset;
+
+		if (maximizing) return searchMaximizing(n, depth, ply, alpha, beta, extraTurn, ctx, searcher);
+		else return searchMinimizing(n, depth, ply, alpha, beta, !extraTurn, ctx, searcher);
+	}
+
+	@Override
+	public String toString() { return "PVS"; }
+
+
+//==== Private Methods ====
+
+	private double searchMaximizing(Node n, int depth, int ply, double alpha, double beta,
+									boolean childMaximizing, SearchContext ctx,
+									ChildSearcher searcher)
+	{
+		double initialAlpha = alpha;
+		double best = -Double.MAX_VALUE;
+		int bestMove = TranspositionTable.NO_MOVE;
+		int index = 0;
+
+		for (Node child : n.getChildren()) {
+			double eval;
+
+			if (index == 0) {
+				eval = searcher.search(child, depth - 1, ply + 1, alpha, beta, childMaximizing, ctx);
+			} else {
+				eval = searcher.search(child, depth - 1, ply + 1, alpha, alpha + NULL_WINDOW,
+									   childMaximizing, ctx);
+
+				// The child is better than every previous one, so its exact
+				// value is needed.
+				if (eval > alpha && eval < beta) {
+					ctx.getStatistics().research();
+					eval = searcher.search(child, depth - 1, ply + 1, eval, beta, childMaximizing, ctx);
+				}
+			}
+
+			// Only the first child can be part of the previous line.
+			ctx.setFollowingPv(false);
+
+			if (eval > best || bestMove == TranspositionTable.NO_MOVE) {
+				best = eval;
+				bestMove = child.getPackedMove();
+				ctx.updatePrincipalVariation(ply, bestMove);
+			}
+
+			if (best >= beta) {
+				ctx.getMoveOrdering().recordCutoff(child, ply, depth, index);
+				ctx.getStatistics().cutoff(ply);
+				ctx.setResultBound(TranspositionTable.LOWER_BOUND);
+				return best;
+			}
+
+			alpha = Math.max(alpha, best);
+			index++;
+		}
+
+		ctx.setResultBound(best <= initialAlpha ? TranspositionTable.UPPER_BOUND
+												: TranspositionTable.EXACT);
+		return best;
+	}
+
+	private double searchMinimizing(Node n, int depth, int ply, double alpha, double beta,
+									boolean childMaximizing, SearchContext ctx,
+									ChildSearcher searcher)
+	{
+		double offset = n.getNodeEvaluation();
+		double initialBeta = beta;
+		double best = Double.MAX_VALUE;
+		int bestMove = TranspositionTable.NO_MOVE;
+		int index = 0;
+
+		for (Node child : n.getChildren()) {
+			// While root is searched in parallel, other threads may have
+			// already found better root moves, which makes further cutoffs
+			// possible.
+			alpha = Math.max(alpha, searcher.getRootBound(ply, ctx) - offset);
+
+			double eval;
+
+			if (index == 0) {
+				eval = searcher.search(child, depth - 1, ply + 1, alpha, beta, childMaximizing, ctx);
+			} else {
+				eval = searcher.search(child, depth - 1, ply + 1, beta - NULL_WINDOW, beta,
+									   childMaximizing, ctx);
+
+				if (eval < beta && eval > alpha) {
+					ctx.getStatistics().research();
+					eval = searcher.search(child, depth - 1, ply + 1, alpha, eval, childMaximizing, ctx);
+				}
+			}
+
+			ctx.setFollowingPv(false);
+
+			if (eval < best || bestMove == TranspositionTable.NO_MOVE) {
+				best = eval;
+				bestMove = child.getPackedMove();
+				ctx.updatePrincipalVariation(ply, bestMove);
+			}
+
+			if (best <= alpha) {
+				ctx.getMoveOrdering().recordCutoff(child, ply, depth, index);
+				ctx.getStatistics().cutoff(ply);
+				ctx.setResultBound(TranspositionTable.UPPER_BOUND);
+				return best;
+			}
+
+			beta = Math.min(beta, best);
+			index++;
+		}
+
+		ctx.setResultBound(best >= initialBeta ? TranspositionTable.LOWER_BOUND
+											   : TranspositionTable.EXACT);
+		return best;
+	}
+}
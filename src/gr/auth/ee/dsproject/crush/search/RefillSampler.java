@@ -0,0 +1,286 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.primitive.BitBoardMatcher;
+
+
+/**
+ * RefillSampler creates possible outcomes of the tiles that refill a
+ * board from beyond its known rows.
+ *
+ * Boards created by CrushUtilities contain tiles of unknown color, i.e.
+ * of color -1, wherever tiles fell from beyond the rows the board was
+ * created with. Once such tiles reach the playable rows, the state of the
+ * board is not known anymore, so a search treats it as a chance node,
+ * whose value is the average value of a number of sampled outcomes.
+ *
+ * Every sample is a copy of the board, where every unknown tile of the
+ * playable rows is given a color drawn from the distribution of the
+ * sampler. Colors that would form a run of three with the tiles around
+ * are never drawn, the same way the game platform fills a new board, so
+ * sampled boards contain no pending crushes. Unknown tiles above the
+ * playable rows are left unknown.
+ *
+ * Samples are drawn from a seeded random generator, so the same seed
+ * always leads to the same outcomes. Seeding by the hash of the state
+ * keeps the values of chance nodes consistent between searches and
+ * between threads.
+ *
+ * Public constructors defined in RefillSampler:
+ * -public RefillSampler(int samples) throws InvalidSamplesRuntimeException
+ * -public RefillSampler(int samples, double[] distribution)
+ * 		throws InvalidSamplesRuntimeException, InvalidDistributionRuntimeException
+ *
+ * Static public methods defined in RefillSampler:
+ * -public static boolean hasUnknownTiles(Board board)
+ *
+ * Public methods defined in RefillSampler:
+ * -public int getSamples()
+ * -public double getProbability(int color)
+ * -public Board sample(Board board, long seed, int index)
+ *
+ * Exceptions defined in RefillSampler:
+ * -public static class InvalidSamplesRuntimeException extends RuntimeException
+ * -public static class InvalidDistributionRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class RefillSampler {
+
+//==== Private Constants ====
+
+	private static final int NUMBER_OF_COLORS = BitBoardMatcher.NUMBER_OF_COLORS;
+
+	private static final int UNKNOWN = -1;
+
+	/**
+	 * Mixes the index of a sample into its seed, so consecutive samples
+	 * do not start from related seeds.
+	 */
+	private static final long SAMPLE_SEED_STEP = 0x9E3779B97F4A7C15L;
+
+
+//==== Instance Variables ====
+
+	/**
+	 * Number of outcomes a chance node is sampled with.
+	 */
+	private final int samples;
+
+	/**
+	 * The probability of every color, summing up to 1.0.
+	 */
+	private final double[] distribution;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new RefillSampler that draws every color with the same
+	 * probability.
+	 *
+	 * @param samples The number of outcomes every chance node is sampled
+	 * 				  with. It should be at least 1.
+	 * @throws InvalidSamplesRuntimeException
+	 */
+	public RefillSampler(int samples) throws InvalidSamplesRuntimeException {
+		this(samples, uniformDistribution());
+	}
+
+	/**
+	 * Create a new RefillSampler that draws colors according to the given
+	 * distribution.
+	 *
+	 * @param samples The number of outcomes every chance node is sampled
+	 * 				  with. It should be at least 1.
+	 * @param distribution The relative frequency of every color, indexed
+	 * 					   by color. It should contain a non negative value
+	 * 					   for every color, with at least one of them
+	 * 					   positive. Values are normalized to sum up to 1.0.
+	 * @throws InvalidSamplesRuntimeException
+	 * @throws InvalidDistributionRuntimeException
+	 */
+	public RefillSampler(int samples, double[] distribution)
+			throws InvalidSamplesRuntimeException, InvalidDistributionRuntimeException
+	{
+		if (samples < 1) throw new InvalidSamplesRuntimeException();
+		if (distribution.length != NUMBER_OF_COLORS) throw new InvalidDistributionRuntimeException();
+
+		double sum = 0.0;
+
+		for (double frequency : distribution) {
+			if (!(frequency >= 0.0)) throw new InvalidDistributionRuntimeException();
+			sum += frequency;
+		}
+
+		if (!(sum > 0.0) || Double.isInfinite(sum)) throw new InvalidDistributionRuntimeException();
+
+		this.samples = samples;
+		this.distribution = new double[NUMBER_OF_COLORS];
+
+		for (int color = 0; color < NUMBER_OF_COLORS; color++) {
+			this.distribution[color] = distribution[color] / sum;
+		}
+	}
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Checks whether any tile of the playable rows of the given board is
+	 * of unknown color.
+	 *
+	 * @param board The board to be checked.
+	 * @return True if the playable rows contain at least one unknown tile.
+	 */
+	public static boolean hasUnknownTiles(Board board) {
+		// Unknown tiles fall from above, so the top row is enough.
+		int top = board.getPRows() - 1;
+
+		for (int x = 0; x < board.getCols(); x++) {
+			if (board.giveTileAt(x, top).getColor() == UNKNOWN) return true;
+		}
+
+		return false;
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the number of outcomes every chance node is sampled with.
+	 *
+	 * @return The number of samples.
+	 */
+	public int getSamples() { return samples; }
+
+	/**
+	 * Get the probability of the given color to be drawn, before excluding
+	 * colors that would form runs.
+	 *
+	 * @param color A color as defined in CrushUtilities.
+	 * @return The probability of the color.
+	 */
+	public double getProbability(int color) { return distribution[color]; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Creates a sampled outcome of the unknown tiles of the given board.
+	 *
+	 * @param board The board whose unknown tiles are going to be sampled.
+	 * 				It is never modified.
+	 * @param seed The seed outcomes are drawn with, usually the hash of
+	 * 			   the state.
+	 * @param index The index of the sample, from 0 up to getSamples() - 1.
+	 * @return A copy of the board, where every unknown tile of the playable
+	 * 		   rows has been given a color.
+	 */
+	public Board sample(Board board, long seed, int index) {
+		Random random = new Random(seed + (index + 1) * SAMPLE_SEED_STEP);
+		Board sampled = CrushUtilities.cloneBoard(board);
+
+		double[] weights = new double[NUMBER_OF_COLORS];
+
+		// Tiles are filled bottom up and left to right, so every tile
+		// is checked against already filled ones.
+		for (int y = 0; y < board.getPRows(); y++) {
+			for (int x = 0; x < board.getCols(); x++) {
+				if (sampled.giveTileAt(x, y).getColor() != UNKNOWN) continue;
+
+				sampled.giveTileAt(x, y).setColor(drawColor(sampled, x, y, random, weights));
+			}
+		}
+
+		return sampled;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Draws a color for the tile at given cords, out of the colors that
+	 * do not form a run of three with the tiles around it. If every color
+	 * forms a run, it draws out of every color.
+	 */
+	private int drawColor(Board board, int x, int y, Random random, double[] weights) {
+		double sum = 0.0;
+
+		for (int color = 0; color < NUMBER_OF_COLORS; color++) {
+			weights[color] = formsRun(board, x, y, color) ? 0.0 : distribution[color];
+			sum += weights[color];
+		}
+
+		if (sum == 0.0) {
+			System.arraycopy(distribution, 0, weights, 0, NUMBER_OF_COLORS);
+			sum = 1.0;
+		}
+
+		double target = random.nextDouble() * sum;
+
+		for (int color = 0; color < NUMBER_OF_COLORS; color++) {
+			target -= weights[color];
+			if (target < 0.0 && weights[color] > 0.0) return color;
+		}
+
+		// Only reached due to rounding, so return the last possible color.
+		int last = NUMBER_OF_COLORS - 1;
+		while (weights[last] == 0.0) last--;
+
+		return last;
+	}
+
+	/**
+	 * Checks whether a tile of the given color at given cords would form
+	 * a run of three with the tiles below it, or the ones on its sides.
+	 */
+	private static boolean formsRun(Board board, int x, int y, int color) {
+		int cols = board.getCols();
+
+		if (y >= 2 && colorAt(board, x, y - 1) == color && colorAt(board, x, y - 2) == color) return true;
+
+		int left = 0;
+		for (int i = x - 1; i >= 0 && left < 2 && colorAt(board, i, y) == color; i--) left++;
+
+		int right = 0;
+		for (int i = x + 1; i < cols && right < 2 && colorAt(board, i, y) == color; i++) right++;
+
+		return left + right >= 2;
+	}
+
+	private static int colorAt(Board board, int x, int y) {
+		return board.giveTileAt(x, y).getColor();
+	}
+
+	private static double[] uniformDistribution() {
+		double[] distribution = new double[NUMBER_OF_COLORS];
+		Arrays.fill(distribution, 1.0);
+
+		return distribution;
+	}
+
+
+//==== Exceptions defined in RefillSampler ====
+
+	/**
+	 * Exception thrown when a sampler is requested to use less than one
+	 * sample.
+	 */
+	public static class InvalidSamplesRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+
+	/**
+	 * Exception thrown when the given distribution does not contain a
+	 * valid frequency for every color.
+	 */
+	public static class InvalidDistributionRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,380 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import gr.auth.ee.dsproject.crush.metrics.SearchStatistics;
+
+
+/**
+ * SearchContext holds the state a single search thread needs while
+ * walking a game tree, so that multiple threads can search different
+ * parts of the same tree without interfering with each other.
+ *
+ * Currently, it consists of:
+ * -a reusable TranspositionTable.Entry to probe states into.
+ * -a triangular table of principal variations, where row i holds the
+ *  best line of packed moves found from ply i onwards.
+ * -a flag denoting whether search still follows the principal variation
+ *  of a previous search.
+ * -the MoveOrdering the thread sorts moves with, along with its killer
+ *  moves, history scores and cutoff statistics.
+ * -the number of chance nodes the state currently searched lies under.
+ * -the SearchStatistics counting the work of the thread.
+ * -the bound of the value last returned by a SearchStrategy.
+ * -the number of nodes the running quiescence search may still create.
+ * -the depth the running iteration started from at the root, and the
+ *  bound of the value found for the root.
+ * -a flag denoting that the search of the context should stop. Unlike
+ *  the rest of the context, it may be set by any thread.
+ *
+ * Lines deeper than MAX_PLY plies are truncated.
+ *
+ * Constants defined in SearchContext:
+ * -public static final int MAX_PLY = 64
+ *
+ * Public constructors defined in SearchContext:
+ * -public SearchContext()
+ *
+ * Public methods defined in SearchContext:
+ * -public TranspositionTable.Entry getEntry()
+ * -public MoveOrdering getMoveOrdering()
+ * -public boolean isFollowingPv()
+ * -public int getChanceLevel()
+ * -public SearchStatistics getStatistics()
+ * -public int getResultBound()
+ * -public int getQuiescenceBudget()
+ * -public int getRootDepth()
+ * -public int getRootBound()
+ * -public boolean isAborted()
+ * -public int getPrincipalVariationLength(int ply)
+ * -public int getPrincipalVariationMove(int ply, int index)
+ * -public void setFollowingPv(boolean followingPv)
+ * -public void setResultBound(int resultBound)
+ * -public void setQuiescenceBudget(int quiescenceBudget)
+ * -public void setRootDepth(int rootDepth)
+ * -public void setRootBound(int rootBound)
+ * -public void abort()
+ * -public void resetAbort()
+ * -public void enterChanceNode()
+ * -public void leaveChanceNode()
+ * -public void clearPrincipalVariation(int ply)
+ * -public void updatePrincipalVariation(int ply, int move)
+ * -public void updatePrincipalVariation(int ply, int move, SearchContext child)
+ * -public int copyPrincipalVariation(int[] line)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.2
+ */
+public class SearchContext {
+
+//==== Public Constants ====
+
+	/**
+	 * Greatest number of plies principal variations are recorded for.
+	 */
+	public static final int MAX_PLY = ZobristHasher.MAX_DEPTH;
+
+
+//==== Instance Variables ====
+
+	/**
+	 * Reusable holder for the data of probed states.
+	 */
+	private final TranspositionTable.Entry entry;
+
+	/**
+	 * Triangular table of principal variations.
+	 */
+	private final int[][] pvTable;
+
+	/**
+	 * The length of the line held in every row of pvTable.
+	 */
+	private final int[] pvLength;
+
+	/**
+	 * True while search still follows the principal variation of a
+	 * previous search.
+	 */
+	private boolean followingPv;
+
+	/**
+	 * The ordering moves of this context are sorted with.
+	 */
+	private final MoveOrdering ordering;
+
+	/**
+	 * Number of chance nodes the currently searched state lies under.
+	 */
+	private int chanceLevel;
+
+	/**
+	 * Counters of the work done through this context.
+	 */
+	private final SearchStatistics statistics;
+
+	/**
+	 * Bound of the value last returned by a SearchStrategy, as one of the
+	 * bound constants of TranspositionTable.
+	 */
+	private int resultBound;
+
+	/**
+	 * Number of nodes the running quiescence search may still create.
+	 */
+	private int quiescenceBudget;
+
+	/**
+	 * The depth the running iteration searches the root to.
+	 */
+	private int rootDepth;
+
+	/**
+	 * Bound of the value found for the root by the last iteration.
+	 */
+	private int rootBound;
+
+	/**
+	 * Set by any thread, when the search of this context should stop.
+	 */
+	private volatile boolean aborted;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new SearchContext with empty principal variations.
+	 */
+	public SearchContext() {
+		entry = new TranspositionTable.Entry();
+		pvTable = new int[MAX_PLY][MAX_PLY];
+		pvLength = new int[MAX_PLY];
+		ordering = new MoveOrdering();
+		statistics = new SearchStatistics();
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the entry states of this context should be probed into.
+	 *
+	 * @return A reusable TranspositionTable.Entry object.
+	 */
+	public TranspositionTable.Entry getEntry() { return entry; }
+
+	/**
+	 * Get the move ordering of this context.
+	 *
+	 * @return The MoveOrdering moves searched by this context are sorted with.
+	 */
+	public MoveOrdering getMoveOrdering() { return ordering; }
+
+	/**
+	 * Checks whether search still follows the principal variation of
+	 * a previous search.
+	 *
+	 * @return True if it follows the previous principal variation.
+	 */
+	public boolean isFollowingPv() { return followingPv; }
+
+	/**
+	 * Get the number of chance nodes the currently searched state lies
+	 * under.
+	 *
+	 * @return 0 if no chance node has been entered.
+	 */
+	public int getChanceLevel() { return chanceLevel; }
+
+	/**
+	 * Get the statistics of this context. Since a context is used by a
+	 * single thread, they are updated without any synchronization.
+	 *
+	 * @return The SearchStatistics of this context.
+	 */
+	public SearchStatistics getStatistics() { return statistics; }
+
+	/**
+	 * Get the bound of the value last returned by a SearchStrategy
+	 * searching through this context.
+	 *
+	 * @return TranspositionTable.EXACT, LOWER_BOUND or UPPER_BOUND.
+	 */
+	public int getResultBound() { return resultBound; }
+
+	/**
+	 * Get the number of nodes the quiescence search running through this
+	 * context may still create.
+	 *
+	 * @return The remaining budget, 0 or less when it has run out.
+	 */
+	public int getQuiescenceBudget() { return quiescenceBudget; }
+
+	/**
+	 * Get the depth the running iteration searches the root to.
+	 *
+	 * @return The depth of the iteration.
+	 */
+	public int getRootDepth() { return rootDepth; }
+
+	/**
+	 * Get the bound of the value found for the root by the last iteration.
+	 *
+	 * @return TranspositionTable.EXACT, LOWER_BOUND or UPPER_BOUND.
+	 */
+	public int getRootBound() { return rootBound; }
+
+	/**
+	 * Checks whether the search of this context has been asked to stop.
+	 *
+	 * @return True if abort() has been called since the last resetAbort().
+	 */
+	public boolean isAborted() { return aborted; }
+
+	/**
+	 * Get the length of the best line found from the given ply onwards.
+	 *
+	 * @param ply The ply the line starts from.
+	 * @return The number of moves in the line. For plies out of the
+	 * 		   recorded range, 0 is returned.
+	 */
+	public int getPrincipalVariationLength(int ply) {
+		return ply < MAX_PLY ? pvLength[ply] : 0;
+	}
+
+	/**
+	 * Get a move of the best line found from the given ply onwards.
+	 *
+	 * @param ply The ply the line starts from.
+	 * @param index The index of the move in the line.
+	 * @return The packed move.
+	 */
+	public int getPrincipalVariationMove(int ply, int index) {
+		return pvTable[ply][index];
+	}
+
+
+//==== Public Setters ====
+
+	/**
+	 * Sets whether search still follows the principal variation of a
+	 * previous search.
+	 *
+	 * @param followingPv True if it follows the previous principal variation.
+	 */
+	public void setFollowingPv(boolean followingPv) { this.followingPv = followingPv; }
+
+	/**
+	 * Sets the bound of the value a SearchStrategy is about to return.
+	 *
+	 * @param resultBound TranspositionTable.EXACT, LOWER_BOUND or UPPER_BOUND.
+	 */
+	public void setResultBound(int resultBound) { this.resultBound = resultBound; }
+
+	/**
+	 * Sets the number of nodes the quiescence search running through this
+	 * context may still create.
+	 *
+	 * @param quiescenceBudget The remaining budget.
+	 */
+	public void setQuiescenceBudget(int quiescenceBudget) {
+		this.quiescenceBudget = quiescenceBudget;
+	}
+
+	/**
+	 * Sets the depth the iteration about to start searches the root to.
+	 *
+	 * @param rootDepth The depth of the iteration.
+	 */
+	public void setRootDepth(int rootDepth) { this.rootDepth = rootDepth; }
+
+	/**
+	 * Sets the bound of the value found for the root.
+	 *
+	 * @param rootBound TranspositionTable.EXACT, LOWER_BOUND or UPPER_BOUND.
+	 */
+	public void setRootBound(int rootBound) { this.rootBound = rootBound; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Asks the search of this context to stop. It may be called by any
+	 * thread, while the context is being searched.
+	 */
+	public void abort() { aborted = true; }
+
+	/**
+	 * Clears a previous abort(), so that the context can search again.
+	 */
+	public void resetAbort() { aborted = false; }
+
+	/**
+	 * Records that the outcomes of a chance node are going to be searched.
+	 */
+	public void enterChanceNode() { chanceLevel++; }
+
+	/**
+	 * Records that the outcomes of a chance node have been searched.
+	 */
+	public void leaveChanceNode() { chanceLevel--; }
+
+	/**
+	 * Empties the line recorded at the given ply. Should be called every
+	 * time a state at that ply is entered.
+	 *
+	 * @param ply The ply of the line.
+	 */
+	public void clearPrincipalVariation(int ply) {
+		if (ply < MAX_PLY) pvLength[ply] = 0;
+	}
+
+	/**
+	 * Records the given move as the best one at the given ply, followed
+	 * by the best line this context found from the next ply onwards.
+	 *
+	 * @param ply The ply the move is played at.
+	 * @param move The packed move.
+	 */
+	public void updatePrincipalVariation(int ply, int move) {
+		updatePrincipalVariation(ply, move, this);
+	}
+
+	/**
+	 * Records the given move as the best one at the given ply, followed
+	 * by the best line the given context found from the next ply onwards.
+	 *
+	 * It is used for joining the lines found by different threads.
+	 *
+	 * @param ply The ply the move is played at.
+	 * @param move The packed move.
+	 * @param child The context that searched the state the move leads to.
+	 */
+	public void updatePrincipalVariation(int ply, int move, SearchContext child) {
+		if (ply >= MAX_PLY) return;
+
+		int[] line = pvTable[ply];
+		line[0] = move;
+
+		int length = 1;
+
+		if (ply + 1 < MAX_PLY) {
+			int childLength = Math.min(child.pvLength[ply + 1], MAX_PLY - 1);
+			System.arraycopy(child.pvTable[ply + 1], 0, line, 1, childLength);
+			length += childLength;
+		}
+
+		pvLength[ply] = length;
+	}
+
+	/**
+	 * Copies the principal variation of the whole search, i.e. the one
+	 * recorded at ply 0, into the given array.
+	 *
+	 * @param line An array of at least MAX_PLY elements.
+	 * @return The number of copied moves.
+	 */
+	public int copyPrincipalVariation(int[] line) {
+		System.arraycopy(pvTable[0], 0, line, 0, pvLength[0]);
+
+		return pvLength[0];
+	}
+}
@@ -0,0 +1,97 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import gr.auth.ee.dsproject.crush.node.Node;
+
+
+/**
+ * Interface to be implemented by every algorithm the children of a
+ * decision node can be searched with.
+ *
+ * A strategy decides how the already ordered children are searched, i.e.
+ * the window every child is searched with and whether a child is searched
+ * again, while the player keeps the rest of the search: evaluating states,
+ * probing and storing into the transposition table and ordering. Every
+ * child is searched through the ChildSearcher given by the player, which
+ * recurses back into the player's search.
+ *
+ * Values follow the cumulative semantics of Node: the value of a state is
+ * the evaluation of its node plus the value of its best child. Windows,
+ * i.e. min and max, refer to the whole value of the state they are given
+ * for, including the evaluation of its node.
+ *
+ * While searching, a strategy should:
+ * -record the best move found into the principal variation of ctx at ply,
+ *  every time a better one is found,
+ * -stop following the previous principal variation after the first child,
+ * -record every cutoff into the MoveOrdering and SearchStatistics of ctx,
+ * -set the bound of the returned value through ctx.setResultBound().
+ *
+ * Strategies are shared between search threads, so they should keep no
+ * state of their own.
+ *
+ * Public methods defined in SearchStrategy:
+ * -public double searchChildren(Node n, int depth, int ply, double min, double max,
+ * 		boolean maximizing, boolean extraTurn, SearchContext ctx, ChildSearcher searcher)
+ *
+ * Interfaces defined in SearchStrategy:
+ * -public static interface ChildSearcher
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public interface SearchStrategy {
+
+	/**
+	 * Searches the children of the given node, already created and ordered,
+	 * and returns the value of the best one for the side to move.
+	 *
+	 * @param n The node whose children are going to be searched.
+	 * @param depth The remaining depth of the state of n.
+	 * @param ply The distance of n from the root of the search.
+	 * @param min The minimum evaluation value that is considered valid.
+	 * @param max The maximum evaluation value that is considered valid.
+	 * @param maximizing True if player is the side to move.
+	 * @param extraTurn True if n has been reached through an extra turn, i.e.
+	 * 					its children are searched from the same side as n.
+	 * @param ctx The search context of the calling thread.
+	 * @param searcher The searcher children should be searched through.
+	 * @return The value of the best child, excluding the evaluation of n.
+	 */
+	public double searchChildren(Node n, int depth, int ply, double min, double max,
+								 boolean maximizing, boolean extraTurn, SearchContext ctx,
+								 ChildSearcher searcher);
+
+
+//==== Interfaces ====
+
+	/**
+	 * The part of the search a strategy delegates back to the player.
+	 */
+	public static interface ChildSearcher {
+
+		/**
+		 * Searches the given child, to the given depth.
+		 *
+		 * @param child The child to be searched.
+		 * @param depth The remaining depth of the child.
+		 * @param ply The distance of the child from the root of the search.
+		 * @param min The minimum evaluation value that is considered valid.
+		 * @param max The maximum evaluation value that is considered valid.
+		 * @param maximizing True if player is the side to move at child.
+		 * @param ctx The search context of the calling thread.
+		 * @return The value of the child, including its own evaluation.
+		 */
+		public double search(Node child, int depth, int ply, double min, double max,
+							 boolean maximizing, SearchContext ctx);
+
+		/**
+		 * Get the value that states of the given ply are already known to be
+		 * bounded from below by, due to moves other threads have found.
+		 *
+		 * @param ply The distance of the state from the root of the search.
+		 * @param ctx The search context of the calling thread.
+		 * @return The bound, or -Double.MAX_VALUE if none is known.
+		 */
+		public double getRootBound(int ply, SearchContext ctx);
+	}
+}
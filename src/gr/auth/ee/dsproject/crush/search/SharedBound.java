@@ -0,0 +1,76 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * SharedBound is a search bound, i.e. an alpha value, that can be shared
+ * between multiple search threads.
+ *
+ * The bound can only be raised. Every thread that finds a better value
+ * raises it, and every thread reads the latest value when it needs
+ * to decide about a cutoff. Its value is kept as the raw bits of a
+ * double in an AtomicLong, so no locking is needed.
+ *
+ * Public constructors defined in SharedBound:
+ * -public SharedBound(double initialValue)
+ *
+ * Public methods defined in SharedBound:
+ * -public double get()
+ * -public boolean raise(double value)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class SharedBound {
+
+//==== Instance Variables ====
+
+	/**
+	 * Bits of the current value of the bound.
+	 */
+	private final AtomicLong bits;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new SharedBound with the given value.
+	 *
+	 * @param initialValue The initial value of the bound.
+	 */
+	public SharedBound(double initialValue) {
+		bits = new AtomicLong(Double.doubleToLongBits(initialValue));
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Returns the current value of the bound.
+	 *
+	 * @return The current value.
+	 */
+	public double get() {
+		return Double.longBitsToDouble(bits.get());
+	}
+
+	/**
+	 * Raises the bound to the given value, if it is greater than the
+	 * current one.
+	 *
+	 * @param value The new value of the bound.
+	 * @return True if bound has been raised, false if current value
+	 * 		   was already greater or equal to the given one.
+	 */
+	public boolean raise(double value) {
+		long newBits = Double.doubleToLongBits(value);
+
+		while (true) {
+			long current = bits.get();
+
+			if (Double.longBitsToDouble(current) >= value) return false;
+			if (bits.compareAndSet(current, newBits)) return true;
+		}
+	}
+}
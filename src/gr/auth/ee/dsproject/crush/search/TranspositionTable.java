@@ -0,0 +1,409 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.util.Arrays;
+
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+
+
+/**
+ * TranspositionTable provides a fixed-size cache of already searched
+ * states, in order to avoid searching again states that can be reached
+ * through different move orders.
+ *
+ * Every state is identified by a 64-bit key, normally provided by a
+ * ZobristHasher. For every stored state, the table keeps its value,
+ * the type of bound that value represents, the depth it was searched
+ * to and the best move found on it, packed by PackedMove.
+ *
+ * The table consists of 2^sizeBits buckets, with two entries per bucket:
+ * -a depth-preferred entry, which is only replaced by states searched
+ *  at least as deep as the one it holds, or by states of a newer search.
+ * -an always-replace entry, where any state not fitting into the
+ *  depth-preferred entry is stored.
+ *
+ * Every call of newSearch() starts a new generation. Entries of previous
+ * generations can still be probed, but they are always considered
+ * replaceable.
+ *
+ * Entries are kept in a single long[], without any locking, so a single
+ * table can be shared by multiple search threads, and probing and storing
+ * never allocates memory. Every entry takes three longs: a check word and
+ * two data words, the first holding the bits of the value and the second
+ * the move, depth, bound and generation. The check word is the key XORed
+ * with both data words. Threads storing into the same entry at the same
+ * time may leave it torn, i.e. with words of different states, but then
+ * the check word no longer matches the key of any of them, so a torn entry
+ * is never mistaken for a stored state. It is treated as empty.
+ *
+ * Counters of probes, hits and stores are not synchronized either, so
+ * they are only approximate while multiple threads use the table.
+ *
+ * Constants defined in TranspositionTable:
+ * -public static final int EXACT = 0
+ * -public static final int LOWER_BOUND = 1
+ * -public static final int UPPER_BOUND = 2
+ * -public static final int NO_MOVE = -1
+ *
+ * Public constructors defined in TranspositionTable:
+ * -public TranspositionTable(int sizeBits) throws InvalidSizeRuntimeException
+ *
+ * Public methods defined in TranspositionTable:
+ * -public int getCapacity()
+ * -public long getProbes()
+ * -public long getHits()
+ * -public long getStores()
+ * -public double getHitRate()
+ * -public void newSearch()
+ * -public void clear()
+ * -public boolean probe(long key, Entry entry)
+ * -public void store(long key, int depth, double value, int bound, int move)
+ *
+ * Classes defined in TranspositionTable:
+ * -public static class Entry
+ *
+ * Exceptions defined in TranspositionTable:
+ * -public static class InvalidSizeRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.3
+ */
+public class TranspositionTable {
+
+//==== Public Constants ====
+
+	/**
+	 * Bound type of a value that is the exact value of the state.
+	 */
+	public static final int EXACT = 0;
+
+	/**
+	 * Bound type of a value that the actual value of the state is greater
+	 * or equal to, i.e. search failed high.
+	 */
+	public static final int LOWER_BOUND = 1;
+
+	/**
+	 * Bound type of a value that the actual value of the state is lower
+	 * or equal to, i.e. search failed low.
+	 */
+	public static final int UPPER_BOUND = 2;
+
+	/**
+	 * Move value used when no best move is known.
+	 */
+	public static final int NO_MOVE = PackedMove.NO_MOVE;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Greatest accepted value for sizeBits.
+	 */
+	private static final int MAX_SIZE_BITS = 26;
+
+	/**
+	 * Number of longs every entry takes.
+	 */
+	private static final int ENTRY_SIZE = 3;
+
+	/**
+	 * Offsets of the fields in the second data word of an entry. The move
+	 * takes the lowest 32 bits.
+	 */
+	private static final int DEPTH_SHIFT = 32;
+	private static final int BOUND_SHIFT = 40;
+	private static final int GENERATION_SHIFT = 48;
+
+
+//==== Instance Variables ====
+
+	/**
+	 * Mask used for mapping keys to buckets.
+	 */
+	private final int bucketMask;
+
+	/**
+	 * The entries of the table. Entry 2 * i is the depth-preferred entry
+	 * of bucket i and entry 2 * i + 1 its always-replace one. Entry e
+	 * starts at index ENTRY_SIZE * e.
+	 */
+	private final long[] entries;
+
+	/**
+	 * The current search generation. A generation of 0 denotes an empty
+	 * entry. It only changes between searches.
+	 */
+	private byte generation;
+
+	/**
+	 * Number of probe() calls.
+	 */
+	private long probes;
+
+	/**
+	 * Number of successful probe() calls.
+	 */
+	private long hits;
+
+	/**
+	 * Number of store() calls.
+	 */
+	private long stores;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new TranspositionTable that consists of 2^sizeBits buckets
+	 * of two entries each.
+	 *
+	 * If sizeBits is not between 1 and 26, an InvalidSizeRuntimeException
+	 * is thrown.
+	 *
+	 * @param sizeBits The base 2 logarithm of the number of buckets.
+	 * @throws InvalidSizeRuntimeException
+	 */
+	public TranspositionTable(int sizeBits) throws InvalidSizeRuntimeException {
+		if (sizeBits < 1 || sizeBits > MAX_SIZE_BITS) throw new InvalidSizeRuntimeException();
+
+		int buckets = 1 << sizeBits;
+		bucketMask = buckets - 1;
+
+		entries = new long[2 * buckets * ENTRY_SIZE];
+
+		generation = 1;
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the total number of entries the table can hold.
+	 *
+	 * @return The number of entries of the table.
+	 */
+	public int getCapacity() { return entries.length / ENTRY_SIZE; }
+
+	/**
+	 * Get the number of times the table has been probed.
+	 *
+	 * @return The number of probe() calls.
+	 */
+	public long getProbes() { return probes; }
+
+	/**
+	 * Get the number of times a probed state was found.
+	 *
+	 * @return The number of successful probe() calls.
+	 */
+	public long getHits() { return hits; }
+
+	/**
+	 * Get the number of times a state has been stored.
+	 *
+	 * @return The number of store() calls.
+	 */
+	public long getStores() { return stores; }
+
+	/**
+	 * Get the fraction of probes that found the probed state.
+	 *
+	 * @return A value between 0.0 and 1.0. If table has never been probed
+	 * 		   0.0 is returned.
+	 */
+	public double getHitRate() {
+		return probes == 0 ? 0.0 : (double) hits / probes;
+	}
+
+
+//==== Public Methods ====
+
+	/**
+	 * Starts a new search generation. Entries stored during previous
+	 * generations remain available, though they are replaced by any
+	 * new entry.
+	 *
+	 * It should not be called while the table is searched.
+	 */
+	public void newSearch() {
+		generation++;
+
+		// Generation 0 is reserved for empty entries.
+		if (generation == 0) {
+			Arrays.fill(entries, 0L);
+			generation = 1;
+		}
+	}
+
+	/**
+	 * Removes every entry of the table and resets its statistics.
+	 *
+	 * It should not be called while the table is searched.
+	 */
+	public void clear() {
+		Arrays.fill(entries, 0L);
+		generation = 1;
+		probes = 0;
+		hits = 0;
+		stores = 0;
+	}
+
+	/**
+	 * Looks for the state identified by given key in the table. If found,
+	 * its data are copied to the given entry.
+	 *
+	 * @param key The key of the state to look for.
+	 * @param entry An Entry object where found data will be written to.
+	 * 				It is left untouched when the state is not found.
+	 * @return True if the state has been found, else false.
+	 */
+	public boolean probe(long key, Entry entry) {
+		probes++;
+
+		int index = bucketOf(key);
+
+		for (int i = 0; i < 2; i++, index += ENTRY_SIZE) {
+			// Words are read once, so they are checked and used as read.
+			long check = entries[index];
+			long valueBits = entries[index + 1];
+			long data = entries[index + 2];
+
+			if ((check ^ valueBits ^ data) != key || generationOf(data) == 0) continue;
+
+			hits++;
+
+			entry.key = key;
+			entry.value = Double.longBitsToDouble(valueBits);
+			entry.move = (int) data;
+			entry.depth = (int) (data >>> DEPTH_SHIFT) & 0xFF;
+			entry.bound = (int) (data >>> BOUND_SHIFT) & 0xFF;
+
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Stores the given state into the table.
+	 *
+	 * The state is stored into the depth-preferred entry of its bucket
+	 * when that entry is empty, belongs to a previous search, holds the
+	 * same state or holds a state searched to a lower or equal depth.
+	 * In any other case it is stored into the always-replace entry.
+	 *
+	 * @param key The key of the state.
+	 * @param depth The depth state has been searched to.
+	 * @param value The value found for the state.
+	 * @param bound The bound type of value. One of EXACT, LOWER_BOUND or
+	 * 				UPPER_BOUND.
+	 * @param move The best move found on the state, packed by PackedMove,
+	 * 			   or NO_MOVE.
+	 */
+	public void store(long key, int depth, double value, int bound, int move) {
+		stores++;
+
+		int index = bucketOf(key);
+		depth = Math.min(depth, Byte.MAX_VALUE);
+
+		long check = entries[index];
+		long data = entries[index + 2];
+		long storedKey = check ^ entries[index + 1] ^ data;
+
+		// A torn entry fails every check but the generation one, which is
+		// as good as any, since such an entry is lost anyway.
+		boolean depthPreferred = generationOf(data) != generation ||
+								 storedKey == key ||
+								 ((int) (data >>> DEPTH_SHIFT) & 0xFF) <= depth;
+
+		if (!depthPreferred) index += ENTRY_SIZE;
+
+		long valueBits = Double.doubleToRawLongBits(value);
+		long newData = (move & 0xFFFFFFFFL) |
+					   ((long) depth << DEPTH_SHIFT) |
+					   ((long) (bound & 0xFF) << BOUND_SHIFT) |
+					   ((long) (generation & 0xFF) << GENERATION_SHIFT);
+
+		entries[index] = key ^ valueBits ^ newData;
+		entries[index + 1] = valueBits;
+		entries[index + 2] = newData;
+	}
+
+
+//==== Private Methods ====
+
+	/**
+	 * Returns the index of the depth-preferred entry of the bucket the
+	 * given key maps to.
+	 */
+	private int bucketOf(long key) {
+		return (((int) (key ^ (key >>> 32)) & bucketMask) << 1) * ENTRY_SIZE;
+	}
+
+	/**
+	 * Returns the generation kept in the given second data word.
+	 */
+	private static byte generationOf(long data) {
+		return (byte) (data >>> GENERATION_SHIFT);
+	}
+
+
+//==== Classes defined in TranspositionTable ====
+
+	/**
+	 * A holder of the data of a single table entry, filled by probe().
+	 * It can be reused across multiple probes.
+	 */
+	public static class Entry {
+		long key;
+		double value;
+		int move;
+		int depth;
+		int bound;
+
+		/**
+		 * Get the key of the state.
+		 *
+		 * @return The key of the state.
+		 */
+		public long getKey() { return key; }
+
+		/**
+		 * Get the stored value of the state.
+		 *
+		 * @return The value of the state.
+		 */
+		public double getValue() { return value; }
+
+		/**
+		 * Get the best move of the state.
+		 *
+		 * @return The best move, or NO_MOVE when not known.
+		 */
+		public int getMove() { return move; }
+
+		/**
+		 * Get the depth the state was searched to.
+		 *
+		 * @return The depth of the search.
+		 */
+		public int getDepth() { return depth; }
+
+		/**
+		 * Get the bound type of the stored value.
+		 *
+		 * @return One of EXACT, LOWER_BOUND or UPPER_BOUND.
+		 */
+		public int getBound() { return bound; }
+	}
+
+
+//==== Exceptions defined in TranspositionTable ====
+
+	/**
+	 * An exception to be thrown when a table of invalid size is requested.
+	 */
+	public static class InvalidSizeRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
@@ -0,0 +1,265 @@
+package gr.auth.ee.dsproject.crush.search;
+
+import java.util.Random;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+
+
+/**
+ * ZobristHasher provides a way to compute Zobrist hash keys for the states
+ * of a ThmmyCrush board, suitable to be used as keys of a TranspositionTable.
+ *
+ * A random 64-bit key is assigned to every possible (x, y, color) triplet
+ * of the visible area of the board, i.e. for 0 <= x < cols and
+ * 0 <= y < pRows. The hash of a board is the XOR of the keys of all its
+ * visible tiles. Colors from -1 (unknown tile) up to 8 (player marked tiles)
+ * are supported.
+ *
+ * Apart from tiles, separate keys are provided for the remaining search
+ * depth and for the side to move, so the same board state searched under
+ * different conditions is stored under different keys.
+ *
+ * Keys are generated from a seeded pseudo-random generator, so two hashers
+ * created with the same dimensions and seed produce identical keys.
+ *
+ * Constants defined in ZobristHasher:
+ * -public static final int MAX_DEPTH = 64
+ * -public static final long DEFAULT_SEED = 0x5DEECE66DL
+ *
+ * Public constructors defined in ZobristHasher:
+ * -public ZobristHasher(int cols, int rows)
+ * -public ZobristHasher(int cols, int rows, long seed)
+ *
+ * Public methods defined in ZobristHasher:
+ * -public int getCols()
+ * -public int getRows()
+ * -public long tileKey(int x, int y, int color) throws InvalidColorRuntimeException
+ * -public long depthKey(int depth)
+ * -public long sideKey(boolean maximizing, boolean extraTurn)
+ * -public long hashBoard(Board board) throws InvalidColorRuntimeException
+ * -public long hash(Board board, int depth, boolean maximizing, boolean extraTurn)
+ *
+ * Exceptions defined in ZobristHasher:
+ * -public static class InvalidColorRuntimeException extends RuntimeException
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class ZobristHasher {
+
+//==== Public Constants ====
+
+	/**
+	 * Number of distinct depth keys. Depths greater or equal to MAX_DEPTH
+	 * wrap around.
+	 */
+	public static final int MAX_DEPTH = 64;
+
+	/**
+	 * The seed used when no seed is explicitly provided.
+	 */
+	public static final long DEFAULT_SEED = 0x5DEECE66DL;
+
+
+//==== Private Constants ====
+
+	/**
+	 * Lowest color value a tile can have, i.e. an unknown tile.
+	 */
+	private static final int MIN_COLOR = -1;
+
+	/**
+	 * Number of different color values a tile can have, from -1 to 8.
+	 */
+	private static final int COLORS = 10;
+
+
+//==== Instance Variables ====
+
+	/**
+	 * Number of columns of the hashed boards.
+	 */
+	private final int cols;
+
+	/**
+	 * Number of visible rows of the hashed boards.
+	 */
+	private final int rows;
+
+	/**
+	 * Keys for every (x, y, color) triplet, indexed by
+	 * (y * cols + x) * COLORS + (color - MIN_COLOR).
+	 */
+	private final long[] tileKeys;
+
+	/**
+	 * Keys for every remaining depth.
+	 */
+	private final long[] depthKeys;
+
+	/**
+	 * Key XORed into hash when the state is searched from the maximizing
+	 * player's perspective.
+	 */
+	private final long maximizingKey;
+
+	/**
+	 * Key XORed into hash when the move lead to the state granted an
+	 * extra turn.
+	 */
+	private final long extraTurnKey;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new ZobristHasher for boards of the given dimensions, using
+	 * the default seed.
+	 *
+	 * @param cols The number of columns of the boards to be hashed.
+	 * @param rows The number of visible rows of the boards to be hashed.
+	 */
+	public ZobristHasher(int cols, int rows) {
+		this(cols, rows, DEFAULT_SEED);
+	}
+
+	/**
+	 * Create a new ZobristHasher for boards of the given dimensions, using
+	 * the given seed for generating the keys.
+	 *
+	 * @param cols The number of columns of the boards to be hashed.
+	 * @param rows The number of visible rows of the boards to be hashed.
+	 * @param seed The seed of the pseudo-random generator keys are
+	 * 			   generated from.
+	 */
+	public ZobristHasher(int cols, int rows, long seed) {
+		this.cols = cols;
+		this.rows = rows;
+
+		Random random = new Random(seed);
+
+		tileKeys = new long[cols * rows * COLORS];
+		for (int i = 0; i < tileKeys.length; i++) tileKeys[i] = random.nextLong();
+
+		depthKeys = new long[MAX_DEPTH];
+		for (int i = 0; i < depthKeys.length; i++) depthKeys[i] = random.nextLong();
+
+		maximizingKey = random.nextLong();
+		extraTurnKey = random.nextLong();
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the number of columns this hasher has been created for.
+	 *
+	 * @return The number of columns of the hashed boards.
+	 */
+	public int getCols() { return cols; }
+
+	/**
+	 * Get the number of visible rows this hasher has been created for.
+	 *
+	 * @return The number of visible rows of the hashed boards.
+	 */
+	public int getRows() { return rows; }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Returns the key of a tile of the given color at the given cords.
+	 *
+	 * If color is not between -1 and 8, an InvalidColorRuntimeException
+	 * is thrown.
+	 *
+	 * @param x The x cord of the tile.
+	 * @param y The y cord of the tile.
+	 * @param color The color of the tile.
+	 * @return The key associated with given tile.
+	 * @throws InvalidColorRuntimeException
+	 */
+	public long tileKey(int x, int y, int color) throws InvalidColorRuntimeException {
+		int colorIndex = color - MIN_COLOR;
+
+		if (colorIndex < 0 || colorIndex >= COLORS) throw new InvalidColorRuntimeException();
+
+		return tileKeys[(y * cols + x) * COLORS + colorIndex];
+	}
+
+	/**
+	 * Returns the key of the given remaining depth.
+	 *
+	 * @param depth The remaining depth of a search.
+	 * @return The key associated with given depth.
+	 */
+	public long depthKey(int depth) {
+		return depthKeys[depth & (MAX_DEPTH - 1)];
+	}
+
+	/**
+	 * Returns the key that describes the side to move.
+	 *
+	 * @param maximizing True if state is searched from player's perspective.
+	 * @param extraTurn True if the move lead to the state granted an extra
+	 * 					turn.
+	 * @return The key associated with the given side.
+	 */
+	public long sideKey(boolean maximizing, boolean extraTurn) {
+		long key = 0;
+
+		if (maximizing) key ^= maximizingKey;
+		if (extraTurn) key ^= extraTurnKey;
+
+		return key;
+	}
+
+	/**
+	 * Computes the hash of the visible tiles of given board.
+	 *
+	 * Only the first getCols() columns and getRows() rows of the board
+	 * are taken into account.
+	 *
+	 * @param board The board to be hashed.
+	 * @return The hash of the visible tiles of the board.
+	 * @throws InvalidColorRuntimeException
+	 */
+	public long hashBoard(Board board) throws InvalidColorRuntimeException {
+		long hash = 0;
+
+		for (int x = 0; x < cols; x++) {
+			for (int y = 0; y < rows; y++) {
+				hash ^= tileKey(x, y, board.giveTileAt(x, y).getColor());
+			}
+		}
+
+		return hash;
+	}
+
+	/**
+	 * Computes the full hash of a search state, consisting of the
+	 * visible tiles of the board, the remaining depth and the side to move.
+	 *
+	 * @param board The board of the state.
+	 * @param depth The remaining search depth.
+	 * @param maximizing True if state is searched from player's perspective.
+	 * @param extraTurn True if the move lead to the state granted an extra
+	 * 					turn.
+	 * @return The hash of the search state.
+	 */
+	public long hash(Board board, int depth, boolean maximizing, boolean extraTurn) {
+		return hashBoard(board) ^ depthKey(depth) ^ sideKey(maximizing, extraTurn);
+	}
+
+
+//==== Exceptions defined in ZobristHasher ====
+
+	/**
+	 * An exception to be thrown when a tile color out of the supported
+	 * range is encountered.
+	 */
+	public static class InvalidColorRuntimeException extends RuntimeException {
+		private static final long serialVersionUID = 1L;
+	}
+}
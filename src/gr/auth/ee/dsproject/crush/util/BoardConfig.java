@@ -0,0 +1,353 @@
+package gr.auth.ee.dsproject.crush.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+
+/**
+ * BoardConfig provides access to the settings defined in the
+ * boardConfig.properties file, the same file the game platform reads
+ * its own settings from.
+ *
+ * Settings missing from the file, or having a non numeric value where
+ * a numeric one is expected, fall back to the defaults used by the
+ * game platform. If the file itself cannot be read, every setting falls
+ * back to its default value.
+ *
+ * A common way to use it is the following:
+ * "long waitingTime = BoardConfig.load().getWaitingTime();"
+ *
+ * Constants defined in BoardConfig:
+ * -public static final String DEFAULT_FILE = "boardConfig.properties"
+ * -public static final int DEFAULT_NUM_OF_ROWS = 200
+ * -public static final long DEFAULT_WAITING_TIME = 4000
+ * -public static final int DEFAULT_SCORE_LIMIT = 500
+ * -public static final long DEFAULT_PONDER_NODES = 2000000
+ *
+ * Public constructors defined in BoardConfig:
+ * -public BoardConfig()
+ * -public BoardConfig(Properties properties)
+ *
+ * Static public methods defined in BoardConfig:
+ * -public static BoardConfig load()
+ * -public static BoardConfig load(String filename)
+ *
+ * Public methods defined in BoardConfig:
+ * -public int getNumOfRows()
+ * -public long getWaitingTime()
+ * -public int getScoreLimit()
+ * -public int getSearchThreads()
+ * -public int getChanceSamples()
+ * -public String getMetricsLog()
+ * -public boolean isMetricsJfr()
+ * -public double getAspirationWindow()
+ * -public long getPonderTime()
+ * -public long getPonderNodes()
+ * -public boolean isLazySmp()
+ * -public int getInt(String key, int defaultValue)
+ * -public long getLong(String key, long defaultValue)
+ * -public double getDouble(String key, double defaultValue)
+ * -public String getString(String key, String defaultValue)
+ *
+ * @author Dimitrios Karageorgiou
+ * @version 0.1
+ */
+public class BoardConfig {
+
+//==== Public Constants ====
+
+	/**
+	 * The properties file the game platform reads its settings from.
+	 */
+	public static final String DEFAULT_FILE = "boardConfig.properties";
+
+	/**
+	 * Default number of rows of the board, as used by the game platform.
+	 */
+	public static final int DEFAULT_NUM_OF_ROWS = 200;
+
+	/**
+	 * Default time in ms a player has for deciding its move, as used by
+	 * the game platform.
+	 */
+	public static final long DEFAULT_WAITING_TIME = 4000;
+
+	/**
+	 * Default score a player needs to reach in order to win, as used by
+	 * the game platform.
+	 */
+	public static final int DEFAULT_SCORE_LIMIT = 500;
+
+	/**
+	 * Number of nodes a player may evaluate while pondering, when
+	 * ponderNodes setting is missing.
+	 */
+	public static final long DEFAULT_PONDER_NODES = 2000000;
+
+
+//==== Instance Variables ====
+
+	/**
+	 * The loaded settings.
+	 */
+	private Properties properties;
+
+
+//==== Public Constructors ====
+
+	/**
+	 * Create a new BoardConfig where every setting has its default value.
+	 */
+	public BoardConfig() {
+		properties = new Properties();
+	}
+
+	/**
+	 * Create a new BoardConfig out of the given properties.
+	 *
+	 * @param properties The properties to read settings from.
+	 */
+	public BoardConfig(Properties properties) {
+		this.properties = properties;
+	}
+
+
+//==== Static Public Methods ====
+
+	/**
+	 * Loads the settings from the DEFAULT_FILE found in the current working
+	 * directory.
+	 *
+	 * @return A BoardConfig object containing the loaded settings.
+	 */
+	public static BoardConfig load() {
+		return load(DEFAULT_FILE);
+	}
+
+	/**
+	 * Loads the settings from the given properties file.
+	 *
+	 * If file cannot be read, a BoardConfig containing only default
+	 * values is returned.
+	 *
+	 * @param filename The path of the properties file.
+	 * @return A BoardConfig object containing the loaded settings.
+	 */
+	public static BoardConfig load(String filename) {
+		Properties properties = new Properties();
+
+		try (InputStream in = new FileInputStream(filename)) {
+			properties.load(in);
+		} catch (IOException e) {
+			// Missing or unreadable file, so just use the defaults.
+			properties = new Properties();
+		}
+
+		return new BoardConfig(properties);
+	}
+
+
+//==== Public Getters ====
+
+	/**
+	 * Get the total number of rows of the board, including the not
+	 * playable ones, as defined by numOfRows setting.
+	 *
+	 * @return The number of rows of the board.
+	 */
+	public int getNumOfRows() { return getInt("numOfRows", DEFAULT_NUM_OF_ROWS); }
+
+	/**
+	 * Get the time in ms a player has for deciding its move, as defined by
+	 * waitingTime setting.
+	 *
+	 * @return The time of a turn in ms.
+	 */
+	public long getWaitingTime() { return getLong("waitingTime", DEFAULT_WAITING_TIME); }
+
+	/**
+	 * Get the score a player needs to reach in order to win, as defined by
+	 * scoreLimit setting.
+	 *
+	 * @return The score limit of the game.
+	 */
+	public int getScoreLimit() { return getInt("scoreLimit", DEFAULT_SCORE_LIMIT); }
+
+	/**
+	 * Get the number of threads a player may use for searching its move,
+	 * as defined by searchThreads setting.
+	 *
+	 * When setting is missing or lower than 1, the number of processors
+	 * available to the JVM is returned.
+	 *
+	 * @return The number of search threads.
+	 */
+	public int getSearchThreads() {
+		int threads = getInt("searchThreads", 0);
+
+		return threads >= 1 ? threads : Runtime.getRuntime().availableProcessors();
+	}
+
+	/**
+	 * Get the number of outcomes a player samples unknown refills with,
+	 * as defined by chanceSamples setting.
+	 *
+	 * When setting is missing or lower than 1, 0 is returned, meaning that
+	 * unknown refills are not sampled at all.
+	 *
+	 * @return The number of samples.
+	 */
+	public int getChanceSamples() { return Math.max(0, getInt("chanceSamples", 0)); }
+
+	/**
+	 * Get the path of the file a player logs the search statistics of its
+	 * moves to, as defined by metricsLog setting.
+	 *
+	 * @return The path of the log, or null if setting is missing or empty,
+	 * 		   meaning that statistics are not logged.
+	 */
+	public String getMetricsLog() {
+		String log = getString("metricsLog", "");
+
+		return log.isEmpty() ? null : log;
+	}
+
+	/**
+	 * Checks whether a player commits the search statistics of its moves
+	 * as Java Flight Recorder events, as defined by metricsJfr setting.
+	 *
+	 * @return True only if setting is "true", ignoring case.
+	 */
+	public boolean isMetricsJfr() { return Boolean.parseBoolean(getString("metricsJfr", "false")); }
+
+	/**
+	 * Get the half width of the window a player starts every iteration of
+	 * its search with, around the value of the previous iteration, as
+	 * defined by aspirationWindow setting.
+	 *
+	 * When setting is missing or not a positive number, 0.0 is returned,
+	 * meaning that every iteration is searched with an unbounded window.
+	 *
+	 * @return The half width of the aspiration window.
+	 */
+	public double getAspirationWindow() {
+		double window = getDouble("aspirationWindow", 0.0);
+
+		// Also rejects NaN.
+		return window > 0.0 ? window : 0.0;
+	}
+
+	/**
+	 * Get the time in ms a player may keep searching on the opponent's
+	 * time after every move, as defined by ponderTime setting.
+	 *
+	 * When setting is missing or not positive, 0 is returned, meaning that
+	 * players do not ponder at all.
+	 *
+	 * @return The time budget of pondering.
+	 */
+	public long getPonderTime() { return Math.max(0, getLong("ponderTime", 0)); }
+
+	/**
+	 * Get the number of nodes a player may evaluate while pondering after
+	 * every move, as defined by ponderNodes setting. It bounds the states
+	 * pondering allocates and stores.
+	 *
+	 * When setting is missing or lower than 1, DEFAULT_PONDER_NODES is
+	 * returned.
+	 *
+	 * @return The node budget of pondering.
+	 */
+	public long getPonderNodes() {
+		long nodes = getLong("ponderNodes", DEFAULT_PONDER_NODES);
+
+		return nodes >= 1 ? nodes : DEFAULT_PONDER_NODES;
+	}
+
+	/**
+	 * Checks whether the search threads of a player should all search the
+	 * whole tree, sharing a transposition table (Lazy SMP), instead of
+	 * splitting the children of the root, as defined by lazySmp setting.
+	 *
+	 * @return True for Lazy SMP. False when setting is missing.
+	 */
+	public boolean isLazySmp() { return Boolean.parseBoolean(getString("lazySmp", "false")); }
+
+
+//==== Public Methods ====
+
+	/**
+	 * Returns the value of the given setting as an int.
+	 *
+	 * @param key The name of the setting.
+	 * @param defaultValue The value to return when setting is missing or
+	 * 					   not a valid int.
+	 * @return The value of the setting.
+	 */
+	public int getInt(String key, int defaultValue) {
+		String value = properties.getProperty(key);
+
+		if (value == null) return defaultValue;
+
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Returns the value of the given setting as a long.
+	 *
+	 * @param key The name of the setting.
+	 * @param defaultValue The value to return when setting is missing or
+	 * 					   not a valid long.
+	 * @return The value of the setting.
+	 */
+	public long getLong(String key, long defaultValue) {
+		String value = properties.getProperty(key);
+
+		if (value == null) return defaultValue;
+
+		try {
+			return Long.parseLong(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Returns the value of the given setting as a double.
+	 *
+	 * @param key The name of the setting.
+	 * @param defaultValue The value to return when setting is missing or
+	 * 					   not a valid double.
+	 * @return The value of the setting.
+	 */
+	public double getDouble(String key, double defaultValue) {
+		String value = properties.getProperty(key);
+
+		if (value == null) return defaultValue;
+
+		try {
+			return Double.parseDouble(value.trim());
+		} catch (NumberFormatException e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Returns the value of the given setting as a String.
+	 *
+	 * @param key The name of the setting.
+	 * @param defaultValue The value to return when setting is missing.
+	 * @return The value of the setting.
+	 */
+	public String getString(String key, String defaultValue) {
+		String value = properties.getProperty(key);
+
+		return value == null ? defaultValue : value.trim();
+	}
+}
@@ -1,25 +1,35 @@
 package gr.auth.ee.dsproject.crush.util;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.TreeSet;
-import java.util.Map;
 import java.util.Set;
 import java.util.Comparator;
 
 import gr.auth.ee.dsproject.crush.board.CrushUtilities;
 import gr.auth.ee.dsproject.crush.board.Board;
 import gr.auth.ee.dsproject.crush.board.Tile;
+import gr.auth.ee.dsproject.crush.primitive.BitBoardMatcher;
+import gr.auth.ee.dsproject.crush.primitive.PatternDetector;
 
 
 /**
  * BoardUtils contains utilities methods useful when working with a board.
  * 
+ * Besides the methods that return sets of tiles, BoardUtils provides an
+ * allocation free scanning API, that returns the lengths of same color
+ * runs as primitive counts, or writes the tiles found into a buffer
+ * supplied by the caller. The set returning methods are wrappers over it.
+ * 
  * Static public methods defined in BoardUtils:
  * 
+ * -public static int collectAdjacentSameColorTiles(Board board, Tile currentTile, int dirMax,
+ * 		Tile[] buffer, int offset) throws NullBoardRuntimeException, NullTileRuntimeException
  * -public static boolean containsAFiveLineOrAnL(Set<Tile> tiles) 
 		throws NullTileRuntimeException
+ * -public static int countAdjacentSameColorTiles(Board board, int x, int y, int dirMax, int[] counts)
+ * 		throws NullBoardRuntimeException
+ * -public static int countInDirectionSameColorTiles(Board board, int x, int y, int direction, int max)
+ *		throws NullBoardRuntimeException, InvalidDirectionRuntimeException
  * -public Set<Tile> findAdjacentSameColorTiles(Board board, Tile currentTile, int dirMax)
  *		throws NullBoardRuntimeException, NullTileRuntimeException
  * -public static Set<Tile> findAllNPles(Board board) 
@@ -43,7 +53,7 @@ import gr.auth.ee.dsproject.crush.board.Tile;
  * -public static class NullMoveRuntimeException extends RuntimeException
  * 
  * @author Dimitrios Karageorgiou
- * @version 0.4
+ * @version 0.7
  */
 public class BoardUtils {
 	
@@ -56,15 +66,81 @@ public class BoardUtils {
 	private static final int[] DIRECTIONS = { CrushUtilities.UP, CrushUtilities.DOWN,
 			  								  CrushUtilities.LEFT, CrushUtilities.RIGHT };
 	
+	/**
+	 * Cords increments of every direction, indexed by the direction
+	 * constants of CrushUtilities.
+	 */
+	private static final int[] DX = { -1, 0, 1, 0 };
+	private static final int[] DY = { 0, -1, 0, 1 };
+	
+	/**
+	 * Min number of same color tiles in a row or a column that crush.
+	 */
+	private static final int CRUSH_RUN = 3;
+	
+	/**
+	 * Number of rows a crush mask can hold.
+	 */
+	private static final int MASK_ROWS = 64;
+	
 	
 // ==== Public Methods ====
 	
+	/**
+	 * Writes into the given buffer the tiles adjacent to the given one,
+	 * whose color match the color of the given tile, the same tiles
+	 * findAdjacentSameColorTiles() returns. Nothing is allocated.
+	 * 
+	 * Tiles of every direction are written in the order they are met,
+	 * directions taken in the order UP, DOWN, LEFT, RIGHT. The buffer
+	 * should have room for 4 * dirMax tiles after offset.
+	 * 
+	 * In case a null reference for board or currentTile is passed,
+	 * NullBoardRuntimeException or NullTileRuntimeException is
+	 * thrown accordingly.
+	 * 
+	 * @param board The board to be searched for same color tiles.
+	 * @param currentTile The tile to be used as the central one.
+	 * @param dirMax The max number of matching tiles a direction to be
+	 * 				 searched for.
+	 * @param buffer The array the matching tiles are written into.
+	 * @param offset The index of buffer the first tile is written at.
+	 * @return The index of buffer after the last written tile.
+	 * @throws NullBoardRuntimeException
+	 * @throws NullTileRuntimeException
+	 */
+	public static int collectAdjacentSameColorTiles(Board board, Tile currentTile, int dirMax,
+													Tile[] buffer, int offset)
+		throws NullBoardRuntimeException, NullTileRuntimeException
+	{
+		if (board == null) throw new NullBoardRuntimeException();
+		if (currentTile == null) throw new NullTileRuntimeException();
+		
+		int x = currentTile.getX();
+		int y = currentTile.getY();
+		
+		for (int dir : DIRECTIONS) {
+			int count = countRun(board, x, y, currentTile.getColor(), dir, dirMax);
+			
+			for (int i = 1; i <= count; i++) {
+				buffer[offset++] = board.giveTileAt(x + i * DX[dir], y + i * DY[dir]);
+			}
+		}
+		
+		return offset;
+	}
+	
 	/**
 	 * Checks whether the given tiles set contains tiles that forms a
 	 * line of at least five or an L scheme of at least five.
 	 * 
 	 * Checks are not color dependent.
 	 * 
+	 * Tiles are placed on a crush mask over the area of the board they
+	 * cover, which is searched by PatternDetector for its
+	 * EXTRA_TURN_PATTERNS. Areas of more than 64 rows are searched in
+	 * overlapping windows of 64 rows, so that no scheme is missed.
+	 * 
 	 * If tiles argument is a null reference a NullTileRuntimeException
 	 * is thrown.
 	 * 
@@ -78,48 +154,107 @@ public class BoardUtils {
 	{
 		if (tiles == null) throw new NullTileRuntimeException();
 		
-		// Convert tiles set to a set containing just the cords set to easy query it.
-		TreeSet<int[]> cords = new TreeSet<>(new CordsFirstByYThenByX()); 
+		if (tiles.size() < 5) return false;
+		
+		int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+		int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
 		
 		for (Tile t : tiles) {
-			int[] c = { t.getX(), t.getY() };
-			cords.add(c);
+			minX = Math.min(minX, t.getX());
+			maxX = Math.max(maxX, t.getX());
+			minY = Math.min(minY, t.getY());
+			maxY = Math.max(maxY, t.getY());
 		}
 		
-		boolean fiveScheme = false;  // Indicates that a valid scheme of 5 tiles found.
-				
-		for (int[] c : cords) {
+		long[] mask = new long[maxX - minX + 1];
+		
+		// A scheme spans at most five rows, so windows of 64 rows starting
+		// every 60 rows contain every scheme whole.
+		for (int base = minY; ; base += MASK_ROWS - 4) {
+			Arrays.fill(mask, 0);
 			
-			for (int direction : DIRECTIONS) {
-				// Check linearly for adjacent tiles, until no more adjacent
-				// or when five tiles have already been found so no reason to
-				// go further.
-				int adjacent = countAdjacentCordsInDirection(cords, c, direction, 5);
-				
-				// If five adjacent tiles have been found linearly, then job
-				// done.
-				if (adjacent >= 5) {
-					fiveScheme = true;
-					break;
-				}
+			for (Tile t : tiles) {
+				int y = t.getY() - base;
 				
-				// If three adjacent tiles have been found linearly,
-				// maybe another two tiles can be found after the corner.
-				if (adjacent == 3) {
-					// Get the 3rd item where linear search stopped.
-					int[] cornerCord = getNextCords(getNextCords(c, direction), direction); 
-					
-					if (countMaxAdjacentCordsAfterCorner(cords, cornerCord, direction, 3) > 2) {
-						fiveScheme = true;
-						break;
-					}
-				}
+				if (y >= 0 && y < MASK_ROWS) mask[t.getX() - minX] |= 1L << y;
+			}
+			
+			if (PatternDetector.find(mask, PatternDetector.EXTRA_TURN_PATTERNS) != PatternDetector.NO_MATCH) {
+				return true;
 			}
 			
-			if (fiveScheme) break; // A five scheme found. No need to continue.
+			if (maxY - base < MASK_ROWS) return false;  // Last window searched.
 		}
+	}
+	
+	/**
+	 * Counts the tiles adjacent to the tile at given cords, whose color
+	 * match the color of that tile, in all four directions. Nothing is
+	 * allocated.
+	 * 
+	 * If board is a null reference, a NullBoardRuntimeException is thrown.
+	 * 
+	 * @param board The board to be searched for same color tiles.
+	 * @param x The x cord of the central tile.
+	 * @param y The y cord of the central tile.
+	 * @param dirMax The max number of matching tiles a direction to be
+	 * 				 searched for.
+	 * @param counts An array of at least four elements, where the number of
+	 * 				 matching tiles of every direction is written, indexed by
+	 * 				 the direction constants of CrushUtilities. It may be null,
+	 * 				 when only the total is needed.
+	 * @return The number of matching tiles in all four directions, excluding
+	 * 		   the central one.
+	 * @throws NullBoardRuntimeException
+	 */
+	public static int countAdjacentSameColorTiles(Board board, int x, int y, int dirMax, int[] counts)
+		throws NullBoardRuntimeException
+	{
+		int total = 0;
+		
+		for (int dir : DIRECTIONS) {
+			int count = countInDirectionSameColorTiles(board, x, y, dir, dirMax);
+			
+			if (counts != null) counts[dir] = count;
+			total += count;
+		}
+		
+		return total;
+	}
+	
+	/**
+	 * Counts the adjacent tiles of the same color as the tile at given
+	 * cords, towards the given direction, i.e. the length of the run the
+	 * tile starts in that direction, excluding the tile itself. Nothing is
+	 * allocated.
+	 * 
+	 * It stops counting in one of the following conditions: 
+	 * -max tiles are found,
+	 * -boundaries of board have been reached,
+	 * -a tile of non-matching color is found.
+	 * 
+	 * If board is a null reference, a NullBoardRuntimeException is thrown.
+	 * If direction is not a valid direction as defined in CrushUtilities, an
+	 * InvalidDirectionRuntimeException is thrown.
+	 * 
+	 * @param board The board to be searched for same color tiles.
+	 * @param x The x cord of the starting tile.
+	 * @param y The y cord of the starting tile.
+	 * @param direction The direction which will be searched for matching tiles. 
+	 * @param max The maximum number of matching tiles to be counted. 0 or 
+	 * 			  negative values will result in no search to happen.
+	 * @return The number of matching tiles found.
+	 * @throws NullBoardRuntimeException
+	 * @throws InvalidDirectionsRuntimeException
+	 */
+	public static int countInDirectionSameColorTiles(Board board, int x, int y, 
+													 int direction, int max)
+		throws NullBoardRuntimeException, InvalidDirectionsRuntimeException
+	{
+		if (board == null) throw new NullBoardRuntimeException();
+		if (direction < 0 || direction >= DX.length) throw new InvalidDirectionsRuntimeException();
 		
-		return fiveScheme;
+		return countRun(board, x, y, board.giveTileAt(x, y).getColor(), direction, max);
 	}
 	
 	/**
@@ -154,9 +289,9 @@ public class BoardUtils {
 		
 		Set<Tile> sameColorTiles = new HashSet<>();
 		
-		// Add same color tiles found in four directions to tiles set. Searching in 
+		// Add same color tiles found in four directions to tiles set.
 		for (int dir : DIRECTIONS) {
-			sameColorTiles.addAll(findInDirectionSameColorTiles(board, currentTile, dir, dirMax));
+			addInDirection(sameColorTiles, board, currentTile, dir, dirMax);
 		}
 		
 		return sameColorTiles;
@@ -167,6 +302,9 @@ public class BoardUtils {
 	 * horizontally or vertically. Tiles that have a color value of -1,
 	 * i.e. they are marked as unknown tiles, are excluded.
 	 * 
+	 * Runs are found on per color bitboards by a BitBoardMatcher, and
+	 * only the tiles of the resulting crush mask are looked up.
+	 * 
 	 * If given board is a null reference, NullBoardRuntimeException is
 	 * thrown.
 	 * 
@@ -183,18 +321,15 @@ public class BoardUtils {
 		
 		Set<Tile> crushTiles = new HashSet<>();
 		
-		for (int y = 0; y < board.getPRows(); y++) {
-			for (int x = 0; x < board.getCols(); x++) {				
-				Tile t = board.giveTileAt(x, y);
-				
-				if (t.getColor() != -1) {
-					Set<Tile> adjacentTiles = BoardUtils.findAdjacentSameColorTiles(
-							board, t, Integer.MAX_VALUE
-					);
-					adjacentTiles.add(t);
-					
-					crushTiles.addAll(BoardUtils.findTilesThatCrush(adjacentTiles));
-				}
+		BitBoardMatcher matcher = new BitBoardMatcher(board.getCols(), board.getPRows());
+		long[] mask = new long[board.getCols()];
+		
+		matcher.load(board);
+		matcher.findCrushMask(mask);
+		
+		for (int x = 0; x < board.getCols(); x++) {
+			for (long bits = mask[x]; bits != 0; bits &= bits - 1) {
+				crushTiles.add(board.giveTileAt(x, Long.numberOfTrailingZeros(bits)));
 			}
 		}
 		
@@ -236,53 +371,7 @@ public class BoardUtils {
 				
 		Set<Tile> sameColorTiles = new HashSet<>();
 		
-		// Create the current cord increment values according to the direction
-		// given.
-		int xIncr = 0;
-		int yIncr = 0;
-		
-		switch(direction) {
-		case CrushUtilities.UP:
-			yIncr = 1;
-			break;
-			
-		case CrushUtilities.DOWN:
-			yIncr = -1;
-			break;
-		
-		case CrushUtilities.LEFT:
-			xIncr = -1;
-			break;
-		
-		case CrushUtilities.RIGHT:
-			xIncr = 1;
-			break;
-			
-		default:
-			throw new InvalidDirectionsRuntimeException();
-		}
-		
-		Tile nextTile;
-		
-		// Search at most max tiles.
-		for (int i = 0; i < max; i++) {
-			int nextX = currentTile.getX() + xIncr;
-			int nextY = currentTile.getY() + yIncr;
-			
-			if (!isValidCords(board, nextX, nextY)) break; // board's boundaries have been met
-			
-			nextTile = board.giveTileAt(nextX, nextY);
-			
-			// If a matching tile is found add it to the set, 
-			// else quit searching.
-			if (currentTile.getColor() == nextTile.getColor()) {
-				sameColorTiles.add(nextTile);
-			} else {
-				break;
-			}
-			
-			currentTile = nextTile;
-		}
+		addInDirection(sameColorTiles, board, currentTile, direction, max);
 		
 		return sameColorTiles;
 	}
@@ -303,6 +392,11 @@ public class BoardUtils {
 	 * return set may contain more tiles than the ones which
 	 * actually crush. 
 	 * 
+	 * Tiles are counted by color, on flat int arrays indexed by the column
+	 * and the row of every tile, over the area of the board the given tiles
+	 * cover. A tile crushes when the count of its color on its column or on
+	 * its row is at least 3.
+	 * 
 	 * If a null argument is provided for possibleAdjacentTiles parameter,
 	 * a NullTileRuntimeException is thrown. 
 	 *  
@@ -316,92 +410,55 @@ public class BoardUtils {
 	{
 		if (possibleAdjacentTiles == null) throw new NullTileRuntimeException();
 		
-		// NO TIME AND BORED = VERY BAD CODE! SHOULD BE SOMETIME FIXED!
-		
 		Set<Tile> crushTiles = new HashSet<>();
 		
-		// Firstly, color value of tiles is used as key for outer map, thus categorized by color.
-		// Secondly, an ArrayList of maps is used as a value. This arrayList categorizes the
-		// tiles whether they form an at least 3-in-the-row horizontally or vertically.
-		// Thirdly, the maps inside the above array, uses sameX or sameY value, thus
-		// categorizes the tiles by the row/column in which they are.
-		// Finally, all these tiles all contained inside ArrayList objects.
-		// A tile may contained in more than one ArrayLists if it is used both in a
-		// vertical and in a horizontal row. Though final set container will
-		// take care of these duplicate entries.
-		Map<Integer, ArrayList<Map<Integer, ArrayList<Tile>>>> categorizedTiles = new HashMap<>();		
-		
-		for(Tile t : possibleAdjacentTiles) {
-			// Firstly get all the tiles of the same color.
-			ArrayList<Map<Integer, ArrayList<Tile>>> byColor;
-			
-			if (categorizedTiles.containsKey(t.getColor())) {
-				byColor = categorizedTiles.get(t.getColor());
-			} else {
-				byColor = new ArrayList<>();
-				byColor.add(null);
-				byColor.add(null);
-				categorizedTiles.put(t.getColor(), byColor);
-			}
-			
-			// Get all same color tiles that crush vertically (same Xs).
-			Map<Integer, ArrayList<Tile>> byVerticalCrush;
-			
-			if (byColor.get(0) != null) {
-				byVerticalCrush = byColor.get(0);
-			} else {
-				byVerticalCrush = new HashMap<>();
-				byColor.set(0, byVerticalCrush);
-			}
-			
-			// Get all same color tiles that crush horizontally (same Ys).
-			Map<Integer, ArrayList<Tile>> byHorizontalCrush;
-			
-			if (byColor.get(1) != null) {
-				byHorizontalCrush = byColor.get(1);
-			} else {
-				byHorizontalCrush = new HashMap<>();
-				byColor.set(1, byHorizontalCrush);
-			}
-			
-			// Get all tiles of same X.
-			ArrayList<Tile> byX;
-			
-			if (byVerticalCrush.containsKey(t.getX())) {
-				byX = byVerticalCrush.get(t.getX());
-			} else {
-				byX = new ArrayList<>();
-				byVerticalCrush.put(t.getX(), byX);
-			}
-			
-			// Get all tiles of same Y.
-			ArrayList<Tile> byY;
+		int count = possibleAdjacentTiles.size();
+		
+		if (count < CRUSH_RUN) return crushTiles;
+		
+		Tile[] tiles = possibleAdjacentTiles.toArray(new Tile[count]);
+		
+		// Find the area of the board the tiles of known color lie in.
+		int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE;
+		int minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+		int colors = 0;
+		
+		for (Tile t : tiles) {
+			if (t.getColor() < 0) continue;  // Tiles of unknown color never crush.
 			
-			if (byHorizontalCrush.containsKey(t.getY())) {
-				byY = byHorizontalCrush.get(t.getY());
-			} else {
-				byY = new ArrayList<>();
-				byHorizontalCrush.put(t.getY(), byY);
-			}
+			minX = Math.min(minX, t.getX());
+			maxX = Math.max(maxX, t.getX());
+			minY = Math.min(minY, t.getY());
+			maxY = Math.max(maxY, t.getY());
+			colors = Math.max(colors, t.getColor() + 1);
+		}
+		
+		if (colors == 0) return crushTiles;
+		
+		int width = maxX - minX + 1;
+		int height = maxY - minY + 1;
+		
+		// Length of the run of every color on every column and every row of
+		// the area. Given tiles are adjacent same color ones, so the tiles
+		// of a color on a line form a single run.
+		int[] columnRuns = new int[colors * width];
+		int[] rowRuns = new int[colors * height];
+		
+		for (Tile t : tiles) {
+			if (t.getColor() < 0) continue;
 			
-			// Finally, put every tile in its right group of X and Y.
-			byX.add(t);
-			byY.add(t);
+			columnRuns[t.getColor() * width + t.getX() - minX]++;
+			rowRuns[t.getColor() * height + t.getY() - minY]++;
 		}
 		
-		// Remove tiles of unknown color.
-		if (categorizedTiles.containsKey(-1)) categorizedTiles.remove(-1);
-		
-		// Finally iterate over the categories created before and if
-		// a category contains at least 3 tiles, then these tiles crush.
-		// So, add these tiles to crushTiles set.
-		for(Map.Entry<Integer, ArrayList<Map<Integer, ArrayList<Tile>>>> byColor : categorizedTiles.entrySet()) {			
-			for(Map<Integer, ArrayList<Tile>> byCrushAxis : byColor.getValue()) {
-				for(Map.Entry<Integer, ArrayList<Tile>> byAxisValue : byCrushAxis.entrySet()) {
-					if(byAxisValue.getValue().size() > 2) {
-						crushTiles.addAll(byAxisValue.getValue());
-					}
-				}
+		// Tiles of runs of at least 3, either vertical or horizontal, crush.
+		for (Tile t : tiles) {
+			if (t.getColor() < 0) continue;
+			
+			if (columnRuns[t.getColor() * width + t.getX() - minX] >= CRUSH_RUN ||
+				rowRuns[t.getColor() * height + t.getY() - minY] >= CRUSH_RUN) 
+			{
+				crushTiles.add(t);
 			}
 		}
 		
@@ -424,33 +481,9 @@ public class BoardUtils {
 	public static int[] getNextCords(int[] cords, int direction) 
 			throws InvalidDirectionsRuntimeException
 	{
-		// Create the current cord increment values according to the direction
-		// given.
-		int xIncr = 0;
-		int yIncr = 0;
-			
-		switch(direction) {
-		case CrushUtilities.UP:
-			yIncr = 1;
-			break;
-				
-		case CrushUtilities.DOWN:
-			yIncr = -1;
-			break;
-			
-		case CrushUtilities.LEFT:
-			xIncr = -1;
-			break;
+		if (direction < 0 || direction >= DX.length) throw new InvalidDirectionsRuntimeException();
 		
-		case CrushUtilities.RIGHT:
-			xIncr = 1;
-			break;
-			
-		default:
-			throw new InvalidDirectionsRuntimeException();
-		}
-		
-		int[] newCords = { cords[0] + xIncr, cords[1] + yIncr };
+		int[] newCords = { cords[0] + DX[direction], cords[1] + DY[direction] };
 		
 		return newCords;
 	}	
@@ -600,51 +633,53 @@ public class BoardUtils {
 // ==== Private methods defined in BoardUtils ====	
 	
 	/**
+	 * Adds to the given set the tiles countRun() counts from the given tile
+	 * towards the given direction.
 	 * 
-	 * @param cords
-	 * @param curCord
-	 * @param direction
-	 * @param limit
-	 * @return
+	 * @throws InvalidDirectionsRuntimeException
 	 */
-	private static int countAdjacentCordsInDirection(
-			TreeSet<int[]> cords, int[] curCord, int direction, int limit) 
+	private static void addInDirection(Set<Tile> tiles, Board board, Tile currentTile,
+									   int direction, int max)
+		throws InvalidDirectionsRuntimeException
 	{
-		int adjacent = 0;
-		int[] nextCord = curCord;
+		if (direction < 0 || direction >= DX.length) throw new InvalidDirectionsRuntimeException();
 		
-		while (cords.contains(nextCord) && adjacent < limit) {
-			adjacent++;
-			nextCord = getNextCords(nextCord, direction);
-		}
+		int x = currentTile.getX();
+		int y = currentTile.getY();
+		int count = countRun(board, x, y, currentTile.getColor(), direction, max);
 		
-		return adjacent;
+		for (int i = 1; i <= count; i++) {
+			tiles.add(board.giveTileAt(x + i * DX[direction], y + i * DY[direction]));
+		}
 	}
 	
 	/**
+	 * Counts the tiles of given color that follow the given cords towards
+	 * the given direction, up to max tiles or the boundaries of the board.
+	 * Direction should have already been checked to be valid.
 	 * 
-	 * @param cords
-	 * @param curCord
-	 * @param direction
-	 * @param limit
-	 * @return
+	 * @return The length of the run, excluding the tile at given cords.
 	 */
-	private static int countMaxAdjacentCordsAfterCorner(
-			TreeSet<int[]> cords, int[] curCord, int direction, int limit)
-	{		
-		int[] cDirections = new int[2];
-		
-		if (direction == CrushUtilities.UP || direction == CrushUtilities.DOWN) {
-			cDirections[0] = CrushUtilities.LEFT;
-			cDirections[1] = CrushUtilities.RIGHT;
-		}
-		else {
-			cDirections[0] = CrushUtilities.UP;
-			cDirections[1] = CrushUtilities.DOWN;
+	private static int countRun(Board board, int x, int y, int color, int direction, int max) {
+		int dx = DX[direction];
+		int dy = DY[direction];
+		int cols = board.getCols();
+		int pRows = board.getPRows();
+		
+		int count = 0;
+		
+		while (count < max) {
+			x += dx;
+			y += dy;
+			
+			if (x < 0 || x >= cols || y < 0 || y >= pRows) break; // board's boundaries have been met
+			
+			if (board.giveTileAt(x, y).getColor() != color) break;
+			
+			count++;
 		}
 		
-		return Math.max(countAdjacentCordsInDirection(cords, curCord, cDirections[0], limit),
-						countAdjacentCordsInDirection(cords, curCord, cDirections[1], limit));
+		return count;
 	}
 		
 	
@@ -0,0 +1,98 @@
+package tests.gr.auth.ee.dsproject.crush.heuristics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.heuristics.CompiledHeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.Heuristic;
+import gr.auth.ee.dsproject.crush.heuristics.HeuristicsEngine;
+import gr.auth.ee.dsproject.crush.heuristics.MoveHeuristic;
+import gr.auth.ee.dsproject.crush.heuristics.SliderMathModel;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+
+
+public class CompiledHeuristicsEngineTest {
+
+	class ConstantHeuristic extends Heuristic implements MoveHeuristic {
+		private final double value;
+
+		public ConstantHeuristic(double value) {
+			this.value = value;
+		}
+
+		public double evaluate() {
+			return value;
+		}
+
+		public double evaluate(int move, Board board, CascadeResult cascade) {
+			return value;
+		}
+	}
+
+	@Test
+	public void testMatchesHeuristicsEngine() {
+		SliderMathModel model = new SliderMathModel(1.7);
+
+		HeuristicsEngine engine = new HeuristicsEngine(model);
+		CompiledHeuristicsEngine compiled = new CompiledHeuristicsEngine(model);
+
+		double[] values = {10.0, 30.0, 55.0, 80.0};
+		int[] weights = {SliderMathModel.VERY_HIGH, SliderMathModel.VERY_HIGH,
+						 SliderMathModel.MID, SliderMathModel.VERY_LOW};
+
+		for (int i = 0; i < values.length; i++) {
+			engine.add(new ConstantHeuristic(values[i]), weights[i]);
+			compiled.add(new ConstantHeuristic(values[i]), weights[i]);
+		}
+
+		compiled.compile();
+
+		assertTrue(compiled.isCompiled());
+		assertEquals(engine.evaluate(), compiled.evaluate(0, null, null), 0.000001);
+	}
+
+	@Test
+	public void testCoefficients() {
+		SliderMathModel model = new SliderMathModel(1.0);
+		CompiledHeuristicsEngine compiled = new CompiledHeuristicsEngine(model);
+
+		compiled.add(new ConstantHeuristic(1.0), SliderMathModel.LOW);
+		compiled.add(new ConstantHeuristic(1.0), SliderMathModel.LOW);
+		compiled.add(new ConstantHeuristic(1.0), SliderMathModel.HIGH);
+		compiled.compile();
+
+		double denom = Math.exp(1.0) + Math.exp(3.0);
+
+		assertEquals(Math.exp(1.0) / denom / 2, compiled.getCoefficient(0), 0.000001);
+		assertEquals(Math.exp(1.0) / denom / 2, compiled.getCoefficient(1), 0.000001);
+		assertEquals(Math.exp(3.0) / denom, compiled.getCoefficient(2), 0.000001);
+
+		// Coefficients of all heuristics of equal value should sum up to it.
+		assertEquals(1.0, compiled.evaluate(0, null, null), 0.000001);
+	}
+
+	@Test
+	public void testExceptions() {
+		CompiledHeuristicsEngine compiled = new CompiledHeuristicsEngine(new SliderMathModel());
+
+		try {
+			compiled.evaluate(0, null, null);
+			fail("Expected NonCompiledEngineRuntimeException");
+		} catch (CompiledHeuristicsEngine.NonCompiledEngineRuntimeException e) {}
+
+		compiled.add(new ConstantHeuristic(1.0), SliderMathModel.LOW);
+		compiled.compile();
+
+		try {
+			compiled.add(new ConstantHeuristic(1.0), SliderMathModel.LOW);
+			fail("Expected CompiledEngineRuntimeException");
+		} catch (CompiledHeuristicsEngine.CompiledEngineRuntimeException e) {}
+
+		try {
+			compiled.compile();
+			fail("Expected CompiledEngineRuntimeException");
+		} catch (CompiledHeuristicsEngine.CompiledEngineRuntimeException e) {}
+	}
+}
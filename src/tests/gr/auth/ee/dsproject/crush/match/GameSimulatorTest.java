@@ -0,0 +1,201 @@
+package tests.gr.auth.ee.dsproject.crush.match;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.match.GameResult;
+import gr.auth.ee.dsproject.crush.match.GameSimulator;
+
+
+public class GameSimulatorTest {
+	GameSimulator simulator;
+
+	/**
+	 * Player that always plays the first available move.
+	 */
+	static class FirstMovePlayer implements AbstractPlayer {
+		int id;
+		int score;
+		String name;
+
+		public FirstMovePlayer(Integer id) { this.id = id; }
+
+		public void setId(int id) { this.id = id; }
+		public int getId() { return id; }
+		public void setName(String name) { this.name = name; }
+		public String getName() { return name; }
+		public void setScore(int score) { this.score = score; }
+		public int getScore() { return score; }
+
+		public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+			assertEquals(CrushUtilities.getAvailableMoves(board).size(), availableMoves.size());
+			return CrushUtilities.calculateNextMove(availableMoves.get(0));
+		}
+	}
+
+	static class InvalidMovePlayer extends FirstMovePlayer {
+		public InvalidMovePlayer(Integer id) { super(id); }
+
+		@Override
+		public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+			return new int[] { 0, 0, 0, 0 };
+		}
+	}
+
+	static class SlowPlayer extends FirstMovePlayer {
+		public SlowPlayer(Integer id) { super(id); }
+
+		@Override
+		public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+			try {
+				Thread.sleep(1000);
+			} catch (InterruptedException e) {}
+
+			return super.getNextMove(availableMoves, board);
+		}
+	}
+
+	/**
+	 * Player that keeps deciding its move for 200 ms even when interrupted,
+	 * recording the most calls it has been running at the same time.
+	 */
+	static class StubbornPlayer extends FirstMovePlayer {
+		final AtomicInteger running = new AtomicInteger();
+		final AtomicInteger maxRunning = new AtomicInteger();
+
+		public StubbornPlayer(Integer id) { super(id); }
+
+		@Override
+		public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+			int now = running.incrementAndGet();
+			if (now > maxRunning.get()) maxRunning.set(now);
+
+			long end = System.currentTimeMillis() + 200;
+			long left;
+
+			while ((left = end - System.currentTimeMillis()) > 0) {
+				try {
+					Thread.sleep(left);
+				} catch (InterruptedException e) {}
+			}
+
+			running.decrementAndGet();
+
+			return super.getNextMove(availableMoves, board);
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		simulator = new GameSimulator(20, 100, 0);
+	}
+
+	@Test
+	public void testGameReachesScoreLimit() {
+		FirstMovePlayer playerA = new FirstMovePlayer(1);
+		FirstMovePlayer playerB = new FirstMovePlayer(2);
+
+		GameResult result = simulator.play(playerA, playerB, GameResult.PLAYER_A, 42);
+
+		assertTrue(result.isFinished());
+		assertEquals(42, result.getSeed());
+		assertEquals(GameResult.PLAYER_A, result.getStartingPlayer());
+
+		int winner = result.getWinner();
+
+		assertTrue(result.getScore(winner) >= 100);
+		assertTrue(result.getScore(1 - winner) < 100);
+		assertEquals(result.getScore(GameResult.PLAYER_A), playerA.getScore());
+		assertEquals(result.getScore(GameResult.PLAYER_B), playerB.getScore());
+		assertEquals(0, result.getTimeouts(GameResult.PLAYER_A) + result.getTimeouts(GameResult.PLAYER_B));
+		assertEquals(0, result.getInvalidMoves(GameResult.PLAYER_A) + result.getInvalidMoves(GameResult.PLAYER_B));
+
+		// Every move crushes at least three tiles.
+		assertTrue(result.getScore(GameResult.PLAYER_A) + result.getScore(GameResult.PLAYER_B) >=
+				   3 * result.getTurns());
+	}
+
+	@Test
+	public void testSameSeedSameGame() {
+		GameResult first = simulator.play(new FirstMovePlayer(1), new FirstMovePlayer(2), GameResult.PLAYER_B, 7);
+		GameResult second = simulator.play(new FirstMovePlayer(1), new FirstMovePlayer(2), GameResult.PLAYER_B, 7);
+
+		assertEquals(first.getTurns(), second.getTurns());
+		assertEquals(first.getWinner(), second.getWinner());
+		assertEquals(first.getScore(GameResult.PLAYER_A), second.getScore(GameResult.PLAYER_A));
+		assertEquals(first.getScore(GameResult.PLAYER_B), second.getScore(GameResult.PLAYER_B));
+		assertEquals(first.getExtraTurns(GameResult.PLAYER_A), second.getExtraTurns(GameResult.PLAYER_A));
+	}
+
+	@Test
+	public void testInvalidMovesLoseTurns() {
+		simulator.setMaxTurns(10);
+
+		GameResult result = simulator.play(new InvalidMovePlayer(1), new InvalidMovePlayer(2),
+										   GameResult.PLAYER_A, 3);
+
+		assertFalse(result.isFinished());
+		assertEquals(GameResult.NO_WINNER, result.getWinner());
+		assertEquals(10, result.getTurns());
+		assertEquals(5, result.getInvalidMoves(GameResult.PLAYER_A));
+		assertEquals(5, result.getInvalidMoves(GameResult.PLAYER_B));
+		assertEquals(0, result.getScore(GameResult.PLAYER_A));
+		assertEquals(0, result.getScore(GameResult.PLAYER_B));
+	}
+
+	@Test
+	public void testTimeouts() {
+		GameSimulator timed = new GameSimulator(20, 100, 50);
+		timed.setMaxTurns(4);
+
+		GameResult result = timed.play(new SlowPlayer(1), new FirstMovePlayer(2), GameResult.PLAYER_A, 5);
+
+		assertTrue(result.getTimeouts(GameResult.PLAYER_A) >= 1);
+		assertEquals(0, result.getTimeouts(GameResult.PLAYER_B));
+		assertEquals(0, result.getInvalidMoves(GameResult.PLAYER_A));
+	}
+
+	@Test
+	public void testTimeoutsIgnoringInterruption() {
+		GameSimulator timed = new GameSimulator(20, 1000, 50);
+		timed.setMaxTurns(20);
+
+		StubbornPlayer stubborn = new StubbornPlayer(1);
+		GameResult result = timed.play(stubborn, new FirstMovePlayer(2), GameResult.PLAYER_A, 5);
+
+		// The player is never asked for a move while an abandoned one is
+		// still running, and the game is over only once it has returned.
+		assertEquals(1, stubborn.maxRunning.get());
+		assertEquals(0, stubborn.running.get());
+
+		// Every turn of it times out, including the ones it is busy on.
+		assertTrue(result.getTimeouts(GameResult.PLAYER_A) >= 5);
+		assertEquals(0, result.getTimeouts(GameResult.PLAYER_B));
+	}
+
+	@Test
+	public void testExceptions() {
+		try {
+			new GameSimulator(CrushUtilities.NUMBER_OF_PLAYABLE_ROWS - 1, 100, 0);
+			fail("Expected InvalidRulesRuntimeException");
+		} catch (GameSimulator.InvalidRulesRuntimeException e) {}
+
+		try {
+			new GameSimulator(20, 0, 0);
+			fail("Expected InvalidRulesRuntimeException");
+		} catch (GameSimulator.InvalidRulesRuntimeException e) {}
+
+		try {
+			simulator.setMaxTurns(0);
+			fail("Expected InvalidRulesRuntimeException");
+		} catch (GameSimulator.InvalidRulesRuntimeException e) {}
+	}
+}
@@ -0,0 +1,161 @@
+package tests.gr.auth.ee.dsproject.crush.match;
+
+import static org.junit.Assert.*;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.defplayers.AbstractPlayer;
+import gr.auth.ee.dsproject.crush.match.GameResult;
+import gr.auth.ee.dsproject.crush.match.GameSimulator;
+import gr.auth.ee.dsproject.crush.match.MatchRunner;
+import gr.auth.ee.dsproject.crush.match.MatchSummary;
+import gr.auth.ee.dsproject.crush.match.PlayerFactory;
+
+
+public class MatchRunnerTest {
+	GameSimulator simulator;
+	PlayerFactory factory;
+
+	/**
+	 * Player that always plays the last available move.
+	 */
+	public static class LastMovePlayer implements AbstractPlayer {
+		int id;
+		int score;
+		String name;
+
+		public LastMovePlayer(Integer id) { this.id = id; }
+
+		public void setId(int id) { this.id = id; }
+		public int getId() { return id; }
+		public void setName(String name) { this.name = name; }
+		public String getName() { return name; }
+		public void setScore(int score) { this.score = score; }
+		public int getScore() { return score; }
+
+		public int[] getNextMove(ArrayList<int[]> availableMoves, Board board) {
+			return CrushUtilities.calculateNextMove(availableMoves.get(availableMoves.size() - 1));
+		}
+	}
+
+	/**
+	 * LastMovePlayer that records the search threads it is given and the
+	 * number of players closed.
+	 */
+	public static class ClosablePlayer extends LastMovePlayer implements AutoCloseable {
+		static final AtomicInteger closed = new AtomicInteger();
+		static final AtomicInteger searchThreads = new AtomicInteger();
+
+		public ClosablePlayer(Integer id) { super(id); }
+
+		public void setSearchThreads(int threads) { searchThreads.set(threads); }
+
+		@Override
+		public void close() { closed.incrementAndGet(); }
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		simulator = new GameSimulator(20, 80, 0);
+		factory = MatchRunner.factoryFor(LastMovePlayer.class.getName());
+	}
+
+	@Test
+	public void testFactory() {
+		AbstractPlayer player = factory.create(2);
+
+		assertTrue(player instanceof LastMovePlayer);
+		assertEquals(2, player.getId());
+		assertEquals(LastMovePlayer.class.getName(), factory.toString());
+
+		try {
+			MatchRunner.factoryFor("no.such.Player");
+			fail("Expected PlayerCreationRuntimeException");
+		} catch (MatchRunner.PlayerCreationRuntimeException e) {}
+
+		try {
+			MatchRunner.factoryFor(String.class.getName());
+			fail("Expected PlayerCreationRuntimeException");
+		} catch (MatchRunner.PlayerCreationRuntimeException e) {}
+	}
+
+	@Test
+	public void testParallelMatchIsSeeded() {
+		MatchRunner runner = new MatchRunner(simulator, 3);
+		MatchSummary summary = runner.run(factory, factory, 6, 100);
+
+		assertEquals(6, summary.getGames());
+		assertEquals(6, summary.getWins(GameResult.PLAYER_A) + summary.getWins(GameResult.PLAYER_B) +
+						summary.getUnfinished());
+
+		List<GameResult> results = summary.getResults();
+
+		for (int i = 0; i < results.size(); i++) {
+			GameResult result = results.get(i);
+			int starting = i % 2 == 0 ? GameResult.PLAYER_A : GameResult.PLAYER_B;
+
+			assertEquals(100 + i, result.getSeed());
+			assertEquals(starting, result.getStartingPlayer());
+
+			GameResult sequential = simulator.play(factory.create(1), factory.create(2), starting, 100 + i);
+
+			assertEquals(sequential.getTurns(), result.getTurns());
+			assertEquals(sequential.getScore(GameResult.PLAYER_A), result.getScore(GameResult.PLAYER_A));
+			assertEquals(sequential.getScore(GameResult.PLAYER_B), result.getScore(GameResult.PLAYER_B));
+		}
+	}
+
+	@Test
+	public void testSummary() {
+		MatchSummary summary = new MatchRunner(simulator, 2).run(factory, factory, 4, 0);
+
+		double scoreA = 0.0;
+		for (GameResult result : summary.getResults()) scoreA += result.getScore(GameResult.PLAYER_A);
+
+		assertEquals(scoreA / 4, summary.getAverageScore(GameResult.PLAYER_A), 0.000001);
+		assertEquals(summary.getWins(GameResult.PLAYER_B) / 4.0, summary.getWinRate(GameResult.PLAYER_B), 0.000001);
+
+		StringWriter writer = new StringWriter();
+		summary.write(writer);
+
+		String written = writer.toString();
+
+		assertTrue(written.contains("games=4\n"));
+		assertTrue(written.contains("playerA=" + LastMovePlayer.class.getName()));
+		assertTrue(written.contains(GameResult.CSV_HEADER));
+		assertTrue(written.contains(summary.getResults().get(3).toCsvRow()));
+	}
+
+	@Test
+	public void testPlayersShareProcessors() {
+		MatchRunner runner = new MatchRunner(simulator, 2);
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		assertEquals(Math.max(1, processors / 2), runner.getSearchThreads());
+		assertEquals(1, new MatchRunner(simulator, processors * 2).getSearchThreads());
+
+		ClosablePlayer.closed.set(0);
+		PlayerFactory closable = MatchRunner.factoryFor(ClosablePlayer.class.getName());
+
+		runner.run(closable, factory, 3, 0);
+
+		assertEquals(runner.getSearchThreads(), ClosablePlayer.searchThreads.get());
+		assertEquals(3, ClosablePlayer.closed.get());
+	}
+
+	@Test
+	public void testExceptions() {
+		try {
+			new MatchRunner(simulator, 0);
+			fail("Expected InvalidThreadsRuntimeException");
+		} catch (MatchRunner.InvalidThreadsRuntimeException e) {}
+	}
+}
@@ -0,0 +1,35 @@
+package tests.gr.auth.ee.dsproject.crush.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.metrics.JfrSink;
+import gr.auth.ee.dsproject.crush.metrics.MoveMetrics;
+import gr.auth.ee.dsproject.crush.metrics.SearchStatistics;
+
+
+public class JfrSinkTest {
+
+	@Test
+	public void testAvailability() {
+		boolean hasJfr;
+		
+		try {
+			Class.forName("jdk.jfr.EventFactory");
+			hasJfr = true;
+		} catch (ClassNotFoundException e) {
+			hasJfr = false;
+		}
+		
+		assertEquals(hasJfr, new JfrSink().isAvailable());
+	}
+	
+	@Test
+	public void testRecordOutsideRecording() {
+		JfrSink sink = new JfrSink();
+		
+		// Events are dropped silently, whether JFR is available or not.
+		sink.record(new MoveMetrics(0, 1, 1000L, 10, 0, 3, false, new SearchStatistics()));
+	}
+}
@@ -0,0 +1,78 @@
+package tests.gr.auth.ee.dsproject.crush.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.metrics.MoveMetrics;
+import gr.auth.ee.dsproject.crush.metrics.SearchStatistics;
+
+
+public class MoveMetricsTest {
+
+	private SearchStatistics createStatistics() {
+		SearchStatistics statistics = new SearchStatistics();
+		
+		for (int i = 0; i < 500; i++) statistics.nodeEvaluated(i % 4, 1);
+		statistics.nodeExpanded(8);
+		statistics.cutoff(0);
+		statistics.cutoff(2);
+		statistics.cutoff(2);
+		statistics.ttProbe(true);
+		statistics.ttProbe(false);
+		statistics.aspirationFailed(false);
+		statistics.quiescenceNode();
+		
+		return statistics;
+	}
+
+	@Test
+	public void testSnapshot() {
+		SearchStatistics statistics = createStatistics();
+		MoveMetrics metrics = new MoveMetrics(1, 7, 1000L, 250, 12, 4, true, statistics);
+		
+		// Later changes of the statistics should not affect the snapshot.
+		statistics.clear();
+		
+		assertEquals(1, metrics.getPlayerId());
+		assertEquals(7, metrics.getMoveNumber());
+		assertEquals(1000L, metrics.getTimestamp());
+		assertEquals(250, metrics.getWallMillis());
+		assertEquals(12, metrics.getGcMillis());
+		assertEquals(4, metrics.getCompletedDepth());
+		assertTrue(metrics.isAborted());
+		assertEquals(500, metrics.getNodesEvaluated());
+		assertEquals(2000.0, metrics.getNodesPerSecond(), 1e-9);
+		assertEquals(8.0, metrics.getBranchingFactor(), 0.0);
+		assertEquals(3, metrics.getCutoffs());
+		assertEquals(3, metrics.getCutoffPlies());
+		assertEquals(1, metrics.getCutoffs(0));
+		assertEquals(0, metrics.getCutoffs(1));
+		assertEquals(2, metrics.getCutoffs(2));
+		assertEquals(0, metrics.getCutoffs(40));
+		assertEquals(3, metrics.getMaxPly());
+		assertEquals(0.5, metrics.getTtHitRate(), 0.0);
+		assertEquals(0, metrics.getAspirationFailHighs());
+		assertEquals(1, metrics.getAspirationFailLows());
+		assertEquals(1, metrics.getQuiescenceNodes());
+	}
+	
+	@Test
+	public void testLogLine() {
+		MoveMetrics metrics = new MoveMetrics(0, 1, 1000L, 250, 0, 4, false, createStatistics());
+		String line = metrics.toLogLine();
+		
+		assertFalse(line.contains("\n"));
+		assertTrue(line.contains(" nodes=500 "));
+		assertTrue(line.contains(" cutoffs=1/0/2 "));
+		assertTrue(line.contains(" aborted=false "));
+		assertTrue(line.contains(" qnodes=1 "));
+		assertTrue(line.contains(" aspFailHigh=0 aspFailLow=1 "));
+		assertTrue(line.endsWith(" ttHitRate=0.500"));
+		
+		// Without any cutoff the list should not be left empty.
+		MoveMetrics empty = new MoveMetrics(0, 1, 1000L, 0, 0, 0, false, new SearchStatistics());
+		assertTrue(empty.toLogLine().contains(" cutoffs=0 "));
+		assertEquals(0.0, empty.getNodesPerSecond(), 0.0);
+	}
+}
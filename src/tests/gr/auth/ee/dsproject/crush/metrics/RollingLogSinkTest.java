@@ -0,0 +1,134 @@
+package tests.gr.auth.ee.dsproject.crush.metrics;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.metrics.MoveMetrics;
+import gr.auth.ee.dsproject.crush.metrics.RollingLogSink;
+import gr.auth.ee.dsproject.crush.metrics.SearchStatistics;
+
+
+public class RollingLogSinkTest {
+	File dir;
+	
+	private MoveMetrics createMetrics(int moveNumber) {
+		return new MoveMetrics(0, moveNumber, 1000L, 10, 0, 3, false, new SearchStatistics());
+	}
+	
+	private List<String> readLines(String filename) throws IOException {
+		return Files.readAllLines(new File(dir, filename).toPath(), StandardCharsets.UTF_8);
+	}
+	
+	@Before
+	public void setUp() throws Exception {
+		dir = Files.createTempDirectory("metrics").toFile();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		for (File file : dir.listFiles()) file.delete();
+		dir.delete();
+	}
+
+	@Test
+	public void testAppend() throws IOException {
+		String log = new File(dir, "search.log").getPath();
+		
+		RollingLogSink sink = new RollingLogSink(log);
+		sink.record(createMetrics(1));
+		sink.record(createMetrics(2));
+		sink.close();
+		
+		// A new sink should append to the existing log.
+		sink = new RollingLogSink(log);
+		sink.record(createMetrics(3));
+		sink.close();
+		
+		List<String> lines = readLines("search.log");
+		
+		assertEquals(3, lines.size());
+		assertTrue(lines.get(0).contains(" move=1 "));
+		assertTrue(lines.get(2).contains(" move=3 "));
+		assertNull(sink.getLastError());
+	}
+	
+	@Test
+	public void testRoll() throws IOException {
+		String log = new File(dir, "search.log").getPath();
+		int lineLength = createMetrics(1).toLogLine().length() + System.lineSeparator().length();
+		
+		// Log is rolled after every second line and 3 files are kept.
+		RollingLogSink sink = new RollingLogSink(log, lineLength * 2, 3);
+		for (int move = 1; move <= 7; move++) sink.record(createMetrics(move));
+		sink.close();
+		
+		assertEquals(1, readLines("search.log").size());
+		assertTrue(readLines("search.log").get(0).contains(" move=7 "));
+		assertTrue(readLines("search.log.1").get(0).contains(" move=5 "));
+		assertTrue(readLines("search.log.2").get(0).contains(" move=3 "));
+		assertFalse(new File(dir, "search.log.3").exists());
+	}
+	
+	@Test
+	public void testAcquire() throws IOException {
+		String log = new File(dir, "search.log").getPath();
+		
+		// Paths leading to the same file share a sink.
+		RollingLogSink first = RollingLogSink.acquire(log);
+		RollingLogSink second = RollingLogSink.acquire(new File(dir, "./search.log").getPath());
+		
+		assertSame(first, second);
+		
+		first.record(createMetrics(1));
+		second.record(createMetrics(2));
+		
+		// The sink is kept until every user has released it.
+		RollingLogSink.release(first);
+		assertSame(second, RollingLogSink.acquire(log));
+		
+		RollingLogSink.release(second);
+		RollingLogSink.release(second);
+		
+		RollingLogSink third = RollingLogSink.acquire(log);
+		assertNotSame(first, third);
+		
+		third.record(createMetrics(3));
+		RollingLogSink.release(third);
+		
+		// Sinks not acquired are not affected.
+		RollingLogSink own = new RollingLogSink(log);
+		RollingLogSink.release(own);
+		own.record(createMetrics(4));
+		own.close();
+		
+		List<String> lines = readLines("search.log");
+		
+		assertEquals(4, lines.size());
+		assertTrue(lines.get(1).contains(" move=2 "));
+		assertTrue(lines.get(3).contains(" move=4 "));
+	}
+	
+	@Test
+	public void testFailedWrite() {
+		// A directory cannot be opened as a log.
+		RollingLogSink sink = new RollingLogSink(dir.getPath());
+		
+		sink.record(createMetrics(1));
+		
+		assertNotNull(sink.getLastError());
+	}
+	
+	@Test(expected = RollingLogSink.InvalidLimitRuntimeException.class)
+	public void testInvalidLimit() {
+		new RollingLogSink("search.log", 0, 1);
+	}
+}
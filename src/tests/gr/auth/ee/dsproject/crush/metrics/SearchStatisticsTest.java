@@ -0,0 +1,120 @@
+package tests.gr.auth.ee.dsproject.crush.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.metrics.SearchStatistics;
+
+
+public class SearchStatisticsTest {
+
+	@Test
+	public void testCounters() {
+		SearchStatistics statistics = new SearchStatistics();
+		
+		statistics.nodeEvaluated(0, 0);
+		statistics.nodeEvaluated(3, 2);
+		statistics.nodeEvaluated(1, 4);
+		statistics.nodeExpanded(10);
+		statistics.nodeExpanded(20);
+		statistics.cutoff(1);
+		statistics.cutoff(1);
+		statistics.cutoff(2);
+		statistics.extension();
+		statistics.quiescenceNode();
+		statistics.quiescenceNode();
+		statistics.ttProbe(true);
+		statistics.ttProbe(false);
+		statistics.ttProbe(false);
+		statistics.ttProbe(true);
+		
+		assertEquals(3, statistics.getNodesEvaluated());
+		assertEquals(2, statistics.getNodesExpanded());
+		assertEquals(30, statistics.getChildrenCreated());
+		assertEquals(15.0, statistics.getBranchingFactor(), 0.0);
+		assertEquals(3, statistics.getCutoffs());
+		assertEquals(0, statistics.getCutoffs(0));
+		assertEquals(2, statistics.getCutoffs(1));
+		assertEquals(1, statistics.getCutoffs(2));
+		assertEquals(1, statistics.getExtensions());
+		assertEquals(2, statistics.getQuiescenceNodes());
+		assertEquals(3, statistics.getMaxPly());
+		assertEquals(4, statistics.getMaxCascadeRounds());
+		assertEquals(4, statistics.getTtProbes());
+		assertEquals(2, statistics.getTtHits());
+		assertEquals(0.5, statistics.getTtHitRate(), 0.0);
+	}
+	
+	@Test
+	public void testEmpty() {
+		SearchStatistics statistics = new SearchStatistics();
+		
+		// Rates should not divide by zero.
+		assertEquals(0.0, statistics.getTtHitRate(), 0.0);
+		assertEquals(0.0, statistics.getBranchingFactor(), 0.0);
+	}
+	
+	@Test
+	public void testDeepPlies() {
+		SearchStatistics statistics = new SearchStatistics();
+		
+		statistics.cutoff(SearchStatistics.MAX_PLY + 10);
+		statistics.nodeEvaluated(SearchStatistics.MAX_PLY + 10, 0);
+		
+		assertEquals(1, statistics.getCutoffs(SearchStatistics.MAX_PLY - 1));
+		assertEquals(SearchStatistics.MAX_PLY + 10, statistics.getMaxPly());
+	}
+	
+	@Test
+	public void testAddAndClear() {
+		SearchStatistics a = new SearchStatistics();
+		SearchStatistics b = new SearchStatistics();
+		
+		a.nodeEvaluated(2, 1);
+		a.cutoff(1);
+		b.nodeEvaluated(5, 0);
+		b.nodeEvaluated(1, 3);
+		b.cutoff(1);
+		b.ttProbe(true);
+		b.aspirationFailed(true);
+		b.quiescenceNode();
+		
+		a.add(b);
+		
+		assertEquals(3, a.getNodesEvaluated());
+		assertEquals(2, a.getCutoffs(1));
+		assertEquals(5, a.getMaxPly());
+		assertEquals(3, a.getMaxCascadeRounds());
+		assertEquals(1, a.getTtHits());
+		assertEquals(1, a.getAspirationFailHighs());
+		assertEquals(1, a.getQuiescenceNodes());
+		
+		// Added statistics should be left untouched.
+		assertEquals(2, b.getNodesEvaluated());
+		
+		a.clear();
+		
+		assertEquals(0, a.getNodesEvaluated());
+		assertEquals(0, a.getCutoffs());
+		assertEquals(0, a.getMaxPly());
+		assertEquals(0, a.getMaxCascadeRounds());
+		assertEquals(0, a.getTtProbes());
+		assertEquals(0, a.getAspirationFailHighs());
+	}
+	
+	@Test
+	public void testAspirationFailures() {
+		SearchStatistics statistics = new SearchStatistics();
+		
+		statistics.aspirationFailed(true);
+		statistics.aspirationFailed(false);
+		statistics.aspirationFailed(false);
+		
+		assertEquals(1, statistics.getAspirationFailHighs());
+		assertEquals(2, statistics.getAspirationFailLows());
+		
+		// Aspiration re-searches are not null window re-searches.
+		assertEquals(0, statistics.getResearches());
+	}
+}
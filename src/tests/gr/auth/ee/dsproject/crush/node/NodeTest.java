@@ -11,6 +11,7 @@ import org.junit.Test;
 import gr.auth.ee.dsproject.crush.board.*;
 import gr.auth.ee.dsproject.crush.node.*;
 import gr.auth.ee.dsproject.crush.player.move.*;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
 
 
 public class NodeTest {
@@ -377,4 +378,44 @@ public class NodeTest {
 		
 		assertFalse(n.leadsToExtraTurn());
 	}
+	
+	@Test
+	public void testChildrenHavePackedMoves() {
+		int[][] boardScheme = {
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 4, 4, 1, 4, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 4, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+		};
+		
+		Board board = createBoard(boardScheme);
+		Node root = new Node(null, board);
+		root.createChildren();
+		
+		ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(board);
+		assertEquals(moves.size(), root.getChildren().size());
+		
+		for (int i = 0; i < moves.size(); i++) {
+			Node child = root.getChildren().get(i);
+			
+			assertEquals(PackedMove.pack(moves.get(i)), child.getPackedMove());
+			
+			// PlayerMove is created out of the parent's board when asked for.
+			int[] cords = CrushUtilities.calculateNextMove(moves.get(i));
+			assertSame(board.giveTileAt(cords[0], cords[1]), child.getNodeMove().getTiles()[0]);
+			assertSame(board.giveTileAt(cords[2], cords[3]), child.getNodeMove().getTiles()[1]);
+		}
+		
+		Node released = new Node(root, null, root.getChildren().get(0).getPackedMove(), null);
+		root.setNodeBoard(null);
+		
+		assertEquals(null, released.getNodeMove());
+		assertEquals(root.getChildren().get(0).getPackedMove(), released.getPackedMove());
+	}
 }
\ No newline at end of file
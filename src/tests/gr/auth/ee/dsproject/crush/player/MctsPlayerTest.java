@@ -0,0 +1,173 @@
+package tests.gr.auth.ee.dsproject.crush.player;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.MctsPlayer;
+
+
+public class MctsPlayerTest {
+	Board board;
+	ArrayList<MctsPlayer> players;
+	
+	/**
+	 * Creates a player that is closed after the test.
+	 */
+	private MctsPlayer createPlayer(int id) {
+		MctsPlayer player = new MctsPlayer(id);
+		players.add(player);
+		
+		return player;
+	}
+	
+	/**
+	 * Creates a board of the given rows, filled with random colors in
+	 * a way that no tiles crush before a move is played.
+	 */
+	private Board createRandomBoard(int rows, long seed) {
+		Random random = new Random(seed);
+		int[][] colors = new int[10][rows];
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				int color;
+				do {
+					color = random.nextInt(7);
+				} while ((x >= 2 && colors[x - 1][y] == color && colors[x - 2][y] == color) ||
+						 (y >= 2 && colors[x][y - 1] == color && colors[x][y - 2] == color));
+				colors[x][y] = color;
+			}
+		}
+		
+		Board board = new Board(rows);
+		Method setTile = null;
+				
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, colors[x][y], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return board;
+	}
+	
+	/**
+	 * Checks whether the given [x1, y1, x2, y2] move is one of the given
+	 * [x, y, direction] moves.
+	 */
+	private boolean isAvailable(int[] move, ArrayList<int[]> availableMoves) {
+		for (int[] available : availableMoves) {
+			if (Arrays.equals(move, CrushUtilities.calculateNextMove(available))) return true;
+		}
+		
+		return false;
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		board = createRandomBoard(50, 1);
+		players = new ArrayList<MctsPlayer>();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		for (MctsPlayer player : players) player.close();
+	}
+	
+	@Test
+	public void testTimeBudget() {
+		MctsPlayer mPlayer = createPlayer(0);
+		mPlayer.setSearchThreads(1);
+		mPlayer.setWaitingTime(1000);
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		
+		long start = System.currentTimeMillis();
+		int[] move = mPlayer.getNextMove(availableMoves, board);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		assertTrue(isAvailable(move, availableMoves));
+		assertTrue(elapsed < 1000);
+		assertTrue(mPlayer.getLastIterations() > 0);
+	}
+	
+	@Test
+	public void testMaxIterations() {
+		MctsPlayer mPlayer = createPlayer(0);
+		mPlayer.setSearchThreads(1);
+		mPlayer.setWaitingTime(60000);
+		mPlayer.setMaxIterations(500);
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		int[] move = mPlayer.getNextMove(availableMoves, board);
+		
+		assertTrue(isAvailable(move, availableMoves));
+		assertEquals(500, mPlayer.getLastIterations());
+		
+		// A single thread running a fixed number of simulations is repeatable.
+		MctsPlayer other = createPlayer(1);
+		other.setSearchThreads(1);
+		other.setWaitingTime(60000);
+		other.setMaxIterations(500);
+		
+		assertArrayEquals(move, other.getNextMove(availableMoves, board));
+	}
+	
+	@Test
+	public void testTreeParallelism() {
+		MctsPlayer mPlayer = createPlayer(0);
+		mPlayer.setSearchThreads(4);
+		mPlayer.setWaitingTime(60000);
+		mPlayer.setMaxIterations(2000);
+		
+		assertEquals(4, mPlayer.getSearchThreads());
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		
+		for (int i = 0; i < 3; i++) {
+			assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+			assertEquals(2000, mPlayer.getLastIterations());
+		}
+		
+		// A closed player can still move.
+		mPlayer.close();
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+	}
+	
+	@Test
+	public void testSingleMove() {
+		MctsPlayer mPlayer = createPlayer(0);
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		ArrayList<int[]> single = new ArrayList<int[]>();
+		single.add(availableMoves.get(availableMoves.size() - 1));
+		
+		// No search is needed for choosing between a single move.
+		assertArrayEquals(CrushUtilities.calculateNextMove(single.get(0)),
+						  mPlayer.getNextMove(single, board));
+		assertEquals(0, mPlayer.getLastIterations());
+	}
+}
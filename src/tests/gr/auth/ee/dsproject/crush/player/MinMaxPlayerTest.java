@@ -1,51 +1,615 @@
-package tests.gr.auth.ee.dsproject.crush.player;
-
-import static org.junit.Assert.*;
-
-import java.lang.reflect.*;
-
-import org.junit.Before;
-import org.junit.Test;
-
-import gr.auth.ee.dsproject.crush.player.MinMaxPlayer;
-
-
-public class MinMaxPlayerTest {
-
-	@Before
-	public void setUp() throws Exception {
-	}
-
-	@Test
-	public void testDoFixedEvaluation() {
-		MinMaxPlayer mPlayer = new MinMaxPlayer(0);
-		
-		Method doFixedEvaluation = null;
-		
-		try {
-			doFixedEvaluation = mPlayer.getClass().getDeclaredMethod("doFixedEvaluation", int.class);
-			doFixedEvaluation.setAccessible(true);
-			
-		} catch (NoSuchMethodException | SecurityException e) {
-			e.printStackTrace();
-		}
-		
-		try {
-			// Test 0 remaining depth.
-			assertEquals(8.0, doFixedEvaluation.invoke(mPlayer, 0));
-			
-			// Test 1 remaining depth.
-			assertEquals(8.0, doFixedEvaluation.invoke(mPlayer, 1));
-			
-			// Test 2 remaining depth.
-			assertEquals(4.0, doFixedEvaluation.invoke(mPlayer, 2));
-			
-			// Test 3 remaining depth.
-			assertEquals(4.0, doFixedEvaluation.invoke(mPlayer, 3));
-			
-		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
-			e.printStackTrace();
-		}
-	}
-
-}
+package tests.gr.auth.ee.dsproject.crush.player;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.metrics.MetricsSink;
+import gr.auth.ee.dsproject.crush.metrics.MoveMetrics;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+import gr.auth.ee.dsproject.crush.search.AlphaBetaStrategy;
+import gr.auth.ee.dsproject.crush.search.PrincipalVariationStrategy;
+import gr.auth.ee.dsproject.crush.player.MinMaxPlayer;
+
+
+public class MinMaxPlayerTest {
+	Board board;
+	ArrayList<MinMaxPlayer> players;
+	
+	/**
+	 * Creates a player that is closed after the test.
+	 */
+	private MinMaxPlayer createPlayer(int id) {
+		MinMaxPlayer player = new MinMaxPlayer(id);
+		players.add(player);
+		
+		return player;
+	}
+	
+	/**
+	 * Creates a board of the given rows, filled with random colors in
+	 * a way that no tiles crush before a move is played.
+	 */
+	private Board createRandomBoard(int rows, long seed) {
+		Random random = new Random(seed);
+		int[][] colors = new int[10][rows];
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				int color;
+				do {
+					color = random.nextInt(7);
+				} while ((x >= 2 && colors[x - 1][y] == color && colors[x - 2][y] == color) ||
+						 (y >= 2 && colors[x][y - 1] == color && colors[x][y - 2] == color));
+				colors[x][y] = color;
+			}
+		}
+		
+		Board board = new Board(rows);
+		Method setTile = null;
+				
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, colors[x][y], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return board;
+	}
+	
+	/**
+	 * Checks whether the given [x1, y1, x2, y2] move is one of the given
+	 * [x, y, direction] moves.
+	 */
+	private boolean isAvailable(int[] move, ArrayList<int[]> availableMoves) {
+		for (int[] available : availableMoves) {
+			if (Arrays.equals(move, CrushUtilities.calculateNextMove(available))) return true;
+		}
+		
+		return false;
+	}
+
+	/**
+	 * Asks the given player for a move on a few random boards, and counts
+	 * the iterations that failed low on all of them. Root value drops
+	 * between iterations on some of the boards, so a narrow enough window
+	 * should fail low on at least one of them.
+	 */
+	private int countAspirationFailLows(MinMaxPlayer mPlayer) {
+		int failLows = 0;
+		
+		for (long seed = 1; seed <= 4; seed++) {
+			Board b = createRandomBoard(50, seed);
+			ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(b);
+			
+			int[] move = mPlayer.getNextMove(availableMoves, b);
+			MoveMetrics metrics = mPlayer.getLastMoveMetrics();
+			
+			assertTrue(isAvailable(move, availableMoves));
+			assertTrue(mPlayer.getLastCompletedDepth() >= 2);
+			
+			failLows += metrics.getAspirationFailLows();
+		}
+		
+		return failLows;
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		board = createRandomBoard(50, 1);
+		players = new ArrayList<MinMaxPlayer>();
+	}
+	
+	@After
+	public void tearDown() throws Exception {
+		for (MinMaxPlayer player : players) player.close();
+	}
+	
+	@Test
+	public void testIterativeDeepeningMode() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setWaitingTime(1000);
+		
+		assertTrue(mPlayer.isIterativeDeepening());
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		
+		long start = System.currentTimeMillis();
+		int[] move = mPlayer.getNextMove(availableMoves, board);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		assertTrue(isAvailable(move, availableMoves));
+		assertTrue(mPlayer.getLastCompletedDepth() >= 1);
+		assertTrue(mPlayer.getLastCompletedDepth() <= MinMaxPlayer.MAX_ITERATIVE_DEPTH);
+		
+		// Search should have stopped before the budget ran out.
+		assertTrue(elapsed < 1000);
+	}
+	
+	@Test
+	public void testAspirationWindows() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setWaitingTime(1000);
+		mPlayer.setSearchThreads(1);
+		
+		mPlayer.setAspirationWindow(-1.0);
+		assertEquals(0.0, mPlayer.getAspirationWindow(), 0.0);
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		mPlayer.getNextMove(availableMoves, board);
+		
+		MoveMetrics metrics = mPlayer.getLastMoveMetrics();
+		assertEquals(0, metrics.getAspirationFailHighs() + metrics.getAspirationFailLows());
+		
+		// A window too narrow for values to fall into should fail, but still
+		// lead to completed iterations.
+		mPlayer.setSearchStrategy(new PrincipalVariationStrategy());
+		mPlayer.setAspirationWindow(1e-3);
+		
+		int[] move = mPlayer.getNextMove(availableMoves, board);
+		metrics = mPlayer.getLastMoveMetrics();
+		
+		assertTrue(isAvailable(move, availableMoves));
+		assertTrue(mPlayer.getLastCompletedDepth() >= 2);
+		assertTrue(metrics.getAspirationFailHighs() + metrics.getAspirationFailLows() > 0);
+	}
+	
+	@Test
+	public void testAspirationWindowsInParallel() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setWaitingTime(1000);
+		mPlayer.setSearchThreads(4);
+		mPlayer.setLazySmp(false);
+		mPlayer.setSearchStrategy(new PrincipalVariationStrategy());
+		mPlayer.setAspirationWindow(1e-3);
+		
+		// Even when root is searched in parallel.
+		assertTrue(countAspirationFailLows(mPlayer) > 0);
+	}
+	
+	@Test
+	public void testAspirationWindowsFailLow() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setWaitingTime(1000);
+		mPlayer.setSearchThreads(1);
+		mPlayer.setAspirationWindow(1e-3);
+		
+		// With the default strategy, i.e. plain A-B pruning.
+		assertTrue(countAspirationFailLows(mPlayer) > 0);
+	}
+	
+	@Test
+	public void testFixedDepthMode() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setIterativeDeepening(false);
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		int[] move = mPlayer.getNextMove(availableMoves, board);
+		
+		assertTrue(isAvailable(move, availableMoves));
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, mPlayer.getLastCompletedDepth());
+	}
+	
+	@Test
+	public void testQuiescence() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setIterativeDeepening(false);
+		mPlayer.setSearchThreads(1);
+		
+		assertTrue(mPlayer.isQuiescence());
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+		
+		// Extensions of every kind are bounded.
+		MoveMetrics metrics = mPlayer.getLastMoveMetrics();
+		assertTrue(metrics.getMaxPly() <= MinMaxPlayer.MINIMAX_DEPTH +
+										  MinMaxPlayer.MAX_EXTRA_TURN_EXTENSIONS +
+										  MinMaxPlayer.QUIESCENCE_DEPTH);
+		
+		mPlayer.setQuiescence(false);
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+		
+		metrics = mPlayer.getLastMoveMetrics();
+		assertEquals(0, metrics.getQuiescenceNodes());
+		assertTrue(metrics.getMaxPly() <= MinMaxPlayer.MINIMAX_DEPTH +
+										  MinMaxPlayer.MAX_EXTRA_TURN_EXTENSIONS);
+	}
+	
+	@Test
+	public void testClearSearchState() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setIterativeDeepening(false);
+		mPlayer.setSearchThreads(1);
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		int[] move = mPlayer.getNextMove(availableMoves, board);
+		long ttHits = mPlayer.getLastMoveMetrics().getTtHits();
+		
+		// States stored by the previous move are found again.
+		mPlayer.getNextMove(availableMoves, board);
+		assertTrue(mPlayer.getLastMoveMetrics().getTtHits() > ttHits);
+		
+		// After clearing, the same board is searched exactly as the first time.
+		mPlayer.clearSearchState();
+		assertEquals(0, mPlayer.getPrincipalVariation().length);
+		
+		assertArrayEquals(move, mPlayer.getNextMove(availableMoves, board));
+		assertEquals(ttHits, mPlayer.getLastMoveMetrics().getTtHits());
+	}
+	
+	@Test
+	public void testPredictedBoards() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setIterativeDeepening(false);
+		mPlayer.setSearchThreads(1);
+		
+		assertEquals(0, mPlayer.getPrincipalVariation().length);
+		
+		int[] move = mPlayer.getNextMove(CrushUtilities.getAvailableMoves(board), board);
+		int[] line = mPlayer.getPrincipalVariation();
+		
+		// Line should start with the returned move.
+		assertTrue(line.length >= 2);
+		assertArrayEquals(PackedMove.toCordsArray(line[0]), move);
+		assertEquals(0, mPlayer.getPredictionHits());
+		
+		// Play the returned move and the reply the player expects.
+		Board next = CrushUtilities.cloneBoard(board, 33);
+		for (int i = 0; i < 2; i++) {
+			next = new CascadeSimulator(next).simulate(line[i]).getBoard();
+		}
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(next);
+		
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, next), availableMoves));
+		assertEquals(1, mPlayer.getPredictionHits());
+		
+		// A board out of the line is not matched.
+		mPlayer.getNextMove(CrushUtilities.getAvailableMoves(board), board);
+		assertEquals(1, mPlayer.getPredictionHits());
+	}
+	
+	@Test
+	public void testPondering() throws InterruptedException {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setSearchThreads(1);
+		mPlayer.setWaitingTime(1000);
+		mPlayer.setPonderTime(0);
+		
+		// Disabled pondering starts no thread.
+		mPlayer.getNextMove(CrushUtilities.getAvailableMoves(board), board);
+		assertFalse(mPlayer.isPondering());
+		
+		mPlayer = createPlayer(0);
+		mPlayer.setSearchThreads(1);
+		mPlayer.setWaitingTime(1000);
+		mPlayer.setPonderTime(60000);
+		mPlayer.getNextMove(CrushUtilities.getAvailableMoves(board), board);
+		int[] line = mPlayer.getPrincipalVariation();
+		assertTrue(line.length >= 2);
+		
+		// Pondering runs after the move has been returned, until cancelled.
+		assertTrue(mPlayer.isPondering());
+		Thread.sleep(300);
+		mPlayer.stopPondering();
+		assertFalse(mPlayer.isPondering());
+		
+		// The reply the player expects has been pondered.
+		Board next = CrushUtilities.cloneBoard(board, 33);
+		for (int i = 0; i < 2; i++) {
+			next = new CascadeSimulator(next).simulate(line[i]).getBoard();
+		}
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(next);
+		
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, next), availableMoves));
+		assertEquals(1, mPlayer.getPonderHits());
+		assertTrue(mPlayer.getLastCompletedDepth() >= 1);
+		
+		// Pondering stops on its own when its node budget is used up.
+		mPlayer.stopPondering();
+		mPlayer.setPonderNodes(1);
+		mPlayer.getNextMove(CrushUtilities.getAvailableMoves(board), board);
+		
+		long start = System.currentTimeMillis();
+		while (mPlayer.isPondering() && System.currentTimeMillis() - start < 10000) {
+			Thread.sleep(10);
+		}
+		assertFalse(mPlayer.isPondering());
+		
+		mPlayer.stopPondering();
+	}
+	
+	@Test
+	public void testClose() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setSearchThreads(2);
+		mPlayer.setWaitingTime(1000);
+		mPlayer.setPonderTime(60000);
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		mPlayer.getNextMove(availableMoves, board);
+		assertTrue(mPlayer.isPondering());
+		
+		mPlayer.close();
+		assertFalse(mPlayer.isPondering());
+		
+		// A closed player can still move.
+		mPlayer.setPonderTime(0);
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+	}
+	
+	@Test
+	public void testInterruption() throws InterruptedException {
+		final MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setSearchThreads(4);
+		mPlayer.setWaitingTime(60000);
+		mPlayer.setPonderTime(60000);
+		
+		final ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		final int[][] move = new int[1][];
+		final boolean[] interrupted = new boolean[1];
+		
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				move[0] = mPlayer.getNextMove(availableMoves, board);
+				interrupted[0] = Thread.currentThread().isInterrupted();
+			}
+		});
+		
+		long start = System.nanoTime();
+		thread.start();
+		Thread.sleep(200);
+		thread.interrupt();
+		thread.join(5000);
+		
+		// Root tasks run on the pool, so they stop only through the player.
+		assertFalse(thread.isAlive());
+		assertTrue((System.nanoTime() - start) / 1000000L < 5000);
+		assertTrue(isAvailable(move[0], availableMoves));
+		assertTrue(mPlayer.getLastMoveMetrics().isAborted());
+		assertTrue(interrupted[0]);
+		
+		// Pondering would only delay the caller that gave up on the move.
+		assertFalse(mPlayer.isPondering());
+		
+		// Fixed depth search has no deadline, so only interruption stops it.
+		mPlayer.setIterativeDeepening(false);
+		Thread.currentThread().interrupt();
+		try {
+			assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+			assertEquals(0, mPlayer.getLastCompletedDepth());
+			assertTrue(mPlayer.getLastMoveMetrics().isAborted());
+		} finally {
+			assertTrue(Thread.interrupted());
+		}
+		
+		// Next move is searched as usual.
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, mPlayer.getLastCompletedDepth());
+		assertFalse(mPlayer.getLastMoveMetrics().isAborted());
+	}
+	
+	@Test
+	public void testMetricsSink() {
+		final ArrayList<MoveMetrics> recorded = new ArrayList<MoveMetrics>();
+		
+		MinMaxPlayer mPlayer = createPlayer(1);
+		mPlayer.setIterativeDeepening(false);
+		mPlayer.setMetricsSink(new MetricsSink() {
+			@Override
+			public void record(MoveMetrics metrics) { recorded.add(metrics); }
+		});
+		
+		assertNull(mPlayer.getLastMoveMetrics());
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		mPlayer.getNextMove(availableMoves, board);
+		mPlayer.getNextMove(availableMoves, board);
+		
+		assertEquals(2, recorded.size());
+		assertSame(recorded.get(1), mPlayer.getLastMoveMetrics());
+		
+		MoveMetrics metrics = recorded.get(0);
+		assertEquals(1, metrics.getPlayerId());
+		assertEquals(1, metrics.getMoveNumber());
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, metrics.getCompletedDepth());
+		assertFalse(metrics.isAborted());
+		assertTrue(metrics.getNodesEvaluated() > metrics.getNodesExpanded());
+		assertTrue(metrics.getNodesExpanded() > 0);
+		assertTrue(metrics.getMaxPly() >= MinMaxPlayer.MINIMAX_DEPTH);
+		assertTrue(metrics.getTtProbes() > 0);
+		
+		// Counters are reset on every move, while states stored by the first
+		// search make the second one cheaper.
+		metrics = recorded.get(1);
+		assertEquals(2, metrics.getMoveNumber());
+		assertTrue(metrics.getTtHits() > 0);
+		assertTrue(metrics.getNodesEvaluated() < recorded.get(0).getNodesEvaluated());
+	}
+	
+	@Test
+	public void testParallelSearchMetrics() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setIterativeDeepening(false);
+		mPlayer.setSearchThreads(4);
+		
+		mPlayer.getNextMove(CrushUtilities.getAvailableMoves(board), board);
+		
+		MoveMetrics metrics = mPlayer.getLastMoveMetrics();
+		
+		// Root and every searched child of it have been counted.
+		assertTrue(metrics.getNodesEvaluated() > CrushUtilities.getAvailableMoves(board).size());
+		assertTrue(metrics.getBranchingFactor() > 1.0);
+	}
+	
+	@Test
+	public void testPrincipalVariationSearch() {
+		MinMaxPlayer alphaBeta = createPlayer(0);
+		alphaBeta.setIterativeDeepening(false);
+		alphaBeta.setSearchThreads(1);
+		
+		assertTrue(alphaBeta.getSearchStrategy() instanceof AlphaBetaStrategy);
+		
+		MinMaxPlayer pvs = createPlayer(0);
+		pvs.setIterativeDeepening(false);
+		pvs.setSearchThreads(1);
+		pvs.setSearchStrategy(new PrincipalVariationStrategy());
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		int[] move = pvs.getNextMove(availableMoves, board);
+		
+		assertArrayEquals(alphaBeta.getNextMove(availableMoves, board), move);
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, pvs.getLastCompletedDepth());
+		
+		// Children searched again should still lead to an available move,
+		// in parallel and under chance nodes too.
+		pvs.setSearchThreads(4);
+		pvs.setChanceSamples(3);
+		assertTrue(isAvailable(pvs.getNextMove(availableMoves, board), availableMoves));
+	}
+	
+	@Test
+	public void testParallelSearchChoosesSameMove() {
+		MinMaxPlayer sequential = createPlayer(0);
+		sequential.setIterativeDeepening(false);
+		sequential.setSearchThreads(1);
+		
+		MinMaxPlayer parallel = createPlayer(0);
+		parallel.setIterativeDeepening(false);
+		parallel.setSearchThreads(4);
+		
+		assertEquals(4, parallel.getSearchThreads());
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		
+		assertArrayEquals(sequential.getNextMove(availableMoves, board),
+						  parallel.getNextMove(availableMoves, board));
+	}
+
+	@Test
+	public void testLazySmp() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setWaitingTime(1000);
+		mPlayer.setSearchThreads(4);
+		
+		assertFalse(mPlayer.isLazySmp());
+		
+		mPlayer.setLazySmp(true);
+		
+		assertTrue(mPlayer.isLazySmp());
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(board);
+		
+		long start = System.currentTimeMillis();
+		int[] move = mPlayer.getNextMove(availableMoves, board);
+		long elapsed = System.currentTimeMillis() - start;
+		
+		assertTrue(isAvailable(move, availableMoves));
+		assertTrue(mPlayer.getLastCompletedDepth() >= 1);
+		
+		// Helpers have been stopped along with the calling thread.
+		assertTrue(elapsed < 1000);
+		
+		// Moves found through the shared table are still valid ones.
+		assertTrue(isAvailable(mPlayer.getNextMove(availableMoves, board), availableMoves));
+		assertTrue(mPlayer.getLastMoveMetrics().getTtHits() > 0);
+	}
+
+	@Test
+	public void testChanceNodes() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		mPlayer.setIterativeDeepening(false);
+		mPlayer.setSearchThreads(1);
+		
+		assertEquals(0, mPlayer.getChanceSamples());
+		
+		mPlayer.setChanceSamples(3);
+		
+		assertEquals(3, mPlayer.getChanceSamples());
+		
+		// Tiles above the playable rows are unknown, so nearly every move
+		// leads to a chance node.
+		Board hidden = createRandomBoard(33, 2);
+		for (int y = hidden.getPRows(); y < hidden.getRows(); y++) {
+			for (int x = 0; x < hidden.getCols(); x++) hidden.giveTileAt(x, y).setColor(-1);
+		}
+		
+		ArrayList<int[]> availableMoves = CrushUtilities.getAvailableMoves(hidden);
+		int[] move = mPlayer.getNextMove(availableMoves, hidden);
+		
+		assertTrue(isAvailable(move, availableMoves));
+		assertEquals(MinMaxPlayer.MINIMAX_DEPTH, mPlayer.getLastCompletedDepth());
+		
+		// Outcomes are sampled the same way on every search and thread.
+		MinMaxPlayer parallel = createPlayer(0);
+		parallel.setIterativeDeepening(false);
+		parallel.setSearchThreads(4);
+		parallel.setChanceSamples(3);
+		
+		assertArrayEquals(move, mPlayer.getNextMove(availableMoves, hidden));
+		assertArrayEquals(move, parallel.getNextMove(availableMoves, hidden));
+		
+		mPlayer.setChanceSamples(0);
+		
+		assertEquals(0, mPlayer.getChanceSamples());
+	}
+
+	@Test
+	public void testDoFixedEvaluation() {
+		MinMaxPlayer mPlayer = createPlayer(0);
+		
+		Method doFixedEvaluation = null;
+		
+		try {
+			doFixedEvaluation = mPlayer.getClass().getDeclaredMethod("doFixedEvaluation", int.class);
+			doFixedEvaluation.setAccessible(true);
+			
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+		
+		try {
+			// Test 0 remaining depth.
+			assertEquals(8.0, doFixedEvaluation.invoke(mPlayer, 0));
+			
+			// Test 1 remaining depth.
+			assertEquals(8.0, doFixedEvaluation.invoke(mPlayer, 1));
+			
+			// Test 2 remaining depth.
+			assertEquals(4.0, doFixedEvaluation.invoke(mPlayer, 2));
+			
+			// Test 3 remaining depth.
+			assertEquals(4.0, doFixedEvaluation.invoke(mPlayer, 3));
+			
+		} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+			e.printStackTrace();
+		}
+	}
+
+}
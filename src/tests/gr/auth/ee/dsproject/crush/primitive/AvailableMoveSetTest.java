@@ -0,0 +1,137 @@
+package tests.gr.auth.ee.dsproject.crush.primitive;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.primitive.AvailableMoveSet;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+import gr.auth.ee.dsproject.crush.primitive.PrimitiveBoard;
+
+
+public class AvailableMoveSetTest {
+
+	/**
+	 * Creates a board of random colors, where no tiles crush before
+	 * a move is played.
+	 */
+	private Board createRandomBoard(int rows, long seed) {
+		Random random = new Random(seed);
+		int[][] colors = new int[10][rows];
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				int color;
+				do {
+					color = random.nextInt(7);
+				} while ((x >= 2 && colors[x - 1][y] == color && colors[x - 2][y] == color) ||
+						 (y >= 2 && colors[x][y - 1] == color && colors[x][y - 2] == color));
+				colors[x][y] = color;
+			}
+		}
+
+		Board board = new Board(rows);
+		Method setTile = null;
+
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, colors[x][y], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return board;
+	}
+
+	private void assertSameMoves(ArrayList<int[]> expected, ArrayList<int[]> actual) {
+		assertEquals(expected.size(), actual.size());
+
+		for (int i = 0; i < expected.size(); i++) assertArrayEquals(expected.get(i), actual.get(i));
+	}
+
+	@Test
+	public void testMatchesPlatform() {
+		for (long seed = 0; seed < 20; seed++) {
+			Board board = createRandomBoard(33, seed);
+			AvailableMoveSet moves = new AvailableMoveSet(PrimitiveBoard.fromBoard(board));
+			ArrayList<int[]> expected = CrushUtilities.getAvailableMoves(board);
+
+			assertSameMoves(expected, moves.toList());
+			assertEquals(expected.size(), moves.size());
+
+			int[] packed = moves.toPackedArray();
+			assertEquals(expected.size(), packed.length);
+			for (int i = 0; i < packed.length; i++) {
+				assertArrayEquals(expected.get(i), PackedMove.toDirArray(packed[i]));
+			}
+
+			for (int[] move : expected) assertTrue(moves.contains(move[0], move[1], move[2]));
+		}
+	}
+
+	@Test
+	public void testIncrementalMatchesPlatform() {
+		// Few hidden rows, so tiles of unknown color soon fall into the
+		// visible area, where they count as a color of their own.
+		for (long seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			Board board = createRandomBoard(12, seed);
+			CascadeResult cause = null;
+
+			for (int ply = 0; ply < 8; ply++) {
+				CascadeSimulator simulator = new CascadeSimulator(board, cause);
+				ArrayList<int[]> moves = simulator.getAvailableMoves().toList();
+
+				assertSameMoves(CrushUtilities.getAvailableMoves(board), moves);
+
+				if (moves.isEmpty()) break;
+
+				cause = simulator.simulate(moves.get(random.nextInt(moves.size())));
+				board = cause.getBoard();
+
+				assertSame(simulator.getAvailableMoves(), cause.getMovesBefore());
+			}
+		}
+	}
+
+	@Test
+	public void testCauseOfAnotherBoardIsIgnored() {
+		Board board = createRandomBoard(33, 4);
+		CascadeSimulator simulator = new CascadeSimulator(board);
+		CascadeResult result = simulator.simulate(CrushUtilities.getAvailableMoves(board).get(0));
+
+		// Results simulated before the moves were requested carry no moves.
+		assertNull(result.getMovesBefore());
+
+		simulator.getAvailableMoves();
+		CascadeResult cause = simulator.simulate(result.getMove());
+
+		assertNotNull(cause.getMovesBefore());
+
+		CascadeSimulator other = new CascadeSimulator(CrushUtilities.cloneBoard(cause.getBoard()), cause);
+
+		assertSameMoves(CrushUtilities.getAvailableMoves(result.getBoard()),
+						other.getAvailableMoves().toList());
+	}
+}
@@ -0,0 +1,159 @@
+package tests.gr.auth.ee.dsproject.crush.primitive;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.primitive.BitBoardMatcher;
+import gr.auth.ee.dsproject.crush.primitive.PrimitiveBoard;
+
+
+public class BitBoardMatcherTest {
+	Board runsBoard;
+
+	private Board createBoard(int[][] boardScheme) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+
+		Board board = new Board(rows);
+		Method setTile = null;
+
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, boardScheme[rows - y - 1][x], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return board;
+	}
+
+	/**
+	 * Creates a scheme of random colors out of a few ones, so that plenty
+	 * of runs exist. Some of the tiles are left unknown.
+	 */
+	private int[][] createRandomScheme(int rows, long seed) {
+		Random random = new Random(seed);
+		int[][] colors = new int[rows][10];
+
+		for (int r = 0; r < rows; r++) {
+			for (int x = 0; x < 10; x++) {
+				colors[r][x] = random.nextInt(10) == 0 ? -1 : random.nextInt(3);
+			}
+		}
+
+		return colors;
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		int[][] runsBoardScheme = {
+				{ 1, 1, 1, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 1, 4, 5, 6, 0, 1, 2, 3 },
+				{ 1, 3, 1, 5, 6, 0, 1, 2, 3, 4 },
+				{ 1, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 1, 1, 1, 3, 1, 1, 1 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 5 },
+				{-1,-1,-1, 4, 5, 6, 0, 1, 2, 5 },
+				{ 3, 3, 4, 5, 6, 0, 1, 2, 3, 5 },
+				{ 3, 4, 5, 6, 0, 1, 2, 5, 5, 5 },
+		};
+
+		runsBoard = createBoard(runsBoardScheme);
+	}
+
+	@Test
+	public void testInvalidDimensions() {
+		try {
+			new BitBoardMatcher(0, 10);
+			fail("Expected InvalidDimensionsRuntimeException");
+		} catch (BitBoardMatcher.InvalidDimensionsRuntimeException e) {}
+
+		try {
+			new BitBoardMatcher(10, 65);
+			fail("Expected InvalidDimensionsRuntimeException");
+		} catch (BitBoardMatcher.InvalidDimensionsRuntimeException e) {}
+
+		try {
+			new BitBoardMatcher(10, 8).load(runsBoard);
+			fail("Expected InvalidDimensionsRuntimeException");
+		} catch (BitBoardMatcher.InvalidDimensionsRuntimeException e) {}
+	}
+
+	@Test
+	public void testLoad() {
+		BitBoardMatcher matcher = new BitBoardMatcher(10, 10);
+		matcher.load(runsBoard);
+
+		// Column 0 from bottom to top: 3, 3, -1, 0, 5, 4, 1, 1, 1, 1.
+		assertEquals(0x3C0L, matcher.getColorMask(1, 0));
+		assertEquals(0x3L, matcher.getColorMask(3, 0));
+		assertEquals(0x8L, matcher.getColorMask(0, 0));
+	}
+
+	@Test
+	public void testFindCrushMask() {
+		BitBoardMatcher matcher = new BitBoardMatcher(10, 10);
+		long[] mask = new long[10];
+
+		matcher.load(runsBoard);
+
+		assertEquals(20, matcher.findCrushMask(mask));
+
+		// Vertical run of four at the top of column 0 and horizontal run
+		// of three at its top.
+		assertEquals(0x3C0L, mask[0]);
+		assertEquals(0x200L, mask[1]);
+
+		// Vertical run of three at the top of column 2.
+		assertEquals(0x380L, mask[2]);
+
+		// Two horizontal runs of three on row 5.
+		assertEquals(0x20L, mask[3]);
+		assertEquals(0x20L, mask[5]);
+		assertEquals(0L, mask[6]);
+
+		// Vertical run of four and horizontal run of three meeting at (9, 0).
+		assertEquals(0x21L, mask[7]);
+		assertEquals(0x21L, mask[8]);
+		assertEquals(0x2FL, mask[9]);
+
+		// The run of unknown tiles on row 2 should not crush.
+		assertEquals(0L, mask[1] & 0x4L);
+	}
+
+	@Test
+	public void testMatchesRunLengthScan() {
+		BitBoardMatcher matcher = new BitBoardMatcher(10, 10);
+		long[] expected = new long[10];
+		long[] actual = new long[10];
+
+		for (long seed = 0; seed < 200; seed++) {
+			PrimitiveBoard board = PrimitiveBoard.fromBoard(createBoard(createRandomScheme(14, seed)));
+
+			matcher.load(board);
+
+			assertEquals(board.findCrushMask(expected), matcher.findCrushMask(actual));
+			assertArrayEquals(expected, actual);
+		}
+	}
+}
@@ -0,0 +1,212 @@
+package tests.gr.auth.ee.dsproject.crush.primitive;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.CandiesRemovedHeuristic;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.CascadeResult;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+import gr.auth.ee.dsproject.crush.primitive.PatternDetector;
+
+
+public class CascadeSimulatorTest {
+	Board fiveLineBoard;
+
+	private Board createBoard(int[][] boardScheme) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+
+		Board board = new Board(rows);
+		Method setTile = null;
+
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, boardScheme[rows - y - 1][x], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return board;
+	}
+
+	/**
+	 * Creates a scheme of random colors, where no tiles crush before
+	 * a move is played.
+	 */
+	private int[][] createRandomScheme(int rows, long seed) {
+		Random random = new Random(seed);
+		int[][] colors = new int[rows][10];
+
+		// Scheme rows are given top to bottom, so runs are checked upwards.
+		for (int r = rows - 1; r >= 0; r--) {
+			for (int x = 0; x < 10; x++) {
+				int color;
+				do {
+					color = random.nextInt(7);
+				} while ((x >= 2 && colors[r][x - 1] == color && colors[r][x - 2] == color) ||
+						 (r <= rows - 3 && colors[r + 1][x] == color && colors[r + 2][x] == color));
+				colors[r][x] = color;
+			}
+		}
+
+		return colors;
+	}
+
+	private PlayerMove toPlayerMove(Board board, int[] move) {
+		int[] cords = CrushUtilities.calculateNextMove(move);
+
+		return new PlayerMove(board.giveTileAt(cords[0], cords[1]),
+							  board.giveTileAt(cords[2], cords[3]));
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		// Moving (2, 1) down forms a line of five at the bottom row.
+		int[][] fiveLineBoardScheme = {
+				{ 5, 6, 5, 6, 5, 6, 5, 6, 5, 6 },
+				{ 6, 5, 6, 5, 6, 5, 6, 5, 6, 5 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 3, 3, 4, 5, 6, 0, 1, 2 },
+				{ 3, 3, 2, 3, 3, 6, 0, 1, 2, 4 },
+		};
+
+		fiveLineBoard = createBoard(fiveLineBoardScheme);
+	}
+
+	@Test
+	public void testExtraTurn() {
+		CascadeSimulator simulator = new CascadeSimulator(fiveLineBoard);
+		CascadeResult result = simulator.simulate(new int[] {2, 1, CrushUtilities.DOWN});
+
+		assertTrue(result.leadsToExtraTurn());
+		assertEquals(5, result.getRemoved(0));
+		assertEquals(0x1L, result.getRemovedMask(0)[0] & 0x1L);
+		assertEquals(0x1L, result.getRemovedMask(0)[4] & 0x1L);
+
+		int pattern = result.getExtraTurnPattern();
+		assertEquals(PatternDetector.FIVE_LINE, PatternDetector.getPattern(pattern));
+		assertEquals(0, PatternDetector.getX(pattern));
+		assertEquals(0, PatternDetector.getY(pattern));
+
+		// A plain run of three should not grant an extra turn.
+		result = simulator.simulate(new int[] {4, 0, CrushUtilities.UP});
+
+		assertFalse(result.leadsToExtraTurn());
+		assertEquals(PatternDetector.NO_MATCH, result.getExtraTurnPattern());
+		assertEquals(3, result.getRemoved(0));
+	}
+
+	@Test
+	public void testSimulationLeavesBoardIntact() {
+		Board board = createBoard(createRandomScheme(20, 3));
+		Board copy = CrushUtilities.cloneBoard(board);
+		CascadeSimulator simulator = new CascadeSimulator(board);
+
+		for (int[] move : CrushUtilities.getAvailableMoves(board)) simulator.simulate(move);
+
+		for (int x = 0; x < board.getCols(); x++) {
+			for (int y = 0; y < board.getRows(); y++) {
+				assertEquals(copy.giveTileAt(x, y).getColor(), board.giveTileAt(x, y).getColor());
+			}
+		}
+	}
+
+	@Test
+	public void testMatchesPlatformCascade() {
+		for (long seed = 0; seed < 20; seed++) {
+			Board source = createBoard(createRandomScheme(33, seed));
+			CascadeSimulator simulator = new CascadeSimulator(source);
+
+			for (int[] move : CrushUtilities.getAvailableMoves(source)) {
+				Board expected = CrushUtilities.boardAfterFullMove(source, move);
+				CascadeResult result = simulator.simulate(move);
+
+				assertSame(move, result.getMove());
+				assertEquals(expected.getRows(), result.getBoard().getRows());
+
+				for (int x = 0; x < expected.getCols(); x++) {
+					for (int y = 0; y < expected.getRows(); y++) {
+						assertEquals(expected.giveTileAt(x, y).getColor(),
+									 result.getBoard().giveTileAt(x, y).getColor());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testSimulatorOfResultMatchesPlatformCascade() {
+		for (long seed = 0; seed < 10; seed++) {
+			Board source = createBoard(createRandomScheme(33, seed));
+			CascadeSimulator simulator = new CascadeSimulator(source);
+			Random random = new Random(seed);
+
+			// Play a line of moves, every one on the simulator of the result
+			// of the previous one.
+			for (int i = 0; i < 4; i++) {
+				ArrayList<int[]> moves = CrushUtilities.getAvailableMoves(simulator.getBoard());
+				if (moves.isEmpty()) break;
+
+				int[] move = moves.get(random.nextInt(moves.size()));
+				Board expected = CrushUtilities.boardAfterFullMove(simulator.getBoard(), move);
+				CascadeResult result = simulator.simulate(move);
+
+				for (int x = 0; x < expected.getCols(); x++) {
+					for (int y = 0; y < expected.getRows(); y++) {
+						assertEquals(expected.giveTileAt(x, y).getColor(),
+									 result.getBoard().giveTileAt(x, y).getColor());
+					}
+				}
+
+				simulator = new CascadeSimulator(result.getBoard(), result);
+			}
+		}
+	}
+
+	@Test
+	public void testMatchesCandiesRemovedHeuristic() {
+		for (long seed = 0; seed < 20; seed++) {
+			Board source = createBoard(createRandomScheme(33, seed));
+			CascadeSimulator simulator = new CascadeSimulator(source);
+
+			for (int[] move : CrushUtilities.getAvailableMoves(source)) {
+				PlayerMove playerMove = toPlayerMove(source, move);
+
+				CandiesRemovedHeuristic simulated = new CandiesRemovedHeuristic(
+						playerMove, source, simulator.simulate(move)
+				);
+				CandiesRemovedHeuristic plain = new CandiesRemovedHeuristic(playerMove, source);
+
+				assertEquals(plain.evaluate(), simulated.evaluate(), 0.001);
+				assertEquals(plain.causedAnExtraTurn(), simulated.causedAnExtraTurn());
+			}
+		}
+	}
+}
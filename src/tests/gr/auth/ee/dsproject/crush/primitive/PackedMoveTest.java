@@ -0,0 +1,116 @@
+package tests.gr.auth.ee.dsproject.crush.primitive;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Random;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+
+
+public class PackedMoveTest {
+
+	/**
+	 * Creates a board of random colors, where no tiles crush before
+	 * a move is played.
+	 */
+	private Board createRandomBoard(int rows, long seed) {
+		Random random = new Random(seed);
+		int[][] colors = new int[10][rows];
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				int color;
+				do {
+					color = random.nextInt(7);
+				} while ((x >= 2 && colors[x - 1][y] == color && colors[x - 2][y] == color) ||
+						 (y >= 2 && colors[x][y - 1] == color && colors[x][y - 2] == color));
+				colors[x][y] = color;
+			}
+		}
+
+		Board board = new Board(rows);
+		Method setTile = null;
+
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < 10; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, colors[x][y], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return board;
+	}
+
+	@Test
+	public void testPackAndUnpack() {
+		for (long seed = 0; seed < 10; seed++) {
+			Board board = createRandomBoard(33, seed);
+
+			for (int[] dirMove : CrushUtilities.getAvailableMoves(board)) {
+				int move = PackedMove.pack(dirMove);
+
+				assertEquals(dirMove[0], PackedMove.getX(move));
+				assertEquals(dirMove[1], PackedMove.getY(move));
+				assertEquals(dirMove[2], PackedMove.getDirection(move));
+				assertNotEquals(PackedMove.NO_MOVE, move);
+
+				assertArrayEquals(dirMove, PackedMove.toDirArray(move));
+				assertArrayEquals(CrushUtilities.calculateNextMove(dirMove), PackedMove.toCordsArray(move));
+			}
+		}
+	}
+
+	@Test
+	public void testPlayerMove() {
+		Board board = createRandomBoard(33, 42);
+
+		for (int[] dirMove : CrushUtilities.getAvailableMoves(board)) {
+			int move = PackedMove.pack(dirMove);
+			int[] cords = CrushUtilities.calculateNextMove(dirMove);
+
+			PlayerMove playerMove = PackedMove.toPlayerMove(move, board);
+
+			assertSame(board.giveTileAt(cords[0], cords[1]), playerMove.getTiles()[0]);
+			assertSame(board.giveTileAt(cords[2], cords[3]), playerMove.getTiles()[1]);
+			assertEquals(move, PackedMove.pack(playerMove));
+		}
+	}
+
+	@Test
+	public void testTargetCords() {
+		int move = PackedMove.pack(4, 7, CrushUtilities.LEFT);
+		assertEquals(3, PackedMove.getTargetX(move));
+		assertEquals(7, PackedMove.getTargetY(move));
+
+		move = PackedMove.pack(4, 7, CrushUtilities.RIGHT);
+		assertEquals(5, PackedMove.getTargetX(move));
+		assertEquals(7, PackedMove.getTargetY(move));
+
+		move = PackedMove.pack(4, 7, CrushUtilities.DOWN);
+		assertEquals(4, PackedMove.getTargetX(move));
+		assertEquals(6, PackedMove.getTargetY(move));
+
+		move = PackedMove.pack(4, 7, CrushUtilities.UP);
+		assertEquals(4, PackedMove.getTargetX(move));
+		assertEquals(8, PackedMove.getTargetY(move));
+	}
+}
@@ -0,0 +1,184 @@
+package tests.gr.auth.ee.dsproject.crush.primitive;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.primitive.PatternDetector;
+
+
+public class PatternDetectorTest {
+
+	/**
+	 * Creates a mask of 10 columns containing the given cords, given as
+	 * { x1, y1, x2, y2, ... }.
+	 */
+	private long[] createMask(int... cords) {
+		long[] mask = new long[10];
+
+		for (int i = 0; i < cords.length; i += 2) {
+			mask[cords[i]] |= 1L << cords[i + 1];
+		}
+
+		return mask;
+	}
+
+	private static boolean has(long[] mask, int x, int y) {
+		return x >= 0 && x < mask.length && y >= 0 && y < 64 && (mask[x] >>> y & 1L) != 0;
+	}
+
+	/**
+	 * Checks the given mask for the given patterns tile by tile.
+	 */
+	private boolean referenceContains(long[] mask, int patterns) {
+		int[] dx = { 1, 0, -1, 0 };
+		int[] dy = { 0, 1, 0, -1 };
+
+		for (int x = 0; x < mask.length; x++) {
+			for (int y = 0; y < 64; y++) {
+				if (!has(mask, x, y)) continue;
+
+				// A line of five starting at (x, y) towards right or up.
+				if ((patterns & PatternDetector.FIVE_LINE) != 0) {
+					for (int d = 0; d < 2; d++) {
+						int run = 1;
+						while (run < 5 && has(mask, x + run * dx[d], y + run * dy[d])) run++;
+
+						if (run == 5) return true;
+					}
+				}
+
+				for (int d = 0; d < 4; d++) {
+					for (int p = 0; p < 4; p++) {
+						if (d % 2 == p % 2) continue;  // Not perpendicular.
+
+						boolean stem = has(mask, x + dx[d], y + dy[d]) &&
+									   has(mask, x + 2 * dx[d], y + 2 * dy[d]);
+						if (!stem) continue;
+
+						// An L has its other arm starting at (x, y) too.
+						if ((patterns & PatternDetector.L_SHAPE) != 0 &&
+							has(mask, x + dx[p], y + dy[p]) &&
+							has(mask, x + 2 * dx[p], y + 2 * dy[p])) return true;
+
+						// A T has (x, y) in the middle of its other line.
+						if ((patterns & PatternDetector.T_SHAPE) != 0 &&
+							has(mask, x + dx[p], y + dy[p]) &&
+							has(mask, x - dx[p], y - dy[p])) return true;
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	@Test
+	public void testFiveLines() {
+		int match = PatternDetector.find(createMask(3, 6, 4, 6, 5, 6, 6, 6, 7, 6),
+										 PatternDetector.ALL_PATTERNS);
+
+		assertEquals(PatternDetector.FIVE_LINE, PatternDetector.getPattern(match));
+		assertEquals(3, PatternDetector.getX(match));
+		assertEquals(6, PatternDetector.getY(match));
+
+		match = PatternDetector.find(createMask(9, 5, 9, 6, 9, 7, 9, 8, 9, 9),
+									 PatternDetector.ALL_PATTERNS);
+
+		assertEquals(PatternDetector.FIVE_LINE, PatternDetector.getPattern(match));
+		assertEquals(9, PatternDetector.getX(match));
+		assertEquals(5, PatternDetector.getY(match));
+	}
+
+	@Test
+	public void testLShapes() {
+		// Corner at the top left, at the bottom right, at the top right
+		// and at the bottom left.
+		long[][] masks = {
+				createMask(0, 9, 0, 8, 0, 7, 1, 9, 2, 9),
+				createMask(7, 0, 8, 0, 9, 0, 9, 1, 9, 2),
+				createMask(7, 9, 8, 9, 9, 9, 9, 8, 9, 7),
+				createMask(0, 0, 0, 1, 0, 2, 1, 0, 2, 0)
+		};
+		int[][] corners = { { 0, 9 }, { 9, 0 }, { 9, 9 }, { 0, 0 } };
+
+		for (int i = 0; i < masks.length; i++) {
+			int match = PatternDetector.find(masks[i], PatternDetector.ALL_PATTERNS);
+
+			assertEquals(PatternDetector.L_SHAPE, PatternDetector.getPattern(match));
+			assertEquals(corners[i][0], PatternDetector.getX(match));
+			assertEquals(corners[i][1], PatternDetector.getY(match));
+		}
+	}
+
+	@Test
+	public void testTShapes() {
+		// Stem down from a horizontal line, and stem right of a vertical one.
+		long[] mask = createMask(3, 5, 4, 5, 5, 5, 4, 4, 4, 3);
+		int match = PatternDetector.find(mask, PatternDetector.ALL_PATTERNS);
+
+		assertEquals(PatternDetector.T_SHAPE, PatternDetector.getPattern(match));
+		assertEquals(4, PatternDetector.getX(match));
+		assertEquals(5, PatternDetector.getY(match));
+		assertEquals(PatternDetector.NO_MATCH,
+					 PatternDetector.find(mask, PatternDetector.EXTRA_TURN_PATTERNS));
+
+		mask = createMask(2, 1, 2, 2, 2, 3, 3, 2, 4, 2);
+		match = PatternDetector.find(mask, PatternDetector.T_SHAPE);
+
+		assertEquals(PatternDetector.T_SHAPE, PatternDetector.getPattern(match));
+		assertEquals(2, PatternDetector.getX(match));
+		assertEquals(2, PatternDetector.getY(match));
+	}
+
+	@Test
+	public void testNoPattern() {
+		assertEquals(PatternDetector.NO_MATCH,
+					 PatternDetector.find(new long[10], PatternDetector.ALL_PATTERNS));
+
+		// A line of four, a corner of two lines of two and a plus with arms
+		// of one tile.
+		long[][] masks = {
+				createMask(0, 0, 1, 0, 2, 0, 3, 0),
+				createMask(5, 5, 5, 6, 6, 5, 6, 4, 4, 5, 7, 7),
+				createMask(4, 4, 3, 4, 5, 4, 4, 3, 4, 5)
+		};
+
+		for (long[] mask : masks) {
+			assertEquals(PatternDetector.NO_MATCH, PatternDetector.find(mask, PatternDetector.ALL_PATTERNS));
+		}
+	}
+
+	@Test
+	public void findMatchesReferenceOnRandomMasks() {
+		Random random = new Random(7);
+		int[] patterns = { PatternDetector.ALL_PATTERNS, PatternDetector.EXTRA_TURN_PATTERNS,
+						   PatternDetector.FIVE_LINE, PatternDetector.L_SHAPE, PatternDetector.T_SHAPE };
+
+		for (int i = 0; i < 2000; i++) {
+			long[] mask = new long[10];
+			int tiles = 3 + random.nextInt(10);
+			int rows = 5 + random.nextInt(60);
+
+			// Tiles gathered in a small area, so that patterns are common.
+			int x0 = random.nextInt(6);
+			int y0 = random.nextInt(rows - 4);
+
+			for (int t = 0; t < tiles; t++) {
+				mask[x0 + random.nextInt(5)] |= 1L << (y0 + random.nextInt(5));
+			}
+
+			for (int p : patterns) {
+				int match = PatternDetector.find(mask, p);
+
+				assertEquals(referenceContains(mask, p), match != PatternDetector.NO_MATCH);
+				if (match != PatternDetector.NO_MATCH) {
+					assertNotEquals(0, PatternDetector.getPattern(match) & p);
+					assertTrue(has(mask, PatternDetector.getX(match), PatternDetector.getY(match)));
+				}
+			}
+		}
+	}
+}
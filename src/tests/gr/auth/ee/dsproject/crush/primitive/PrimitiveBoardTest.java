@@ -0,0 +1,331 @@
+package tests.gr.auth.ee.dsproject.crush.primitive;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.primitive.PrimitiveBoard;
+
+
+public class PrimitiveBoardTest {
+	Board moveBoard;
+
+	private Board createBoard(int[][] boardScheme) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+
+		Board board = new Board(rows);
+		Method setTile = null;
+
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, boardScheme[rows - y - 1][x], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return board;
+	}
+
+	/**
+	 * Creates a scheme of random colors, where no tiles crush before
+	 * a move is played.
+	 */
+	private int[][] createRandomScheme(int rows, long seed) {
+		Random random = new Random(seed);
+		int[][] colors = new int[rows][10];
+
+		// Scheme rows are given top to bottom, so runs are checked upwards.
+		for (int r = rows - 1; r >= 0; r--) {
+			for (int x = 0; x < 10; x++) {
+				int color;
+				do {
+					color = random.nextInt(7);
+				} while ((x >= 2 && colors[r][x - 1] == color && colors[r][x - 2] == color) ||
+						 (r <= rows - 3 && colors[r + 1][x] == color && colors[r + 2][x] == color));
+				colors[r][x] = color;
+			}
+		}
+
+		return colors;
+	}
+
+	private void assertSameTiles(Board expected, PrimitiveBoard actual) {
+		for (int x = 0; x < expected.getCols(); x++) {
+			for (int y = 0; y < expected.getRows(); y++) {
+				assertEquals("Tile (" + x + ", " + y + ")",
+							 expected.giveTileAt(x, y).getColor(), actual.getColor(x, y));
+			}
+		}
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		// Create a new 12 x 10 board, with 2 hidden rows.
+		int[][] moveBoardScheme = {
+				{ 5, 6, 5, 6, 5, 6, 5, 6, 5, 6 },
+				{ 6, 5, 6, 5, 6, 5, 6, 5, 6, 5 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 3, 5, 3, 0, 1, 2, 3, 4, 5 },
+		};
+
+		moveBoard = createBoard(moveBoardScheme);
+	}
+
+	@Test
+	public void testInvalidDimensions() {
+		try {
+			new PrimitiveBoard(10, 5, 10);
+			fail("Expected InvalidDimensionsRuntimeException");
+		} catch (PrimitiveBoard.InvalidDimensionsRuntimeException e) {}
+
+		try {
+			new PrimitiveBoard(0, 10, 10);
+			fail("Expected InvalidDimensionsRuntimeException");
+		} catch (PrimitiveBoard.InvalidDimensionsRuntimeException e) {}
+	}
+
+	@Test
+	public void testFromBoard() {
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(moveBoard);
+
+		assertEquals(10, board.getCols());
+		assertEquals(12, board.getRows());
+		assertEquals(10, board.getPRows());
+		assertSameTiles(moveBoard, board);
+
+		PrimitiveBoard partial = PrimitiveBoard.fromBoard(moveBoard, 10);
+		assertEquals(10, partial.getRows());
+		assertEquals(2, partial.getColor(2, 9));
+	}
+
+	@Test
+	public void testFindCrushMask() {
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(moveBoard);
+		long[] mask = new long[10];
+
+		assertEquals(0, board.findCrushMask(mask));
+
+		// Moving (3, 0) left creates a horizontal run of 3 at the bottom.
+		board.swap(3, 0, 2, 0);
+
+		assertEquals(3, board.findCrushMask(mask));
+		assertEquals(1L, mask[0]);
+		assertEquals(1L, mask[1]);
+		assertEquals(1L, mask[2]);
+		assertEquals(0L, mask[3]);
+
+		// UNKNOWN tiles should never be crushed.
+		PrimitiveBoard unknown = new PrimitiveBoard(10, 12, 10);
+		assertEquals(0, unknown.findCrushMask(mask));
+	}
+
+	@Test
+	public void testCrush() {
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(moveBoard);
+		long[] mask = new long[10];
+
+		// Crush tiles (0, 0) and (0, 2) of first column.
+		mask[0] = 0x5L;
+		board.crush(mask);
+
+		assertEquals(2, board.getColor(0, 0));
+		assertEquals(0, board.getColor(0, 1));
+		assertEquals(5, board.getColor(0, 2));
+		assertEquals(0, board.getColor(0, 7));
+		assertEquals(6, board.getColor(0, 8));
+		assertEquals(5, board.getColor(0, 9));
+		assertEquals(PrimitiveBoard.UNKNOWN, board.getColor(0, 10));
+		assertEquals(PrimitiveBoard.UNKNOWN, board.getColor(0, 11));
+
+		// Other columns should be left untouched.
+		assertEquals(3, board.getColor(1, 0));
+	}
+
+	@Test
+	public void testMakeAndUnmakeMove() {
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(moveBoard);
+		PrimitiveBoard original = new PrimitiveBoard(board);
+
+		assertEquals(3, board.makeMove(3, 0, PrimitiveBoard.LEFT));
+		assertEquals(1, board.getUndoDepth());
+		assertFalse(board.sameTiles(original));
+
+		board.unmakeMove();
+		assertEquals(0, board.getUndoDepth());
+		assertTrue(board.sameTiles(original));
+
+		try {
+			board.unmakeMove();
+			fail("Expected EmptyUndoStackRuntimeException");
+		} catch (PrimitiveBoard.EmptyUndoStackRuntimeException e) {}
+	}
+
+	@Test
+	public void testNestedMoves() {
+		int[][] scheme = createRandomScheme(40, 7);
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(createBoard(scheme));
+		PrimitiveBoard original = new PrimitiveBoard(board);
+		Random random = new Random(7);
+
+		// Play a line of random available moves and take them all back.
+		for (int i = 0; i < 8; i++) {
+			ArrayList<int[]> moves = new ArrayList<int[]>();
+
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 10; y++) {
+					for (int dir = 0; dir < 4; dir++) {
+						if (board.isAvailableMove(x, y, dir)) moves.add(new int[] {x, y, dir});
+					}
+				}
+			}
+
+			if (moves.isEmpty()) break;
+
+			int[] move = moves.get(random.nextInt(moves.size()));
+			board.makeMove(move[0], move[1], move[2]);
+		}
+
+		while (board.getUndoDepth() > 0) board.unmakeMove();
+
+		assertTrue(board.sameTiles(original));
+	}
+
+	@Test
+	public void testMatchesPlatformCascade() {
+		for (long seed = 0; seed < 20; seed++) {
+			Board source = createBoard(createRandomScheme(33, seed));
+			PrimitiveBoard board = PrimitiveBoard.fromBoard(source);
+			PrimitiveBoard original = new PrimitiveBoard(board);
+
+			for (int[] move : CrushUtilities.getAvailableMoves(source)) {
+				Board expected = CrushUtilities.boardAfterFullMove(source, move);
+
+				board.makeMove(move[0], move[1], move[2]);
+				assertSameTiles(expected, board);
+
+				board.unmakeMove();
+				assertTrue(board.sameTiles(original));
+			}
+		}
+	}
+
+	@Test
+	public void testAvailableMovesMatchPlatform() {
+		for (long seed = 0; seed < 20; seed++) {
+			Board source = createBoard(createRandomScheme(12, seed));
+			PrimitiveBoard board = PrimitiveBoard.fromBoard(source);
+
+			int count = 0;
+
+			for (int[] move : CrushUtilities.getAvailableMoves(source)) {
+				assertTrue(board.isAvailableMove(move[0], move[1], move[2]));
+			}
+
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 10; y++) {
+					for (int dir = 0; dir < 4; dir++) {
+						if (board.isAvailableMove(x, y, dir)) count++;
+					}
+				}
+			}
+
+			assertEquals(CrushUtilities.getAvailableMoves(source).size(), count);
+		}
+	}
+
+	@Test
+	public void testCopiesShareHiddenRows() {
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(createBoard(createRandomScheme(33, 5)));
+		PrimitiveBoard original = new PrimitiveBoard(board);
+		PrimitiveBoard copy = new PrimitiveBoard(board);
+		long[] mask = new long[10];
+
+		// Crushing a copy advances its own offsets only.
+		mask[4] = 0x7L;
+		copy.crush(mask);
+
+		assertEquals(board.getColor(4, 10), copy.getColor(4, 7));
+		assertEquals(board.getColor(4, 32), copy.getColor(4, 29));
+		assertEquals(PrimitiveBoard.UNKNOWN, copy.getColor(4, 30));
+		assertTrue(board.sameTiles(original));
+
+		// Setting a hidden tile of a copy leaves the others intact.
+		copy.setColor(4, 32, 3);
+		copy.setColor(5, 20, 6);
+
+		assertEquals(3, copy.getColor(4, 32));
+		assertEquals(6, copy.getColor(5, 20));
+		assertEquals(board.getColor(4, 31), copy.getColor(4, 28));
+		assertEquals(PrimitiveBoard.UNKNOWN, copy.getColor(4, 31));
+		assertTrue(board.sameTiles(original));
+	}
+
+	@Test
+	public void testCopyToChanged() {
+		Board source = createBoard(createRandomScheme(33, 9));
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(source);
+
+		for (int[] move : CrushUtilities.getAvailableMoves(source)) {
+			PrimitiveBoard played = new PrimitiveBoard(board);
+			long[] changed = new long[10];
+
+			played.makeMove(move[0], move[1], move[2]);
+
+			// Mark the swapped tiles, and whole columns that changed.
+			int[] cords = CrushUtilities.calculateNextMove(move);
+			changed[cords[0]] |= 1L << cords[1];
+			changed[cords[2]] |= 1L << cords[3];
+
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 10; y++) {
+					if (played.getColor(x, y) != board.getColor(x, y)) changed[x] = 0x3FFL;
+				}
+			}
+
+			Board copy = CrushUtilities.cloneBoard(source);
+			played.copyTo(copy, changed);
+
+			assertSameTiles(copy, played);
+		}
+	}
+
+	@Test
+	public void testCopyTo() {
+		PrimitiveBoard board = PrimitiveBoard.fromBoard(moveBoard);
+		board.makeMove(3, 0, PrimitiveBoard.LEFT);
+
+		Board copy = CrushUtilities.cloneBoard(moveBoard);
+		board.copyTo(copy);
+
+		assertSameTiles(copy, board);
+	}
+}
@@ -0,0 +1,133 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.search.MctsNode;
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+
+
+public class MctsNodeTest {
+
+	@Test
+	public void testExpand() {
+		MctsNode root = new MctsNode();
+		
+		assertNull(root.getParent());
+		assertEquals(TranspositionTable.NO_MOVE, root.getMove());
+		assertFalse(root.isExpanded());
+		assertEquals(0, root.getMovesCount());
+		
+		root.expand(new int[] { 5, 6, 7 });
+		assertTrue(root.isExpanded());
+		assertEquals(3, root.getMovesCount());
+		
+		// Only the first expansion counts.
+		root.expand(new int[] { 1 });
+		assertEquals(3, root.getMovesCount());
+		assertTrue(root.getChildren().isEmpty());
+	}
+	
+	@Test(expected = MctsNode.NotExpandedRuntimeException.class)
+	public void testSelectNotExpanded() {
+		new MctsNode().select(1.0, true);
+	}
+	
+	@Test(expected = MctsNode.NotExpandedRuntimeException.class)
+	public void testSelectTerminal() {
+		MctsNode root = new MctsNode();
+		root.expand(new int[0]);
+		
+		root.select(1.0, true);
+	}
+	
+	@Test
+	public void testProgressiveWidening() {
+		MctsNode root = new MctsNode();
+		root.expand(new int[] { 10, 20, 30, 40, 50, 60, 70, 80 });
+		
+		// An unvisited node considers its first move only.
+		MctsNode first = root.select(1.0, true);
+		assertEquals(10, first.getMove());
+		assertTrue(first.isMaximizing());
+		assertSame(root, first.getParent());
+		assertEquals(1, first.getVirtualLoss());
+		
+		first.update(0.5);
+		root.update(0.5);
+		assertEquals(0, first.getVirtualLoss());
+		assertEquals(1, first.getVisits());
+		assertEquals(0.5, first.getValue(), 0.0);
+		
+		// Moves are added in order, as visits grow.
+		MctsNode second = root.select(1.0, true);
+		assertEquals(20, second.getMove());
+		second.update(-0.5);
+		root.update(-0.5);
+		
+		assertEquals(2, root.getChildren().size());
+		
+		for (int i = 0; i < 20; i++) {
+			MctsNode child = root.select(1.0, true);
+			child.update(0.0);
+			root.update(0.0);
+		}
+		
+		// ceil(2.0 * sqrt(21)) = 10, so every move has been added.
+		assertEquals(8, root.getChildren().size());
+		assertEquals(22, root.getVisits());
+	}
+	
+	@Test
+	public void testUct() {
+		MctsNode root = new MctsNode();
+		root.expand(new int[] { 1, 2 });
+		
+		MctsNode good = root.select(1.0, true);
+		good.update(1.0);
+		root.update(1.0);
+		
+		MctsNode bad = root.select(1.0, true);
+		bad.update(-1.0);
+		root.update(-1.0);
+		
+		// Without exploration, the best child for the player to move is chosen.
+		assertSame(good, root.select(0.0, true));
+		good.update(1.0);
+		root.update(1.0);
+		
+		assertSame(bad, root.select(0.0, false));
+		bad.update(-1.0);
+		root.update(-1.0);
+		
+		assertSame(good, root.getMostVisitedChild());
+	}
+	
+	@Test
+	public void testVirtualLoss() {
+		MctsNode root = new MctsNode();
+		root.expand(new int[] { 1, 2 });
+		
+		MctsNode first = root.select(1.0, false);
+		first.update(-1.0);
+		root.update(-1.0);
+		
+		MctsNode second = root.select(1.0, false);
+		second.update(-1.0);
+		root.update(-1.0);
+		
+		// Both children are equal, so the one selected but not updated yet
+		// counts as worse and the other one is selected next.
+		MctsNode selected = root.select(0.0, false);
+		assertEquals(1, selected.getVirtualLoss());
+		
+		MctsNode other = root.select(0.0, false);
+		assertNotSame(selected, other);
+		
+		selected.update(-1.0);
+		other.update(-1.0);
+		assertEquals(0, selected.getVirtualLoss());
+		assertEquals(0, other.getVirtualLoss());
+	}
+}
@@ -0,0 +1,261 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.board.CrushUtilities;
+import gr.auth.ee.dsproject.crush.node.Node;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.primitive.CascadeSimulator;
+import gr.auth.ee.dsproject.crush.primitive.PackedMove;
+import gr.auth.ee.dsproject.crush.search.MoveOrdering;
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+
+
+public class MoveOrderingTest {
+	MoveOrdering ordering;
+	ArrayList<Node> children;
+
+	private Board createBoard(int[][] boardScheme) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+
+		Board board = new Board(rows);
+		Method setTile = null;
+
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, boardScheme[rows - y - 1][x], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return board;
+	}
+
+	private int crushes(Node child) {
+		return child.getCascadeResult().getTotalRemoved();
+	}
+
+	private int greatestCrush() {
+		int greatest = 0;
+		for (Node child : children) greatest = Math.max(greatest, crushes(child));
+		return greatest;
+	}
+
+	private int packed(Node child) {
+		return child.getPackedMove();
+	}
+
+	/**
+	 * Returns the child that is not a capture, after skipping the given
+	 * number of such children.
+	 */
+	private Node findQuiet(int skip) {
+		for (Node child : children) {
+			if (crushes(child) < MoveOrdering.CAPTURE_THRESHOLD && skip-- == 0) return child;
+		}
+		return null;
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		// Moving (2, 1) down forms a line of five at the bottom row.
+		int[][] boardScheme = {
+				{ 5, 6, 5, 6, 5, 6, 5, 6, 5, 6 },
+				{ 6, 5, 6, 5, 6, 5, 6, 5, 6, 5 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 3, 3, 4, 5, 6, 0, 1, 2 },
+				{ 3, 3, 2, 3, 3, 6, 0, 1, 2, 4 },
+		};
+
+		Board board = createBoard(boardScheme);
+		Node parent = new Node(null, board);
+		CascadeSimulator simulator = new CascadeSimulator(board);
+
+		children = new ArrayList<Node>();
+
+		for (int[] move : CrushUtilities.getAvailableMoves(board)) {
+			int[] cords = CrushUtilities.calculateNextMove(move);
+			PlayerMove playerMove = new PlayerMove(board.giveTileAt(cords[0], cords[1]),
+												   board.giveTileAt(cords[2], cords[3]));
+
+			children.add(new Node(parent, board, playerMove, simulator.simulate(move)));
+		}
+
+		ordering = new MoveOrdering();
+	}
+
+	@Test
+	public void testPackedMove() {
+		Node child = children.get(0);
+		int[] dirMove = child.getNodeMove().toDirArray();
+		int packed = child.getPackedMove();
+
+		assertEquals(dirMove[0], packed >>> 16);
+		assertEquals(dirMove[1], (packed >>> 8) & 0xFF);
+		assertEquals(dirMove[2], packed & 0xFF);
+		assertArrayEquals(dirMove, PackedMove.toDirArray(packed));
+	}
+
+	@Test
+	public void testCapturesFirst() {
+		ordering.order(children, 0, TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE);
+
+		assertEquals(greatestCrush(), crushes(children.get(0)));
+
+		boolean quietFound = false;
+
+		for (int i = 0; i < children.size(); i++) {
+			boolean capture = crushes(children.get(i)) >= MoveOrdering.CAPTURE_THRESHOLD;
+
+			if (!capture) quietFound = true;
+			else assertFalse(quietFound);
+
+			if (capture && i > 0) assertTrue(crushes(children.get(i - 1)) >= crushes(children.get(i)));
+		}
+	}
+
+	@Test
+	public void testPvAndTtMovesFirst() {
+		Node pv = findQuiet(0);
+		Node tt = findQuiet(1);
+
+		ordering.order(children, 0, packed(tt), packed(pv));
+
+		assertSame(pv, children.get(0));
+		assertSame(tt, children.get(1));
+		assertEquals(greatestCrush(), crushes(children.get(2)));
+	}
+
+	@Test
+	public void testKillerBeforeQuietMoves() {
+		Node killer = findQuiet(2);
+		Node quiet = findQuiet(0);
+
+		ordering.recordCutoff(killer, 3, 2, 1);
+
+		assertEquals(packed(killer), ordering.getKiller(3, 0));
+		assertEquals(TranspositionTable.NO_MOVE, ordering.getKiller(3, 1));
+		assertEquals(4, ordering.getHistory(packed(killer)));
+
+		ordering.order(children, 3, TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE);
+
+		int index = children.indexOf(killer);
+
+		assertTrue(crushes(children.get(index - 1)) >= MoveOrdering.CAPTURE_THRESHOLD);
+
+		// On a different ply, the move is ordered only by its history.
+		ordering.recordCutoff(quiet, 4, 1, 0);
+
+		assertEquals(1, ordering.getHistory(packed(quiet)));
+
+		ordering.order(children, 5, TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE);
+
+		index = children.indexOf(killer);
+
+		assertSame(quiet, children.get(index + 1));
+	}
+
+	@Test
+	public void testCapturesAreNoKillers() {
+		ordering.order(children, 0, TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE);
+		ordering.recordCutoff(children.get(0), 0, 1, 0);
+
+		assertEquals(TranspositionTable.NO_MOVE, ordering.getKiller(0, 0));
+		assertEquals(1, ordering.getHistory(packed(children.get(0))));
+	}
+
+	@Test
+	public void testStatistics() {
+		Node quiet = findQuiet(0);
+
+		assertEquals(0.0, ordering.getFirstMoveCutoffRate(), 0.001);
+
+		ordering.recordCutoff(quiet, 0, 1, 0);
+		ordering.recordCutoff(quiet, 0, 1, 0);
+		ordering.recordCutoff(quiet, 0, 1, 3);
+
+		assertEquals(3, ordering.getCutoffs());
+		assertEquals(2, ordering.getFirstMoveCutoffs());
+		assertEquals(2.0 / 3.0, ordering.getFirstMoveCutoffRate(), 0.001);
+
+		MoveOrdering other = new MoveOrdering();
+
+		other.copyTables(ordering);
+		other.recordCutoff(quiet, 0, 1, 0);
+		ordering.addStatistics(other);
+
+		assertEquals(packed(quiet), other.getKiller(0, 0));
+		assertEquals(4, other.getHistory(packed(quiet)));
+		assertEquals(4, ordering.getCutoffs());
+		assertEquals(3, ordering.getFirstMoveCutoffs());
+
+		ordering.clear();
+
+		assertEquals(0, ordering.getCutoffs());
+		assertEquals(0, ordering.getHistory(packed(quiet)));
+		assertEquals(TranspositionTable.NO_MOVE, ordering.getKiller(0, 0));
+	}
+
+	@Test
+	public void testPerturbation() {
+		assertEquals(0, ordering.getPerturbation());
+
+		ordering.order(children, 0, TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE);
+		ArrayList<Node> plain = new ArrayList<Node>(children);
+
+		boolean diverged = false;
+
+		for (int seed = 1; seed <= 8; seed++) {
+			ordering.setPerturbation(seed);
+			ordering.clear();
+
+			assertEquals(seed, ordering.getPerturbation());
+
+			ordering.order(children, 0, TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE);
+			ArrayList<Node> perturbed = new ArrayList<Node>(children);
+
+			// Captures still precede every quiet move.
+			assertEquals(greatestCrush(), crushes(children.get(0)));
+			boolean quiet = false;
+			for (Node child : children) {
+				boolean capture = crushes(child) >= MoveOrdering.CAPTURE_THRESHOLD;
+				assertFalse(quiet && capture);
+				quiet |= !capture;
+			}
+
+			// The same seed always gives the same order.
+			ordering.order(children, 0, TranspositionTable.NO_MOVE, TranspositionTable.NO_MOVE);
+			assertEquals(perturbed, children);
+
+			diverged |= !perturbed.equals(plain);
+		}
+
+		assertTrue(diverged);
+	}
+}
@@ -0,0 +1,181 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.search.RefillSampler;
+
+
+public class RefillSamplerTest {
+	Board board;
+
+	private Board createBoard(int[][] boardScheme) {
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+
+		Board board = new Board(rows);
+		Method setTile = null;
+
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, boardScheme[rows - y - 1][x], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		return board;
+	}
+
+	/**
+	 * Checks whether the tile at given cords is part of a run of three.
+	 */
+	private boolean isInRun(Board board, int x, int y) {
+		int color = board.giveTileAt(x, y).getColor();
+
+		int horizontal = 1;
+		for (int i = x - 1; i >= 0 && board.giveTileAt(i, y).getColor() == color; i--) horizontal++;
+		for (int i = x + 1; i < board.getCols() && board.giveTileAt(i, y).getColor() == color; i++) horizontal++;
+
+		int vertical = 1;
+		for (int i = y - 1; i >= 0 && board.giveTileAt(x, i).getColor() == color; i--) vertical++;
+		for (int i = y + 1; i < board.getPRows() && board.giveTileAt(x, i).getColor() == color; i++) vertical++;
+
+		return horizontal >= 3 || vertical >= 3;
+	}
+
+	@Before
+	public void setUp() throws Exception {
+		// The top three playable rows of the first columns, and everything
+		// above the playable rows, are unknown.
+		int[][] boardScheme = {
+				{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
+				{ -1, -1, -1, -1, -1, -1, -1, -1, -1, -1 },
+				{ -1, -1, -1, -1, 5, 6, 0, 1, 2, 3 },
+				{ -1, -1, -1, -1, 6, 0, 1, 2, 3, 4 },
+				{ -1, -1, -1, -1, 0, 1, 2, 3, 4, 5 },
+				{ 1, 1, 0, 0, 1, 2, 3, 4, 5, 6 },
+				{ 1, 1, 0, 0, 2, 3, 4, 5, 6, 0 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 6, 0, 1, 2, 3, 4, 5, 6, 0, 1 },
+		};
+
+		board = createBoard(boardScheme);
+	}
+
+	@Test
+	public void testHasUnknownTiles() {
+		assertTrue(RefillSampler.hasUnknownTiles(board));
+		assertFalse(RefillSampler.hasUnknownTiles(new RefillSampler(1).sample(board, 1L, 0)));
+	}
+
+	@Test
+	public void testSampleFillsPlayableRowsOnly() {
+		RefillSampler sampler = new RefillSampler(4);
+
+		for (int i = 0; i < sampler.getSamples(); i++) {
+			Board sampled = sampler.sample(board, 42L, i);
+
+			for (int x = 0; x < board.getCols(); x++) {
+				for (int y = 0; y < board.getPRows(); y++) {
+					int color = sampled.giveTileAt(x, y).getColor();
+
+					assertTrue(color >= 0 && color < 7);
+					assertFalse(isInRun(sampled, x, y));
+
+					// Known tiles should stay as they are.
+					if (board.giveTileAt(x, y).getColor() != -1) {
+						assertEquals(board.giveTileAt(x, y).getColor(), color);
+					}
+				}
+
+				assertEquals(-1, sampled.giveTileAt(x, board.getPRows()).getColor());
+			}
+		}
+
+		// Source board should never be modified.
+		assertEquals(-1, board.giveTileAt(0, 9).getColor());
+	}
+
+	@Test
+	public void testSamplesAreReproducible() {
+		RefillSampler sampler = new RefillSampler(2);
+
+		Board first = sampler.sample(board, 7L, 0);
+		Board again = sampler.sample(board, 7L, 0);
+		Board second = sampler.sample(board, 7L, 1);
+
+		boolean differs = false;
+
+		for (int x = 0; x < 4; x++) {
+			for (int y = 7; y < board.getPRows(); y++) {
+				assertEquals(first.giveTileAt(x, y).getColor(), again.giveTileAt(x, y).getColor());
+				if (first.giveTileAt(x, y).getColor() != second.giveTileAt(x, y).getColor()) differs = true;
+			}
+		}
+
+		assertTrue(differs);
+	}
+
+	@Test
+	public void testDistribution() {
+		// Only red and blue, so the sampler has to alternate them.
+		double[] distribution = { 0.0, 3.0, 1.0, 0.0, 0.0, 0.0, 0.0 };
+		RefillSampler sampler = new RefillSampler(1, distribution);
+
+		assertEquals(0.75, sampler.getProbability(1), 0.000001);
+		assertEquals(0.0, sampler.getProbability(0), 0.000001);
+
+		Board sampled = sampler.sample(board, 3L, 0);
+
+		for (int x = 0; x < 4; x++) {
+			for (int y = 7; y < board.getPRows(); y++) {
+				int color = sampled.giveTileAt(x, y).getColor();
+				assertTrue(color == 1 || color == 2);
+			}
+		}
+	}
+
+	@Test
+	public void testExceptions() {
+		try {
+			new RefillSampler(0);
+			fail("Expected InvalidSamplesRuntimeException");
+		} catch (RefillSampler.InvalidSamplesRuntimeException e) {}
+
+		try {
+			new RefillSampler(1, new double[] { 1.0, 1.0 });
+			fail("Expected InvalidDistributionRuntimeException");
+		} catch (RefillSampler.InvalidDistributionRuntimeException e) {}
+
+		try {
+			new RefillSampler(1, new double[] { 1.0, -1.0, 1.0, 1.0, 1.0, 1.0, 1.0 });
+			fail("Expected InvalidDistributionRuntimeException");
+		} catch (RefillSampler.InvalidDistributionRuntimeException e) {}
+
+		try {
+			new RefillSampler(1, new double[7]);
+			fail("Expected InvalidDistributionRuntimeException");
+		} catch (RefillSampler.InvalidDistributionRuntimeException e) {}
+	}
+}
@@ -0,0 +1,99 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.search.SearchContext;
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+
+
+public class SearchContextTest {
+	SearchContext context;
+	
+	@Before
+	public void setUp() throws Exception {
+		context = new SearchContext();
+	}
+	
+	@Test
+	public void testUpdatePrincipalVariation() {
+		// Simulate a line of 3 moves, recorded from the deepest ply up.
+		context.clearPrincipalVariation(0);
+		context.clearPrincipalVariation(1);
+		context.clearPrincipalVariation(2);
+		context.clearPrincipalVariation(3);
+		
+		context.updatePrincipalVariation(2, 30);
+		context.updatePrincipalVariation(1, 20);
+		context.updatePrincipalVariation(0, 10);
+		
+		assertEquals(3, context.getPrincipalVariationLength(0));
+		assertEquals(10, context.getPrincipalVariationMove(0, 0));
+		assertEquals(20, context.getPrincipalVariationMove(0, 1));
+		assertEquals(30, context.getPrincipalVariationMove(0, 2));
+		
+		int[] line = new int[SearchContext.MAX_PLY];
+		assertEquals(3, context.copyPrincipalVariation(line));
+		assertEquals(10, line[0]);
+		assertEquals(20, line[1]);
+		assertEquals(30, line[2]);
+		
+		// A cleared ply should not carry its old line to its parent.
+		context.clearPrincipalVariation(1);
+		context.updatePrincipalVariation(0, 11);
+		
+		assertEquals(1, context.getPrincipalVariationLength(0));
+		assertEquals(11, context.getPrincipalVariationMove(0, 0));
+	}
+	
+	@Test
+	public void testUpdateFromOtherContext() {
+		SearchContext child = new SearchContext();
+		
+		child.clearPrincipalVariation(2);
+		child.updatePrincipalVariation(1, 5);
+		
+		context.updatePrincipalVariation(0, 4, child);
+		
+		assertEquals(2, context.getPrincipalVariationLength(0));
+		assertEquals(4, context.getPrincipalVariationMove(0, 0));
+		assertEquals(5, context.getPrincipalVariationMove(0, 1));
+	}
+	
+	@Test
+	public void testPliesOutOfRange() {
+		context.clearPrincipalVariation(SearchContext.MAX_PLY);
+		context.updatePrincipalVariation(SearchContext.MAX_PLY, 1);
+		
+		assertEquals(0, context.getPrincipalVariationLength(SearchContext.MAX_PLY));
+	}
+	
+	@Test
+	public void testFollowingPv() {
+		assertFalse(context.isFollowingPv());
+		
+		context.setFollowingPv(true);
+		assertTrue(context.isFollowingPv());
+		
+		assertNotNull(context.getEntry());
+	}
+	
+	@Test
+	public void testRootAndAbort() {
+		context.setRootDepth(5);
+		context.setRootBound(TranspositionTable.LOWER_BOUND);
+		
+		assertEquals(5, context.getRootDepth());
+		assertEquals(TranspositionTable.LOWER_BOUND, context.getRootBound());
+		
+		assertFalse(context.isAborted());
+		
+		context.abort();
+		assertTrue(context.isAborted());
+		
+		context.resetAbort();
+		assertFalse(context.isAborted());
+	}
+}
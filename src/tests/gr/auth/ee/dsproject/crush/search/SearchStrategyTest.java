@@ -0,0 +1,254 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Tile;
+import gr.auth.ee.dsproject.crush.node.Node;
+import gr.auth.ee.dsproject.crush.player.move.PlayerMove;
+import gr.auth.ee.dsproject.crush.search.AlphaBetaStrategy;
+import gr.auth.ee.dsproject.crush.search.PrincipalVariationStrategy;
+import gr.auth.ee.dsproject.crush.search.SearchContext;
+import gr.auth.ee.dsproject.crush.search.SearchStrategy;
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+
+
+public class SearchStrategyTest {
+
+	/**
+	 * Searches trees built by createTree(), where leaves are the nodes
+	 * without children.
+	 */
+	private static class TreeSearcher implements SearchStrategy.ChildSearcher {
+		final SearchStrategy strategy;
+		int searches;
+
+		TreeSearcher(SearchStrategy strategy) { this.strategy = strategy; }
+
+		@Override
+		public double search(Node child, int depth, int ply, double min, double max,
+							 boolean maximizing, SearchContext ctx)
+		{
+			searches++;
+			ctx.clearPrincipalVariation(ply);
+
+			if (child.getChildren().isEmpty()) return child.getNodeEvaluation();
+
+			return child.getNodeEvaluation() +
+				   strategy.searchChildren(child, depth, ply, min, max, maximizing, false, ctx, this);
+		}
+
+		@Override
+		public double getRootBound(int ply, SearchContext ctx) { return -Double.MAX_VALUE; }
+	}
+
+	/**
+	 * Creates a random tree of the given depth, whose nodes are evaluated
+	 * with small integers, so sums of evaluations are exact.
+	 */
+	private Node createTree(Random random, Node parent, int x, int depth) {
+		PlayerMove move = new PlayerMove(new Tile(x, x, 0, 0, false), new Tile(x + 1, x + 1, 0, 0, false));
+		Node node = new Node(parent, null, move);
+		node.setNodeEvaluation(parent == null ? 0 : random.nextInt(21) - 10);
+
+		if (depth > 0) {
+			ArrayList<Node> children = new ArrayList<Node>();
+			int count = 1 + random.nextInt(5);
+
+			for (int i = 0; i < count; i++) children.add(createTree(random, node, i, depth - 1));
+
+			node.setChildren(children);
+		}
+
+		return node;
+	}
+
+	/**
+	 * Plain minimax on the cumulative values of the tree.
+	 */
+	private double minimax(Node node, boolean maximizing) {
+		if (node.getChildren().isEmpty()) return node.getNodeEvaluation();
+
+		double best = maximizing ? -Double.MAX_VALUE : Double.MAX_VALUE;
+
+		for (Node child : node.getChildren()) {
+			double value = minimax(child, !maximizing);
+			best = maximizing ? Math.max(best, value) : Math.min(best, value);
+		}
+
+		return node.getNodeEvaluation() + best;
+	}
+
+	/**
+	 * Sorts the children of every node of the given tree by their value,
+	 * best first for the side to move, and then swaps the first child of
+	 * one node out of four with a random one, as a good but imperfect move
+	 * ordering would.
+	 */
+	private void orderTree(Random random, Node node, final boolean maximizing) {
+		ArrayList<Node> children = node.getChildren();
+		for (Node child : children) orderTree(random, child, !maximizing);
+
+		Collections.sort(children, new Comparator<Node>() {
+			@Override
+			public int compare(Node a, Node b) {
+				int ascending = Double.compare(minimax(a, !maximizing), minimax(b, !maximizing));
+				return maximizing ? -ascending : ascending;
+			}
+		});
+
+		if (children.size() > 1 && random.nextInt(4) == 0) {
+			Collections.swap(children, 0, 1 + random.nextInt(children.size() - 1));
+		}
+	}
+
+	private double searchRoot(SearchStrategy strategy, Node root, SearchContext ctx) {
+		TreeSearcher searcher = new TreeSearcher(strategy);
+		ctx.clearPrincipalVariation(0);
+
+		return strategy.searchChildren(root, 5, 0, -Double.MAX_VALUE, Double.MAX_VALUE,
+									   true, false, ctx, searcher);
+	}
+
+	@Test
+	public void testAlphaBetaMatchesMinimax() {
+		Random random = new Random(3);
+
+		for (int i = 0; i < 200; i++) {
+			Node root = createTree(random, null, 0, 5);
+			SearchContext ctx = new SearchContext();
+
+			assertEquals(minimax(root, true), searchRoot(new AlphaBetaStrategy(), root, ctx), 0.0);
+			assertEquals(TranspositionTable.EXACT, ctx.getResultBound());
+		}
+	}
+
+	@Test
+	public void testPrincipalVariationMatchesMinimax() {
+		Random random = new Random(5);
+
+		for (int i = 0; i < 200; i++) {
+			Node root = createTree(random, null, 0, 5);
+			SearchContext ctx = new SearchContext();
+
+			assertEquals(minimax(root, true),
+						 searchRoot(new PrincipalVariationStrategy(), root, ctx), 0.0);
+			assertEquals(TranspositionTable.EXACT, ctx.getResultBound());
+		}
+	}
+
+	@Test
+	public void testSameBestMove() {
+		Random random = new Random(7);
+
+		for (int i = 0; i < 100; i++) {
+			Node root = createTree(random, null, 0, 4);
+			SearchContext alphaBeta = new SearchContext();
+			SearchContext pvs = new SearchContext();
+
+			double value = searchRoot(new AlphaBetaStrategy(), root, alphaBeta);
+			searchRoot(new PrincipalVariationStrategy(), root, pvs);
+
+			// Both should pick the first of the best children.
+			int move = pvs.getPrincipalVariationMove(0, 0);
+			assertEquals(alphaBeta.getPrincipalVariationMove(0, 0), move);
+
+			for (Node child : root.getChildren()) {
+				if (minimax(child, false) == value) {
+					assertEquals(child.getPackedMove(), move);
+					break;
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testAlphaBetaFailsLow() {
+		Random random = new Random(17);
+		AlphaBetaStrategy strategy = new AlphaBetaStrategy();
+
+		for (int i = 0; i < 200; i++) {
+			Node root = createTree(random, null, 0, 4);
+			double exact = minimax(root, true);
+			SearchContext ctx = new SearchContext();
+			TreeSearcher searcher = new TreeSearcher(strategy);
+
+			// A window above the real value fails low, with an upper bound.
+			double value = strategy.searchChildren(root, 4, 0, exact + 1, Double.MAX_VALUE, true, false,
+												   ctx, searcher);
+			assertEquals(TranspositionTable.UPPER_BOUND, ctx.getResultBound());
+			assertTrue(value <= exact + 1);
+			assertTrue(value >= exact);
+
+			// A window containing the real value still finds it exactly.
+			value = strategy.searchChildren(root, 4, 0, exact - 1, exact + 1, true, false,
+											ctx, searcher);
+			assertEquals(TranspositionTable.EXACT, ctx.getResultBound());
+			assertEquals(exact, value, 0.0);
+		}
+	}
+
+	@Test
+	public void testPrincipalVariationBounds() {
+		Random random = new Random(11);
+		PrincipalVariationStrategy strategy = new PrincipalVariationStrategy();
+
+		for (int i = 0; i < 200; i++) {
+			Node root = createTree(random, null, 0, 4);
+			double exact = minimax(root, true);
+			SearchContext ctx = new SearchContext();
+			TreeSearcher searcher = new TreeSearcher(strategy);
+
+			// A window above the real value fails low, with an upper bound.
+			double value = strategy.searchChildren(root, 4, 0, exact + 1, exact + 5, true, false,
+												   ctx, searcher);
+			assertEquals(TranspositionTable.UPPER_BOUND, ctx.getResultBound());
+			assertTrue(value <= exact + 1);
+			assertTrue(value >= exact);
+
+			// A window below the real value fails high, with a lower bound.
+			value = strategy.searchChildren(root, 4, 0, exact - 5, exact - 1, true, false,
+											ctx, searcher);
+			assertEquals(TranspositionTable.LOWER_BOUND, ctx.getResultBound());
+			assertTrue(value >= exact - 1);
+			assertTrue(value <= exact);
+		}
+	}
+
+	@Test
+	public void testPrincipalVariationSearchesLess() {
+		Random random = new Random(13);
+		long alphaBetaSearches = 0;
+		long pvsSearches = 0;
+		long researches = 0;
+
+		for (int i = 0; i < 100; i++) {
+			Node root = createTree(random, null, 0, 6);
+			orderTree(random, root, true);
+
+			TreeSearcher alphaBeta = new TreeSearcher(new AlphaBetaStrategy());
+			root.setNodeEvaluation(0);
+			alphaBeta.strategy.searchChildren(root, 6, 0, -Double.MAX_VALUE, Double.MAX_VALUE,
+											  true, false, new SearchContext(), alphaBeta);
+
+			SearchContext ctx = new SearchContext();
+			TreeSearcher pvs = new TreeSearcher(new PrincipalVariationStrategy());
+			pvs.strategy.searchChildren(root, 6, 0, -Double.MAX_VALUE, Double.MAX_VALUE,
+										true, false, ctx, pvs);
+
+			alphaBetaSearches += alphaBeta.searches;
+			pvsSearches += pvs.searches;
+			researches += ctx.getStatistics().getResearches();
+		}
+
+		// With a good ordering, null windows more than pay for re-searches.
+		assertTrue(researches > 0);
+		assertTrue(pvsSearches < alphaBetaSearches);
+	}
+}
@@ -0,0 +1,54 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.search.SharedBound;
+
+
+public class SharedBoundTest {
+
+	@Test
+	public void testRaise() {
+		SharedBound bound = new SharedBound(-Double.MAX_VALUE);
+		
+		assertEquals(-Double.MAX_VALUE, bound.get(), 0.0);
+		
+		assertTrue(bound.raise(2.5));
+		assertEquals(2.5, bound.get(), 0.0);
+		
+		// Lower or equal values should never lower the bound.
+		assertFalse(bound.raise(1.0));
+		assertFalse(bound.raise(2.5));
+		assertEquals(2.5, bound.get(), 0.0);
+		
+		assertTrue(bound.raise(9.0));
+		assertEquals(9.0, bound.get(), 0.0);
+	}
+	
+	@Test
+	public void testConcurrentRaise() throws InterruptedException {
+		final SharedBound bound = new SharedBound(0.0);
+		ArrayList<Thread> threads = new ArrayList<Thread>();
+		
+		for (int t = 0; t < 4; t++) {
+			final int offset = t;
+			
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < 10000; i++) bound.raise(i * 4 + offset);
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		
+		for (Thread thread : threads) thread.join();
+		
+		assertEquals(9999 * 4 + 3, bound.get(), 0.0);
+	}
+}
@@ -0,0 +1,176 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.search.TranspositionTable;
+
+
+public class TranspositionTableTest {
+	TranspositionTable table;
+	TranspositionTable.Entry entry;
+	
+	@Before
+	public void setUp() throws Exception {
+		table = new TranspositionTable(4);
+		entry = new TranspositionTable.Entry();
+	}
+	
+	@Test
+	public void testInvalidSizeException() {
+		boolean ex = false;
+		
+		try {
+			new TranspositionTable(0);
+		} catch (TranspositionTable.InvalidSizeRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void testCapacity() {
+		assertEquals(32, table.getCapacity());
+	}
+	
+	@Test
+	public void testProbeOnEmptyTable() {
+		assertFalse(table.probe(12345L, entry));
+		assertEquals(1, table.getProbes());
+		assertEquals(0, table.getHits());
+	}
+	
+	@Test
+	public void testStoreAndProbe() {
+		table.store(12345L, 3, 42.5, TranspositionTable.LOWER_BOUND, 77);
+		
+		assertTrue(table.probe(12345L, entry));
+		assertEquals(12345L, entry.getKey());
+		assertEquals(42.5, entry.getValue(), 0.001);
+		assertEquals(3, entry.getDepth());
+		assertEquals(TranspositionTable.LOWER_BOUND, entry.getBound());
+		assertEquals(77, entry.getMove());
+		assertEquals(1.0, table.getHitRate(), 0.001);
+	}
+	
+	@Test
+	public void testShallowerStateGoesToAlwaysReplaceEntry() {
+		// Both keys map to the same bucket.
+		long deep = 1L;
+		long shallow = 1L + (1L << 40);
+		
+		table.store(deep, 5, 10.0, TranspositionTable.EXACT, 1);
+		table.store(shallow, 2, 20.0, TranspositionTable.EXACT, 2);
+		
+		assertTrue(table.probe(deep, entry));
+		assertEquals(10.0, entry.getValue(), 0.001);
+		assertTrue(table.probe(shallow, entry));
+		assertEquals(20.0, entry.getValue(), 0.001);
+	}
+	
+	@Test
+	public void testAlwaysReplaceEntryIsReplaced() {
+		long deep = 1L;
+		long shallow1 = 1L + (1L << 40);
+		long shallow2 = 1L + (2L << 40);
+		
+		table.store(deep, 5, 10.0, TranspositionTable.EXACT, 1);
+		table.store(shallow1, 2, 20.0, TranspositionTable.EXACT, 2);
+		table.store(shallow2, 1, 30.0, TranspositionTable.EXACT, 3);
+		
+		assertTrue(table.probe(deep, entry));
+		assertFalse(table.probe(shallow1, entry));
+		assertTrue(table.probe(shallow2, entry));
+		assertEquals(30.0, entry.getValue(), 0.001);
+	}
+	
+	@Test
+	public void testDeeperStateReplacesDepthPreferredEntry() {
+		long first = 1L;
+		long second = 1L + (1L << 40);
+		
+		table.store(first, 2, 10.0, TranspositionTable.EXACT, 1);
+		table.store(second, 4, 20.0, TranspositionTable.EXACT, 2);
+		
+		assertFalse(table.probe(first, entry));
+		assertTrue(table.probe(second, entry));
+		assertEquals(4, entry.getDepth());
+	}
+	
+	@Test
+	public void testNewSearchMakesEntriesReplaceable() {
+		long deep = 1L;
+		long shallow = 1L + (1L << 40);
+		
+		table.store(deep, 5, 10.0, TranspositionTable.EXACT, 1);
+		table.newSearch();
+		
+		// Entries of previous searches can still be found.
+		assertTrue(table.probe(deep, entry));
+		
+		table.store(shallow, 1, 20.0, TranspositionTable.EXACT, 2);
+		
+		assertFalse(table.probe(deep, entry));
+		assertTrue(table.probe(shallow, entry));
+	}
+	
+	@Test
+	public void testClear() {
+		table.store(12345L, 3, 42.5, TranspositionTable.EXACT, 77);
+		table.clear();
+		
+		assertFalse(table.probe(12345L, entry));
+		assertEquals(0, table.getStores());
+	}
+	
+	@Test
+	public void testNegativeValueAndNoMove() {
+		table.store(99L, 2, -17.25, TranspositionTable.UPPER_BOUND, TranspositionTable.NO_MOVE);
+		
+		assertTrue(table.probe(99L, entry));
+		assertEquals(-17.25, entry.getValue(), 0.0);
+		assertEquals(TranspositionTable.NO_MOVE, entry.getMove());
+		assertEquals(TranspositionTable.UPPER_BOUND, entry.getBound());
+	}
+	
+	@Test
+	public void testConcurrentStoresAreNeverTorn() throws InterruptedException {
+		// All keys map to the same bucket, so writers keep overwriting the
+		// same two entries, while every found entry must be one stored whole.
+		final TranspositionTable shared = new TranspositionTable(1);
+		final boolean[] torn = new boolean[1];
+		Thread[] threads = new Thread[4];
+		
+		for (int t = 0; t < threads.length; t++) {
+			final int id = t;
+			
+			threads[t] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					TranspositionTable.Entry found = new TranspositionTable.Entry();
+					
+					for (int i = 0; i < 200000; i++) {
+						long key = ((long) (i % 64) << 32) | (id << 1);
+						
+						shared.store(key, i % 100, (double) key, TranspositionTable.EXACT, (int) (key >>> 32));
+						
+						long other = ((long) ((i + 7) % 64) << 32) | (((id + 1) % 4) << 1);
+						
+						if (shared.probe(other, found) &&
+							(found.getValue() != (double) other || found.getMove() != (int) (other >>> 32))) {
+							torn[0] = true;
+						}
+					}
+				}
+			});
+			threads[t].start();
+		}
+		
+		for (Thread thread : threads) thread.join();
+		
+		assertFalse(torn[0]);
+	}
+}
@@ -0,0 +1,127 @@
+package tests.gr.auth.ee.dsproject.crush.search;
+
+import static org.junit.Assert.*;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.board.Board;
+import gr.auth.ee.dsproject.crush.search.ZobristHasher;
+
+
+public class ZobristHasherTest {
+	Board noMoveBoard;
+	ZobristHasher hasher;
+	
+	private Board createBoard(int[][] boardScheme) {		
+		int rows = boardScheme.length;
+		int cols = boardScheme[0].length;
+		
+		Board board = new Board(rows);
+		Method setTile = null;
+				
+		try {
+			setTile = board.getClass().getDeclaredMethod(
+					"setTile", int.class, int.class, int.class, int.class, boolean.class
+			);
+			setTile.setAccessible(true);
+		} catch (NoSuchMethodException | SecurityException e) {
+			e.printStackTrace();
+		}
+		
+		for (int y = 0; y < rows; y++) {
+			for (int x = 0; x < cols; x++) {
+				try {
+					setTile.invoke(board, y * 10 + x, x, y, boardScheme[rows - y - 1][x], false);
+				} catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+		
+		return board;
+	}
+	
+	@Before
+	public void setUp() throws Exception {
+		// Create a new 10 x 10 no move board.
+		int[][] noMoveBoardScheme = {
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 },
+				{ 4, 5, 6, 0, 1, 2, 3, 4, 5, 6 },
+				{ 5, 6, 0, 1, 2, 3, 4, 5, 6, 0 },
+				{ 0, 1, 2, 3, 4, 5, 6, 0, 1, 2 },
+				{ 1, 2, 3, 4, 5, 6, 0, 1, 2, 3 },
+				{ 2, 3, 4, 5, 6, 0, 1, 2, 3, 4 },
+				{ 3, 4, 5, 6, 0, 1, 2, 3, 4, 5 }, 
+		};
+		
+		noMoveBoard = createBoard(noMoveBoardScheme);
+		hasher = new ZobristHasher(10, 10);
+	}
+	
+	@Test
+	public void testSameBoardsHaveSameHash() {
+		Board copy = gr.auth.ee.dsproject.crush.board.CrushUtilities.cloneBoard(noMoveBoard);
+		
+		assertEquals(hasher.hashBoard(noMoveBoard), hasher.hashBoard(copy));
+	}
+	
+	@Test
+	public void testSameSeedGivesSameKeys() {
+		ZobristHasher other = new ZobristHasher(10, 10);
+		
+		assertEquals(hasher.hashBoard(noMoveBoard), other.hashBoard(noMoveBoard));
+		assertEquals(hasher.depthKey(3), other.depthKey(3));
+	}
+	
+	@Test
+	public void testHashIsIncremental() {
+		long before = hasher.hashBoard(noMoveBoard);
+		
+		// Change the color of a single tile.
+		noMoveBoard.giveTileAt(4, 2).setColor(-1);
+		
+		long expected = before ^ hasher.tileKey(4, 2, 5) ^ hasher.tileKey(4, 2, -1);
+		
+		assertEquals(expected, hasher.hashBoard(noMoveBoard));
+	}
+	
+	@Test
+	public void testSwappedTilesChangeHash() {
+		long before = hasher.hashBoard(noMoveBoard);
+		
+		noMoveBoard.giveTileAt(0, 0).setColor(4);
+		noMoveBoard.giveTileAt(1, 0).setColor(3);
+		
+		assertNotEquals(before, hasher.hashBoard(noMoveBoard));
+	}
+	
+	@Test
+	public void testDepthAndSideChangeHash() {
+		long base = hasher.hash(noMoveBoard, 2, true, false);
+		
+		assertNotEquals(base, hasher.hash(noMoveBoard, 3, true, false));
+		assertNotEquals(base, hasher.hash(noMoveBoard, 2, false, false));
+		assertNotEquals(base, hasher.hash(noMoveBoard, 2, true, true));
+		assertEquals(base, hasher.hash(noMoveBoard, 2, true, false));
+	}
+	
+	@Test
+	public void testInvalidColorException() {
+		boolean ex = false;
+		
+		try {
+			hasher.tileKey(0, 0, 9);
+		} catch (ZobristHasher.InvalidColorRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+}
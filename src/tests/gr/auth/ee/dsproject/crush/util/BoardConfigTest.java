@@ -0,0 +1,158 @@
+package tests.gr.auth.ee.dsproject.crush.util;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import gr.auth.ee.dsproject.crush.util.BoardConfig;
+
+
+public class BoardConfigTest {
+	Properties properties;
+
+	@Before
+	public void setUp() throws Exception {
+		properties = new Properties();
+		properties.setProperty("numOfRows", "150");
+		properties.setProperty("waitingTime", " 2500 ");
+		properties.setProperty("scoreLimit", "not a number");
+		properties.setProperty("teamname", "team");
+	}
+
+	@Test
+	public void testDefaults() {
+		BoardConfig config = new BoardConfig();
+
+		assertEquals(BoardConfig.DEFAULT_NUM_OF_ROWS, config.getNumOfRows());
+		assertEquals(BoardConfig.DEFAULT_WAITING_TIME, config.getWaitingTime());
+		assertEquals(BoardConfig.DEFAULT_SCORE_LIMIT, config.getScoreLimit());
+		assertEquals("none", config.getString("teamname", "none"));
+	}
+
+	@Test
+	public void testGetters() {
+		BoardConfig config = new BoardConfig(properties);
+
+		assertEquals(150, config.getNumOfRows());
+		assertEquals(2500, config.getWaitingTime());
+		assertEquals("team", config.getString("teamname", "none"));
+
+		// Invalid values should fall back to defaults.
+		assertEquals(BoardConfig.DEFAULT_SCORE_LIMIT, config.getScoreLimit());
+		assertEquals(7, config.getInt("teamname", 7));
+		assertEquals(7L, config.getLong("teamname", 7L));
+	}
+
+	@Test
+	public void testSearchThreads() {
+		int processors = Runtime.getRuntime().availableProcessors();
+
+		assertEquals(processors, new BoardConfig().getSearchThreads());
+
+		properties.setProperty("searchThreads", "0");
+		assertEquals(processors, new BoardConfig(properties).getSearchThreads());
+
+		properties.setProperty("searchThreads", "16");
+		assertEquals(16, new BoardConfig(properties).getSearchThreads());
+	}
+
+	@Test
+	public void testChanceSamples() {
+		assertEquals(0, new BoardConfig().getChanceSamples());
+
+		properties.setProperty("chanceSamples", "-2");
+		assertEquals(0, new BoardConfig(properties).getChanceSamples());
+
+		properties.setProperty("chanceSamples", "6");
+		assertEquals(6, new BoardConfig(properties).getChanceSamples());
+	}
+
+	@Test
+	public void testMetrics() {
+		assertNull(new BoardConfig().getMetricsLog());
+		assertFalse(new BoardConfig().isMetricsJfr());
+
+		properties.setProperty("metricsLog", " ");
+		properties.setProperty("metricsJfr", "yes");
+		assertNull(new BoardConfig(properties).getMetricsLog());
+		assertFalse(new BoardConfig(properties).isMetricsJfr());
+
+		properties.setProperty("metricsLog", "search.log");
+		properties.setProperty("metricsJfr", "TRUE");
+		assertEquals("search.log", new BoardConfig(properties).getMetricsLog());
+		assertTrue(new BoardConfig(properties).isMetricsJfr());
+	}
+
+	@Test
+	public void testAspirationWindow() {
+		assertEquals(0.0, new BoardConfig().getAspirationWindow(), 0.0);
+
+		properties.setProperty("aspirationWindow", "-4");
+		assertEquals(0.0, new BoardConfig(properties).getAspirationWindow(), 0.0);
+
+		properties.setProperty("aspirationWindow", "NaN");
+		assertEquals(0.0, new BoardConfig(properties).getAspirationWindow(), 0.0);
+
+		properties.setProperty("aspirationWindow", "12.5");
+		assertEquals(12.5, new BoardConfig(properties).getAspirationWindow(), 0.0);
+		assertEquals(2.5, new BoardConfig(properties).getDouble("teamname", 2.5), 0.0);
+	}
+
+	@Test
+	public void testPonderBudget() {
+		assertEquals(0, new BoardConfig().getPonderTime());
+		assertEquals(BoardConfig.DEFAULT_PONDER_NODES, new BoardConfig().getPonderNodes());
+
+		properties.setProperty("ponderTime", "-100");
+		properties.setProperty("ponderNodes", "0");
+		assertEquals(0, new BoardConfig(properties).getPonderTime());
+		assertEquals(BoardConfig.DEFAULT_PONDER_NODES, new BoardConfig(properties).getPonderNodes());
+
+		properties.setProperty("ponderTime", "1500");
+		properties.setProperty("ponderNodes", "50000");
+		assertEquals(1500, new BoardConfig(properties).getPonderTime());
+		assertEquals(50000, new BoardConfig(properties).getPonderNodes());
+	}
+
+	@Test
+	public void testLazySmp() {
+		assertFalse(new BoardConfig().isLazySmp());
+
+		properties.setProperty("lazySmp", "on");
+		assertFalse(new BoardConfig(properties).isLazySmp());
+
+		properties.setProperty("lazySmp", "true");
+		assertTrue(new BoardConfig(properties).isLazySmp());
+	}
+
+	@Test
+	public void testLoad() throws IOException {
+		File file = File.createTempFile("boardConfig", ".properties");
+		file.deleteOnExit();
+
+		try (FileWriter writer = new FileWriter(file)) {
+			writer.write("numOfRows=120\nwaitingTime=3000\nscoreLimit=300\n");
+		}
+
+		BoardConfig config = BoardConfig.load(file.getPath());
+
+		assertEquals(120, config.getNumOfRows());
+		assertEquals(3000, config.getWaitingTime());
+		assertEquals(300, config.getScoreLimit());
+	}
+
+	@Test
+	public void testLoadMissingFile() {
+		BoardConfig config = BoardConfig.load("no/such/boardConfig.properties");
+
+		assertEquals(BoardConfig.DEFAULT_NUM_OF_ROWS, config.getNumOfRows());
+		assertEquals(BoardConfig.DEFAULT_WAITING_TIME, config.getWaitingTime());
+		assertEquals(BoardConfig.DEFAULT_SCORE_LIMIT, config.getScoreLimit());
+	}
+}
@@ -492,6 +492,186 @@ public class BoardUtilsTest {
 		assertTrue(allAdjacent.contains(board.giveTileAt(6, 7)));
 	}
 	
+	/**
+	 * The map based implementation findTilesThatCrush() had before it
+	 * was replaced by an array based one, kept as a reference.
+	 */
+	private Set<Tile> referenceFindTilesThatCrush(Set<Tile> possibleAdjacentTiles) {
+		Set<Tile> crushTiles = new HashSet<>();
+		
+		Map<Integer, ArrayList<Map<Integer, ArrayList<Tile>>>> categorizedTiles = new HashMap<>();
+		
+		for (Tile t : possibleAdjacentTiles) {
+			ArrayList<Map<Integer, ArrayList<Tile>>> byColor = categorizedTiles.get(t.getColor());
+			
+			if (byColor == null) {
+				byColor = new ArrayList<>();
+				byColor.add(new HashMap<Integer, ArrayList<Tile>>());
+				byColor.add(new HashMap<Integer, ArrayList<Tile>>());
+				categorizedTiles.put(t.getColor(), byColor);
+			}
+			
+			ArrayList<Tile> byX = byColor.get(0).get(t.getX());
+			if (byX == null) {
+				byX = new ArrayList<>();
+				byColor.get(0).put(t.getX(), byX);
+			}
+			
+			ArrayList<Tile> byY = byColor.get(1).get(t.getY());
+			if (byY == null) {
+				byY = new ArrayList<>();
+				byColor.get(1).put(t.getY(), byY);
+			}
+			
+			byX.add(t);
+			byY.add(t);
+		}
+		
+		categorizedTiles.remove(-1);
+		
+		for (ArrayList<Map<Integer, ArrayList<Tile>>> byColor : categorizedTiles.values()) {
+			for (Map<Integer, ArrayList<Tile>> byCrushAxis : byColor) {
+				for (ArrayList<Tile> byAxisValue : byCrushAxis.values()) {
+					if (byAxisValue.size() > 2) crushTiles.addAll(byAxisValue);
+				}
+			}
+		}
+		
+		return crushTiles;
+	}
+	
+	/**
+	 * Creates a scheme of random colors, unknown ones included. Few colors
+	 * are used, so that long runs are common.
+	 */
+	private int[][] createRandomScheme(int rows, Random random) {
+		int[][] scheme = new int[rows][10];
+		
+		for (int r = 0; r < rows; r++) {
+			for (int x = 0; x < 10; x++) scheme[r][x] = random.nextInt(5) - 1;
+		}
+		
+		return scheme;
+	}
+	
+	@Test
+	public void findTilesThatCrushMatchesReferenceOnMoves() {
+		Random random = new Random(7);
+		
+		for (int i = 0; i < 200; i++) {
+			Board board = createBoard(createRandomScheme(12, random));
+			
+			// Adjacent tiles of both tiles of a random swap, as collected by
+			// CandiesRemovedHeuristic.
+			int x = random.nextInt(9);
+			int y = random.nextInt(11);
+			boolean horizontal = random.nextBoolean();
+			
+			Tile[] swapped = {
+					board.giveTileAt(x, y),
+					horizontal ? board.giveTileAt(x + 1, y) : board.giveTileAt(x, y + 1)
+			};
+			
+			Set<Tile> allAdjacent = new HashSet<>();
+			
+			for (Tile t : swapped) {
+				allAdjacent.addAll(BoardUtils.findAdjacentSameColorTiles(board, t, 2));
+				allAdjacent.add(t);
+			}
+			
+			assertEquals(referenceFindTilesThatCrush(allAdjacent), 
+						 BoardUtils.findTilesThatCrush(allAdjacent));
+		}
+	}
+	
+	@Test
+	public void findTilesThatCrushMatchesReferenceOnAnyTiles() {
+		Random random = new Random(11);
+		
+		for (int i = 0; i < 200; i++) {
+			Board board = createBoard(createRandomScheme(40, random));
+			
+			// Any tiles, not just adjacent ones, in a window of random size.
+			int width = 1 + random.nextInt(10);
+			int height = 1 + random.nextInt(40);
+			int count = random.nextInt(30);
+			
+			Set<Tile> tiles = new HashSet<>();
+			
+			for (int j = 0; j < count; j++) {
+				tiles.add(board.giveTileAt(random.nextInt(width), random.nextInt(height)));
+			}
+			
+			assertEquals(referenceFindTilesThatCrush(tiles), BoardUtils.findTilesThatCrush(tiles));
+		}
+	}
+	
+	@Test
+	public void testCountInDirectionSameColorTilesInvalidDirectionException() {
+		boolean ex = false;
+		
+		try {
+			BoardUtils.countInDirectionSameColorTiles(noMoveBoard, 0, 0, 1821, 3);
+		} catch (BoardUtils.InvalidDirectionsRuntimeException e) {
+			ex = true;
+		}
+		
+		assertTrue(ex);
+	}
+	
+	@Test
+	public void countSameColorTilesMatchesSets() {
+		Random random = new Random(13);
+		int[] directions = { CrushUtilities.LEFT, CrushUtilities.DOWN, 
+							 CrushUtilities.RIGHT, CrushUtilities.UP };
+		int[] counts = new int[4];
+		
+		for (int i = 0; i < 50; i++) {
+			Board board = createBoard(createRandomScheme(12, random));
+			int max = 1 + random.nextInt(4);
+			
+			for (int y = 0; y < 12; y++) {
+				for (int x = 0; x < 10; x++) {
+					Tile t = board.giveTileAt(x, y);
+					
+					for (int dir : directions) {
+						assertEquals(
+								BoardUtils.findInDirectionSameColorTiles(board, t, dir, max).size(),
+								BoardUtils.countInDirectionSameColorTiles(board, x, y, dir, max)
+						);
+					}
+					
+					int total = BoardUtils.countAdjacentSameColorTiles(board, x, y, max, counts);
+					
+					assertEquals(BoardUtils.findAdjacentSameColorTiles(board, t, max).size(), total);
+					assertEquals(total, counts[0] + counts[1] + counts[2] + counts[3]);
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void collectAdjacentSameColorTilesMatchesSet() {
+		Random random = new Random(17);
+		Tile[] buffer = new Tile[1 + 4 * 2];
+		
+		for (int i = 0; i < 50; i++) {
+			Board board = createBoard(createRandomScheme(12, random));
+			
+			for (int y = 0; y < 12; y++) {
+				for (int x = 0; x < 10; x++) {
+					Tile t = board.giveTileAt(x, y);
+					
+					int end = BoardUtils.collectAdjacentSameColorTiles(board, t, 2, buffer, 1);
+					Set<Tile> collected = new HashSet<>(Arrays.asList(buffer).subList(1, end));
+					
+					assertEquals(end - 1, collected.size());
+					assertEquals(BoardUtils.findAdjacentSameColorTiles(board, t, 2), collected);
+				}
+			}
+		}
+	}
+	
 	@Test
 	public void testFindAllNPlesException() {
 		boolean ex = false;